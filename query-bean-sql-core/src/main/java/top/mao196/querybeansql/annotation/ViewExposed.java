@@ -1,6 +1,7 @@
 package top.mao196.querybeansql.annotation;
 
 import org.springframework.core.annotation.AliasFor;
+import top.mao196.querybeansql.placeholder.PlaceholderMode;
 
 import java.lang.annotation.*;
 
@@ -40,4 +41,35 @@ public @interface ViewExposed {
      * @return sql
      */
     String sql();
+
+    /**
+     * sql 中 ${} 占位符的渲染方式，BIND 时参数值以命名参数绑定，不同的值共用同一条 SQL
+     * @return placeholder mode
+     */
+    PlaceholderMode placeholderMode() default PlaceholderMode.INLINE;
+
+    /**
+     * 是否把过滤条件、排序、分页和查询列下推到视图 SQL 内部，而不是包在派生表外层
+     * 只对单个 SELECT 且查询列都是列引用的视图生效，其他视图仍使用派生表
+     * @return pushdown
+     */
+    boolean pushdown() default false;
+
+    /**
+     * 游标分页时追加在排序末尾的唯一字段（类中的字段名），保证排序结果唯一，为空时视图不支持游标分页
+     * @return tie breaker
+     */
+    String tieBreaker() default "";
+
+    /**
+     * 流式查询的 JDBC fetchSize，0 使用 query-bean.streamFetchSize，-1 表示逐行流式读取（MySQL 的 Integer.MIN_VALUE 模式）
+     * @return fetch size
+     */
+    int fetchSize() default 0;
+
+    /**
+     * search 结果的缓存时间（秒），0 表示不缓存；缓存期间数据的变化不可见，可以通过 DELETE /rest/view/{viewName}/cache 清除
+     * @return cache ttl
+     */
+    int cacheTtl() default 0;
 }
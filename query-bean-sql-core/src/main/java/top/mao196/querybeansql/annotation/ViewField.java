@@ -26,4 +26,28 @@ public @interface ViewField {
      * @return name
      */
     String columnName() default "";
+
+    /**
+     * 取值种类很少的字符串字段，例如状态；format=rows / columns 时以字典编码输出
+     * @return low cardinality
+     */
+    boolean lowCardinality() default false;
+
+    /**
+     * 关联的视图名称，字段的值对应关联视图中 relationKey 字段的值；请求中通过 include 一并返回关联视图的行
+     * @return relation view
+     */
+    String relationView() default "";
+
+    /**
+     * 关联视图中与该字段对应的字段名
+     * @return relation key
+     */
+    String relationKey() default "id";
+
+    /**
+     * 关联的名称，即 include 中使用的名称，为空时取关联视图名称
+     * @return relation name
+     */
+    String relationName() default "";
 }
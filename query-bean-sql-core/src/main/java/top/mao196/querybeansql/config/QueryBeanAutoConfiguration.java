@@ -1,9 +1,19 @@
 package top.mao196.querybeansql.config;
 
+import cn.hutool.core.util.ArrayUtil;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import top.mao196.querybeansql.core.ExposedViewRegistry;
+import top.mao196.querybeansql.core.JsonEncodings;
+import top.mao196.querybeansql.dialect.Dialect;
+import top.mao196.querybeansql.dialect.Dialects;
+
+import javax.sql.DataSource;
 
 /**
  * @author maoju
@@ -13,8 +23,40 @@ import top.mao196.querybeansql.core.ExposedViewRegistry;
 @ConditionalOnProperty(prefix = "query-bean", name = "enable", havingValue = "true", matchIfMissing = true)
 public class QueryBeanAutoConfiguration {
 
+    /**
+     * 数据库方言，优先使用 query-bean.dialect，否则根据数据源元数据识别
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public Dialect queryBeanDialect(QueryBeanConfig queryBeanConfig, ObjectProvider<DataSource> dataSource) {
+        return Dialects.resolve(queryBeanConfig.getDialect(), dataSource.getIfAvailable());
+    }
+
+    /**
+     * Smile 请求和响应，替换 Spring MVC 默认注册的转换器，与 JSON 使用相同的 ObjectMapper 配置
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MappingJackson2SmileHttpMessageConverter queryBeanSmileHttpMessageConverter(JsonEncodings jsonEncodings) {
+        return new MappingJackson2SmileHttpMessageConverter(jsonEncodings.getSmile());
+    }
+
+    /**
+     * CBOR 请求和响应，替换 Spring MVC 默认注册的转换器，与 JSON 使用相同的 ObjectMapper 配置
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MappingJackson2CborHttpMessageConverter queryBeanCborHttpMessageConverter(JsonEncodings jsonEncodings) {
+        return new MappingJackson2CborHttpMessageConverter(jsonEncodings.getCbor());
+    }
+
     @Bean
-    public ExposedViewRegistry exposedViewRegistry(){
-        return new ExposedViewRegistry();
+    public ExposedViewRegistry exposedViewRegistry(QueryBeanConfig queryBeanConfig){
+        ExposedViewRegistry registry = new ExposedViewRegistry();
+        if (ArrayUtil.isNotEmpty(queryBeanConfig.getBasePackage())) {
+            registry.setBasePackage(queryBeanConfig.getBasePackage());
+        }
+        registry.setIgnoreIndex(queryBeanConfig.isIgnoreIndex());
+        return registry;
     }
 }
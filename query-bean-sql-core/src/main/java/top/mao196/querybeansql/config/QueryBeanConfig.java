@@ -18,12 +18,160 @@ public class QueryBeanConfig {
     private boolean enable = true;
 
     /**
-     * 注解扫描的包
+     * 注解扫描的包，存在视图索引时也会扫描这些包下没有索引的目录和 jar
      */
     private String[] basePackage;
 
+    /**
+     * 是否忽略编译期生成的视图索引，忽略时总是扫描 basePackage
+     */
+    private boolean ignoreIndex = false;
+
     /**
      * search接口返回数据最大行数
      */
     private int maxLimit = 10000;
+
+    /**
+     * 查询计划缓存的最大条数，按请求形状缓存编译好的 SQL，0 表示不缓存
+     */
+    private int planCacheSize = 1024;
+
+    /**
+     * 生成 SQL 前是否优化条件树：展开嵌套的条件组、合并同一字段的条件、化简恒真恒假的分支并统一条件顺序
+     */
+    private boolean optimizeFilter = true;
+
+    /**
+     * IN / NOT_IN 的参数列表是否补齐到 2 的幂长度，补齐后同一条件最多只会展开成 log2(n) 种 SQL
+     */
+    private boolean inListPadding = true;
+
+    /**
+     * IN / NOT_IN 的值超过该数量时以数组参数绑定（= ANY / <> ALL），0 表示不使用数组参数
+     * 只适用于支持数组参数的数据库，例如 PostgreSQL、H2
+     */
+    private int inListArrayThreshold = 0;
+
+    /**
+     * 数据库方言：mysql、postgresql、h2、oracle、sqlserver，为空时根据数据源自动识别
+     */
+    private String dialect;
+
+    /**
+     * CACHED 模式下 count 结果的缓存时间（秒），即允许的最大滞后
+     */
+    private int countCacheSeconds = 60;
+
+    /**
+     * CACHED 模式下最多缓存的 count 结果条数
+     */
+    private int countCacheSize = 1024;
+
+    /**
+     * 是否让 count 查询与数据查询并行执行
+     */
+    private boolean parallelCount = true;
+
+    /**
+     * 同时执行的 count 查询最多数量，0 表示取连接池最大连接数的一半（无法识别连接池时为 4）
+     */
+    private int queryThreads = 0;
+
+    /**
+     * count 查询是否使用虚拟线程，需要 Java 21 及以上，否则退回平台线程
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * search 请求的查询超时（毫秒），数据查询与 count 查询共用，0 表示不限制
+     */
+    private int queryTimeout = 0;
+
+    /**
+     * 流式查询（/search/stream）返回数据最大行数，不受 maxLimit 限制
+     */
+    private int streamMaxLimit = 1_000_000;
+
+    /**
+     * 流式查询的最长时间（毫秒），包括执行查询和写出响应，超时后取消查询并中断响应，0 表示不限制
+     */
+    private int streamTimeout = 600_000;
+
+    /**
+     * 流式查询的 JDBC fetchSize，视图可以用 @ViewExposed(fetchSize) 覆盖；0 表示由方言决定，-1 表示逐行流式读取
+     */
+    private int streamFetchSize = 0;
+
+    /**
+     * search 结果缓存的容量（字节，按结果估算），只缓存声明了 @ViewExposed(cacheTtl) 的视图，0 表示不缓存
+     */
+    private long resultCacheBytes = 64L * 1024 * 1024;
+
+    /**
+     * 是否合并同时进行的相同 search 查询，SQL 与参数相同的请求只访问一次数据库并共用结果
+     */
+    private boolean coalesceQueries = true;
+
+    /**
+     * 序列化后的 search 响应在堆外缓存的容量（字节），只缓存声明了 @ViewExposed(cacheTtl) 的视图，0 表示不使用堆外缓存
+     */
+    private long responseCacheBytes = 0;
+
+    /**
+     * 堆外缓存的块大小（字节），一个响应占用若干个块，取 512 到 1MB 之间的 2 的幂
+     */
+    private int responseCacheBlockSize = 8192;
+
+    /**
+     * 堆外缓存的响应是否以 gzip 压缩保存，开启后只有 Accept-Encoding 包含 gzip 的请求使用堆外缓存
+     */
+    private boolean responseCacheCompress = false;
+
+    /**
+     * 是否用缓存中完整的 search 结果回答条件更窄的请求，在内存中过滤、排序和分页，只对声明了 @ViewExposed(cacheTtl) 的视图生效
+     */
+    private boolean semanticCache = false;
+
+    /**
+     * 语义缓存是否在内存中按二进制、区分大小写比较字符串（等值、LIKE 条件和排序）。
+     * 关闭时只有与缓存结果的条件相同的字符串条件可以使用缓存，其余改为查询数据库；
+     * 只有数据库的排序规则同样按二进制比较时才能开启（例如 MySQL 的 utf8mb4_bin、PostgreSQL 的 C 排序规则）
+     */
+    private boolean semanticCacheBinaryCollation = false;
+
+    /**
+     * 批量查询（/rest/view/_batch）最多包含的查询数
+     */
+    private int batchMaxSize = 50;
+
+    /**
+     * 一个批量查询同时执行的查询数上限，即一个批量查询最多同时占用的连接数，请求中的 concurrency 可以进一步减少
+     */
+    private int batchConcurrency = 4;
+
+    /**
+     * 所有批量查询共用的线程数，0 表示取连接池最大连接数的一半（无法识别连接池时为 4）；线程已满时由请求线程依次执行
+     */
+    private int batchThreads = 0;
+
+    /**
+     * 批量查询中视图和查询 SQL 相同、只有参数值不同的查询是否合并为一条 UNION ALL 查询，需要数据库支持窗口函数
+     */
+    private boolean batchMerge = true;
+
+    /**
+     * include 中关联的最大层数，例如 user.orders 为 2 层
+     */
+    private int includeMaxDepth = 2;
+
+    /**
+     * 一页数据中一个关联最多的不同关联值个数，即关联查询 IN 列表的最大长度，超过时请求失败
+     */
+    private int includeMaxKeys = 500;
+
+    /**
+     * 一个关联最多返回的行数，超过时请求失败
+     */
+    private int includeMaxRows = 1000;
 }
@@ -1,19 +1,32 @@
 package top.mao196.querybeansql.controller;
 
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.lang.Dict;
-import cn.hutool.core.util.BooleanUtil;
-import cn.hutool.core.util.StrUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import top.mao196.querybeansql.config.QueryBeanConfig;
 import top.mao196.querybeansql.core.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author maoju
@@ -26,55 +39,351 @@ import java.util.*;
 @Slf4j
 public class ViewController {
 
-    private final ExposedViewRegistry exposedViewRegistry;
+    /**
+     * 流式查询的异步请求超时比截止时间多出的时间，超时由查询自己取消
+     */
+    private static final long ASYNC_TIMEOUT_MARGIN_MILLIS = 5_000;
 
     private final RequestParse requestParse;
 
-    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final QueryExecutor queryExecutor;
 
+    private final ObjectMapper objectMapper;
 
+    private final QueryBeanConfig queryBeanConfig;
+
+    private final StreamExecutor streamExecutor;
+
+    private final JsonEncodings jsonEncodings;
+
+    private final ResultCache resultCache;
+
+    private final QueryCoalescer queryCoalescer;
+
+    private final OffHeapResponseCache offHeapResponseCache;
+
+    private final SemanticCache semanticCache;
+
+    private final ViewSearchService viewSearchService;
+
+    private final BatchSearchService batchSearchService;
+
+
+    /**
+     * 开启堆外缓存时，缓存的视图命中后直接写出序列化好的响应，返回 null；请求了 include 时不使用堆外缓存
+     */
     @PostMapping("/{viewName}/search")
-    public <T> ResponseEntity<SearchResult<T>> searchViewPost(@PathVariable("viewName") String viewName, @RequestBody SearchEntitiesRequestDTO requestDTO) {
-        // 验证视图名称格式，防止 SQL 注入和路径遍历
-        if (!viewName.matches("^[a-zA-Z0-9_]+$")) {
-            throw new QueryBeanSqlException("Invalid view name: " + viewName);
+    public <T> ResponseEntity<SearchResult<T>> searchViewPost(@PathVariable("viewName") String viewName, @RequestBody SearchEntitiesRequestDTO requestDTO,
+                                                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ViewDescriptor viewDescriptor = viewSearchService.findDescriptor(viewName);
+        RequestParseResult result = requestParse.parse(requestDTO, viewDescriptor);
+
+        CountMode countMode = ViewSearchService.countMode(requestDTO);
+        ResultCache.Key cacheKey = resultCache.key(viewDescriptor, result, countMode);
+        long deadline = queryExecutor.deadline(requestDTO.getTimeout());
+        JsonEncodings.Encoding encoding = null;
+        OffHeapResponseCache.Key responseKey = null;
+        if (cacheKey != null && offHeapResponseCache.isEnabled() && CollUtil.isEmpty(requestDTO.getInclude())) {
+            encoding = jsonEncodings.negotiate(request, MediaType.APPLICATION_JSON);
+            responseKey = offHeapResponseCache.key(cacheKey, encoding.mediaType(), request);
+            if (responseKey != null && offHeapResponseCache.writeTo(responseKey, response)) {
+                return null;
+            }
+        }
+        if (cacheKey != null) {
+            SearchResult<T> cached = resultCache.get(cacheKey);
+            if (cached != null) {
+                return writeResponse(viewDescriptor, cacheKey, encoding, responseKey, viewSearchService.include(viewDescriptor, requestDTO, cached, deadline), response);
+            }
+            // 由缓存中条件更宽的完整结果推导，推导出的结果不再缓存，避免超过原结果的有效期
+            SearchResult<T> derived = semanticCache.answer(viewDescriptor, requestDTO, result, countMode);
+            if (derived != null) {
+                return ResponseEntity.ok(viewSearchService.include(viewDescriptor, requestDTO, derived, deadline));
+            }
         }
 
-        ViewDescriptor viewDescriptor = exposedViewRegistry.findDescriptor(viewName);
+        SearchResult<T> searchResult = viewSearchService.load(viewDescriptor, requestDTO, result, countMode, cacheKey, deadline, true);
+        return writeResponse(viewDescriptor, cacheKey, encoding, responseKey, viewSearchService.include(viewDescriptor, requestDTO, searchResult, deadline), response);
+    }
+
+    /**
+     * 批量查询：按请求中的顺序返回每个查询的结果，一个查询失败只填写它自己的 error。
+     * 最多同时执行 query-bean.batchConcurrency 个查询，每个查询的 count 在同一线程上执行，同时占用的连接数不超过同时执行的查询数；
+     * 视图和查询 SQL 相同、只有参数值不同的查询合并为一条查询执行
+     */
+    @PostMapping("/_batch")
+    public ResponseEntity<BatchSearchResult> batchSearch(@RequestBody BatchSearchRequestDTO batchRequest) {
+        return ResponseEntity.ok(batchSearchService.search(batchRequest));
+    }
 
-        if (viewDescriptor == null){
-            throw new QueryBeanSqlException(String.format("view with name: %s cannot be found", viewName));
+    /**
+     * 有堆外缓存键时把结果序列化后放入堆外缓存并直接写出，否则交给 HttpMessageConverter
+     */
+    private <T> ResponseEntity<SearchResult<T>> writeResponse(ViewDescriptor viewDescriptor, ResultCache.Key cacheKey, JsonEncodings.Encoding encoding,
+                                                              OffHeapResponseCache.Key responseKey, SearchResult<T> searchResult,
+                                                              HttpServletResponse response) throws IOException {
+        if (responseKey == null) {
+            return ResponseEntity.ok(searchResult);
         }
+        byte[] body = encoding.objectMapper().writeValueAsBytes(searchResult);
+        offHeapResponseCache.putAndWrite(responseKey, body, resultCache.expiresAfterNanos(viewDescriptor, cacheKey), response);
+        return null;
+    }
+
+    /**
+     * 清除视图缓存的 search 结果
+     */
+    @DeleteMapping("/{viewName}/cache")
+    public ResponseEntity<Object> invalidateCache(@PathVariable("viewName") String viewName) {
+        ViewDescriptor viewDescriptor = viewSearchService.findDescriptor(viewName);
+        semanticCache.invalidate(viewDescriptor.getName());
+        return ResponseEntity.ok(Dict.of("view", viewDescriptor.getName(),
+                "invalidated", resultCache.invalidate(viewDescriptor.getName()),
+                "invalidatedResponses", offHeapResponseCache.invalidate(viewDescriptor.getName())));
+    }
+
+    /**
+     * search 结果缓存的命中、未命中和淘汰统计
+     */
+    @GetMapping("/_cache/stats")
+    public ResponseEntity<ResultCache.Stats> cacheStats() {
+        return ResponseEntity.ok(resultCache.stats());
+    }
+
+    /**
+     * 堆外响应缓存的命中、未命中、淘汰统计和内存占用
+     */
+    @GetMapping("/_cache/offheap/stats")
+    public ResponseEntity<OffHeapResponseCache.Stats> offHeapCacheStats() {
+        return ResponseEntity.ok(offHeapResponseCache.stats());
+    }
+
+    /**
+     * 语义缓存的统计：由缓存的完整结果推导出结果的次数
+     */
+    @GetMapping("/_cache/semantic/stats")
+    public ResponseEntity<SemanticCache.Stats> semanticCacheStats() {
+        return ResponseEntity.ok(semanticCache.stats());
+    }
+
+    /**
+     * 相同查询合并的统计：实际执行和省去的查询次数
+     */
+    @GetMapping("/_coalesce/stats")
+    public ResponseEntity<QueryCoalescer.Stats> coalesceStats() {
+        return ResponseEntity.ok(queryCoalescer.stats());
+    }
+
+    /**
+     * 与 search 返回相同结构的 JSON，但数据行从 ResultSet 直接写入响应，不创建视图对象，内存占用与每页行数无关；
+     * 响应开始发送后查询失败只能中断连接，客户端会收到不完整的 JSON
+     */
+    @PostMapping(value = "/{viewName}/search", params = {"stream=true", "!format"},
+            produces = {MediaType.APPLICATION_JSON_VALUE, JsonEncodings.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public void searchViewStream(@PathVariable("viewName") String viewName, @RequestBody SearchEntitiesRequestDTO requestDTO,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        writeSearch(viewName, requestDTO, null, request, response);
+    }
 
+    /**
+     * 列式响应（format=rows / columns），只输出查询列，数据行同样从 ResultSet 直接写入响应，结构见 {@link ResultFormat}
+     */
+    @PostMapping(value = "/{viewName}/search", params = "format",
+            produces = {MediaType.APPLICATION_JSON_VALUE, JsonEncodings.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public void searchViewColumnar(@PathVariable("viewName") String viewName, @RequestParam("format") String format,
+                                   @RequestBody SearchEntitiesRequestDTO requestDTO, HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        writeSearch(viewName, requestDTO, ResultFormat.of(format), request, response);
+    }
+
+    /**
+     * 查询并按 Accept 选择的编码把结果直接写入响应，format 为 null 时与 search 返回相同的结构
+     */
+    private void writeSearch(String viewName, SearchEntitiesRequestDTO requestDTO, ResultFormat format,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ViewDescriptor viewDescriptor = viewSearchService.findDescriptor(viewName);
+        rejectInclude(requestDTO);
         RequestParseResult result = requestParse.parse(requestDTO, viewDescriptor);
-        Dict buildSqlParam = Dict.of("column", result.getColumn(),
-                "where", result.getWhere(),
-                "order", result.getOrder(),
-                "limit", result.getLimit(),
-                "viewSql", result.getViewSql());
-
-        String querySqlTemplate = "SELECT {column} FROM ({viewSql}) _tmp {where} {order} {limit}";
-        String formatQuerySql = StrUtil.format(querySqlTemplate, buildSqlParam, false);
-        log.info("query view sql: [{}], param: [{}]", formatQuerySql, result.getParams());
-        List<T> dataList = loadDataList(formatQuerySql, viewDescriptor, result.getParams());
-        SearchResult<T> objectSearchResult = new SearchResult<>();
-        objectSearchResult.setDataList(dataList);
-        if (BooleanUtil.isTrue(requestDTO.getReturnCount())) {
-            String countSqlTemplate = "SELECT count(*) FROM ({viewSql}) _tmp {where}";
-            String formatCountSql = StrUtil.format(countSqlTemplate, buildSqlParam, false);
-            log.debug("query view count sql: [{}], param: [{}]", formatCountSql, result.getParams());
-            objectSearchResult.setCount(getCount(formatCountSql, result.getParams()));
+
+        SearchResult<Void> summary = new SearchResult<>();
+        CountMode countMode = ViewSearchService.countMode(requestDTO);
+        long deadline = queryExecutor.deadline(requestDTO.getTimeout());
+        QueryExecutor.QueryTask<Long> countTask = viewSearchService.submitCount(countMode, deadline, result, summary, true);
+
+        String formatQuerySql = result.getQuerySql();
+        log.info("stream view sql: [{}], param: [{}]", formatQuerySql, result.getParams());
+        JsonRowWriter rowWriter = JsonRowWriter.of(viewDescriptor, result.getProperties(), objectMapper);
+        ColumnarWriter columnarWriter = format == null ? null : ColumnarWriter.of(viewDescriptor, result.getProperties(), rowWriter, format);
+        RowSink sink = columnarWriter == null ? rowWriter::write : columnarWriter::write;
+        JsonEncodings.Encoding encoding = jsonEncodings.negotiate(request, MediaType.APPLICATION_JSON);
+        response.setContentType(encoding.mediaType().toString());
+        if (!encoding.binary()) {
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        try (JsonGenerator generator = encoding.objectMapper().getFactory().createGenerator(response.getOutputStream())) {
+            encoding.objectMapper().getSerializationConfig().initialize(generator);
+            // 查询中途失败时不能自动补全括号，否则截断的结果看起来是完整的
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartObject();
+            if (columnarWriter == null) {
+                generator.writeArrayFieldStart("dataList");
+            } else {
+                columnarWriter.writeStart(generator);
+            }
+            StreamedRows rows;
+            try {
+                rows = queryExecutor.call(deadline, () -> queryExecutor.getJdbcTemplate().query(formatQuerySql, result.getParams(),
+                        (ResultSetExtractor<StreamedRows>) rs -> streamRows(rs, result, rowWriter, sink, generator)));
+            } catch (RuntimeException e) {
+                if (countTask != null) {
+                    countTask.cancel();
+                }
+                throw e;
+            }
+            if (columnarWriter == null) {
+                generator.writeEndArray();
+            } else {
+                columnarWriter.writeEnd(generator);
+            }
+
+            if (result.getPageSize() != null) {
+                summary.setHasMore(rows.hasMore);
+                if (rows.hasMore && result.getKeysetProperties() != null) {
+                    summary.setNextCursor(KeysetCursor.next(result, rows.lastKeys));
+                }
+            }
+            if (countTask != null) {
+                summary.setCount(countTask.join());
+            } else if (countMode == CountMode.WINDOW) {
+                summary.setCount(queryExecutor.call(deadline, () -> viewSearchService.windowCount(result, rows.total, rows.count == 0)));
+            }
+            // 字段顺序与 SearchResult 一致
+            generator.writeObjectField("count", summary.getCount());
+            generator.writeObjectField("countEstimated", summary.getCountEstimated());
+            generator.writeObjectField("hasMore", summary.getHasMore());
+            generator.writeObjectField("nextCursor", summary.getNextCursor());
+            generator.writeObjectField("included", summary.getIncluded());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * 以 NDJSON 返回查询结果，每行一个视图对象，行数上限为 query-bean.streamMaxLimit 而不是 maxLimit；
+     * Accept 为 Smile 或 CBOR 时输出连续的二进制值，不以换行分隔。
+     * 不返回总行数和游标，响应开始发送后查询失败或超时只能中断连接
+     */
+    @PostMapping(value = "/{viewName}/search/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, JsonEncodings.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<StreamingResponseBody> searchViewNdjson(@PathVariable("viewName") String viewName, @RequestBody SearchEntitiesRequestDTO requestDTO,
+                                                                  HttpServletRequest request) {
+        ViewDescriptor viewDescriptor = viewSearchService.findDescriptor(viewName);
+        rejectInclude(requestDTO);
+        RequestParseResult result = requestParse.parse(requestDTO, viewDescriptor, queryBeanConfig.getStreamMaxLimit());
+        JsonRowWriter rowWriter = JsonRowWriter.of(viewDescriptor, result.getProperties(), objectMapper);
+        long deadline = streamExecutor.deadline(requestDTO.getTimeout());
+        asyncTimeout(request, deadline);
+
+        String formatQuerySql = result.getQuerySql();
+        log.info("stream view sql: [{}], param: [{}]", formatQuerySql, result.getParams());
+        // 游标分页和 HAS_MORE 多取的一行不写出
+        long maxRows = result.getPageSize() == null ? Long.MAX_VALUE : result.getPageSize();
+        JsonEncodings.Encoding encoding = jsonEncodings.negotiate(request, MediaType.APPLICATION_NDJSON);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = encoding.objectMapper().getFactory().createGenerator(outputStream)) {
+                encoding.objectMapper().getSerializationConfig().initialize(generator);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                if (!encoding.binary()) {
+                    generator.setRootValueSeparator(null);
+                }
+                long rows = streamExecutor.query(formatQuerySql, result.getParams(), viewDescriptor.getFetchSize(), deadline, new StreamExecutor.RowHandler() {
+                    private long count;
+
+                    @Override
+                    public boolean handle(ResultSet rs) throws SQLException, IOException {
+                        if (count++ == maxRows) {
+                            return false;
+                        }
+                        rowWriter.write(rs, generator);
+                        if (!encoding.binary()) {
+                            generator.writeRaw('\n');
+                        }
+                        return true;
+                    }
+                });
+                log.debug("streamed {} rows of view {}", rows, viewName);
+            }
+        };
+        return ResponseEntity.ok().contentType(encoding.mediaType()).body(body);
+    }
+
+    /**
+     * 异步请求的超时晚于截止时间，没有截止时间时不超时
+     */
+    private static void asyncTimeout(HttpServletRequest request, long deadline) {
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(deadline == 0 ? -1L
+                    : TimeUnit.NANOSECONDS.toMillis(Math.max(deadline - System.nanoTime(), 0)) + ASYNC_TIMEOUT_MARGIN_MILLIS);
         }
-        return ResponseEntity.ok(objectSearchResult);
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> List<T> loadDataList(String sql, ViewDescriptor viewDescriptor, Map<String, Object> params) {
-        return (List<T>) namedParameterJdbcTemplate.query(sql, params, new BeanPropertyRowMapper<>(viewDescriptor.getViewClass()));
+    /**
+     * 流式查询逐行写出，不保留数据行，无法加载关联视图
+     */
+    private static void rejectInclude(SearchEntitiesRequestDTO requestDTO) {
+        if (CollUtil.isNotEmpty(requestDTO.getInclude())) {
+            throw new QueryBeanSqlException("include is not supported by streamed search");
+        }
+    }
+
+    /**
+     * 逐行写入 JSON，游标分页和 HAS_MORE 多取的一行不写入
+     */
+    private static StreamedRows streamRows(ResultSet rs, RequestParseResult result, JsonRowWriter rowWriter, RowSink sink,
+                                           JsonGenerator generator) throws SQLException {
+        StreamedRows rows = new StreamedRows();
+        int pageSize = result.getPageSize() == null ? Integer.MAX_VALUE : result.getPageSize();
+        try {
+            while (rs.next()) {
+                if (rows.count == pageSize) {
+                    rows.hasMore = true;
+                    break;
+                }
+                if (result.isWindowCount() && rows.total == null) {
+                    rows.total = rs.getLong(RequestParse.WINDOW_COUNT_COLUMN);
+                }
+                if (result.getKeysetProperties() != null && rows.count == pageSize - 1) {
+                    rows.lastKeys = rowWriter.read(rs, result.getKeysetProperties());
+                }
+                sink.write(rs, generator);
+                rows.count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
     }
 
-    private Long getCount(String sql, Map<String, Object> params) {
-        return namedParameterJdbcTemplate.queryForObject(sql, params, Long.class);
+    /**
+     * 把当前行写入响应
+     */
+    @FunctionalInterface
+    private interface RowSink {
+        void write(ResultSet rs, JsonGenerator generator) throws SQLException, IOException;
+    }
+
+    /**
+     * 流式写出的行数、是否还有下一页以及生成游标用的最后一行排序字段值
+     */
+    private static class StreamedRows {
+
+        private int count;
+
+        private boolean hasMore;
+
+        private Long total;
+
+        private Map<String, Object> lastKeys;
     }
 
 
@@ -12,12 +12,15 @@ import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.core.type.filter.TypeFilter;
 import org.springframework.lang.NonNull;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.PathMatcher;
 
 import java.io.IOException;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  *
@@ -92,7 +95,17 @@ public abstract class AbstractObjectRegistry implements InitializingBean, Enviro
     }
 
     protected void refreshExposedObjects() {
-        this.candidateClasses = new LinkedHashSet<>();
+        this.candidateClasses = scanCandidateClasses(resource -> true);
+    }
+
+    /**
+     * 扫描基础包下满足 {@link #getTypeFilter()} 的类
+     *
+     * @param resourceFilter 只读取满足条件的 class 文件
+     * @return 类名
+     */
+    protected Set<String> scanCandidateClasses(Predicate<Resource> resourceFilter) {
+        Set<String> candidates = new LinkedHashSet<>();
         for (String basePackage : basePackageArray) {
             try {
                 String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
@@ -100,17 +113,37 @@ public abstract class AbstractObjectRegistry implements InitializingBean, Enviro
                 Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
                 TypeFilter filter = getTypeFilter();
                 for (Resource resource : resources) {
+                    if (!resourceFilter.test(resource)) {
+                        continue;
+                    }
                     MetadataReader reader = getMetadataReaderFactory().getMetadataReader(resource);
                     if (filter.match(reader, getMetadataReaderFactory())) {
                         log.info(reader.getAnnotationMetadata().getClassName());
-                        this.candidateClasses.add(reader.getAnnotationMetadata().getClassName());
+                        candidates.add(reader.getAnnotationMetadata().getClassName());
                     }
                 }
             } catch (IOException ex) {
                 throw new RuntimeException("I/O failure during classpath scanning", ex);
             }
         }
+        return candidates;
+    }
 
+    /**
+     * 判断类是否位于扫描的基础包下，用于过滤不经过扫描得到的候选类
+     *
+     * @param className 类名
+     * @return 是否位于基础包下
+     */
+    protected boolean isInBasePackages(String className) {
+        PathMatcher pathMatcher = new AntPathMatcher();
+        String classPath = ClassUtils.convertClassNameToResourcePath(className);
+        for (String basePackage : basePackageArray) {
+            if (pathMatcher.match(resolveBasePackage(basePackage) + "/**", classPath)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -0,0 +1,132 @@
+package top.mao196.querybeansql.core;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * 批量查询执行器
+ * <p>
+ * 一个批量查询最多同时执行 query-bean.batchConcurrency 个查询：请求线程自己执行，另外向共用的有界线程池借用线程，
+ * 每个线程依次领取下一个未执行的查询，同时占用的连接数不超过同时执行的查询数。线程池已满时借不到线程，
+ * 剩余的查询由请求线程依次执行，不会排队等待；处于事务中时全部在请求线程上执行
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+public class BatchExecutor implements DisposableBean {
+
+    private final int maxSize;
+
+    private final int maxConcurrency;
+
+    private final ExecutorService executor;
+
+    private final Semaphore permits;
+
+    @Autowired
+    public BatchExecutor(QueryBeanConfig queryBeanConfig, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this(queryBeanConfig.getBatchMaxSize(), queryBeanConfig.getBatchConcurrency(), queryBeanConfig.getBatchThreads() > 0
+                ? queryBeanConfig.getBatchThreads()
+                : QueryExecutor.defaultThreads(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource()));
+    }
+
+    BatchExecutor(int maxSize, int maxConcurrency, int threads) {
+        this.maxSize = maxSize;
+        this.maxConcurrency = Math.max(maxConcurrency, 1);
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "query-bean-batch-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+        this.permits = new Semaphore(threads);
+    }
+
+    /**
+     * 执行 size 个任务，返回时全部任务都已结束；任务自己处理异常，一个任务抛出异常时其余任务仍会执行，异常在全部结束后抛出
+     *
+     * @param size        任务数
+     * @param concurrency 请求的同时执行数，为 null 或超过 query-bean.batchConcurrency 时取 batchConcurrency
+     * @param task        按下标执行一个任务
+     */
+    public void run(int size, Integer concurrency, IntConsumer task) {
+        if (size > maxSize) {
+            throw new QueryBeanSqlException(String.format("Batch contains %d searches, the maximum is %d", size, maxSize));
+        }
+        AtomicInteger next = new AtomicInteger();
+        ConcurrentLinkedQueue<RuntimeException> failures = new ConcurrentLinkedQueue<>();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < size; i = next.getAndIncrement()) {
+                try {
+                    task.accept(i);
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+            }
+        };
+
+        // 请求线程算作一个，事务中的连接绑定在请求线程上，不借用线程
+        int helpers = TransactionSynchronizationManager.isActualTransactionActive() ? 0 : concurrency(concurrency, size) - 1;
+        List<Future<?>> futures = new ArrayList<>(Math.max(helpers, 0));
+        for (int i = 0; i < helpers && permits.tryAcquire(); i++) {
+            try {
+                futures.add(executor.submit(() -> {
+                    try {
+                        worker.run();
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                break;
+            }
+        }
+        worker.run();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                // 不再领取新的任务，正在执行的查询由各自的截止时间结束
+                next.set(size);
+                Thread.currentThread().interrupt();
+                throw new QueryBeanSqlException("Interrupted while waiting for the batch");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    failures.add(runtimeException);
+                } else {
+                    failures.add(new QueryBeanSqlException("Batch search failed: " + e.getCause()));
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw failures.peek();
+        }
+    }
+
+    /**
+     * 实际的同时执行数
+     */
+    int concurrency(Integer requested, int size) {
+        int concurrency = requested == null || requested <= 0 ? maxConcurrency : Math.min(requested, maxConcurrency);
+        return Math.max(Math.min(concurrency, size), 1);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
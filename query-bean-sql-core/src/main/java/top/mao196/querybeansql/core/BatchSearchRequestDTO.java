@@ -0,0 +1,50 @@
+package top.mao196.querybeansql.core;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量查询请求，一次 HTTP 请求执行多个视图的 search
+ *
+ * @author maoju
+ * @since 2026/10/17
+ **/
+@Data
+public class BatchSearchRequestDTO {
+
+    /**
+     * 要执行的查询，结果按相同的顺序返回
+     */
+    private List<Entry> searches;
+
+    /**
+     * 所有查询共用的占位符参数，查询自己的 parameters 中同名的参数优先
+     */
+    private Map<String, Object> parameters;
+
+    /**
+     * 同时执行的查询数，不能超过 query-bean.batchConcurrency
+     */
+    private Integer concurrency;
+
+    /**
+     * 没有指定 timeout 的查询使用的超时（毫秒），从收到批量请求开始计算，不能超过 query-bean.queryTimeout
+     */
+    private Integer timeout;
+
+    /**
+     * 批量查询中的一个查询
+     */
+    @Data
+    public static class Entry {
+
+        private String viewName;
+
+        /**
+         * 与 /rest/view/{viewName}/search 的请求体相同，为空时查询视图的全部字段
+         */
+        private SearchEntitiesRequestDTO request;
+    }
+}
@@ -0,0 +1,44 @@
+package top.mao196.querybeansql.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量查询的结果，与请求中的查询一一对应
+ *
+ * @author maoju
+ * @since 2026/10/17
+ **/
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+public class BatchSearchResult {
+
+    private List<Item> results;
+
+    /**
+     * 一个查询的结果，成功时 result 不为 null，失败时 error 为异常信息，不影响其他查询
+     */
+    @AllArgsConstructor
+    @Data
+    @NoArgsConstructor
+    public static class Item {
+
+        private String viewName;
+
+        private SearchResult<?> result;
+
+        /**
+         * 异常类名，例如 QueryBeanSqlException、QueryTimeoutException
+         */
+        private String errorType;
+
+        /**
+         * 异常信息，请求错误和超时时返回，其他异常的信息可能包含 SQL，只返回 errorType
+         */
+        private String error;
+    }
+}
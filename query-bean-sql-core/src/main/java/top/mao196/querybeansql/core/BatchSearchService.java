@@ -0,0 +1,232 @@
+package top.mao196.querybeansql.core;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.*;
+
+/**
+ * 批量查询（/rest/view/_batch）
+ * <p>
+ * 按请求中的顺序返回每个查询的结果，一个查询失败只填写它自己的 error。在请求线程上解析请求并查找缓存，
+ * 需要查询数据库的查询交给 {@link BatchExecutor} 并行执行；视图和查询 SQL 相同、只有参数值不同的查询合并为一条查询执行。
+ * 全部查询结束后再加载各查询请求的关联视图
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+@Slf4j
+public class BatchSearchService {
+
+    private final RequestParse requestParse;
+
+    private final QueryExecutor queryExecutor;
+
+    private final ViewRowMapperCache viewRowMapperCache;
+
+    private final ResultCache resultCache;
+
+    private final BatchExecutor batchExecutor;
+
+    private final ViewSearchService viewSearchService;
+
+    private final boolean merge;
+
+    public BatchSearchService(QueryBeanConfig queryBeanConfig, RequestParse requestParse, QueryExecutor queryExecutor,
+                              ViewRowMapperCache viewRowMapperCache, ResultCache resultCache, BatchExecutor batchExecutor,
+                              ViewSearchService viewSearchService) {
+        this.requestParse = requestParse;
+        this.queryExecutor = queryExecutor;
+        this.viewRowMapperCache = viewRowMapperCache;
+        this.resultCache = resultCache;
+        this.batchExecutor = batchExecutor;
+        this.viewSearchService = viewSearchService;
+        this.merge = queryBeanConfig.isBatchMerge();
+    }
+
+    /**
+     * 执行批量查询
+     *
+     * @param batchRequest 批量请求，不会被修改
+     * @return 与请求中的查询一一对应的结果
+     */
+    public BatchSearchResult search(BatchSearchRequestDTO batchRequest) {
+        List<BatchSearchRequestDTO.Entry> searches = batchRequest.getSearches();
+        if (searches == null || searches.isEmpty()) {
+            throw new QueryBeanSqlException("Batch contains no searches");
+        }
+        // 截止时间从收到批量请求开始计算，排队的查询同样受限制
+        long batchDeadline = queryExecutor.deadline(batchRequest.getTimeout());
+        BatchSearchResult.Item[] items = new BatchSearchResult.Item[searches.size()];
+        BatchEntry[] prepared = new BatchEntry[searches.size()];
+
+        // 在请求线程上解析请求并查找缓存，需要查询数据库的请求中可以合并的按视图和查询 SQL 分到同一个任务
+        List<List<BatchEntry>> tasks = new ArrayList<>();
+        Map<MergeKey, List<BatchEntry>> mergeable = new HashMap<>();
+        for (int i = 0; i < searches.size(); i++) {
+            BatchSearchRequestDTO.Entry entry = searches.get(i);
+            String viewName = entry == null ? null : entry.getViewName();
+            try {
+                BatchEntry pending = prepare(i, entry, batchRequest.getParameters(), batchDeadline);
+                prepared[i] = pending;
+                SearchResult<?> cached = viewSearchService.cached(pending.viewDescriptor(), pending.requestDTO(), pending.result(),
+                        pending.countMode(), pending.cacheKey());
+                if (cached != null) {
+                    items[i] = new BatchSearchResult.Item(viewName, cached, null, null);
+                } else if (merge && requestParse.isMergeable(pending.result())) {
+                    MergeKey mergeKey = new MergeKey(pending.viewDescriptor().getName(), pending.result().getQuerySql());
+                    mergeable.computeIfAbsent(mergeKey, k -> {
+                        List<BatchEntry> task = new ArrayList<>();
+                        tasks.add(task);
+                        return task;
+                    }).add(pending);
+                } else {
+                    tasks.add(List.of(pending));
+                }
+            } catch (RuntimeException e) {
+                items[i] = failure(viewName, e);
+            }
+        }
+
+        batchExecutor.run(tasks.size(), batchRequest.getConcurrency(), t -> {
+            List<BatchEntry> task = tasks.get(t);
+            if (task.size() > 1 && loadMerged(task, items)) {
+                return;
+            }
+            for (BatchEntry pending : task) {
+                try {
+                    items[pending.index()] = new BatchSearchResult.Item(pending.viewDescriptor().getName(), viewSearchService.load(pending.viewDescriptor(),
+                            pending.requestDTO(), pending.result(), pending.countMode(), pending.cacheKey(), pending.deadline(), false), null, null);
+                } catch (RuntimeException e) {
+                    items[pending.index()] = failure(pending.viewDescriptor().getName(), e);
+                }
+            }
+        });
+
+        // 全部查询结束后再加载关联视图，各查询的关联查询同样并行执行
+        List<BatchEntry> including = new ArrayList<>();
+        for (BatchEntry pending : prepared) {
+            if (pending != null && CollUtil.isNotEmpty(pending.requestDTO().getInclude()) && items[pending.index()].getResult() != null) {
+                including.add(pending);
+            }
+        }
+        batchExecutor.run(including.size(), batchRequest.getConcurrency(), t -> {
+            BatchEntry pending = including.get(t);
+            String viewName = pending.viewDescriptor().getName();
+            try {
+                items[pending.index()] = new BatchSearchResult.Item(viewName, viewSearchService.include(pending.viewDescriptor(),
+                        pending.requestDTO(), items[pending.index()].getResult(), pending.deadline()), null, null);
+            } catch (RuntimeException e) {
+                items[pending.index()] = failure(viewName, e);
+            }
+        });
+        return new BatchSearchResult(Arrays.asList(items));
+    }
+
+    /**
+     * 解析批量查询中的一个查询，共用的参数与查询自己的参数合并到请求的副本中
+     */
+    private BatchEntry prepare(int index, BatchSearchRequestDTO.Entry entry, Map<String, Object> sharedParameters, long batchDeadline) {
+        if (entry == null || entry.getViewName() == null) {
+            throw new QueryBeanSqlException("Batch search requires a viewName");
+        }
+        ViewDescriptor viewDescriptor = viewSearchService.findDescriptor(entry.getViewName());
+        SearchEntitiesRequestDTO requestDTO = entry.getRequest() == null ? new SearchEntitiesRequestDTO() : entry.getRequest();
+        if (sharedParameters != null) {
+            Map<String, Object> parameters = new HashMap<>(sharedParameters);
+            if (requestDTO.getParameters() != null) {
+                parameters.putAll(requestDTO.getParameters());
+            }
+            requestDTO = BeanUtil.copyProperties(requestDTO, SearchEntitiesRequestDTO.class);
+            requestDTO.setParameters(parameters);
+        }
+        RequestParseResult result = requestParse.parse(requestDTO, viewDescriptor);
+        CountMode countMode = ViewSearchService.countMode(requestDTO);
+        long deadline = requestDTO.getTimeout() == null ? batchDeadline : queryExecutor.deadline(requestDTO.getTimeout());
+        return new BatchEntry(index, viewDescriptor, requestDTO, result, countMode, resultCache.key(viewDescriptor, result, countMode), deadline);
+    }
+
+    /**
+     * 以一条合并的查询执行多个请求的数据查询，再按行所属的请求拆分，count 仍逐个执行
+     *
+     * @return 合并的查询失败或无法合并时返回 false，由调用方逐个执行，把错误归到各自的请求
+     */
+    private boolean loadMerged(List<BatchEntry> entries, BatchSearchResult.Item[] items) {
+        MergedQuery merged = requestParse.merge(entries.stream().map(BatchEntry::result).toList());
+        if (merged == null) {
+            return false;
+        }
+        BatchEntry first = entries.get(0);
+        String viewName = first.viewDescriptor().getName();
+        // 使用最早的截止时间
+        long deadline = 0;
+        for (BatchEntry entry : entries) {
+            if (entry.deadline() != 0 && (deadline == 0 || entry.deadline() - deadline < 0)) {
+                deadline = entry.deadline();
+            }
+        }
+        RowMapper<Object> rowMapper = viewRowMapperCache.get(first.viewDescriptor().getViewClass(), first.result().getProperties());
+        List<List<Object>> rows = new ArrayList<>(entries.size());
+        entries.forEach(entry -> rows.add(new ArrayList<>()));
+        log.info("query merged view sql: [{}], args: {}", merged.getSql(), Arrays.toString(merged.getArgs()));
+        try {
+            queryExecutor.call(deadline, () -> {
+                queryExecutor.getJdbcTemplate().getJdbcOperations().query(merged.getSql(), (RowCallbackHandler) rs -> {
+                    List<Object> dataList = rows.get(rs.getInt(RequestParse.MERGED_INDEX_COLUMN));
+                    dataList.add(rowMapper.mapRow(rs, dataList.size()));
+                }, merged.getArgs());
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("merged query of view [{}] failed, running {} searches separately: {}", viewName, entries.size(), e.toString());
+            return false;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            BatchEntry entry = entries.get(i);
+            try {
+                SearchResult<Object> searchResult = new SearchResult<>();
+                QueryExecutor.QueryTask<Long> countTask = viewSearchService.submitCount(entry.countMode(), entry.deadline(), entry.result(), searchResult, false);
+                viewSearchService.finish(searchResult, entry.result(), entry.countMode(), entry.deadline(), rows.get(i), countTask, null);
+                viewSearchService.store(entry.viewDescriptor(), entry.requestDTO(), entry.result(), entry.cacheKey(), searchResult);
+                items[entry.index()] = new BatchSearchResult.Item(viewName, searchResult, null, null);
+            } catch (RuntimeException e) {
+                items[entry.index()] = failure(viewName, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 批量查询中失败的查询，请求错误和超时返回异常信息，其他异常的信息可能包含 SQL，只返回异常类名
+     */
+    private static BatchSearchResult.Item failure(String viewName, RuntimeException e) {
+        if (e instanceof QueryBeanSqlException || e instanceof TransientDataAccessException) {
+            log.debug("batch search of view [{}] failed: {}", viewName, e.getMessage());
+            return new BatchSearchResult.Item(viewName, null, e.getClass().getSimpleName(), e.getMessage());
+        }
+        log.warn("batch search of view [{}] failed", viewName, e);
+        return new BatchSearchResult.Item(viewName, null, e.getClass().getSimpleName(), null);
+    }
+
+    /**
+     * 批量查询中需要查询数据库的一个查询
+     *
+     * @param index 在批量请求中的下标
+     */
+    private record BatchEntry(int index, ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO, RequestParseResult result,
+                              CountMode countMode, ResultCache.Key cacheKey, long deadline) {
+    }
+
+    /**
+     * 可以合并的查询：视图和查询 SQL 相同
+     */
+    private record MergeKey(String viewName, String querySql) {
+    }
+}
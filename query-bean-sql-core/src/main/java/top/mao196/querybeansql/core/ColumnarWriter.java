@@ -0,0 +1,154 @@
+package top.mao196.querybeansql.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 以 {@link ResultFormat} 写出查询结果：先写 fields，再逐行写 rows 或按列缓存后写 columns，最后写 dictionaries
+ * <p>
+ * 标记为 lowCardinality 的字符串字段以字典编码输出，值为 dictionaries 中对应取值表的下标；
+ * 字典在写出数据的过程中建立，每个实例只能写一次响应
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public final class ColumnarWriter {
+
+    private final JsonRowWriter rowWriter;
+
+    private final ResultFormat format;
+
+    /**
+     * 输出的列的下标，不含被 @JsonIgnore 忽略的列
+     */
+    private final int[] columns;
+
+    /**
+     * 字典编码列的取值 -> 下标，不编码的列为 null
+     */
+    private final Map<String, Integer>[] dictionaries;
+
+    /**
+     * COLUMNS 格式下每列已写出的值
+     */
+    private TokenBuffer[] buffers;
+
+    @SuppressWarnings("unchecked")
+    private ColumnarWriter(JsonRowWriter rowWriter, ResultFormat format, int[] columns) {
+        this.rowWriter = rowWriter;
+        this.format = format;
+        this.columns = columns;
+        this.dictionaries = new Map[columns.length];
+    }
+
+    /**
+     * 创建 ColumnarWriter
+     *
+     * @param viewDescriptor 视图
+     * @param properties     查询列对应的字段，顺序与查询列一致
+     * @param rowWriter      同一组查询列的 JsonRowWriter
+     * @param format         响应格式
+     * @return ColumnarWriter
+     */
+    public static ColumnarWriter of(ViewDescriptor viewDescriptor, List<String> properties, JsonRowWriter rowWriter, ResultFormat format) {
+        List<Integer> written = new ArrayList<>(properties.size());
+        for (int i = 0; i < rowWriter.size(); i++) {
+            if (rowWriter.name(i) != null) {
+                written.add(i);
+            }
+        }
+        ColumnarWriter columnarWriter = new ColumnarWriter(rowWriter, format, written.stream().mapToInt(Integer::intValue).toArray());
+        for (int i = 0; i < columnarWriter.columns.length; i++) {
+            if (viewDescriptor.findFieldDescriptor(properties.get(columnarWriter.columns[i])).isLowCardinality()) {
+                columnarWriter.dictionaries[i] = new LinkedHashMap<>();
+            }
+        }
+        return columnarWriter;
+    }
+
+    /**
+     * 写 fields，ROWS 格式下开始 rows 数组
+     */
+    public void writeStart(JsonGenerator generator) throws IOException {
+        generator.writeArrayFieldStart("fields");
+        for (int column : columns) {
+            generator.writeString(rowWriter.name(column));
+        }
+        generator.writeEndArray();
+        if (format == ResultFormat.ROWS) {
+            generator.writeArrayFieldStart("rows");
+            return;
+        }
+        buffers = new TokenBuffer[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            buffers[i] = new TokenBuffer(generator.getCodec(), false);
+            buffers[i].writeStartArray();
+        }
+    }
+
+    /**
+     * 写当前行
+     */
+    public void write(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        if (format == ResultFormat.ROWS) {
+            generator.writeStartArray();
+            for (int i = 0; i < columns.length; i++) {
+                writeValue(i, rs, generator);
+            }
+            generator.writeEndArray();
+            return;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            writeValue(i, rs, buffers[i]);
+        }
+    }
+
+    /**
+     * ROWS 格式下结束 rows 数组，COLUMNS 格式下写 columns；然后写 dictionaries
+     */
+    public void writeEnd(JsonGenerator generator) throws IOException {
+        if (format == ResultFormat.ROWS) {
+            generator.writeEndArray();
+        } else {
+            generator.writeArrayFieldStart("columns");
+            for (TokenBuffer buffer : buffers) {
+                buffer.writeEndArray();
+                buffer.serialize(generator);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeObjectFieldStart("dictionaries");
+        for (int i = 0; i < columns.length; i++) {
+            if (dictionaries[i] != null) {
+                generator.writeArrayFieldStart(rowWriter.name(columns[i]).getValue());
+                for (String value : dictionaries[i].keySet()) {
+                    generator.writeString(value);
+                }
+                generator.writeEndArray();
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeValue(int i, ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        Map<String, Integer> dictionary = dictionaries[i];
+        if (dictionary == null) {
+            rowWriter.writeValue(columns[i], rs, generator);
+            return;
+        }
+        String value = rs.getString(columns[i] + 1);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(dictionary.computeIfAbsent(value, key -> dictionary.size()));
+        }
+    }
+}
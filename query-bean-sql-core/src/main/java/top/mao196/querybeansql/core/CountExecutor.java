@@ -0,0 +1,148 @@
+package top.mao196.querybeansql.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.dialect.Dialect;
+import top.mao196.querybeansql.dialect.Dialects;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 执行总行数统计：精确 count、缓存的 count 和执行计划估算
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+@Slf4j
+public class CountExecutor {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final Dialect dialect;
+
+    private final long cacheNanos;
+
+    /**
+     * count SQL 与参数 -> 缓存的 count 结果，按访问顺序淘汰
+     */
+    private final Map<CacheKey, CachedCount> cache;
+
+    /**
+     * 没有 Dialect Bean 时（例如 query-bean.enable=false）使用 MySQL 方言
+     */
+    @Autowired(required = false)
+    public CountExecutor(QueryBeanConfig queryBeanConfig, QueryExecutor queryExecutor) {
+        this(queryBeanConfig, queryExecutor.getJdbcTemplate(), Dialects.MYSQL);
+    }
+
+    /**
+     * 使用 QueryExecutor 的 JdbcTemplate，count 查询同样受请求截止时间的限制
+     */
+    @Autowired(required = false)
+    public CountExecutor(QueryBeanConfig queryBeanConfig, QueryExecutor queryExecutor, Dialect dialect) {
+        this(queryBeanConfig, queryExecutor.getJdbcTemplate(), dialect);
+    }
+
+    public CountExecutor(QueryBeanConfig queryBeanConfig, NamedParameterJdbcTemplate namedParameterJdbcTemplate, Dialect dialect) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.dialect = dialect;
+        this.cacheNanos = TimeUnit.SECONDS.toNanos(Math.max(queryBeanConfig.getCountCacheSeconds(), 0));
+        int cacheSize = Math.max(queryBeanConfig.getCountCacheSize(), 0);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedCount> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * 执行 count 查询
+     */
+    public Long exact(RequestParseResult result) {
+        log.debug("query view count sql: [{}], param: [{}]", result.getCountSql(), result.getParams());
+        return namedParameterJdbcTemplate.queryForObject(result.getCountSql(), result.getParams(), Long.class);
+    }
+
+    /**
+     * 相同条件的 count 在 query-bean.countCacheSeconds 内直接返回上次的结果
+     */
+    public Long cached(RequestParseResult result) {
+        CacheKey key = cacheKey(result);
+        if (key == null || cacheNanos == 0) {
+            return exact(result);
+        }
+        long now = System.nanoTime();
+        synchronized (cache) {
+            CachedCount cached = cache.get(key);
+            if (cached != null && now - cached.loadedAt < cacheNanos) {
+                return cached.count;
+            }
+        }
+        Long count = exact(result);
+        synchronized (cache) {
+            cache.put(key, new CachedCount(count, now));
+        }
+        return count;
+    }
+
+    /**
+     * 读取执行计划中的估算行数，方言不支持或估算失败时返回 null
+     */
+    public Long estimate(RequestParseResult result) {
+        try {
+            return dialect.estimateCount(namedParameterJdbcTemplate, result.getEstimateSql(), result.getParams());
+        } catch (RuntimeException e) {
+            log.warn("Failed to estimate count of sql: [{}], {}", result.getEstimateSql(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 清空缓存的 count 结果
+     */
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * count 的缓存键只包含条件参数，分页和游标参数不影响总行数；
+     * 数组参数没有按值比较的 equals，不缓存
+     */
+    private static CacheKey cacheKey(RequestParseResult result) {
+        Map<String, Object> params = new HashMap<>();
+        for (Map.Entry<String, Object> entry : result.getParams().entrySet()) {
+            String name = entry.getKey();
+            if (name.equals(RequestParse.LIMIT_PARAM) || name.equals(RequestParse.OFFSET_PARAM) || isCursorParam(name)) {
+                continue;
+            }
+            Object value = entry.getValue();
+            if (value instanceof SqlParameterValue || (value != null && value.getClass().isArray())) {
+                return null;
+            }
+            params.put(name, value);
+        }
+        return new CacheKey(result.getCountSql(), params);
+    }
+
+    private static boolean isCursorParam(String name) {
+        int prefix = RequestParse.CURSOR_PARAM.length();
+        return name.length() > prefix && name.startsWith(RequestParse.CURSOR_PARAM) && Character.isDigit(name.charAt(prefix));
+    }
+
+    private record CacheKey(String countSql, Map<String, Object> params) {
+    }
+
+    private record CachedCount(Long count, long loadedAt) {
+    }
+}
@@ -0,0 +1,32 @@
+package top.mao196.querybeansql.core;
+
+/**
+ * 总行数的统计方式
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public enum CountMode {
+    /**
+     * 单独执行 count(*) 查询，结果精确
+     */
+    EXACT,
+    /**
+     * 在数据查询中以 COUNT(*) OVER() 一并返回总行数，少一次查询；
+     * 当前页没有数据、数据库不支持窗口函数或使用游标分页时退回 EXACT
+     */
+    WINDOW,
+    /**
+     * 不统计总行数，多取一行判断是否还有下一页，结果放在 hasMore
+     */
+    HAS_MORE,
+    /**
+     * 相同条件的 count 结果缓存一段时间（query-bean.countCacheSeconds），可能略有滞后
+     */
+    CACHED,
+    /**
+     * 使用数据库执行计划中的估算行数，只适合展示“约 120 万条结果”；
+     * 数据库不支持估算时退回 EXACT，countEstimated 为 false
+     */
+    ESTIMATE
+}
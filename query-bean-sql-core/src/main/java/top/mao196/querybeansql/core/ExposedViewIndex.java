@@ -0,0 +1,206 @@
+package top.mao196.querybeansql.core;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ClassUtils;
+import top.mao196.querybeansql.annotation.ViewExposed;
+import top.mao196.querybeansql.annotation.ViewField;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * 编译期生成的视图索引
+ * 由 query-bean-sql-processor 写入 {@value #INDEX_LOCATION}，classpath 上的多个索引文件会合并。
+ * 索引只覆盖它所在的目录或 jar，其他没有索引的 classpath 条目仍需扫描，见 {@link #covers(URL)}
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Slf4j
+public class ExposedViewIndex {
+
+    public static final String INDEX_LOCATION = "META-INF/query-bean-sql/views.properties";
+
+    /**
+     * 类名 -> 索引中的视图信息，保持索引中的顺序
+     */
+    private final Map<String, IndexedView> views;
+
+    /**
+     * 带有索引文件的 classpath 条目的 URL，例如 file:/app/classes/ 或 jar:file:/app/lib/a.jar!/
+     */
+    private final List<String> roots;
+
+    private ExposedViewIndex(Map<String, IndexedView> views, List<String> roots) {
+        this.views = views;
+        this.roots = roots;
+    }
+
+    /**
+     * 加载 classpath 上所有的视图索引
+     *
+     * @param classLoader 类加载器
+     * @return 索引，classpath 上没有索引文件时返回 null
+     */
+    public static ExposedViewIndex load(ClassLoader classLoader) {
+        Map<String, IndexedView> views = new LinkedHashMap<>();
+        List<String> roots = new ArrayList<>();
+        try {
+            Enumeration<URL> urls = classLoader == null
+                    ? ClassLoader.getSystemResources(INDEX_LOCATION)
+                    : classLoader.getResources(INDEX_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                String location = normalize(url.toString());
+                roots.add(location.substring(0, location.length() - INDEX_LOCATION.length()));
+                Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(url));
+                for (String className : StrUtil.split(properties.getProperty("views", ""), ',', true, true)) {
+                    views.putIfAbsent(className, readView(className, properties));
+                }
+                log.debug("loaded view index from {}", url);
+            }
+        } catch (IOException ex) {
+            throw new QueryBeanSqlException("Unable to load view index from location [" + INDEX_LOCATION + "]: " + ex.getMessage());
+        }
+        return new ExposedViewIndex(views, roots);
+    }
+
+    private static IndexedView readView(String className, Properties properties) {
+        ViewExposed exposed = synthesize(ViewExposed.class, className, properties);
+        List<IndexedField> fields = new ArrayList<>();
+        for (String fieldName : StrUtil.split(properties.getProperty(className + ".fields", ""), ',', true, true)) {
+            String fieldKey = className + "#" + fieldName;
+            ViewField viewField = properties.containsKey(fieldKey + ".@desc")
+                    ? synthesize(ViewField.class, fieldKey, properties)
+                    : null;
+            fields.add(new IndexedField(fieldName, properties.getProperty(fieldKey + ".type"), viewField));
+        }
+        return new IndexedView(exposed, fields);
+    }
+
+    /**
+     * 按注解属性的返回类型把索引中的字符串值还原成注解实例
+     */
+    private static <A extends Annotation> A synthesize(Class<A> annotationType, String prefix, Properties properties) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (Method method : annotationType.getDeclaredMethods()) {
+            String key = prefix + ".@" + method.getName();
+            Object value = readValue(key, method.getReturnType(), properties);
+            if (value != null) {
+                attributes.put(method.getName(), value);
+            }
+        }
+        return MergedAnnotation.of(annotationType, attributes).synthesize();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readValue(String key, Class<?> type, Properties properties) {
+        if (type.isArray()) {
+            String length = properties.getProperty(key + ".length");
+            if (length == null) {
+                return null;
+            }
+            int size = Integer.parseInt(length);
+            Object array = Array.newInstance(type.getComponentType(), size);
+            for (int i = 0; i < size; i++) {
+                Array.set(array, i, readValue(key + "." + i, type.getComponentType(), properties));
+            }
+            return array;
+        }
+        String raw = properties.getProperty(key);
+        if (raw == null) {
+            return null;
+        }
+        if (type == String.class) {
+            return raw;
+        } else if (type == boolean.class) {
+            return Boolean.parseBoolean(raw);
+        } else if (type == int.class) {
+            return Integer.parseInt(raw);
+        } else if (type == long.class) {
+            return Long.parseLong(raw);
+        } else if (type.isEnum()) {
+            return Enum.valueOf((Class<? extends Enum>) type, raw);
+        } else if (type == Class.class) {
+            return ClassUtils.resolveClassName(raw, null);
+        }
+        throw new QueryBeanSqlException(String.format("unsupported attribute type %s of index entry %s", type.getName(), key));
+    }
+
+    /**
+     * @return 索引中的所有视图类名
+     */
+    public Set<String> classNames() {
+        return Collections.unmodifiableSet(views.keySet());
+    }
+
+    /**
+     * 判断 class 文件所在的目录或 jar 是否带有索引，带有索引时其中的视图以索引为准，不需要扫描
+     *
+     * @param url class 文件的 URL
+     * @return 是否被索引覆盖
+     */
+    public boolean covers(URL url) {
+        String location = normalize(url.toString());
+        return roots.stream().anyMatch(location::startsWith);
+    }
+
+    /**
+     * 统一 file:/x 与 file:///x 两种写法，类加载器和按目录扫描得到的 URL 可能不同
+     */
+    private static String normalize(String location) {
+        return location.replaceFirst("^(jar:)?file:/+", "$1file:/");
+    }
+
+    /**
+     * 根据类名查找索引中的视图信息
+     *
+     * @param className 类名
+     * @return 视图信息，不存在时返回 null
+     */
+    public IndexedView findView(String className) {
+        return views.get(className);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class IndexedView {
+
+        private final ViewExposed exposed;
+
+        private final List<IndexedField> fields;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class IndexedField {
+
+        /**
+         * class中的字段名称
+         */
+        private final String rawName;
+
+        /**
+         * 字段类型的类名
+         */
+        private final String typeName;
+
+        /**
+         * 字段上的注解，没有标注时为 null
+         */
+        private final ViewField viewField;
+    }
+}
@@ -6,6 +6,7 @@ import cn.hutool.core.util.StrUtil;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.io.Resource;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
@@ -15,10 +16,9 @@ import org.springframework.util.ClassUtils;
 import top.mao196.querybeansql.annotation.ViewExposed;
 import top.mao196.querybeansql.annotation.ViewField;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -30,55 +30,137 @@ import java.util.stream.Collectors;
 public class ExposedViewRegistry extends AbstractObjectRegistry {
 
     /**
-     * 缓存的实体描述信息
+     * 当前的视图目录快照，重新加载时整体替换
      */
-    private List<ViewDescriptor> descriptors;
+    private final AtomicReference<ViewCatalog> catalog = new AtomicReference<>(ViewCatalog.EMPTY);
 
     /**
-     * 构建实体描述信息
+     * 编译期生成的视图索引，为 null 时表示通过扫描 classpath 得到候选类
+     */
+    private ExposedViewIndex viewIndex;
+
+    /**
+     * 是否忽略编译期生成的视图索引
+     */
+    private boolean ignoreIndex;
+
+    public void setIgnoreIndex(boolean ignoreIndex) {
+        this.ignoreIndex = ignoreIndex;
+    }
+
+    /**
+     * @return 是否从编译期生成的视图索引加载
+     */
+    public boolean isIndexed() {
+        return viewIndex != null;
+    }
+
+    /**
+     * 重新加载视图，新的目录构建完成后一次性替换，正在进行的查询不受影响
+     */
+    public synchronized void refresh() {
+        refreshExposedObjects();
+    }
+
+    /**
+     * 优先加载编译期生成的视图索引，classpath 上没有索引时才退回到扫描；
+     * 有索引且显式配置了 basePackage 时，还会扫描这些包下没有索引的目录和 jar（例如未启用注解处理器编译的依赖），
+     * 只跳过被索引覆盖的 class 文件。未配置 basePackage 时只使用索引，启动时不扫描 classpath
+     */
+    @Override
+    protected synchronized void refreshExposedObjects() {
+        ExposedViewIndex index = ignoreIndex ? null : ExposedViewIndex.load(getResourcePatternResolver().getClassLoader());
+        this.viewIndex = index;
+        if (index == null) {
+            super.refreshExposedObjects();
+        } else {
+            this.candidateClasses = new LinkedHashSet<>();
+            for (String className : index.classNames()) {
+                if (isInBasePackages(className)) {
+                    this.candidateClasses.add(className);
+                }
+            }
+            int indexed = candidateClasses.size();
+            if (!Arrays.equals(basePackageArray, new String[]{DEFAULT_BASE_PACKAGE})) {
+                this.candidateClasses.addAll(scanCandidateClasses(resource -> !covers(index, resource)));
+            }
+            log.info("loaded {} exposed views from index {} and {} by scanning classpath entries without index",
+                    indexed, ExposedViewIndex.INDEX_LOCATION, candidateClasses.size() - indexed);
+        }
+        List<ViewDescriptor> descriptors = CollUtil.isEmpty(candidateClasses)
+                ? Collections.emptyList()
+                : candidateClasses.stream().map(this::buildDescriptor).collect(Collectors.toList());
+        catalog.set(new ViewCatalog(descriptors));
+    }
+
+    private static boolean covers(ExposedViewIndex index, Resource resource) {
+        try {
+            return index.covers(resource.getURL());
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * 获取实体描述信息
      *
      * @return 实体描述信息列表
      */
     public List<ViewDescriptor> descriptors() {
-        if (Objects.isNull(descriptors)) {
-            if (CollUtil.isNotEmpty(candidateClasses)) {
-                descriptors = candidateClasses.stream()
-                        .map(type -> {
-                            Class<?> entityClass = ClassUtils.resolveClassName(type, null);
-                            ViewExposed exposed = Objects.requireNonNull(AnnotatedElementUtils.findMergedAnnotation(entityClass, ViewExposed.class));
-                            String name = exposed.name();
-                            String description = exposed.desc();
-                            if (StrUtil.isEmpty(name)) {
-                                String shortName = ClassUtils.getShortName(entityClass);
-                                name = StrUtil.toCamelCase(shortName);
-                            }
-                            return ViewDescriptor.builder()
-                                    .viewClass(entityClass)
-                                    .name(name)
-                                    .description(description)
-                                    .sql(exposed.sql())
-                                    .fields(findFieldsDescriptor(entityClass))
-                                    .build();
-                        })
-                        .collect(Collectors.toList());
-            } else {
-                descriptors = Collections.emptyList();
-            }
+        return catalog.get().getDescriptors();
+    }
+
+    private ViewDescriptor buildDescriptor(String type) {
+        Class<?> entityClass = ClassUtils.resolveClassName(type, null);
+        ExposedViewIndex.IndexedView indexedView = viewIndex == null ? null : viewIndex.findView(type);
+        ViewExposed exposed = indexedView != null
+                ? indexedView.getExposed()
+                : Objects.requireNonNull(AnnotatedElementUtils.findMergedAnnotation(entityClass, ViewExposed.class));
+        String name = exposed.name();
+        String description = exposed.desc();
+        if (StrUtil.isEmpty(name)) {
+            String shortName = ClassUtils.getShortName(entityClass);
+            name = StrUtil.toCamelCase(shortName);
         }
-        return descriptors;
+        return ViewDescriptor.builder()
+                .viewClass(entityClass)
+                .name(name)
+                .description(description)
+                .sql(exposed.sql())
+                .placeholderMode(exposed.placeholderMode())
+                .pushdown(exposed.pushdown())
+                .tieBreaker(exposed.tieBreaker())
+                .fetchSize(exposed.fetchSize())
+                .cacheTtl(exposed.cacheTtl())
+                .fields(indexedView != null ? findFieldsDescriptor(indexedView, entityClass) : findFieldsDescriptor(entityClass))
+                .build();
     }
 
     public List<ViewFiledDescriptor> findFieldsDescriptor(Class<?> clz) {
         // 通过反射拿到类的属性
-        return Arrays.stream(ClassUtil.getDeclaredFields(clz)).map(it->{
-            ViewField viewField = AnnotatedElementUtils.findMergedAnnotation(it, ViewField.class);
-            return ViewFiledDescriptor.builder()
-                    .clz(it.getType())
-                    .name(Objects.isNull(viewField) ? null : viewField.columnName())
-                    .rawName(it.getName())
-                    .description(Objects.isNull(viewField) ? "" : viewField.desc())
-                    .build();
-        }).toList();
+        return Arrays.stream(ClassUtil.getDeclaredFields(clz))
+                .map(it -> buildFieldDescriptor(it.getName(), it.getType(), AnnotatedElementUtils.findMergedAnnotation(it, ViewField.class)))
+                .toList();
+    }
+
+    private List<ViewFiledDescriptor> findFieldsDescriptor(ExposedViewIndex.IndexedView indexedView, Class<?> clz) {
+        // 字段信息直接取自索引，只需按类名解析字段类型
+        return indexedView.getFields().stream()
+                .map(it -> buildFieldDescriptor(it.getRawName(), ClassUtils.resolveClassName(it.getTypeName(), clz.getClassLoader()), it.getViewField()))
+                .toList();
+    }
+
+    private ViewFiledDescriptor buildFieldDescriptor(String rawName, Class<?> type, ViewField viewField) {
+        return ViewFiledDescriptor.builder()
+                .clz(type)
+                .name(Objects.isNull(viewField) ? null : viewField.columnName())
+                .rawName(rawName)
+                .description(Objects.isNull(viewField) ? "" : viewField.desc())
+                .lowCardinality(Objects.nonNull(viewField) && viewField.lowCardinality())
+                .relationView(Objects.isNull(viewField) ? null : viewField.relationView())
+                .relationKey(Objects.isNull(viewField) ? null : viewField.relationKey())
+                .relationName(Objects.isNull(viewField) ? null : viewField.relationName())
+                .build();
     }
 
     /**
@@ -88,10 +170,7 @@ public class ExposedViewRegistry extends AbstractObjectRegistry {
      * @return 实体描述信息
      */
     public ViewDescriptor findDescriptor(String name) {
-        return descriptors().stream()
-                .filter(it -> StrUtil.equals(name, it.getName()))
-                .findFirst()
-                .orElse(null);
+        return catalog.get().find(name);
     }
 
     @Override
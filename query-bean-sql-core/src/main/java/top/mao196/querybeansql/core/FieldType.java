@@ -0,0 +1,111 @@
+package top.mao196.querybeansql.core;
+
+import lombok.Getter;
+
+import java.time.temporal.Temporal;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 视图字段的类型分类，决定字段允许使用的运算符
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Getter
+public enum FieldType {
+    /**
+     * 字符串
+     */
+    STRING(EnumSet.of(FilterOp.EQUAL, FilterOp.NOT_EQUAL, FilterOp.CONTAINS, FilterOp.DOES_NOT_CONTAIN,
+            FilterOp.STARTS_WITH, FilterOp.ENDS_WITH, FilterOp.IN, FilterOp.NOT_IN)),
+    /**
+     * 数值
+     */
+    NUMERIC(EnumSet.of(FilterOp.EQUAL, FilterOp.NOT_EQUAL, FilterOp.GREATER, FilterOp.GREATER_OR_EQUAL,
+            FilterOp.LESSER, FilterOp.LESSER_OR_EQUAL, FilterOp.IN, FilterOp.NOT_IN)),
+    /**
+     * 布尔
+     */
+    BOOLEAN(EnumSet.of(FilterOp.EQUAL, FilterOp.NOT_EQUAL)),
+    /**
+     * 日期时间
+     */
+    DATE_TIME(EnumSet.of(FilterOp.EQUAL, FilterOp.NOT_EQUAL, FilterOp.GREATER, FilterOp.GREATER_OR_EQUAL,
+            FilterOp.LESSER, FilterOp.LESSER_OR_EQUAL)),
+    /**
+     * 其他类型，只支持判空
+     */
+    OTHER(EnumSet.noneOf(FilterOp.class));
+
+    /**
+     * 允许的运算符，所有类型都支持 IS_NULL 和 NOT_EMPTY
+     */
+    private final Set<FilterOp> allowedOperators;
+
+    FieldType(EnumSet<FilterOp> operators) {
+        operators.add(FilterOp.IS_NULL);
+        operators.add(FilterOp.NOT_EMPTY);
+        this.allowedOperators = Collections.unmodifiableSet(operators);
+    }
+
+    /**
+     * 根据字段的 Java 类型获取类型分类
+     *
+     * @param type 字段的 Java 类型
+     * @return 类型分类
+     */
+    public static FieldType of(Class<?> type) {
+        if (isStringType(type)) {
+            return STRING;
+        } else if (isNumericType(type)) {
+            return NUMERIC;
+        } else if (isBooleanType(type)) {
+            return BOOLEAN;
+        } else if (isDateTimeType(type)) {
+            return DATE_TIME;
+        }
+        return OTHER;
+    }
+
+    /**
+     * 判断是否为字符串类型
+     */
+    private static boolean isStringType(Class<?> type) {
+        return CharSequence.class.isAssignableFrom(type) || type == String.class;
+    }
+
+    /**
+     * 判断是否为数值类型
+     */
+    private static boolean isNumericType(Class<?> type) {
+        return Number.class.isAssignableFrom(type)
+                || type == int.class || type == Integer.class
+                || type == long.class || type == Long.class
+                || type == double.class || type == Double.class
+                || type == float.class || type == Float.class
+                || type == short.class || type == Short.class
+                || type == byte.class || type == Byte.class;
+    }
+
+    /**
+     * 判断是否为布尔类型
+     */
+    private static boolean isBooleanType(Class<?> type) {
+        return type == boolean.class || type == Boolean.class;
+    }
+
+    /**
+     * 判断是否为日期时间类型
+     */
+    private static boolean isDateTimeType(Class<?> type) {
+        return Temporal.class.isAssignableFrom(type)
+                || type == java.time.LocalDate.class
+                || type == java.time.LocalDateTime.class
+                || type == java.time.LocalTime.class
+                || type == java.util.Date.class
+                || type == java.sql.Timestamp.class
+                || type == java.sql.Date.class;
+    }
+}
@@ -0,0 +1,204 @@
+package top.mao196.querybeansql.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+
+/**
+ * 条件树的包含关系：满足 narrow 的行是否一定满足 broad
+ * <p>
+ * 判断是保守的，返回 true 时一定成立，返回 false 只表示无法证明。条件组按 AND / OR 分解：
+ * narrow 需要蕴含 broad 中 AND 的每个条件、OR 中的某个条件；narrow 中 OR 的每个分支、AND 中的某个条件蕴含 broad 即可。
+ * 同一字段的两个条件按运算符比较取值：
+ * <ul>
+ *     <li>EQUAL、IN 按其中每个值能否满足 broad 判断，值的比较规则与 {@link RowEvaluator} 相同</li>
+ *     <li>数值、日期的范围比较上下界，例如 amount &gt; 200 蕴含 amount &gt;= 100</li>
+ *     <li>startsWith / endsWith / contains 比较模式之间的包含关系，例如 startsWith 'abc' 蕴含 contains 'bc'</li>
+ *     <li>字符串的值和模式只在 binaryCollation 为 true 时比较；否则字符串条件只有完全相同时才判断为蕴含，
+ *     数据库不区分大小写或重音时 'ABC' 与 'abc' 相等，按二进制推导的包含关系不成立</li>
+ *     <li>NOT_EQUAL、NOT_IN 排除的值更多时蕴含排除的值更少的条件</li>
+ *     <li>除 isNull 外的条件都蕴含 notEmpty</li>
+ * </ul>
+ * 条件中没有 NOT，UNKNOWN 与 FALSE 的效果相同，两个条件树最好都先经过 {@link FilterOptimizer} 规范化
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public class FilterContainment {
+
+    private FilterContainment() {
+    }
+
+    /**
+     * 判断 narrow 是否蕴含 broad
+     *
+     * @param narrow          条件树，为 null 时表示没有条件
+     * @param broad           条件树，为 null 时表示没有条件
+     * @param viewDescriptor  视图
+     * @param binaryCollation 是否按二进制比较字符串
+     * @return 满足 narrow 的行一定满足 broad 时返回 true
+     */
+    public static boolean implies(FilterCondition narrow, FilterCondition broad, ViewDescriptor viewDescriptor, boolean binaryCollation) {
+        if (broad == null || isTrue(broad)) {
+            return true;
+        }
+        if (narrow == null || isTrue(narrow)) {
+            return false;
+        }
+        if (isFalse(narrow)) {
+            return true;
+        }
+        if (broad.isGroup() && broad.getGroup() == FilterType.AND) {
+            return broad.getConditions().stream().allMatch(child -> implies(narrow, child, viewDescriptor, binaryCollation));
+        }
+        if (narrow.isGroup() && narrow.getGroup() == FilterType.OR) {
+            return narrow.getConditions().stream().allMatch(child -> implies(child, broad, viewDescriptor, binaryCollation));
+        }
+        if (!narrow.isGroup() && narrow.getOperator() == FilterOp.IN) {
+            // IN 相当于每个值的 EQUAL 以 OR 连接
+            if (!(narrow.getValue() instanceof Collection<?> values) || values.stream().noneMatch(Objects::nonNull)) {
+                return false;
+            }
+            return values.stream().filter(Objects::nonNull)
+                    .allMatch(value -> implies(leaf(narrow.getProperty(), FilterOp.EQUAL, value), broad, viewDescriptor, binaryCollation));
+        }
+        if (broad.isGroup() && broad.getConditions().stream().anyMatch(child -> implies(narrow, child, viewDescriptor, binaryCollation))) {
+            return true;
+        }
+        if (narrow.isGroup()) {
+            return narrow.getConditions().stream().anyMatch(child -> implies(child, broad, viewDescriptor, binaryCollation));
+        }
+        return !broad.isGroup() && impliesCondition(narrow, broad, viewDescriptor, binaryCollation);
+    }
+
+    /**
+     * 同一字段的两个条件之间的蕴含关系
+     */
+    private static boolean impliesCondition(FilterCondition narrow, FilterCondition broad, ViewDescriptor viewDescriptor, boolean binaryCollation) {
+        if (narrow.getOperator() == null || broad.getOperator() == null || !Objects.equals(narrow.getProperty(), broad.getProperty())) {
+            return false;
+        }
+        if (narrow.equals(broad)) {
+            return true;
+        }
+        ViewFiledDescriptor field = viewDescriptor.findFieldDescriptor(narrow.getProperty());
+        if (field == null) {
+            return false;
+        }
+        FieldType type = field.getType();
+        FilterOp op = narrow.getOperator();
+        Object value = narrow.getValue();
+        if (op == FilterOp.NOT_IN && value instanceof Collection<?> values && values.stream().anyMatch(Objects::isNull)) {
+            // x NOT IN (..., NULL) 不会为真
+            return true;
+        }
+        if (broad.getOperator() == FilterOp.NOT_EMPTY) {
+            return op != FilterOp.IS_NULL;
+        }
+        switch (op) {
+            case EQUAL -> {
+                // 等值条件中的值就是满足它的行中的值
+                return value != null && !(value instanceof Collection)
+                        && Boolean.TRUE.equals(RowEvaluator.matches(value, broad.getOperator(), broad.getValue(), type, binaryCollation));
+            }
+            case GREATER, GREATER_OR_EQUAL, LESSER, LESSER_OR_EQUAL -> {
+                return impliesRange(narrow, broad, type, binaryCollation);
+            }
+            case STARTS_WITH, ENDS_WITH, CONTAINS, DOES_NOT_CONTAIN -> {
+                return binaryCollation && value instanceof String pattern && broad.getValue() instanceof String other
+                        && impliesPattern(op, pattern, broad.getOperator(), other);
+            }
+            case NOT_EQUAL, NOT_IN -> {
+                return impliesExclusion(narrow, broad, type, binaryCollation);
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 同向的范围，narrow 的边界更紧时蕴含 broad
+     */
+    private static boolean impliesRange(FilterCondition narrow, FilterCondition broad, FieldType type, boolean binaryCollation) {
+        FilterOp op = narrow.getOperator();
+        FilterOp other = broad.getOperator();
+        boolean lower = op == FilterOp.GREATER || op == FilterOp.GREATER_OR_EQUAL;
+        boolean otherLower = other == FilterOp.GREATER || other == FilterOp.GREATER_OR_EQUAL;
+        if ((other != FilterOp.GREATER && other != FilterOp.GREATER_OR_EQUAL && other != FilterOp.LESSER && other != FilterOp.LESSER_OR_EQUAL)
+                || lower != otherLower || narrow.getValue() == null || broad.getValue() == null) {
+            return false;
+        }
+        // 把 narrow 的边界值当作行中的值：x > 5 蕴含 x >= 5，x >= 5 不蕴含 x > 5
+        Boolean bounded = RowEvaluator.matches(narrow.getValue(), other, broad.getValue(), type, binaryCollation);
+        if (bounded == null) {
+            return false;
+        }
+        if (bounded) {
+            return true;
+        }
+        // 边界相同且都是开区间：x > 5 蕴含 x > 5.0
+        boolean strict = op == FilterOp.GREATER || op == FilterOp.LESSER;
+        boolean otherStrict = other == FilterOp.GREATER || other == FilterOp.LESSER;
+        return strict && otherStrict && Boolean.TRUE.equals(RowEvaluator.matches(narrow.getValue(), FilterOp.EQUAL, broad.getValue(), type, binaryCollation));
+    }
+
+    /**
+     * LIKE 类条件之间的包含关系，按二进制、区分大小写比较模式，只在数据库的排序规则同样按二进制比较时成立
+     */
+    private static boolean impliesPattern(FilterOp op, String pattern, FilterOp other, String otherPattern) {
+        return switch (op) {
+            case STARTS_WITH -> (other == FilterOp.STARTS_WITH && pattern.startsWith(otherPattern))
+                    || (other == FilterOp.CONTAINS && pattern.contains(otherPattern));
+            case ENDS_WITH -> (other == FilterOp.ENDS_WITH && pattern.endsWith(otherPattern))
+                    || (other == FilterOp.CONTAINS && pattern.contains(otherPattern));
+            case CONTAINS -> other == FilterOp.CONTAINS && pattern.contains(otherPattern);
+            // 不包含 'a' 的文本一定不包含 'ab'
+            case DOES_NOT_CONTAIN -> other == FilterOp.DOES_NOT_CONTAIN && otherPattern.contains(pattern);
+            default -> false;
+        };
+    }
+
+    /**
+     * narrow 排除的值包括 broad 排除的全部值时蕴含 broad
+     */
+    private static boolean impliesExclusion(FilterCondition narrow, FilterCondition broad, FieldType type, boolean binaryCollation) {
+        if (broad.getOperator() != FilterOp.NOT_EQUAL && broad.getOperator() != FilterOp.NOT_IN) {
+            return false;
+        }
+        Collection<?> excluded = excludedValues(narrow);
+        Collection<?> otherExcluded = excludedValues(broad);
+        if (excluded == null || otherExcluded == null || otherExcluded.stream().anyMatch(Objects::isNull)) {
+            return false;
+        }
+        for (Object other : otherExcluded) {
+            if (excluded.stream().noneMatch(value -> Boolean.TRUE.equals(RowEvaluator.matches(value, FilterOp.EQUAL, other, type, binaryCollation)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Collection<?> excludedValues(FilterCondition condition) {
+        if (condition.getOperator() == FilterOp.NOT_IN) {
+            return condition.getValue() instanceof Collection<?> values && !values.isEmpty() ? values : null;
+        }
+        return condition.getValue() == null || condition.getValue() instanceof Collection ? null : Collections.singletonList(condition.getValue());
+    }
+
+    private static boolean isTrue(FilterCondition condition) {
+        return FilterOptimizer.isConstant(condition) && condition.getGroup() == FilterType.AND;
+    }
+
+    private static boolean isFalse(FilterCondition condition) {
+        return FilterOptimizer.isConstant(condition) && condition.getGroup() == FilterType.OR;
+    }
+
+    private static FilterCondition leaf(String property, FilterOp operator, Object value) {
+        FilterCondition leaf = new FilterCondition();
+        leaf.setProperty(property);
+        leaf.setOperator(operator);
+        leaf.setValue(value);
+        return leaf;
+    }
+}
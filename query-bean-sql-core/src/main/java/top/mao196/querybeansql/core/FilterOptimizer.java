@@ -0,0 +1,335 @@
+package top.mao196.querybeansql.core;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * 条件树优化，在生成 SQL 之前改写请求中的条件树，不修改原始条件对象
+ * <ul>
+ *     <li>展开与父级类型相同的条件组，只有一个条件的条件组替换为该条件</li>
+ *     <li>去掉重复的条件</li>
+ *     <li>OR 中同一字段的多个 EQUAL / IN 合并为一个 IN（字段需要支持 IN）</li>
+ *     <li>AND 中同一字段的数值范围合并为最紧的上下界，范围为空时整个条件组恒为假</li>
+ *     <li>恒真、恒假的分支化简为常量：空的 AND 条件组表示恒真，空的 OR 条件组表示恒假</li>
+ *     <li>按字段、运算符排序，顺序不同但等价的请求得到相同的条件树，共用同一个查询计划</li>
+ * </ul>
+ * 无法确定含义的条件（未知字段、缺少运算符、值类型不匹配）原样保留，由 RequestParse 校验并报错
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public class FilterOptimizer {
+
+    private FilterOptimizer() {
+    }
+
+    /**
+     * 优化条件树
+     *
+     * @param condition      条件树
+     * @param viewDescriptor 视图描述信息
+     * @return 优化后的条件树
+     */
+    public static FilterCondition optimize(FilterCondition condition, ViewDescriptor viewDescriptor) {
+        if (condition == null || !condition.isGroup()) {
+            return condition;
+        }
+        FilterType type = condition.getGroup();
+        List<FilterCondition> children = new ArrayList<>();
+        for (FilterCondition child : condition.getConditions()) {
+            FilterCondition optimized = optimize(child, viewDescriptor);
+            if (optimized == null) {
+                continue;
+            }
+            if (optimized.isGroup() && optimized.getGroup() == type) {
+                // 展开相同类型的条件组，空条件组（当前类型的单位元）随之消失
+                children.addAll(optimized.getConditions());
+            } else if (isConstant(optimized)) {
+                // 另一种类型的空条件组是当前类型的零元，整个条件组随之成为常量
+                return optimized;
+            } else {
+                children.add(optimized);
+            }
+        }
+
+        children = distinct(children);
+        if (type == FilterType.OR) {
+            children = mergeEqualsIntoIn(children, viewDescriptor);
+        } else {
+            children = mergeRanges(children, viewDescriptor);
+            if (children == null) {
+                return constant(false);
+            }
+        }
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        children.sort(Comparator.comparing(FilterOptimizer::sortKey));
+        return group(type, children);
+    }
+
+    /**
+     * @return 是否为常量条件，空的 AND 条件组恒真，空的 OR 条件组恒假
+     */
+    public static boolean isConstant(FilterCondition condition) {
+        return condition.isGroup() && condition.getConditions().isEmpty();
+    }
+
+    private static FilterCondition constant(boolean value) {
+        return group(value ? FilterType.AND : FilterType.OR, new ArrayList<>());
+    }
+
+    private static FilterCondition group(FilterType type, List<FilterCondition> children) {
+        FilterCondition group = new FilterCondition();
+        group.setGroup(type);
+        group.setConditions(children);
+        return group;
+    }
+
+    private static FilterCondition leaf(String property, FilterOp operator, Object value) {
+        FilterCondition leaf = new FilterCondition();
+        leaf.setProperty(property);
+        leaf.setOperator(operator);
+        leaf.setValue(value);
+        return leaf;
+    }
+
+    private static List<FilterCondition> distinct(List<FilterCondition> children) {
+        List<FilterCondition> result = new ArrayList<>(children.size());
+        for (FilterCondition child : children) {
+            if (!result.contains(child)) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 合并 OR 中同一字段的 EQUAL / IN 条件
+     */
+    private static List<FilterCondition> mergeEqualsIntoIn(List<FilterCondition> children, ViewDescriptor viewDescriptor) {
+        Map<String, List<FilterCondition>> byProperty = new LinkedHashMap<>();
+        for (FilterCondition child : children) {
+            if (isMergeableIntoIn(child, viewDescriptor)) {
+                byProperty.computeIfAbsent(child.getProperty(), k -> new ArrayList<>()).add(child);
+            }
+        }
+        List<FilterCondition> result = new ArrayList<>(children.size());
+        for (FilterCondition child : children) {
+            List<FilterCondition> same = isMergeableIntoIn(child, viewDescriptor) ? byProperty.get(child.getProperty()) : null;
+            if (same == null || same.size() < 2) {
+                result.add(child);
+            } else if (same.get(0) == child) {
+                Set<Object> values = new LinkedHashSet<>();
+                for (FilterCondition condition : same) {
+                    if (condition.getOperator() == FilterOp.IN) {
+                        values.addAll((Collection<?>) condition.getValue());
+                    } else {
+                        values.add(condition.getValue());
+                    }
+                }
+                result.add(leaf(child.getProperty(), FilterOp.IN, new ArrayList<>(values)));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isMergeableIntoIn(FilterCondition condition, ViewDescriptor viewDescriptor) {
+        if (condition.isGroup() || condition.getValue() == null) {
+            return false;
+        }
+        ViewFiledDescriptor field = viewDescriptor.findFieldDescriptor(condition.getProperty());
+        if (field == null || !field.getAllowedOperators().contains(FilterOp.IN)) {
+            return false;
+        }
+        if (condition.getOperator() == FilterOp.EQUAL) {
+            return !(condition.getValue() instanceof Collection);
+        }
+        return condition.getOperator() == FilterOp.IN
+                && condition.getValue() instanceof Collection<?> values
+                && !values.isEmpty() && values.stream().noneMatch(Objects::isNull);
+    }
+
+    /**
+     * 合并 AND 中同一字段的 EQUAL 与范围条件
+     *
+     * @return 合并后的条件，范围为空时返回 null
+     */
+    private static List<FilterCondition> mergeRanges(List<FilterCondition> children, ViewDescriptor viewDescriptor) {
+        Map<String, Range> ranges = new LinkedHashMap<>();
+        for (FilterCondition child : children) {
+            if (isRangeCondition(child, viewDescriptor)) {
+                Range range = ranges.computeIfAbsent(child.getProperty(), k -> new Range());
+                if (!range.add(child)) {
+                    return null;
+                }
+            }
+        }
+        List<FilterCondition> result = new ArrayList<>(children.size());
+        for (FilterCondition child : children) {
+            Range range = isRangeCondition(child, viewDescriptor) ? ranges.remove(child.getProperty()) : null;
+            if (range != null) {
+                result.addAll(range.toConditions());
+            } else if (!isRangeCondition(child, viewDescriptor)) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isRangeCondition(FilterCondition condition, ViewDescriptor viewDescriptor) {
+        if (condition.isGroup() || condition.getOperator() == null || !isComparable(condition.getValue())) {
+            return false;
+        }
+        switch (condition.getOperator()) {
+            case EQUAL, GREATER, GREATER_OR_EQUAL, LESSER, LESSER_OR_EQUAL -> {
+                ViewFiledDescriptor field = viewDescriptor.findFieldDescriptor(condition.getProperty());
+                return field != null && field.getAllowedOperators().contains(condition.getOperator());
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 只合并数值和非字符串的可比较值，字符串的比较规则取决于数据库的排序规则
+     */
+    static boolean isComparable(Object value) {
+        return value instanceof Number || (value instanceof Comparable && !(value instanceof CharSequence));
+    }
+
+    /**
+     * @return 比较结果，两个值无法比较时返回 null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Integer compare(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            try {
+                return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+            } catch (NumberFormatException e) {
+                // NaN、Infinity
+                return null;
+            }
+        }
+        if (a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return null;
+    }
+
+    /**
+     * 同一字段的取值范围
+     */
+    private static class Range {
+
+        private FilterCondition equal;
+
+        private FilterCondition lower;
+
+        private FilterCondition upper;
+
+        /**
+         * 无法比较的条件原样保留
+         */
+        private final List<FilterCondition> others = new ArrayList<>();
+
+        /**
+         * @return 范围是否可能非空
+         */
+        boolean add(FilterCondition condition) {
+            switch (condition.getOperator()) {
+                case EQUAL -> {
+                    if (equal == null) {
+                        equal = condition;
+                    } else {
+                        Integer cmp = compare(equal.getValue(), condition.getValue());
+                        if (cmp == null) {
+                            others.add(condition);
+                        } else if (cmp != 0) {
+                            return false;
+                        }
+                    }
+                }
+                case GREATER, GREATER_OR_EQUAL -> {
+                    Integer cmp = lower == null ? Integer.valueOf(1) : compare(condition.getValue(), lower.getValue());
+                    if (cmp == null) {
+                        others.add(condition);
+                    } else if (cmp > 0 || (cmp == 0 && condition.getOperator() == FilterOp.GREATER)) {
+                        lower = condition;
+                    }
+                }
+                default -> {
+                    Integer cmp = upper == null ? Integer.valueOf(-1) : compare(condition.getValue(), upper.getValue());
+                    if (cmp == null) {
+                        others.add(condition);
+                    } else if (cmp < 0 || (cmp == 0 && condition.getOperator() == FilterOp.LESSER)) {
+                        upper = condition;
+                    }
+                }
+            }
+            return !isEmpty();
+        }
+
+        private boolean isEmpty() {
+            if (lower != null && upper != null) {
+                Integer cmp = compare(lower.getValue(), upper.getValue());
+                if (cmp != null && (cmp > 0 || (cmp == 0 && (lower.getOperator() == FilterOp.GREATER || upper.getOperator() == FilterOp.LESSER)))) {
+                    return true;
+                }
+            }
+            return equal != null && (outside(equal, lower, true) || outside(equal, upper, false));
+        }
+
+        private static boolean outside(FilterCondition equal, FilterCondition bound, boolean isLower) {
+            if (bound == null) {
+                return false;
+            }
+            Integer cmp = compare(equal.getValue(), bound.getValue());
+            if (cmp == null) {
+                return false;
+            }
+            boolean strict = bound.getOperator() == FilterOp.GREATER || bound.getOperator() == FilterOp.LESSER;
+            return isLower ? (cmp < 0 || (cmp == 0 && strict)) : (cmp > 0 || (cmp == 0 && strict));
+        }
+
+        List<FilterCondition> toConditions() {
+            List<FilterCondition> result = new ArrayList<>(3);
+            if (equal != null && isBoundedBy(equal, lower) && isBoundedBy(equal, upper)) {
+                // 等值已落在范围内，范围条件不再需要
+                result.add(equal);
+            } else {
+                if (equal != null) {
+                    result.add(equal);
+                }
+                if (lower != null) {
+                    result.add(lower);
+                }
+                if (upper != null) {
+                    result.add(upper);
+                }
+            }
+            result.addAll(others);
+            return result;
+        }
+
+        private static boolean isBoundedBy(FilterCondition equal, FilterCondition bound) {
+            return bound == null || compare(equal.getValue(), bound.getValue()) != null;
+        }
+    }
+
+    /**
+     * 排序键，条件在前、条件组在后，条件按字段和运算符排序，条件组按其中条件的排序键排序
+     */
+    private static String sortKey(FilterCondition condition) {
+        if (!condition.isGroup()) {
+            return "0" + Objects.toString(condition.getProperty(), "") + '\u0001'
+                    + (condition.getOperator() == null ? "" : condition.getOperator().name());
+        }
+        StringBuilder sb = new StringBuilder("1").append(condition.getGroup().name()).append('(');
+        for (FilterCondition child : condition.getConditions()) {
+            sb.append(sortKey(child)).append('\u0002');
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,83 @@
+package top.mao196.querybeansql.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 响应编码：JSON、Smile、CBOR
+ * <p>
+ * Smile、CBOR 使用的 ObjectMapper 复制自应用的 ObjectMapper，模块、日期格式等配置与 JSON 一致；
+ * 直接写入响应的接口（流式、列式）按 Accept 选择编码，其他接口由对应的 HttpMessageConverter 处理
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+public class JsonEncodings {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private final ObjectMapper json;
+
+    @Getter
+    private final ObjectMapper smile;
+
+    @Getter
+    private final ObjectMapper cbor;
+
+    public JsonEncodings(ObjectMapper objectMapper) {
+        this.json = objectMapper;
+        this.smile = objectMapper.copyWith(new SmileFactory());
+        this.cbor = objectMapper.copyWith(new CBORFactory());
+    }
+
+    /**
+     * 按 Accept 中质量值最高的 Smile 或 CBOR 选择编码，其他情况使用默认的文本编码
+     *
+     * @param request     请求
+     * @param defaultType 文本编码的类型，application/json 或 application/x-ndjson
+     * @return 编码
+     */
+    public Encoding negotiate(HttpServletRequest request, MediaType defaultType) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (!StringUtils.hasText(accept)) {
+            return new Encoding(defaultType, json, false);
+        }
+        List<MediaType> mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (APPLICATION_SMILE.equalsTypeAndSubtype(mediaType)) {
+                return new Encoding(APPLICATION_SMILE, smile, true);
+            } else if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return new Encoding(MediaType.APPLICATION_CBOR, cbor, true);
+            } else if (mediaType.includes(defaultType)) {
+                break;
+            }
+        }
+        return new Encoding(defaultType, json, false);
+    }
+
+    /**
+     * @param mediaType    响应的 Content-Type
+     * @param objectMapper 创建 JsonGenerator 的 ObjectMapper
+     * @param binary       是否为二进制编码，二进制编码不设置字符集，流式输出时不以换行分隔
+     */
+    public record Encoding(MediaType mediaType, ObjectMapper objectMapper, boolean binary) {
+    }
+}
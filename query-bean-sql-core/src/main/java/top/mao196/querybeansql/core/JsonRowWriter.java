@@ -0,0 +1,221 @@
+package top.mao196.querybeansql.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BooleanSerializer;
+import com.fasterxml.jackson.databind.ser.std.NumberSerializer;
+import com.fasterxml.jackson.databind.ser.std.NumberSerializers;
+import com.fasterxml.jackson.databind.ser.std.StringSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 把 ResultSet 的当前行直接写为 JSON 对象，不经过视图对象
+ * <p>
+ * 字段名和序列化方式取自 ObjectMapper 为视图类生成的序列化器，@JsonProperty、@JsonIgnore、@JsonFormat 等注解同样生效；
+ * 使用默认序列化器的字符串、数值、布尔值字段直接从 ResultSet 取值写入 JsonGenerator，其他字段读取后交给对应的序列化器。
+ * 只输出查询列，没有查询的字段和只有 getter 的计算属性不会出现在结果中
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public final class JsonRowWriter {
+
+    private final SerializerProvider provider;
+
+    private final List<String> properties;
+
+    /**
+     * 第 i 个元素对应第 i + 1 列，被 @JsonIgnore 忽略的列为 null
+     */
+    private final SerializableString[] names;
+
+    private final ColumnWriter[] writers;
+
+    private final ViewRowMapper.ColumnReader[] readers;
+
+    private JsonRowWriter(SerializerProvider provider, List<String> properties) {
+        this.provider = provider;
+        this.properties = properties;
+        this.names = new SerializableString[properties.size()];
+        this.writers = new ColumnWriter[properties.size()];
+        this.readers = new ViewRowMapper.ColumnReader[properties.size()];
+    }
+
+    /**
+     * 创建 JsonRowWriter
+     *
+     * @param viewDescriptor 视图
+     * @param properties     查询列对应的字段，顺序与查询列一致
+     * @param objectMapper   序列化视图对象使用的 ObjectMapper
+     * @return JsonRowWriter
+     */
+    public static JsonRowWriter of(ViewDescriptor viewDescriptor, List<String> properties, ObjectMapper objectMapper) {
+        JsonRowWriter rowWriter = new JsonRowWriter(objectMapper.getSerializerProviderInstance(), properties);
+        try {
+            Map<String, BeanPropertyWriter> propertyWriters = new HashMap<>();
+            Iterator<PropertyWriter> iterator = rowWriter.provider.findValueSerializer(viewDescriptor.getViewClass()).properties();
+            while (iterator.hasNext()) {
+                if (iterator.next() instanceof BeanPropertyWriter propertyWriter) {
+                    propertyWriters.put(propertyWriter.getName(), propertyWriter);
+                }
+            }
+            for (int i = 0; i < properties.size(); i++) {
+                Class<?> type = viewDescriptor.findFieldDescriptor(properties.get(i)).getClz();
+                rowWriter.readers[i] = ViewRowMapper.reader(type);
+                BeanPropertyWriter propertyWriter = propertyWriters.get(properties.get(i));
+                if (propertyWriter != null) {
+                    rowWriter.names[i] = propertyWriter.getSerializedName();
+                    JsonSerializer<Object> serializer = rowWriter.provider.findValueSerializer(propertyWriter.getType(), propertyWriter);
+                    rowWriter.writers[i] = writer(type, serializer, rowWriter.readers[i], rowWriter.provider);
+                }
+            }
+        } catch (JsonMappingException e) {
+            throw new QueryBeanSqlException("Cannot serialize view " + viewDescriptor.getName() + ": " + e.getOriginalMessage());
+        }
+        return rowWriter;
+    }
+
+    /**
+     * 写当前行
+     */
+    public void write(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < writers.length; i++) {
+            if (writers[i] != null) {
+                generator.writeFieldName(names[i]);
+                writers[i].write(rs, i + 1, generator);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * @return 查询列数
+     */
+    int size() {
+        return writers.length;
+    }
+
+    /**
+     * @param column 列下标，从 0 开始
+     * @return 输出的字段名，列被 @JsonIgnore 忽略时为 null
+     */
+    SerializableString name(int column) {
+        return names[column];
+    }
+
+    /**
+     * 只写当前行中一列的值
+     *
+     * @param column 列下标，从 0 开始，不能是被忽略的列
+     */
+    void writeValue(int column, ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        writers[column].write(rs, column + 1, generator);
+    }
+
+    /**
+     * 按字段类型读取当前行中的部分字段，用于生成游标
+     *
+     * @param rs     ResultSet
+     * @param fields 要读取的字段，必须在查询列中
+     * @return 字段名 -> 值
+     */
+    public Map<String, Object> read(ResultSet rs, List<String> fields) throws SQLException {
+        Map<String, Object> values = new HashMap<>(fields.size() * 2);
+        for (String field : fields) {
+            int i = properties.indexOf(field);
+            values.put(field, readers[i].read(rs, i + 1));
+        }
+        return values;
+    }
+
+    /**
+     * 默认序列化器直接写值，基本类型字段为 null 时与视图对象一致写默认值；其他情况交给序列化器
+     */
+    static ColumnWriter writer(Class<?> type, JsonSerializer<Object> serializer, ViewRowMapper.ColumnReader reader, SerializerProvider provider) {
+        boolean primitive = type.isPrimitive();
+        if (type == String.class && serializer instanceof StringSerializer) {
+            return (rs, index, generator) -> {
+                String value = rs.getString(index);
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeString(value);
+                }
+            };
+        } else if ((type == Long.class || type == long.class) && serializer instanceof NumberSerializers.LongSerializer) {
+            return (rs, index, generator) -> {
+                long value = rs.getLong(index);
+                if (!primitive && value == 0 && rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            };
+        } else if ((type == Integer.class || type == int.class) && serializer instanceof NumberSerializers.IntegerSerializer
+                || (type == Short.class || type == short.class) && serializer instanceof NumberSerializers.ShortSerializer) {
+            return (rs, index, generator) -> {
+                int value = rs.getInt(index);
+                if (!primitive && value == 0 && rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            };
+        } else if ((type == Double.class || type == double.class) && serializer instanceof NumberSerializers.DoubleSerializer) {
+            return (rs, index, generator) -> {
+                double value = rs.getDouble(index);
+                if (!primitive && value == 0 && rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            };
+        } else if ((type == Boolean.class || type == boolean.class) && serializer instanceof BooleanSerializer) {
+            return (rs, index, generator) -> {
+                boolean value = rs.getBoolean(index);
+                if (!primitive && !value && rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeBoolean(value);
+                }
+            };
+        } else if (type == BigDecimal.class && NumberSerializer.class.isInstance(serializer)) {
+            return (rs, index, generator) -> {
+                BigDecimal value = rs.getBigDecimal(index);
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            };
+        }
+        return (rs, index, generator) -> {
+            Object value = reader.read(rs, index);
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                serializer.serialize(value, generator, provider);
+            }
+        };
+    }
+
+    /**
+     * 把一列写为 JSON 值
+     */
+    @FunctionalInterface
+    interface ColumnWriter {
+        void write(ResultSet rs, int index, JsonGenerator generator) throws SQLException, IOException;
+    }
+}
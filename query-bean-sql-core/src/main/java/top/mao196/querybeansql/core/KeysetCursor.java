@@ -0,0 +1,141 @@
+package top.mao196.querybeansql.core;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.convert.Convert;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 游标分页的游标编解码
+ * <p>
+ * 游标是 base64url 编码的 JSON，记录上一页最后一行的排序字段值和排序签名（视图名与排序方式），
+ * 值统一按字符串保存，解码时再按字段类型转换，避免 JSON 数值丢失精度；
+ * 排序签名不一致的游标（换了视图或排序）直接拒绝
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String SIGNATURE_KEY = "k";
+
+    private static final String VALUES_KEY = "v";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * 根据本页最后一行生成下一页的游标
+     *
+     * @param result  本次查询的解析结果
+     * @param lastRow 本页最后一行
+     * @return 下一页的游标
+     */
+    public static String next(RequestParseResult result, Object lastRow) {
+        List<String> values = new ArrayList<>(result.getKeysetProperties().size());
+        for (String property : result.getKeysetProperties()) {
+            Object value = lastRow instanceof Map<?, ?> map ? map.get(property) : BeanUtil.getProperty(lastRow, property);
+            if (value == null) {
+                throw new QueryBeanSqlException("Cursor pagination requires non-null sort values, property: " + property);
+            }
+            values.add(format(value));
+        }
+        return encode(result.getKeysetSignature(), values);
+    }
+
+    static String encode(String signature, List<String> values) {
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsBytes(Map.of(SIGNATURE_KEY, signature, VALUES_KEY, values));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new QueryBeanSqlException("Failed to encode cursor: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor    游标
+     * @param signature 本次请求的排序签名
+     * @return 排序字段值
+     */
+    static List<String> decode(String cursor, String signature) {
+        Map<?, ?> content;
+        try {
+            content = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII)), Map.class);
+        } catch (Exception e) {
+            throw new QueryBeanSqlException("Invalid cursor: " + cursor);
+        }
+        if (!signature.equals(content.get(SIGNATURE_KEY)) || !(content.get(VALUES_KEY) instanceof List<?> values)) {
+            throw new QueryBeanSqlException("Cursor does not match the view or sort of this request");
+        }
+        List<String> result = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (!(value instanceof String text)) {
+                throw new QueryBeanSqlException("Invalid cursor: " + cursor);
+            }
+            result.add(text);
+        }
+        return result;
+    }
+
+    /**
+     * 值转为字符串，日期时间统一使用 ISO 格式
+     */
+    static String format(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        if (value instanceof Date date) {
+            // Date 字段读出的通常是 Timestamp，toInstant 保留纳秒
+            return date.toInstant().toString();
+        }
+        if (value instanceof java.math.BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * 按字段类型解析游标中的值
+     */
+    static Object parse(String text, Class<?> clz) {
+        try {
+            if (clz == LocalDateTime.class) {
+                return LocalDateTime.parse(text);
+            } else if (clz == LocalDate.class) {
+                return LocalDate.parse(text);
+            } else if (clz == LocalTime.class) {
+                return LocalTime.parse(text);
+            } else if (clz == OffsetDateTime.class) {
+                return OffsetDateTime.parse(text);
+            } else if (clz == ZonedDateTime.class) {
+                return ZonedDateTime.parse(text);
+            } else if (clz == Instant.class) {
+                return Instant.parse(text);
+            } else if (clz == java.sql.Date.class) {
+                return java.sql.Date.valueOf(LocalDate.parse(text));
+            } else if (clz == java.sql.Timestamp.class || clz == Date.class) {
+                // 以 Timestamp 绑定，不丢失毫秒以下的精度
+                return java.sql.Timestamp.from(Instant.parse(text));
+            }
+            Object value = Convert.convert(clz, text);
+            if (value != null) {
+                return value;
+            }
+        } catch (RuntimeException e) {
+            // DateTimeException、数值格式错误、ConvertException
+        }
+        throw new QueryBeanSqlException("Invalid cursor value: " + text);
+    }
+}
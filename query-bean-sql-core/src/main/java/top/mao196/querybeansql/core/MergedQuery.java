@@ -0,0 +1,19 @@
+package top.mao196.querybeansql.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 由多个形状相同的请求合并成的一条查询，参数按位置绑定，结果中的 {@link RequestParse#MERGED_INDEX_COLUMN} 列为行所属请求的下标
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Getter
+@AllArgsConstructor
+public class MergedQuery {
+
+    private final String sql;
+
+    private final Object[] args;
+}
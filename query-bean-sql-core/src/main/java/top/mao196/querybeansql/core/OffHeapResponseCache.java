@@ -0,0 +1,451 @@
+package top.mao196.querybeansql.core;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 序列化后的 search 响应缓存，数据保存在堆外的 direct ByteBuffer 中，不增加 GC 的负担
+ * <p>
+ * 堆外内存按 slab（每个 1MB）分配，slab 划分为固定大小的块，一个响应占用若干个块，块在释放后复用；
+ * 容量不足时按 LRU 淘汰。正在写出的响应会被标记占用，淘汰后等写出完成才释放它的块。
+ * 命中时按块复制到线程复用的缓冲区后写入响应，不反序列化，也不为响应体分配堆内存
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+@Slf4j
+public class OffHeapResponseCache {
+
+    /**
+     * 每个 slab 的大小
+     */
+    static final int SLAB_BYTES = 1 << 20;
+
+    private final boolean enabled;
+
+    private final boolean compress;
+
+    private final int blockSize;
+
+    private final int blocksPerSlab;
+
+    /**
+     * 容量对应的块数
+     */
+    private final int maxBlocks;
+
+    private final LongSupplier nanoTime;
+
+    /**
+     * 已分配的 slab，只会追加，追加时整体替换数组，读取时不需要加锁
+     */
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+
+    /**
+     * 已释放、可以复用的块
+     */
+    private int[] freeBlocks = new int[0];
+
+    private int freeCount;
+
+    /**
+     * 已经分配了堆外内存的块数
+     */
+    private int allocatedBlocks;
+
+    /**
+     * 缓存键 -> 响应，按访问顺序淘汰，所有状态由该对象的锁保护
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long payloadBytes;
+
+    /**
+     * 写出时复用的缓冲区，大小为一个块
+     */
+    private final ThreadLocal<byte[]> transferBuffer;
+
+    @Autowired
+    public OffHeapResponseCache(QueryBeanConfig queryBeanConfig) {
+        this(queryBeanConfig.getResponseCacheBytes(), queryBeanConfig.getResponseCacheBlockSize(),
+                queryBeanConfig.isResponseCacheCompress(), System::nanoTime);
+    }
+
+    /**
+     * @param capacity  容量（字节），0 表示不缓存
+     * @param blockSize 块大小，会被调整为 1MB 的约数
+     * @param compress  是否以 gzip 压缩后保存，只有接受 gzip 的请求才使用缓存
+     * @param nanoTime  计时，测试时可以替换
+     */
+    OffHeapResponseCache(long capacity, int blockSize, boolean compress, LongSupplier nanoTime) {
+        this.blockSize = Integer.highestOneBit(Math.min(Math.max(blockSize, 512), SLAB_BYTES));
+        this.blocksPerSlab = SLAB_BYTES / this.blockSize;
+        this.maxBlocks = (int) Math.min(Math.max(capacity, 0) / this.blockSize, Integer.MAX_VALUE - 8);
+        this.enabled = maxBlocks > 0;
+        this.compress = compress;
+        this.nanoTime = nanoTime;
+        this.transferBuffer = ThreadLocal.withInitial(() -> new byte[this.blockSize]);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 生成缓存键，未开启、结果不缓存，或者需要压缩但请求不接受 gzip 时返回 null
+     *
+     * @param resultKey 结果缓存的键
+     * @param mediaType 响应编码
+     * @param request   请求
+     * @return 缓存键
+     */
+    public Key key(ResultCache.Key resultKey, MediaType mediaType, HttpServletRequest request) {
+        if (!enabled || resultKey == null) {
+            return null;
+        }
+        if (compress && !acceptsGzip(request)) {
+            return null;
+        }
+        return new Key(resultKey, mediaType.toString(), compress);
+    }
+
+    /**
+     * 命中时写出缓存的响应
+     *
+     * @param key      缓存键
+     * @param response 响应
+     * @return 是否命中
+     */
+    public boolean writeTo(Key key, HttpServletResponse response) throws IOException {
+        Entry entry = acquire(key);
+        if (entry == null) {
+            return false;
+        }
+        try {
+            writeHeaders(key, entry.length, response);
+            copy(entry, response.getOutputStream());
+        } finally {
+            release(entry);
+        }
+        return true;
+    }
+
+    /**
+     * 命中时把缓存的响应体写入 out，不设置响应头
+     *
+     * @param key 缓存键
+     * @param out 输出
+     * @return 是否命中
+     */
+    public boolean copyTo(Key key, OutputStream out) throws IOException {
+        Entry entry = acquire(key);
+        if (entry == null) {
+            return false;
+        }
+        try {
+            copy(entry, out);
+        } finally {
+            release(entry);
+        }
+        return true;
+    }
+
+    /**
+     * 保存序列化后的响应并写出
+     *
+     * @param key      缓存键
+     * @param body     序列化后未压缩的响应体
+     * @param ttlNanos 缓存时间
+     * @param response 响应
+     */
+    public void putAndWrite(Key key, byte[] body, long ttlNanos, HttpServletResponse response) throws IOException {
+        byte[] bytes = key.gzip() ? gzip(body) : body;
+        put(key, bytes, ttlNanos);
+        writeHeaders(key, bytes.length, response);
+        response.getOutputStream().write(bytes);
+    }
+
+    /**
+     * 保存响应体，超出容量时按 LRU 淘汰，仍然放不下时不缓存
+     *
+     * @param key      缓存键
+     * @param bytes    响应体，compress 时为压缩后的数据
+     * @param ttlNanos 缓存时间
+     */
+    void put(Key key, byte[] bytes, long ttlNanos) {
+        int count = (bytes.length + blockSize - 1) / blockSize;
+        int[] blocks;
+        synchronized (entries) {
+            blocks = allocate(count);
+        }
+        if (blocks == null) {
+            return;
+        }
+        // 块在放入 entries 之前只属于当前线程，复制不需要加锁
+        for (int i = 0; i < count; i++) {
+            int offset = i * blockSize;
+            slab(blocks[i]).put(offsetInSlab(blocks[i]), bytes, offset, Math.min(blockSize, bytes.length - offset));
+        }
+        Entry entry = new Entry(key, blocks, bytes.length, nanoTime.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            payloadBytes += entry.length;
+            if (previous != null) {
+                remove(previous);
+            }
+        }
+    }
+
+    /**
+     * 清除视图的全部缓存响应
+     *
+     * @param viewName 视图名
+     * @return 清除的条数
+     */
+    public long invalidate(String viewName) {
+        long removed = 0;
+        synchronized (entries) {
+            for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+                if (entry.key.result().viewName().equals(viewName)) {
+                    iterator.remove();
+                    remove(entry);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 清除全部缓存响应，已分配的堆外内存保留复用
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                remove(entry);
+            }
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return 命中、未命中、淘汰次数和内存占用
+     */
+    public Stats stats() {
+        synchronized (entries) {
+            long allocatedBytes = 0;
+            for (ByteBuffer slab : slabs) {
+                allocatedBytes += slab.capacity();
+            }
+            return new Stats(enabled, hits, misses, evictions, entries.size(), payloadBytes,
+                    (long) (allocatedBlocks - freeCount) * blockSize, allocatedBytes, (long) maxBlocks * blockSize);
+        }
+    }
+
+    private Entry acquire(Key key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - nanoTime.getAsLong() <= 0) {
+                entries.remove(key);
+                remove(entry);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            entry.readers++;
+            return entry;
+        }
+    }
+
+    private void release(Entry entry) {
+        synchronized (entries) {
+            entry.readers--;
+            if (entry.removed && entry.readers == 0) {
+                free(entry.blocks);
+            }
+        }
+    }
+
+    /**
+     * 已经从 entries 中移除的响应，没有在写出时立即释放块，否则等写出完成后释放
+     */
+    private void remove(Entry entry) {
+        entry.removed = true;
+        payloadBytes -= entry.length;
+        if (entry.readers == 0) {
+            free(entry.blocks);
+        }
+    }
+
+    private void copy(Entry entry, OutputStream out) throws IOException {
+        byte[] buffer = transferBuffer.get();
+        int remaining = entry.length;
+        for (int block : entry.blocks) {
+            int length = Math.min(blockSize, remaining);
+            slab(block).get(offsetInSlab(block), buffer, 0, length);
+            out.write(buffer, 0, length);
+            remaining -= length;
+        }
+    }
+
+    private int[] allocate(int count) {
+        if (count > maxBlocks) {
+            return null;
+        }
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (freeCount + maxBlocks - allocatedBlocks < count && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            remove(entry);
+            evictions++;
+        }
+        if (freeCount + maxBlocks - allocatedBlocks < count) {
+            // 剩余的块都在写出中
+            return null;
+        }
+        int[] blocks = new int[count];
+        for (int i = 0; i < count; i++) {
+            blocks[i] = freeCount > 0 ? freeBlocks[--freeCount] : newBlock();
+        }
+        return blocks;
+    }
+
+    private int newBlock() {
+        int block = allocatedBlocks++;
+        if (block % blocksPerSlab == 0) {
+            int blocks = Math.min(blocksPerSlab, maxBlocks - block);
+            ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+            grown[slabs.length] = ByteBuffer.allocateDirect(blocks * blockSize);
+            slabs = grown;
+            log.debug("allocated off-heap slab of {} bytes, total {} slabs", blocks * blockSize, grown.length);
+        }
+        return block;
+    }
+
+    private void free(int[] blocks) {
+        if (freeBlocks.length < freeCount + blocks.length) {
+            freeBlocks = Arrays.copyOf(freeBlocks, Math.max(freeBlocks.length * 2, freeCount + blocks.length));
+        }
+        System.arraycopy(blocks, 0, freeBlocks, freeCount, blocks.length);
+        freeCount += blocks.length;
+    }
+
+    /**
+     * 块在加锁分配之后才会被读写，对应的 slab 一定已经存在
+     */
+    private ByteBuffer slab(int block) {
+        return slabs[block / blocksPerSlab];
+    }
+
+    private int offsetInSlab(int block) {
+        return (block % blocksPerSlab) * blockSize;
+    }
+
+    private static void writeHeaders(Key key, int length, HttpServletResponse response) {
+        response.setContentType(key.mediaType());
+        response.setContentLength(length);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (key.gzip()) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        for (Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING); headers.hasMoreElements(); ) {
+            for (String coding : headers.nextElement().split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 缓存键
+     *
+     * @param result    结果缓存的键
+     * @param mediaType 响应编码
+     * @param gzip      是否为 gzip 压缩的响应体
+     */
+    public record Key(ResultCache.Key result, String mediaType, boolean gzip) {
+    }
+
+    private static class Entry {
+
+        private final Key key;
+
+        private final int[] blocks;
+
+        private final int length;
+
+        private final long expiresAt;
+
+        /**
+         * 正在写出的请求数
+         */
+        private int readers;
+
+        /**
+         * 是否已从缓存中移除
+         */
+        private boolean removed;
+
+        Entry(Key key, int[] blocks, int length, long expiresAt) {
+            this.key = key;
+            this.blocks = blocks;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * @param enabled        是否开启
+     * @param hits           命中次数
+     * @param misses         未命中次数
+     * @param evictions      因容量不足被淘汰的条数，不包括过期和手动清除
+     * @param size           当前缓存的条数
+     * @param payloadBytes   当前缓存的响应体字节数
+     * @param usedBytes      当前占用的块的字节数
+     * @param allocatedBytes 已分配的堆外内存
+     * @param capacity       容量
+     */
+    public record Stats(boolean enabled, long hits, long misses, long evictions, long size, long payloadBytes,
+                        long usedBytes, long allocatedBytes, long capacity) {
+    }
+}
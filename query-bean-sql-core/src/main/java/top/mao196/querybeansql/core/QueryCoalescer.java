@@ -0,0 +1,187 @@
+package top.mao196.querybeansql.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 合并同时进行的相同查询（single-flight）
+ * <p>
+ * SQL 与绑定参数相同的请求同时到达时，只有第一个请求访问数据库，其余请求等待并共用它的结果；
+ * 等待受各自请求截止时间的限制。第一个请求超时或被取消时，仍在等待的请求自己重新执行，其他异常直接共用。
+ * 处于事务中的请求可能读到未提交的数据，不参与合并
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+@Slf4j
+public class QueryCoalescer {
+
+    private final boolean enabled;
+
+    /**
+     * 查询键 -> 正在执行的查询
+     */
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 实际执行的查询次数
+     */
+    private final LongAdder executions = new LongAdder();
+
+    /**
+     * 共用了其他请求结果、省去的查询次数
+     */
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * 第一个请求超时或被取消后重新执行的次数
+     */
+    private final LongAdder retries = new LongAdder();
+
+    @Autowired
+    public QueryCoalescer(QueryBeanConfig queryBeanConfig) {
+        this(queryBeanConfig.isCoalesceQueries());
+    }
+
+    QueryCoalescer(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 生成查询键，合并未开启或参数中有数组时返回 null，表示不合并
+     *
+     * @param result    请求解析结果
+     * @param countMode count 模式，不统计总行数时为 null
+     * @return 查询键
+     */
+    public Key key(RequestParseResult result, CountMode countMode) {
+        if (!enabled) {
+            return null;
+        }
+        // 数组参数没有按值比较的 equals
+        for (Object value : result.getParams().values()) {
+            if (value instanceof SqlParameterValue || (value != null && value.getClass().isArray())) {
+                return null;
+            }
+        }
+        return new Key(result.getQuerySql(), new HashMap<>(result.getParams()), countMode, result.getPageSize());
+    }
+
+    /**
+     * 执行查询，已有相同的查询在执行时等待并返回它的结果；返回的对象可能被多个请求共用，不能修改
+     *
+     * @param key      查询键，为 null 时直接执行
+     * @param deadline 截止时间（System.nanoTime），0 表示不限制
+     * @param query    查询
+     * @return 查询结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Key key, long deadline, Supplier<T> query) {
+        if (key == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            executions.increment();
+            return query.get();
+        }
+        while (true) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+            if (running == null) {
+                executions.increment();
+                try {
+                    T value = query.get();
+                    future.complete(value);
+                    return value;
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            }
+            try {
+                T value = (T) await(running, deadline);
+                coalesced.increment();
+                return value;
+            } catch (RetryException e) {
+                // 第一个请求在 finally 中才移除失败的查询，先移除以免重新取到它
+                inFlight.remove(key, running);
+                retries.increment();
+                log.debug("coalesced query failed with {}, retrying: [{}]", e.getCause().toString(), key.querySql());
+            }
+        }
+    }
+
+    /**
+     * @return 实际执行、合并和重新执行的次数
+     */
+    public Stats stats() {
+        return new Stats(enabled, executions.sum(), coalesced.sum(), retries.sum(), inFlight.size());
+    }
+
+    private static Object await(CompletableFuture<Object> running, long deadline) {
+        try {
+            if (deadline == 0) {
+                return running.get();
+            }
+            return running.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Query exceeded the request deadline");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryBeanSqlException("Interrupted while waiting for the query");
+        } catch (CancellationException e) {
+            throw new RetryException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            // 超时、取消等与第一个请求自身有关的失败，由等待的请求自己重新执行
+            if (cause instanceof TransientDataAccessException || cause instanceof CancellationException) {
+                throw new RetryException(cause);
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new QueryBeanSqlException("Query failed: " + cause);
+        }
+    }
+
+    /**
+     * 查询键
+     *
+     * @param querySql  数据查询 SQL
+     * @param params    绑定参数
+     * @param countMode count 模式，决定是否以及如何统计总行数
+     * @param pageSize  游标分页和 HAS_MORE 模式下每页的行数
+     */
+    public record Key(String querySql, Map<String, Object> params, CountMode countMode, Integer pageSize) {
+    }
+
+    /**
+     * @param enabled    是否开启合并
+     * @param executions 实际执行的查询次数
+     * @param coalesced  共用其他请求的结果、省去的查询次数
+     * @param retries    第一个请求超时或被取消后，等待的请求重新执行的次数
+     * @param inFlight   正在执行的查询数
+     */
+    public record Stats(boolean enabled, long executions, long coalesced, long retries, int inFlight) {
+    }
+
+    private static class RetryException extends RuntimeException {
+
+        RetryException(Throwable cause) {
+            super(null, cause, false, false);
+        }
+    }
+}
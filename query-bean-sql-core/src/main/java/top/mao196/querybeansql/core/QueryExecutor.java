@@ -0,0 +1,321 @@
+package top.mao196.querybeansql.core;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 查询执行器，让数据查询与 count 查询并行执行
+ * <p>
+ * count 提交到有界的线程池（或虚拟线程），同时执行的 count 不超过 query-bean.queryThreads，
+ * 默认取连接池大小的一半，并行的 count 最多占用一半连接；线程已满、存在事务或关闭并行时在请求线程上顺序执行。
+ * 两个查询共用请求的截止时间，剩余时间以 Statement.setQueryTimeout 下发给数据库
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+@Slf4j
+public class QueryExecutor implements DisposableBean {
+
+    /**
+     * 无法识别连接池大小时的线程数
+     */
+    private static final int DEFAULT_THREADS = 4;
+
+    /**
+     * 常见连接池最大连接数的属性名：HikariCP、Druid / Tomcat JDBC、DBCP2
+     */
+    private static final String[] POOL_SIZE_PROPERTIES = {"maximumPoolSize", "maxActive", "maxTotal"};
+
+    /**
+     * 当前线程正在执行的查询
+     */
+    private static final ThreadLocal<QueryTask<?>> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 按截止时间设置查询超时的 JdbcTemplate
+     */
+    @Getter
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final long defaultTimeoutMillis;
+
+    private final ExecutorService executor;
+
+    private final Semaphore permits;
+
+    public QueryExecutor(QueryBeanConfig queryBeanConfig, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(new DeadlineJdbcTemplate(namedParameterJdbcTemplate.getJdbcTemplate()));
+        this.defaultTimeoutMillis = Math.max(queryBeanConfig.getQueryTimeout(), 0);
+        if (!queryBeanConfig.isParallelCount()) {
+            this.executor = null;
+            this.permits = null;
+            return;
+        }
+        int threads = queryBeanConfig.getQueryThreads() > 0
+                ? queryBeanConfig.getQueryThreads()
+                : defaultThreads(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource());
+        this.executor = queryBeanConfig.isVirtualThreads() ? virtualThreadExecutor(threads) : platformThreadExecutor(threads);
+        this.permits = new Semaphore(threads);
+    }
+
+    /**
+     * 计算请求的截止时间，请求指定的超时不能超过 query-bean.queryTimeout
+     *
+     * @param timeoutMillis 请求指定的超时（毫秒），为空或不大于 0 时使用配置的超时
+     * @return 截止时间（System.nanoTime），0 表示没有截止时间
+     */
+    public long deadline(Integer timeoutMillis) {
+        return deadline(defaultTimeoutMillis, timeoutMillis);
+    }
+
+    static long deadline(long defaultTimeoutMillis, Integer timeoutMillis) {
+        long timeout = defaultTimeoutMillis;
+        if (timeoutMillis != null && timeoutMillis > 0) {
+            timeout = timeout == 0 ? timeoutMillis : Math.min(timeout, timeoutMillis);
+        }
+        if (timeout == 0) {
+            return 0;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        return deadline == 0 ? 1 : deadline;
+    }
+
+    /**
+     * 在当前线程执行查询
+     *
+     * @param deadline 截止时间
+     * @param query    查询
+     * @return 查询结果
+     */
+    public <T> T call(long deadline, Supplier<T> query) {
+        return new QueryTask<>(deadline, query).run();
+    }
+
+    /**
+     * 提交一个与当前线程并行的查询，没有空闲线程或当前线程处于事务中时，在 {@link QueryTask#join()} 时于调用线程执行
+     *
+     * @param deadline 截止时间
+     * @param query    查询
+     * @return 查询任务
+     */
+    public <T> QueryTask<T> submit(long deadline, Supplier<T> query) {
+        QueryTask<T> task = new QueryTask<>(deadline, query);
+        // 事务中的连接绑定在请求线程上，其他线程既看不到事务内的数据，也会再占用一个连接
+        if (executor == null || TransactionSynchronizationManager.isActualTransactionActive() || !permits.tryAcquire()) {
+            return task;
+        }
+        try {
+            task.future = executor.submit(() -> {
+                try {
+                    return task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+        }
+        return task;
+    }
+
+    /**
+     * 创建一个在 {@link QueryTask#join()} 时于调用线程执行的查询，不占用并行的线程和连接
+     *
+     * @param deadline 截止时间
+     * @param query    查询
+     * @return 查询任务
+     */
+    public <T> QueryTask<T> defer(long deadline, Supplier<T> query) {
+        return new QueryTask<>(deadline, query);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 连接池最大连接数的一半，无法识别连接池时为 {@link #DEFAULT_THREADS}
+     */
+    static int defaultThreads(DataSource dataSource) {
+        if (dataSource != null) {
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(dataSource);
+            for (String property : POOL_SIZE_PROPERTIES) {
+                if (wrapper.isReadableProperty(property) && wrapper.getPropertyValue(property) instanceof Integer size && size > 0) {
+                    return Math.max(size / 2, 1);
+                }
+            }
+        }
+        return DEFAULT_THREADS;
+    }
+
+    private static ExecutorService platformThreadExecutor(int threads) {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "query-bean-query-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Java 21 及以上使用虚拟线程，否则退回平台线程
+     */
+    private static ExecutorService virtualThreadExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not supported by this runtime, using platform threads");
+            return platformThreadExecutor(threads);
+        }
+    }
+
+    /**
+     * 一次查询，可以取消正在执行的 Statement
+     */
+    public static final class QueryTask<T> {
+
+        private final long deadline;
+
+        private final Supplier<T> query;
+
+        private volatile Future<T> future;
+
+        private volatile Statement statement;
+
+        private volatile boolean cancelled;
+
+        private QueryTask(long deadline, Supplier<T> query) {
+            this.deadline = deadline;
+            this.query = query;
+        }
+
+        private T run() {
+            QueryTask<?> previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return query.get();
+            } finally {
+                statement = null;
+                CURRENT.set(previous);
+            }
+        }
+
+        /**
+         * 等待查询结果，任务没有提交到线程池时在当前线程执行
+         *
+         * @return 查询结果
+         */
+        public T join() {
+            if (future == null) {
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+                return run();
+            }
+            try {
+                if (deadline == 0) {
+                    return future.get();
+                }
+                return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                cancel();
+                throw new QueryTimeoutException("Query exceeded the request deadline");
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new QueryBeanSqlException("Interrupted while waiting for the query");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new QueryBeanSqlException("Query failed: " + e.getCause());
+            }
+        }
+
+        /**
+         * 取消查询：尚未开始的不再执行，正在执行的取消 Statement
+         */
+        public void cancel() {
+            cancelled = true;
+            Future<T> current = future;
+            if (current != null) {
+                current.cancel(false);
+            }
+            Statement running = statement;
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException e) {
+                    log.debug("Failed to cancel statement: {}", e.getMessage());
+                }
+            }
+        }
+
+        private void apply(Statement stmt) throws SQLException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (deadline != 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new QueryTimeoutException("Query exceeded the request deadline");
+                }
+                // JDBC 的超时以秒为单位，向上取整
+                stmt.setQueryTimeout((int) Math.max(TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L), 1));
+            }
+            statement = stmt;
+            if (cancelled) {
+                stmt.cancel();
+            }
+        }
+    }
+
+    /**
+     * 复制原 JdbcTemplate 的设置，执行前按当前查询的截止时间设置超时
+     */
+    private static final class DeadlineJdbcTemplate extends JdbcTemplate {
+
+        DeadlineJdbcTemplate(JdbcTemplate source) {
+            super(source.getDataSource(), source.isLazyInit());
+            setExceptionTranslator(source.getExceptionTranslator());
+            setFetchSize(source.getFetchSize());
+            setMaxRows(source.getMaxRows());
+            setQueryTimeout(source.getQueryTimeout());
+            setIgnoreWarnings(source.isIgnoreWarnings());
+            setSkipResultsProcessing(source.isSkipResultsProcessing());
+            setSkipUndeclaredResults(source.isSkipUndeclaredResults());
+            setResultsMapCaseInsensitive(source.isResultsMapCaseInsensitive());
+        }
+
+        @Override
+        protected void applyStatementSettings(Statement stmt) throws SQLException {
+            super.applyStatementSettings(stmt);
+            QueryTask<?> task = CURRENT.get();
+            if (task != null) {
+                task.apply(stmt);
+            }
+        }
+    }
+}
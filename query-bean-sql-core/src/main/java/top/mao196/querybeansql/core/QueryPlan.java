@@ -0,0 +1,91 @@
+package top.mao196.querybeansql.core;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 编译后的查询计划，同一种请求形状（视图、字段、条件树结构与运算符、排序、分页）共用一个
+ * 计划中只有 SQL 文本和参数名，参数值在每次请求时由 RequestParse 按条件树的遍历顺序绑定
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Getter
+@Builder
+public class QueryPlan {
+
+    private final String column;
+
+    /**
+     * 查询列对应的字段，顺序与查询列一致
+     */
+    private final List<String> properties;
+
+    /**
+     * 处理后的视图 SQL（占位符已替换）
+     */
+    private final String viewSql;
+
+    private final String where;
+
+    private final String order;
+
+    private final String limit;
+
+    /**
+     * 合并查询的分支中额外查询的排序列，形如 col AS qb_s0_，没有排序时为 null
+     */
+    private final String mergeSortColumns;
+
+    /**
+     * 合并查询中按 mergeSortColumns 计算行序号的排序，形如 ORDER BY qb_s0_ desc，没有排序时为 null
+     */
+    private final String mergeOrder;
+
+    /**
+     * 完整的数据查询 SQL
+     */
+    private final String querySql;
+
+    /**
+     * 完整的计数 SQL
+     */
+    private final String countSql;
+
+    /**
+     * 估算行数时交给数据库 EXPLAIN 的 SQL，与 countSql 的条件相同
+     */
+    private final String estimateSql;
+
+    /**
+     * 数据查询是否以窗口函数一并返回总行数
+     */
+    private final boolean windowCount;
+
+    /**
+     * 需要绑定值的条件按深度优先遍历顺序对应的参数名
+     */
+    private final String[] paramNames;
+
+    /**
+     * 是否绑定 offset 参数
+     */
+    private final boolean hasOffset;
+
+    /**
+     * 游标分页时的排序字段（类中的字段名），末尾是 tieBreaker；非游标分页时为 null
+     */
+    private final List<String> keysetProperties;
+
+    /**
+     * 游标分页的排序签名，游标中记录的签名与之一致才能使用
+     */
+    private final String keysetSignature;
+
+    /**
+     * 是否绑定游标中的排序字段值
+     */
+    private final boolean hasCursor;
+}
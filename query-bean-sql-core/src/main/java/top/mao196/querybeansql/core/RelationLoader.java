@@ -0,0 +1,144 @@
+package top.mao196.querybeansql.core;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 按请求的 include 加载关联视图的行
+ * <p>
+ * 关联在 {@code @ViewField(relationView)} 中声明：字段的值对应关联视图中 relationKey 字段的值。
+ * 一页数据中一个关联的全部不同值合并为一次 IN 查询，而不是每行查询一次；嵌套的关联（例如 user.orders）
+ * 以上一层加载的行继续加载。关联的层数、一个关联的不同值个数和返回的行数分别受
+ * query-bean.includeMaxDepth、includeMaxKeys、includeMaxRows 限制，超过时请求失败
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+public class RelationLoader {
+
+    private final int maxDepth;
+
+    private final int maxKeys;
+
+    private final int maxRows;
+
+    @Autowired
+    public RelationLoader(QueryBeanConfig queryBeanConfig) {
+        this(queryBeanConfig.getIncludeMaxDepth(), queryBeanConfig.getIncludeMaxKeys(),
+                Math.min(queryBeanConfig.getIncludeMaxRows(), queryBeanConfig.getMaxLimit() - 1));
+    }
+
+    RelationLoader(int maxDepth, int maxKeys, int maxRows) {
+        this.maxDepth = maxDepth;
+        this.maxKeys = maxKeys;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * 加载请求 include 的关联视图的行
+     *
+     * @param viewDescriptor 主查询的视图
+     * @param requestDTO     主查询的请求，关联查询使用相同的占位符参数
+     * @param rows           主查询返回的行
+     * @param views          按名称查找视图，找不到时抛出异常
+     * @param search         执行一次关联查询，返回查询到的行
+     * @return 关联名称 -> 行，按 include 中出现的顺序，嵌套关联的上一层在前；请求没有 include 时返回 null
+     */
+    public Map<String, List<?>> load(ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO, List<?> rows,
+                                     Function<String, ViewDescriptor> views,
+                                     BiFunction<ViewDescriptor, SearchEntitiesRequestDTO, List<?>> search) {
+        if (CollUtil.isEmpty(requestDTO.getInclude())) {
+            return null;
+        }
+        Related root = new Related(viewDescriptor, rows);
+        Map<String, Related> loaded = new LinkedHashMap<>();
+        for (String path : requestDTO.getInclude()) {
+            List<String> names = StrUtil.split(path, '.');
+            if (StrUtil.isBlank(path) || names.stream().anyMatch(StrUtil::isBlank)) {
+                throw new QueryBeanSqlException("Invalid include: " + path);
+            }
+            if (names.size() > maxDepth) {
+                throw new QueryBeanSqlException(String.format("include %s is nested deeper than %d", path, maxDepth));
+            }
+            Related parent = root;
+            for (int i = 0; i < names.size(); i++) {
+                String prefix = String.join(".", names.subList(0, i + 1));
+                Related related = loaded.get(prefix);
+                if (related == null) {
+                    // 只有主查询可能通过 fields 省略了关联字段
+                    related = fetch(prefix, parent, names.get(i), parent == root ? requestDTO.getFields() : null,
+                            requestDTO.getParameters(), views, search);
+                    loaded.put(prefix, related);
+                }
+                parent = related;
+            }
+        }
+        Map<String, List<?>> included = new LinkedHashMap<>();
+        loaded.forEach((path, related) -> included.put(path, related.rows()));
+        return included;
+    }
+
+    /**
+     * 以上一层的行中关联字段的不同值查询关联视图
+     */
+    private Related fetch(String path, Related parent, String name, List<String> fields, Map<String, Object> parameters,
+                          Function<String, ViewDescriptor> views, BiFunction<ViewDescriptor, SearchEntitiesRequestDTO, List<?>> search) {
+        ViewFiledDescriptor relation = parent.view().findRelation(name);
+        if (relation == null) {
+            throw new QueryBeanSqlException(String.format("relation: %s cannot be found in view: %s", name, parent.view().getName()));
+        }
+        if (CollUtil.isNotEmpty(fields) && !fields.contains(relation.getRawName())) {
+            throw new QueryBeanSqlException(String.format("include %s requires field: %s", path, relation.getRawName()));
+        }
+        ViewDescriptor target = views.apply(relation.getRelationView());
+        if (target.findFieldDescriptor(relation.getRelationKey()) == null) {
+            throw new QueryBeanSqlException(String.format("relationKey: %s is not a field of view: %s", relation.getRelationKey(), target.getName()));
+        }
+
+        Set<Object> keys = new LinkedHashSet<>();
+        for (Object row : parent.rows()) {
+            Object key = RowEvaluator.property(row, relation.getRawName());
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        if (keys.size() > maxKeys) {
+            throw new QueryBeanSqlException(String.format("include %s has %d keys, the maximum is %d", path, keys.size(), maxKeys));
+        }
+        if (keys.isEmpty()) {
+            return new Related(target, List.of());
+        }
+
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(relation.getRelationKey());
+        condition.setOperator(FilterOp.IN);
+        condition.setValue(new ArrayList<>(keys));
+        SearchFilter filter = new SearchFilter();
+        filter.addCondition(condition);
+        SearchEntitiesRequestDTO request = new SearchEntitiesRequestDTO();
+        request.setFilter(filter);
+        request.setSort(relation.getRelationKey());
+        // 多取一行判断是否超过上限
+        request.setLimit(maxRows + 1);
+        request.setParameters(parameters);
+        List<?> rows = search.apply(target, request);
+        if (rows.size() > maxRows) {
+            throw new QueryBeanSqlException(String.format("include %s returns more than %d rows", path, maxRows));
+        }
+        return new Related(target, rows);
+    }
+
+    /**
+     * 一层加载的视图和行
+     */
+    private record Related(ViewDescriptor view, List<?> rows) {
+    }
+}
@@ -2,17 +2,22 @@ package top.mao196.querybeansql.core;
 
 
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ConcurrentLruCache;
 import top.mao196.querybeansql.config.QueryBeanConfig;
-import top.mao196.querybeansql.placeholder.FunctionPlaceholderParser;
+import top.mao196.querybeansql.dialect.Dialect;
+import top.mao196.querybeansql.dialect.Dialects;
 import top.mao196.querybeansql.placeholder.PlaceholderContext;
+import top.mao196.querybeansql.placeholder.SqlTemplate;
 import top.mao196.querybeansql.util.QueryUtils;
 
-import java.time.temporal.Temporal;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,107 +26,749 @@ import java.util.stream.Collectors;
  * @since 2025/3/14
  **/
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class RequestParse {
 
+    /**
+     * limit 参数名
+     */
+    public static final String LIMIT_PARAM = "_limit";
+
+    /**
+     * offset 参数名
+     */
+    public static final String OFFSET_PARAM = "_offset";
+
+    /**
+     * 游标中排序字段值的参数名前缀，参数名为前缀加上排序字段的下标
+     */
+    public static final String CURSOR_PARAM = "_c";
+
+    /**
+     * WINDOW 模式下随数据返回的总行数列
+     */
+    public static final String WINDOW_COUNT_COLUMN = "qb_total_";
+
+    /**
+     * 合并查询中标记行属于第几个请求的列
+     */
+    public static final String MERGED_INDEX_COLUMN = "qb_batch_";
+
+    /**
+     * 合并查询中行在所属请求的排序中的序号
+     */
+    private static final String MERGED_ROW_COLUMN = "qb_row_";
+
+    /**
+     * 合并查询的分支中排序列的前缀，后接排序字段的下标
+     */
+    private static final String MERGED_SORT_PREFIX = "qb_s";
+
+    /**
+     * 合并查询中包住分支的派生表别名，计算行序号时引用分支的全部列
+     */
+    private static final String MERGED_BRANCH_ALIAS = "qb_branch_";
+
+    /**
+     * 合并查询最多绑定的参数个数，SQL Server 一条语句最多 2100 个参数
+     */
+    static final int MAX_MERGED_ARGS = 2000;
+
+    /**
+     * 条件参数名前缀，参数名为前缀加上条件在条件树中的位置
+     */
+    private static final String PARAM_PREFIX = "p";
+
     private final QueryBeanConfig queryBeanConfig;
 
+    /**
+     * 数据库方言
+     */
+    private final Dialect dialect;
+
+    /**
+     * 请求形状 -> 编译后的查询计划
+     */
+    private final ConcurrentLruCache<PlanKey, QueryPlan> planCache;
+
+    /**
+     * 没有 Dialect Bean 时（例如 query-bean.enable=false）使用 MySQL 方言
+     */
+    @Autowired(required = false)
+    public RequestParse(QueryBeanConfig queryBeanConfig) {
+        this(queryBeanConfig, Dialects.MYSQL);
+    }
+
+    @Autowired(required = false)
+    public RequestParse(QueryBeanConfig queryBeanConfig, Dialect dialect) {
+        this.queryBeanConfig = queryBeanConfig;
+        this.dialect = dialect;
+        this.planCache = new ConcurrentLruCache<>(Math.max(queryBeanConfig.getPlanCacheSize(), 0), this::compile);
+    }
+
     public RequestParseResult parse(SearchEntitiesRequestDTO requestDTO, @NonNull ViewDescriptor viewDescriptor) {
+        return parse(requestDTO, viewDescriptor, queryBeanConfig.getMaxLimit());
+    }
+
+    /**
+     * 解析请求，返回行数不超过 maxLimit
+     *
+     * @param requestDTO     请求
+     * @param viewDescriptor 视图
+     * @param maxLimit       最多返回的行数，流式查询使用 query-bean.streamMaxLimit
+     * @return 解析结果
+     */
+    public RequestParseResult parse(SearchEntitiesRequestDTO requestDTO, @NonNull ViewDescriptor viewDescriptor, int maxLimit) {
+        // 先处理 SQL 模板中的占位符，BIND 模式下占位符的值放入 placeholderParams
+        Map<String, Object> placeholderParams = new HashMap<>();
+        String processedSql = processSqlPlaceholder(viewDescriptor.getTemplate(), requestDTO, placeholderParams);
+        FilterCondition rootCondition = rootCondition(requestDTO.getFilter(), viewDescriptor);
+
+        // 同一形状的请求复用编译好的 SQL，只绑定参数值
+        PlanKey planKey = new PlanKey(fingerprint(viewDescriptor, processedSql, rootCondition, requestDTO),
+                viewDescriptor, processedSql, rootCondition, requestDTO);
+        QueryPlan plan = planCache.get(planKey);
+        planKey.release();
+
         RequestParseResult result = new RequestParseResult();
+        result.setColumn(plan.getColumn());
+        result.setProperties(plan.getProperties());
+        result.setViewSql(plan.getViewSql());
+        result.setWhere(plan.getWhere());
+        result.setOrder(plan.getOrder());
+        result.setLimit(plan.getLimit());
+        result.setMergeSortColumns(plan.getMergeSortColumns());
+        result.setMergeOrder(plan.getMergeOrder());
+        result.setQuerySql(plan.getQuerySql());
+        result.setCountSql(plan.getCountSql());
+        result.setEstimateSql(plan.getEstimateSql());
+        result.setWindowCount(plan.isWindowCount());
+        result.setKeysetProperties(plan.getKeysetProperties());
+        result.setKeysetSignature(plan.getKeysetSignature());
+        int limit = limit(requestDTO, maxLimit);
+        // 游标分页和 HAS_MORE 多取一行，判断是否还有下一页
+        boolean probe = plan.getKeysetProperties() != null || requestDTO.getCountMode() == CountMode.HAS_MORE;
+        if (probe) {
+            result.setPageSize(limit);
+        }
+        Map<String, Object> params = bindParams(plan, rootCondition, requestDTO, viewDescriptor, probe ? limit + 1 : limit);
+        params.putAll(placeholderParams);
+        result.setParams(params);
+        return result;
+    }
 
-        // 先处理 SQL 模板中的占位符
-        String processedSql = processSqlPlaceholder(viewDescriptor.getSql(), requestDTO);
+    /**
+     * 请求能否与查询 SQL 相同的其他请求合并为一条查询：数据库需要支持窗口函数，
+     * 不使用 WINDOW 模式的总行数列，参数中没有数组
+     *
+     * @param result 请求解析结果
+     * @return 是否可以合并
+     */
+    public boolean isMergeable(RequestParseResult result) {
+        if (dialect.windowCount() == null || result.isWindowCount()
+                || !result.getQuerySql().startsWith("SELECT " + result.getColumn() + " FROM ")) {
+            return false;
+        }
+        for (Object value : result.getParams().values()) {
+            if (value instanceof SqlParameterValue || (value != null && value.getClass().isArray())) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        // 处理 column,根据 fields 参数构建列
-        // 如果没有指定 fields，则返回所有字段
-        String columns = buildColumns(viewDescriptor, requestDTO.getFields());
-        result.setColumn(columns);
+    /**
+     * 把查询 SQL 相同、只有参数值不同的多个请求合并为一条 UNION ALL 查询
+     * <p>
+     * 每个请求的查询（包括各自的排序和分页）作为一个分支，分支中增加请求的下标 qb_batch_ 和排序列 qb_s0_...。
+     * 有排序时分支先按自己的 limit 取出行，再在外层派生表中按排序列计算 ROW_NUMBER() qb_row_，
+     * 序号只对取出的行计算，不影响数据库对单个查询的 top-N 优化。结果按 qb_batch_、qb_row_ 排序，
+     * {@link #MERGED_INDEX_COLUMN} 列的值用于把行分回各个请求。
+     * 命名参数展开为按位置绑定的参数，IN 列表展开为多个参数
+     *
+     * @param results 请求解析结果，查询 SQL 相同并且都满足 {@link #isMergeable}
+     * @return 合并后的查询，参数超过 {@link #MAX_MERGED_ARGS} 个时返回 null
+     */
+    public MergedQuery merge(List<RequestParseResult> results) {
+        StringJoiner sql = new StringJoiner(" UNION ALL ");
+        List<Object> args = new ArrayList<>();
+        boolean ordered = false;
+        for (int i = 0; i < results.size(); i++) {
+            RequestParseResult result = results.get(i);
+            ordered = result.getMergeOrder() != null;
+            String select = "SELECT " + result.getColumn();
+            String branch = select + ", " + i + " AS " + MERGED_INDEX_COLUMN
+                    + (ordered ? ", " + result.getMergeSortColumns() : "")
+                    + result.getQuerySql().substring(select.length());
+            if (ordered) {
+                branch = "SELECT " + MERGED_BRANCH_ALIAS + ".*, ROW_NUMBER() OVER (" + result.getMergeOrder() + ") AS " + MERGED_ROW_COLUMN
+                        + " FROM (" + branch + ") " + MERGED_BRANCH_ALIAS;
+            }
+            MapSqlParameterSource paramSource = new MapSqlParameterSource(result.getParams());
+            sql.add("SELECT * FROM " + dialect.derivedTable(NamedParameterUtils.substituteNamedParameters(branch, paramSource)));
+            for (Object value : NamedParameterUtils.buildValueArray(branch, result.getParams())) {
+                if (value instanceof Collection<?> values) {
+                    args.addAll(values);
+                } else {
+                    args.add(value);
+                }
+            }
+            if (args.size() > MAX_MERGED_ARGS) {
+                return null;
+            }
+        }
+        String order = " ORDER BY " + MERGED_INDEX_COLUMN + (ordered ? ", " + MERGED_ROW_COLUMN : "");
+        return new MergedQuery(sql + order, args.toArray());
+    }
+
+    /**
+     * 编译查询计划，只依赖请求的形状，不读取条件中的值
+     */
+    private QueryPlan compile(PlanKey planKey) {
+        ViewDescriptor viewDescriptor = planKey.viewDescriptor;
+        SearchEntitiesRequestDTO requestDTO = planKey.requestDTO;
+
+        // 视图 SQL 可以下推时直接引用视图内部的列表达式，否则包一层派生表
+        ViewSqlShape shape = viewDescriptor.isPushdown() ? pushdownShape(viewDescriptor, planKey.viewSql) : null;
+
+        // 游标分页时排序末尾追加 tieBreaker，每个排序字段都有明确的方向
+        boolean keysetMode = requestDTO.getCursor() != null;
+        List<SearchOrder.OrderBy> orderByList = keysetMode
+                ? keysetOrder(viewDescriptor, requestDTO)
+                : requestDTO.getSortOrder().getOrderByList();
+        List<String> keysetProperties = keysetMode
+                ? orderByList.stream().map(SearchOrder.OrderBy::getProperty).toList()
+                : null;
+        boolean hasCursor = keysetMode && StrUtil.isNotBlank(requestDTO.getCursor());
 
-        // 设置处理后的 SQL
-        result.setViewSql(processedSql);
+        // 处理 column,根据 fields 参数构建列
+        // 如果没有指定 fields，则返回所有字段；游标分页时排序字段总会查询，用于生成下一页的游标
+        List<String> requestedFields = requestDTO.getFields();
+        if (keysetMode && CollUtil.isNotEmpty(requestedFields)) {
+            requestedFields = new ArrayList<>(requestedFields);
+            for (String property : keysetProperties) {
+                if (!requestedFields.contains(property)) {
+                    requestedFields.add(property);
+                }
+            }
+        }
+        String columns = buildColumns(viewDescriptor, requestedFields, shape);
+        List<String> properties = CollUtil.isEmpty(requestedFields)
+                ? viewDescriptor.getFields().stream().map(ViewFiledDescriptor::getRawName).toList()
+                : List.copyOf(requestedFields);
 
         // 处理where中的条件
-        SearchFilter filter = requestDTO.getFilter();
-        if (filter != null) {
-            List<FilterCondition> conditions = filter.getConditions();
-            FilterCondition rootCondition = new FilterCondition();
-            rootCondition.setGroup(FilterType.AND);
-            rootCondition.setConditions(conditions);
-            Map<String, Object> params = new HashMap<>();
-            result.setWhere("WHERE " + parseConditions(rootCondition, params, viewDescriptor));
-            result.setParams(params);
+        String conditions = null;
+        List<String> paramNames = new ArrayList<>();
+        if (planKey.rootCondition != null) {
+            StringBuilder conditionBuilder = new StringBuilder();
+            appendConditions(planKey.rootCondition, conditionBuilder, paramNames, viewDescriptor, PARAM_PREFIX, shape);
+            conditions = conditionBuilder.toString();
         }
+        String viewWhere = shape == null ? null : shape.getWhere();
+        // count 不受游标影响，统计的是全部满足条件的行
+        String countWhere = where(viewWhere, conditions, null);
+        String where = hasCursor
+                ? where(viewWhere, conditions, keysetPredicate(orderByList, viewDescriptor, shape))
+                : countWhere;
 
         // 处理order by
-        if (CollUtil.isNotEmpty(requestDTO.getSortOrder().getOrderByList())) {
-            String orderPart = requestDTO.getSortOrder().getOrderByList().stream()
-                    .map(orderBy -> {
-                        // 验证排序字段是否属于视图，防止 SQL 注入
-                        ViewFiledDescriptor fieldDescriptor = viewDescriptor.findFieldDescriptor(orderBy.getProperty());
-                        if (fieldDescriptor == null) {
-                            throw new QueryBeanSqlException("Invalid sort property: " + orderBy.getProperty());
-                        }
-                        return fieldDescriptor.getColumnName() + " " + orderBy.getOrder().getType();
-                    })
-                    .collect(Collectors.joining(", "));
-            result.setOrder("ORDER BY " + orderPart);
-        }
-
-        // 处理limit,如果limit没有只指定了offset将不会生效
-        int limit;
-        if (requestDTO.getLimit() != null){
-            limit = requestDTO.getLimit() > queryBeanConfig.getMaxLimit() ? queryBeanConfig.getMaxLimit() : requestDTO.getLimit();
-        }else {
-            limit = queryBeanConfig.getMaxLimit();
+        String order = null;
+        String mergeSortColumns = null;
+        String mergeOrder = null;
+        if (CollUtil.isNotEmpty(orderByList)) {
+            StringBuilder orderBuilder = new StringBuilder("ORDER BY ");
+            StringJoiner sortColumns = new StringJoiner(", ");
+            StringJoiner sortOrder = new StringJoiner(", ", "ORDER BY ", "");
+            for (int i = 0; i < orderByList.size(); i++) {
+                SearchOrder.OrderBy orderBy = orderByList.get(i);
+                // 验证排序字段是否属于视图，防止 SQL 注入
+                ViewFiledDescriptor fieldDescriptor = viewDescriptor.findFieldDescriptor(orderBy.getProperty());
+                if (fieldDescriptor == null) {
+                    throw new QueryBeanSqlException("Invalid sort property: " + orderBy.getProperty());
+                }
+                if (i > 0) {
+                    orderBuilder.append(", ");
+                }
+                orderBuilder.append(columnReference(fieldDescriptor, shape)).append(' ').append(orderBy.getOrder().getType());
+                sortColumns.add(columnReference(fieldDescriptor, shape) + " AS " + MERGED_SORT_PREFIX + i + '_');
+                sortOrder.add(MERGED_SORT_PREFIX + i + "_ " + orderBy.getOrder().getType());
+            }
+            order = orderBuilder.toString();
+            mergeSortColumns = sortColumns.toString();
+            mergeOrder = sortOrder.toString();
+        }
+
+        // limit 与 offset 都以参数绑定，不同的分页共用同一条 SQL
+        boolean hasOffset = requestDTO.getOffset() != null;
+        String limit = dialect.limit(LIMIT_PARAM, hasOffset ? OFFSET_PARAM : null, order != null);
+
+        String from = shape == null
+                ? " FROM " + dialect.derivedTable(planKey.viewSql)
+                : " FROM " + shape.getFrom();
+        StringBuilder querySql = new StringBuilder(from.length() + columns.length() + 128)
+                .append("SELECT ").append(columns);
+        // 游标分页的条件包含游标，窗口函数统计的不是总行数
+        boolean windowCount = requestDTO.getCountMode() == CountMode.WINDOW && !keysetMode && dialect.windowCount() != null;
+        if (windowCount) {
+            querySql.append(", ").append(dialect.windowCount()).append(" AS ").append(WINDOW_COUNT_COLUMN);
+        }
+        querySql.append(from);
+        if (where != null) {
+            querySql.append(' ').append(where);
+        }
+        if (order != null) {
+            querySql.append(' ').append(order);
+        }
+        querySql.append(' ').append(limit);
+
+        return QueryPlan.builder()
+                .column(columns)
+                .properties(properties)
+                .viewSql(planKey.viewSql)
+                .where(where)
+                .order(order)
+                .limit(limit)
+                .mergeSortColumns(mergeSortColumns)
+                .mergeOrder(mergeOrder)
+                .querySql(querySql.toString())
+                .countSql(countWhere == null ? "SELECT count(*)" + from : "SELECT count(*)" + from + ' ' + countWhere)
+                .estimateSql(countWhere == null ? "SELECT 1" + from : "SELECT 1" + from + ' ' + countWhere)
+                .windowCount(windowCount)
+                .paramNames(paramNames.toArray(new String[0]))
+                .hasOffset(hasOffset)
+                .keysetProperties(keysetProperties)
+                .keysetSignature(keysetMode ? keysetSignature(viewDescriptor, orderByList) : null)
+                .hasCursor(hasCursor)
+                .build();
+    }
+
+    /**
+     * 拼接 WHERE 子句，视图自身的条件、请求中的条件、游标条件按 AND 组合
+     *
+     * @return WHERE 子句，没有任何条件时返回 null
+     */
+    private static String where(String viewWhere, String conditions, String keysetPredicate) {
+        if (conditions == null && keysetPredicate == null) {
+            return viewWhere == null ? null : "WHERE " + viewWhere;
+        }
+        StringJoiner joiner = new StringJoiner(" AND ", "WHERE ", "");
+        if (viewWhere != null) {
+            joiner.add('(' + viewWhere + ')');
+        }
+        if (conditions != null) {
+            joiner.add(conditions);
+        }
+        if (keysetPredicate != null) {
+            joiner.add(keysetPredicate);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * 游标分页的排序：请求中的排序加上 tieBreaker，未指定方向时按升序
+     * tieBreaker 唯一，排在它之后的排序字段不会影响结果，直接去掉
+     */
+    private static List<SearchOrder.OrderBy> keysetOrder(ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO) {
+        String tieBreaker = viewDescriptor.getTieBreaker();
+        if (tieBreaker == null) {
+            throw new QueryBeanSqlException("Cursor pagination is not supported by view: " + viewDescriptor.getName() + ", no tieBreaker declared");
         }
         if (requestDTO.getOffset() != null) {
-            result.setLimit(String.format("LIMIT %d,%d", requestDTO.getOffset(), limit));
-        } else {
-            result.setLimit(String.format("LIMIT %d", limit));
+            throw new QueryBeanSqlException("cursor and offset cannot be used together");
         }
+        List<SearchOrder.OrderBy> keyset = new ArrayList<>();
+        SearchOrder.OrderByType direction = SearchOrder.OrderByType.ASC;
+        for (SearchOrder.OrderBy orderBy : requestDTO.getSortOrder().getOrderByList()) {
+            direction = orderBy.getOrder() == SearchOrder.OrderByType.DESC ? SearchOrder.OrderByType.DESC : SearchOrder.OrderByType.ASC;
+            keyset.add(new SearchOrder.OrderBy(direction, orderBy.getProperty()));
+            if (tieBreaker.equals(orderBy.getProperty())) {
+                break;
+            }
+        }
+        if (keyset.isEmpty() || !tieBreaker.equals(keyset.get(keyset.size() - 1).getProperty())) {
+            // 与最后一个排序字段同向，所有字段同向时可以使用行值比较
+            keyset.add(new SearchOrder.OrderBy(direction, tieBreaker));
+        }
+        for (SearchOrder.OrderBy orderBy : keyset) {
+            ViewFiledDescriptor fieldDescriptor = viewDescriptor.findFieldDescriptor(orderBy.getProperty());
+            if (fieldDescriptor == null) {
+                throw new QueryBeanSqlException("Invalid sort property: " + orderBy.getProperty());
+            }
+            FieldType type = fieldDescriptor.getType();
+            if (type != FieldType.STRING && type != FieldType.NUMERIC && type != FieldType.DATE_TIME) {
+                throw new QueryBeanSqlException("Cursor pagination does not support sort property: " + orderBy.getProperty());
+            }
+        }
+        return keyset;
+    }
 
-        return result;
+    /**
+     * 排序签名，形如 order:-amount,+id，游标只能用于签名相同的请求
+     */
+    private static String keysetSignature(ViewDescriptor viewDescriptor, List<SearchOrder.OrderBy> keyset) {
+        SearchOrder searchOrder = new SearchOrder();
+        searchOrder.setOrderByList(keyset);
+        return viewDescriptor.getName() + ':' + searchOrder.toSort();
     }
 
+    /**
+     * 游标条件，取排在游标之后的行
+     * 所有排序字段同向时使用行值比较 (k1, k2) > (:_c0, :_c1)，可以直接使用联合索引；
+     * 方向不一致或数据库不支持行值比较时展开为 k1 >= :_c0 AND (k1 > :_c0 OR (k1 = :_c0 AND k2 < :_c1))
+     */
+    private String keysetPredicate(List<SearchOrder.OrderBy> keyset, ViewDescriptor viewDescriptor, ViewSqlShape shape) {
+        String[] columns = new String[keyset.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columnReference(viewDescriptor.findFieldDescriptor(keyset.get(i).getProperty()), shape);
+        }
+        boolean sameDirection = keyset.stream().map(SearchOrder.OrderBy::getOrder).distinct().count() == 1;
+        StringBuilder sb = new StringBuilder();
+        if (sameDirection && (columns.length == 1 || dialect.supportsRowValues())) {
+            String operator = keyset.get(0).getOrder() == SearchOrder.OrderByType.DESC ? " < " : " > ";
+            if (columns.length == 1) {
+                return columns[0] + operator + ':' + CURSOR_PARAM + 0;
+            }
+            StringJoiner params = new StringJoiner(", ", "(", ")");
+            for (int i = 0; i < columns.length; i++) {
+                params.add(":" + CURSOR_PARAM + i);
+            }
+            return sb.append('(').append(String.join(", ", columns)).append(')').append(operator).append(params).toString();
+        }
+        // 第一个排序字段的闭区间条件可以走索引，OR 展开的部分只在区间内过滤
+        sb.append('(').append(columns[0]).append(keyset.get(0).getOrder() == SearchOrder.OrderByType.DESC ? " <= :" : " >= :")
+                .append(CURSOR_PARAM).append(0).append(" AND (");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sb.append(" OR (");
+                for (int j = 0; j < i; j++) {
+                    sb.append(columns[j]).append(" = :").append(CURSOR_PARAM).append(j).append(" AND ");
+                }
+            }
+            sb.append(columns[i]).append(keyset.get(i).getOrder() == SearchOrder.OrderByType.DESC ? " < :" : " > :")
+                    .append(CURSOR_PARAM).append(i);
+            if (i > 0) {
+                sb.append(')');
+            }
+        }
+        return sb.append("))").toString();
+    }
+
+    /**
+     * 按计划中的参数名绑定本次请求的参数值
+     */
+    private Map<String, Object> bindParams(QueryPlan plan, FilterCondition rootCondition, SearchEntitiesRequestDTO requestDTO, ViewDescriptor viewDescriptor, int limit) {
+        Map<String, Object> params = new HashMap<>((plan.getParamNames().length + 2) * 2);
+        if (rootCondition != null) {
+            bindConditions(rootCondition, plan.getParamNames(), 0, params, viewDescriptor);
+        }
+
+        params.put(LIMIT_PARAM, limit);
+        if (plan.getKeysetProperties() != null) {
+            if (plan.isHasCursor()) {
+                List<String> values = KeysetCursor.decode(requestDTO.getCursor().trim(), plan.getKeysetSignature());
+                List<String> properties = plan.getKeysetProperties();
+                if (values.size() != properties.size()) {
+                    throw new QueryBeanSqlException("Cursor does not match the view or sort of this request");
+                }
+                for (int i = 0; i < values.size(); i++) {
+                    Class<?> clz = viewDescriptor.findFieldDescriptor(properties.get(i)).getClz();
+                    params.put(CURSOR_PARAM + i, KeysetCursor.parse(values.get(i), clz));
+                }
+            }
+            return params;
+        }
+        if (plan.isHasOffset()) {
+            params.put(OFFSET_PARAM, requestDTO.getOffset());
+        }
+        return params;
+    }
+
+    /**
+     * 处理limit,如果limit没有只指定了offset将不会生效
+     */
+    private int limit(SearchEntitiesRequestDTO requestDTO, int maxLimit) {
+        if (requestDTO.getLimit() != null) {
+            return requestDTO.getLimit() > maxLimit ? maxLimit : requestDTO.getLimit();
+        }
+        return maxLimit;
+    }
+
+    /**
+     * 最外层的条件按 AND 组合，没有条件或条件恒真时返回 null
+     */
+    private FilterCondition rootCondition(SearchFilter filter, ViewDescriptor viewDescriptor) {
+        if (filter == null || CollUtil.isEmpty(filter.getConditions())) {
+            return null;
+        }
+        FilterCondition rootCondition = new FilterCondition();
+        rootCondition.setGroup(FilterType.AND);
+        rootCondition.setConditions(filter.getConditions());
+        if (!queryBeanConfig.isOptimizeFilter()) {
+            return rootCondition;
+        }
+        FilterCondition optimized = FilterOptimizer.optimize(rootCondition, viewDescriptor);
+        if (FilterOptimizer.isConstant(optimized) && optimized.getGroup() == FilterType.AND) {
+            return null;
+        }
+        if (!optimized.isGroup()) {
+            // 最外层始终是条件组，参数名从 p0 开始
+            rootCondition = new FilterCondition();
+            rootCondition.setGroup(FilterType.AND);
+            rootCondition.setConditions(List.of(optimized));
+            return rootCondition;
+        }
+        return optimized;
+    }
+
+    /**
+     * 请求形状的指纹，字符串都带长度前缀，避免不同形状拼出相同的指纹
+     */
+    private String fingerprint(ViewDescriptor viewDescriptor, String viewSql, FilterCondition rootCondition, SearchEntitiesRequestDTO requestDTO) {
+        StringBuilder sb = new StringBuilder(viewSql == null ? 128 : viewSql.length() + 128);
+        appendToken(sb, viewDescriptor.getName());
+        appendToken(sb, viewSql);
+        sb.append(viewDescriptor.isPushdown() ? 'P' : '-');
+        sb.append('F');
+        if (requestDTO.getFields() != null) {
+            for (String field : requestDTO.getFields()) {
+                appendToken(sb, field);
+            }
+        }
+        sb.append('W');
+        if (rootCondition != null) {
+            appendShape(sb, rootCondition);
+        }
+        sb.append('S');
+        appendToken(sb, requestDTO.getSort());
+        sb.append(requestDTO.getOffset() != null ? 'O' : '-');
+        if (requestDTO.getCursor() != null) {
+            sb.append(StrUtil.isBlank(requestDTO.getCursor()) ? 'C' : 'K');
+        }
+        if (requestDTO.getCountMode() == CountMode.WINDOW) {
+            sb.append('N');
+        }
+        return sb.toString();
+    }
+
+    private void appendShape(StringBuilder sb, FilterCondition condition) {
+        if (condition.isGroup()) {
+            sb.append(condition.getGroup().name()).append('(');
+            if (condition.getConditions() != null) {
+                for (FilterCondition child : condition.getConditions()) {
+                    appendShape(sb, child);
+                }
+            }
+            sb.append(')');
+        } else {
+            appendToken(sb, condition.getProperty());
+            sb.append(condition.getOperator() == null ? "?" : condition.getOperator().name());
+            if (isArrayBinding(condition)) {
+                sb.append("[]");
+            } else {
+                int chunks = inListChunks(condition);
+                if (chunks > 1) {
+                    sb.append('[').append(chunks).append(']');
+                }
+            }
+            sb.append(';');
+        }
+    }
+
+    private static void appendToken(StringBuilder sb, String token) {
+        if (token == null) {
+            sb.append('~');
+        } else {
+            sb.append(token.length()).append(':').append(token);
+        }
+    }
 
     public String parseConditions(FilterCondition conditionObj, Map<String, Object> params, ViewDescriptor viewDescriptor) {
-        if (conditionObj.isGroup()) {
-            return conditionObj.getConditions().stream()
-                    .map(x -> parseConditions(x, params, viewDescriptor))
-                    .collect(Collectors.joining(conditionObj.getGroup().name(), "(", ")"));
+        if (queryBeanConfig.isOptimizeFilter()) {
+            conditionObj = FilterOptimizer.optimize(conditionObj, viewDescriptor);
+        }
+        StringBuilder sql = new StringBuilder();
+        List<String> paramNames = new ArrayList<>();
+        appendConditions(conditionObj, sql, paramNames, viewDescriptor, PARAM_PREFIX, null);
+        bindConditions(conditionObj, paramNames.toArray(new String[0]), 0, params, viewDescriptor);
+        return sql.toString();
+    }
+
+    /**
+     * 生成条件 SQL，按深度优先顺序记录需要绑定值的参数名
+     * 参数名由条件在条件树中的位置决定，例如第 3 个条件组中的第 2 个条件为 p2_1，同一形状的请求总是生成相同的 SQL 文本
+     *
+     * @param path 当前条件在条件树中的路径
+     * @param shape 下推时的视图结构，为 null 时引用派生表的列
+     */
+    private void appendConditions(FilterCondition conditionObj, StringBuilder sql, List<String> paramNames, ViewDescriptor viewDescriptor, String path, ViewSqlShape shape) {
+        if (FilterOptimizer.isConstant(conditionObj)) {
+            // 空的 AND 条件组恒真，空的 OR 条件组恒假
+            sql.append(conditionObj.getGroup() == FilterType.AND ? "1=1" : "1=0");
+        } else if (conditionObj.isGroup()) {
+            sql.append('(');
+            List<FilterCondition> conditions = conditionObj.getConditions();
+            String childPrefix = PARAM_PREFIX.equals(path) ? path : path + "_";
+            for (int i = 0; i < conditions.size(); i++) {
+                if (i > 0) {
+                    sql.append(' ').append(conditionObj.getGroup().name()).append(' ');
+                }
+                appendConditions(conditions.get(i), sql, paramNames, viewDescriptor, childPrefix + i, shape);
+            }
+            sql.append(')');
         } else {
             FilterOp operator = conditionObj.getOperator();
             ViewFiledDescriptor fieldDescriptor = viewDescriptor.findFieldDescriptor(conditionObj.getProperty());
+            if (fieldDescriptor == null) {
+                throw new QueryBeanSqlException("Invalid filter property: " + conditionObj.getProperty());
+            }
+            if (operator == null) {
+                throw new QueryBeanSqlException("Missing filter operator for property: " + conditionObj.getProperty());
+            }
 
             // 验证运算符是否与字段类型兼容
             validateOperatorForType(operator, fieldDescriptor);
 
-            String columnName = fieldDescriptor.getColumnName();
-            if (operator == FilterOp.IS_NULL || operator == FilterOp.NOT_EMPTY) {
-                return String.format("%s %s", columnName, operator.getSqlOp());
-            } else {
-                String queryParamName = conditionObj.getProperty() + "_" + RandomUtil.randomString(RandomUtil.BASE_CHAR, 5);
-                if (operator == FilterOp.IN || operator == FilterOp.NOT_IN) {
-                    if (!(conditionObj.getValue() instanceof Collection<?>)) {
-                        throw new QueryBeanSqlException(String.format("operator: %s, value: %s", operator, conditionObj.getValue()));
-                    }
-                    List<Object> parsedArrayValue = new ArrayList<>();
-                    for (Object o : (Collection<?>) conditionObj.getValue()) {
-                        parsedArrayValue.add(o);
+            String column = columnReference(fieldDescriptor, shape);
+            if (isArrayBinding(conditionObj)) {
+                // 大列表以一个数组参数绑定：IN -> = ANY(:p)，NOT IN -> <> ALL(:p)
+                String arrayParamName = paramName(conditionObj.getProperty(), path);
+                paramNames.add(arrayParamName);
+                sql.append(dialect.arrayIn(column, arrayParamName, operator == FilterOp.NOT_IN));
+                return;
+            }
+            int chunks = inListChunks(conditionObj);
+            if (chunks > 1) {
+                // 超过方言限制的列表拆成多个，IN 以 OR 连接，NOT IN 以 AND 连接，参数名为 p0_0、p0_1...
+                sql.append('(');
+                String chunkPrefix = paramName(conditionObj.getProperty(), path);
+                for (int i = 0; i < chunks; i++) {
+                    if (i > 0) {
+                        sql.append(operator == FilterOp.IN ? " OR " : " AND ");
                     }
-                    params.put(queryParamName, parsedArrayValue);
-                    return String.format("%s %s (:%s)", columnName, operator.getSqlOp(), queryParamName);
-                    // 解析数组
-                } else {
-                    params.put(queryParamName, transValue(operator, conditionObj.getValue()));
-                    return String.format("%s %s :%s", columnName, operator.getSqlOp(), queryParamName);
+                    String chunkParamName = chunkPrefix + "_" + i;
+                    paramNames.add(chunkParamName);
+                    sql.append(column).append(' ').append(operator.getSqlOp()).append(" (:").append(chunkParamName).append(')');
                 }
+                sql.append(')');
+                return;
+            }
+            sql.append(column).append(' ').append(operator.getSqlOp());
+            if (!needsValue(operator)) {
+                return;
+            }
+            String queryParamName = paramName(conditionObj.getProperty(), path);
+            paramNames.add(queryParamName);
+            if (operator == FilterOp.IN || operator == FilterOp.NOT_IN) {
+                sql.append(" (:").append(queryParamName).append(')');
+            } else {
+                sql.append(" :").append(queryParamName);
             }
         }
     }
 
+    /**
+     * 条件的参数名，默认为条件在条件树中的位置，同一形状的请求总是得到相同的参数名
+     *
+     * @param property 条件的字段名
+     * @param path     条件在条件树中的路径
+     * @return 参数名
+     */
+    protected String paramName(String property, String path) {
+        return path;
+    }
+
+    /**
+     * 按与 appendConditions 相同的顺序绑定条件中的值
+     *
+     * @return 下一个参数的下标
+     */
+    private int bindConditions(FilterCondition conditionObj, String[] paramNames, int index, Map<String, Object> params, ViewDescriptor viewDescriptor) {
+        if (conditionObj.isGroup()) {
+            for (FilterCondition child : conditionObj.getConditions()) {
+                index = bindConditions(child, paramNames, index, params, viewDescriptor);
+            }
+            return index;
+        }
+        FilterOp operator = conditionObj.getOperator();
+        if (!needsValue(operator)) {
+            return index;
+        }
+        if (operator == FilterOp.IN || operator == FilterOp.NOT_IN) {
+            // 解析数组
+            if (!(conditionObj.getValue() instanceof Collection<?> collection)) {
+                throw new QueryBeanSqlException(String.format("operator: %s, value: %s", operator, conditionObj.getValue()));
+            }
+            if (isArrayBinding(conditionObj)) {
+                ViewFiledDescriptor fieldDescriptor = viewDescriptor.findFieldDescriptor(conditionObj.getProperty());
+                params.put(paramNames[index], QueryUtils.sqlArray(arrayElementType(fieldDescriptor), collection));
+                return index + 1;
+            }
+            // 补齐到 2 的幂长度，展开后的 SQL 只有有限的几种
+            List<Object> values = queryBeanConfig.isInListPadding() && !collection.isEmpty()
+                    ? QueryUtils.padInList(collection)
+                    : new ArrayList<>(collection);
+            int chunks = inListChunks(conditionObj);
+            int chunkSize = dialect.maxInListSize();
+            for (int i = 0; i < chunks; i++) {
+                params.put(paramNames[index + i], chunks == 1 ? values : values.subList(i * chunkSize, Math.min(values.size(), (i + 1) * chunkSize)));
+            }
+            return index + chunks;
+        } else {
+            params.put(paramNames[index], transValue(operator, conditionObj.getValue()));
+        }
+        return index + 1;
+    }
+
+    /**
+     * IN / NOT_IN 的值超过阈值时以数组参数绑定，SQL 文本随之改变，所以同时计入请求形状
+     */
+    private boolean isArrayBinding(FilterCondition condition) {
+        int threshold = queryBeanConfig.getInListArrayThreshold();
+        return threshold > 0 && dialect.supportsArrayBinding()
+                && (condition.getOperator() == FilterOp.IN || condition.getOperator() == FilterOp.NOT_IN)
+                && condition.getValue() instanceof Collection<?> collection
+                && collection.size() > threshold;
+    }
+
+    /**
+     * 方言限制了 IN 列表长度时，列表需要拆成的个数，按补齐后的长度计算
+     */
+    private int inListChunks(FilterCondition condition) {
+        int max = dialect.maxInListSize();
+        if (max <= 0 || (condition.getOperator() != FilterOp.IN && condition.getOperator() != FilterOp.NOT_IN)
+                || !(condition.getValue() instanceof Collection<?> collection) || isArrayBinding(condition)) {
+            return 1;
+        }
+        int size = queryBeanConfig.isInListPadding() ? QueryUtils.paddedSize(collection.size()) : collection.size();
+        return Math.max(1, (size + max - 1) / max);
+    }
+
+    /**
+     * 数组参数的元素类型
+     */
+    private static String arrayElementType(ViewFiledDescriptor fieldDescriptor) {
+        if (fieldDescriptor.getType() != FieldType.NUMERIC) {
+            return "VARCHAR";
+        }
+        Class<?> clz = fieldDescriptor.getClz();
+        boolean integral = clz == Long.class || clz == long.class || clz == Integer.class || clz == int.class
+                || clz == Short.class || clz == short.class || clz == Byte.class || clz == byte.class;
+        return integral ? "BIGINT" : "NUMERIC";
+    }
+
+    private static boolean needsValue(FilterOp operator) {
+        return operator != FilterOp.IS_NULL && operator != FilterOp.NOT_EMPTY;
+    }
+
     public Object transValue(FilterOp operator, Object value) {
+        return bindValue(operator, value);
+    }
+
+    /**
+     * 条件值绑定到 SQL 时的值，LIKE 类运算符的值转义后加上通配符
+     */
+    static Object bindValue(FilterOp operator, Object value) {
         return switch (operator) {
             case CONTAINS, DOES_NOT_CONTAIN -> "%" + QueryUtils.escapeForLike((String) value) + "%";
             case STARTS_WITH -> QueryUtils.escapeForLike((String) value) + "%";
@@ -132,21 +779,22 @@ public class RequestParse {
 
     /**
      * 处理 SQL 模板中的占位符
-     * @param sql 原始 SQL 模板
+     * @param template 视图注册时预编译的 SQL 模板
      * @param requestDTO 请求参数
+     * @param binds 接收 BIND 模式下占位符的参数值
      * @return 处理后的 SQL
      */
-    private String processSqlPlaceholder(String sql, SearchEntitiesRequestDTO requestDTO) {
-        if (sql == null || sql.isEmpty()) {
-            return sql;
+    private String processSqlPlaceholder(SqlTemplate template, SearchEntitiesRequestDTO requestDTO, Map<String, Object> binds) {
+        if (template.isStatic()) {
+            // 不含占位符的视图无需构建上下文
+            return template.getStaticSql();
         }
-        log.info("[PLACEHOLDER] Processing SQL: {}", sql);
         // 构建占位符上下文
         PlaceholderContext context = PlaceholderContext.fromRequest(requestDTO);
-        // 解析占位符
-        String result = FunctionPlaceholderParser.parse(sql, context);
-        log.info("[PLACEHOLDER] Result SQL: {}", result);
-        log.info("[PLACEHOLDER] Parameters: {}", context.getAll());
+        String result = template.render(context, binds);
+        if (log.isDebugEnabled()) {
+            log.debug("[PLACEHOLDER] Result SQL: {}, parameters: {}", result, context.getAll());
+        }
         return result;
     }
 
@@ -156,12 +804,12 @@ public class RequestParse {
      * @param requestedFields 请求的字段列表，null 或空表示返回所有字段
      * @return 列名字符串
      */
-    private String buildColumns(ViewDescriptor viewDescriptor, List<String> requestedFields) {
+    private String buildColumns(ViewDescriptor viewDescriptor, List<String> requestedFields, ViewSqlShape shape) {
         // 如果没有指定字段，返回所有字段
         if (CollUtil.isEmpty(requestedFields)) {
-            return viewDescriptor.getFields().stream()
-                    .map(x -> x.getColumnName() + " AS " + x.getRawName())
-                    .collect(Collectors.joining(", "));
+            return shape == null && !dialect.foldsIdentifierCase()
+                    ? viewDescriptor.getAllColumns()
+                    : viewDescriptor.getFields().stream().map(it -> columnFragment(it, shape)).collect(Collectors.joining(", "));
         }
 
         // 根据请求的字段构建列
@@ -171,11 +819,45 @@ public class RequestParse {
                     if (fieldDescriptor == null) {
                         throw new QueryBeanSqlException("Invalid field: " + fieldName);
                     }
-                    return fieldDescriptor.getColumnName() + " AS " + fieldDescriptor.getRawName();
+                    return columnFragment(fieldDescriptor, shape);
                 })
                 .collect(Collectors.joining(", "));
     }
 
+    /**
+     * 分析视图 SQL 能否下推，视图的每个字段都要能对应到内部的列表达式
+     *
+     * @return 视图结构，不能下推时返回 null
+     */
+    private ViewSqlShape pushdownShape(ViewDescriptor viewDescriptor, String viewSql) {
+        ViewSqlShape shape = ViewSqlShape.analyze(viewSql);
+        if (shape != null) {
+            for (ViewFiledDescriptor field : viewDescriptor.getFields()) {
+                if (shape.resolve(field.getColumnName()) == null) {
+                    shape = null;
+                    break;
+                }
+            }
+        }
+        if (shape == null) {
+            log.debug("view [{}] is not safe to push down, falling back to derived table", viewDescriptor.getName());
+        }
+        return shape;
+    }
+
+    private static String columnReference(ViewFiledDescriptor fieldDescriptor, ViewSqlShape shape) {
+        return shape == null ? fieldDescriptor.getColumnName() : shape.resolve(fieldDescriptor.getColumnName());
+    }
+
+    private String columnFragment(ViewFiledDescriptor fieldDescriptor, ViewSqlShape shape) {
+        if (shape == null && !dialect.foldsIdentifierCase()) {
+            return fieldDescriptor.getColumnFragment();
+        }
+        // 会转换标识符大小写的数据库为别名加引号，保留字段名的大小写
+        String alias = dialect.foldsIdentifierCase() ? dialect.quoteIdentifier(fieldDescriptor.getRawName()) : fieldDescriptor.getRawName();
+        return columnReference(fieldDescriptor, shape) + " AS " + alias;
+    }
+
     /**
      * 验证运算符是否与字段类型兼容
      * @param operator 运算符
@@ -183,105 +865,57 @@ public class RequestParse {
      * @throws QueryBeanSqlException 如果运算符不兼容
      */
     private void validateOperatorForType(FilterOp operator, ViewFiledDescriptor fieldDescriptor) {
-        Class<?> fieldType = fieldDescriptor.getClz();
-        Set<FilterOp> allowedOps = getAllowedOperatorsForType(fieldType);
+        Set<FilterOp> allowedOps = fieldDescriptor.getAllowedOperators();
 
         if (!allowedOps.contains(operator)) {
             throw new QueryBeanSqlException(
                     String.format("Operator '%s' is not supported for field type '%s'. Allowed operators: %s",
                             operator.getStringOp(),
-                            fieldType.getSimpleName(),
+                            fieldDescriptor.getClz().getSimpleName(),
                             allowedOps.stream().map(FilterOp::getStringOp).collect(Collectors.joining(", "))));
         }
     }
 
     /**
-     * 根据字段类型获取允许的运算符集合
-     * @param fieldType 字段的 Java 类型
-     * @return 允许的运算符集合
+     * 查询计划缓存的 key，只按指纹比较
+     * 其余字段只在编译计划时使用，编译后释放，避免缓存持有请求对象
      */
-    private Set<FilterOp> getAllowedOperatorsForType(Class<?> fieldType) {
-        Set<FilterOp> operators = new HashSet<>();
+    private static final class PlanKey {
 
-        // 所有类型都支持的运算符
-        operators.add(FilterOp.IS_NULL);
-        operators.add(FilterOp.NOT_EMPTY);
+        private final String fingerprint;
 
-        if (isStringType(fieldType)) {
-            // 字符串类型支持的操作符
-            operators.add(FilterOp.EQUAL);
-            operators.add(FilterOp.NOT_EQUAL);
-            operators.add(FilterOp.CONTAINS);
-            operators.add(FilterOp.DOES_NOT_CONTAIN);
-            operators.add(FilterOp.STARTS_WITH);
-            operators.add(FilterOp.ENDS_WITH);
-            operators.add(FilterOp.IN);
-            operators.add(FilterOp.NOT_IN);
-        } else if (isNumericType(fieldType)) {
-            // 数值类型支持的操作符
-            operators.add(FilterOp.EQUAL);
-            operators.add(FilterOp.NOT_EQUAL);
-            operators.add(FilterOp.GREATER);
-            operators.add(FilterOp.GREATER_OR_EQUAL);
-            operators.add(FilterOp.LESSER);
-            operators.add(FilterOp.LESSER_OR_EQUAL);
-            operators.add(FilterOp.IN);
-            operators.add(FilterOp.NOT_IN);
-        } else if (isBooleanType(fieldType)) {
-            // 布尔类型支持的操作符
-            operators.add(FilterOp.EQUAL);
-            operators.add(FilterOp.NOT_EQUAL);
-        } else if (isDateTimeType(fieldType)) {
-            // 日期时间类型支持的操作符
-            operators.add(FilterOp.EQUAL);
-            operators.add(FilterOp.NOT_EQUAL);
-            operators.add(FilterOp.GREATER);
-            operators.add(FilterOp.GREATER_OR_EQUAL);
-            operators.add(FilterOp.LESSER);
-            operators.add(FilterOp.LESSER_OR_EQUAL);
-        }
+        private ViewDescriptor viewDescriptor;
 
-        return operators;
-    }
+        private String viewSql;
 
-    /**
-     * 判断是否为字符串类型
-     */
-    private boolean isStringType(Class<?> type) {
-        return CharSequence.class.isAssignableFrom(type) || type == String.class;
-    }
+        private FilterCondition rootCondition;
 
-    /**
-     * 判断是否为数值类型
-     */
-    private boolean isNumericType(Class<?> type) {
-        return Number.class.isAssignableFrom(type)
-                || type == int.class || type == Integer.class
-                || type == long.class || type == Long.class
-                || type == double.class || type == Double.class
-                || type == float.class || type == Float.class
-                || type == short.class || type == Short.class
-                || type == byte.class || type == Byte.class;
-    }
+        private SearchEntitiesRequestDTO requestDTO;
 
-    /**
-     * 判断是否为布尔类型
-     */
-    private boolean isBooleanType(Class<?> type) {
-        return type == boolean.class || type == Boolean.class;
-    }
+        private PlanKey(String fingerprint, ViewDescriptor viewDescriptor, String viewSql,
+                        FilterCondition rootCondition, SearchEntitiesRequestDTO requestDTO) {
+            this.fingerprint = fingerprint;
+            this.viewDescriptor = viewDescriptor;
+            this.viewSql = viewSql;
+            this.rootCondition = rootCondition;
+            this.requestDTO = requestDTO;
+        }
 
-    /**
-     * 判断是否为日期时间类型
-     */
-    private boolean isDateTimeType(Class<?> type) {
-        return Temporal.class.isAssignableFrom(type)
-                || type == java.time.LocalDate.class
-                || type == java.time.LocalDateTime.class
-                || type == java.time.LocalTime.class
-                || type == java.util.Date.class
-                || type == java.sql.Timestamp.class
-                || type == java.sql.Date.class;
-    }
+        private void release() {
+            this.viewDescriptor = null;
+            this.viewSql = null;
+            this.rootCondition = null;
+            this.requestDTO = null;
+        }
 
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof PlanKey other && fingerprint.equals(other.fingerprint));
+        }
+
+        @Override
+        public int hashCode() {
+            return fingerprint.hashCode();
+        }
+    }
 }
@@ -2,6 +2,7 @@ package top.mao196.querybeansql.core;
 
 import lombok.Data;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -13,6 +14,11 @@ public class RequestParseResult {
 
     private String column;
 
+    /**
+     * 查询列对应的字段，顺序与查询列一致，用于按下标映射结果
+     */
+    private List<String> properties;
+
     /**
      * 处理后的视图 SQL（占位符已替换）
      */
@@ -24,7 +30,52 @@ public class RequestParseResult {
 
     private String limit;
 
+    /**
+     * 合并查询的分支中额外查询的排序列，没有排序时为 null
+     */
+    private String mergeSortColumns;
+
+    /**
+     * 合并查询中按排序列计算行序号的排序，没有排序时为 null
+     */
+    private String mergeOrder;
+
     private Map<String,Object> params;
 
+    /**
+     * 完整的数据查询 SQL
+     */
+    private String querySql;
+
+    /**
+     * 完整的计数 SQL
+     */
+    private String countSql;
+
+    /**
+     * 估算行数时交给数据库 EXPLAIN 的 SQL
+     */
+    private String estimateSql;
+
+    /**
+     * 数据查询是否以窗口函数一并返回总行数（列名 qb_total_）
+     */
+    private boolean windowCount;
+
+    /**
+     * 游标分页时的排序字段，非游标分页时为 null
+     */
+    private List<String> keysetProperties;
+
+    /**
+     * 游标分页的排序签名
+     */
+    private String keysetSignature;
+
+    /**
+     * 游标分页和 HAS_MORE 模式下每页的行数，查询会多取一行用于判断是否还有下一页
+     */
+    private Integer pageSize;
+
 
 }
@@ -0,0 +1,318 @@
+package top.mao196.querybeansql.core;
+
+import cn.hutool.core.util.ClassUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Component;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.Temporal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * search 结果缓存
+ * <p>
+ * 键为视图名、生成的 SQL（占位符已渲染）、绑定参数、count 模式和每页行数，条件顺序不同但等价的请求生成相同的 SQL，共用一条缓存；
+ * 容量按结果的估算字节数计算，由 Caffeine 的 W-TinyLFU 按访问频率决定准入和淘汰，过期时间取视图的 @ViewExposed(cacheTtl)。
+ * 只缓存声明了 cacheTtl 的视图，流式和列式响应不经过缓存
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+@Slf4j
+public class ResultCache {
+
+    /**
+     * 每行对象的固定开销：对象头和 dataList 中的引用
+     */
+    private static final int ROW_OVERHEAD = 24;
+
+    /**
+     * 每条缓存的固定开销：键、SearchResult 和 Caffeine 的节点
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    /**
+     * 为 null 时不缓存
+     */
+    private final Cache<Key, Entry> cache;
+
+    /**
+     * 视图名 -> 命中和未命中次数
+     */
+    private final ConcurrentMap<String, ViewCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 视图类 -> 估算大小时读取的实例字段
+     */
+    private final ConcurrentMap<Class<?>, Field[]> fields = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResultCache(QueryBeanConfig queryBeanConfig) {
+        this(queryBeanConfig.getResultCacheBytes(), Ticker.systemTicker(), null);
+    }
+
+    /**
+     * @param maxBytes 缓存容量（估算字节数），0 表示不缓存
+     * @param ticker   过期计时，测试时可以替换
+     * @param executor 淘汰等维护任务的执行器，为 null 时使用 ForkJoinPool.commonPool()
+     */
+    ResultCache(long maxBytes, Ticker ticker, Executor executor) {
+        if (maxBytes <= 0) {
+            this.cache = null;
+            return;
+        }
+        Caffeine<Key, Entry> builder = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats();
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * 生成缓存键，视图没有声明 cacheTtl、缓存未开启或参数中有数组时返回 null，表示不缓存
+     *
+     * @param viewDescriptor 视图
+     * @param result         请求解析结果
+     * @param countMode      count 模式，不统计总行数时为 null
+     * @return 缓存键
+     */
+    public Key key(ViewDescriptor viewDescriptor, RequestParseResult result, CountMode countMode) {
+        if (cache == null || viewDescriptor.getCacheTtl() <= 0) {
+            return null;
+        }
+        // 数组参数没有按值比较的 equals
+        for (Object value : result.getParams().values()) {
+            if (value instanceof SqlParameterValue || (value != null && value.getClass().isArray())) {
+                return null;
+            }
+        }
+        return new Key(viewDescriptor.getName(), result.getQuerySql(), new HashMap<>(result.getParams()), countMode, result.getPageSize());
+    }
+
+    /**
+     * 读取缓存的结果，返回的对象在多个请求之间共享，不能修改
+     *
+     * @param key 缓存键
+     * @return 缓存的结果，未命中时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SearchResult<T> get(Key key) {
+        Entry entry = cache.getIfPresent(key);
+        ViewCounter counter = counters.computeIfAbsent(key.viewName(), name -> new ViewCounter());
+        if (entry == null) {
+            counter.misses.increment();
+            return null;
+        }
+        counter.hits.increment();
+        return (SearchResult<T>) entry.result();
+    }
+
+    /**
+     * 读取缓存的结果，不计入命中统计，也不影响淘汰和过期，用于从缓存的结果推导其他请求的结果
+     *
+     * @param key 缓存键
+     * @return 缓存的结果，没有缓存时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SearchResult<T> peek(Key key) {
+        if (cache == null) {
+            return null;
+        }
+        Entry entry = cache.policy().getIfPresentQuietly(key);
+        return entry == null ? null : (SearchResult<T>) entry.result();
+    }
+
+    /**
+     * 缓存查询结果，之后不能再修改该对象
+     *
+     * @param viewDescriptor 视图
+     * @param key            缓存键
+     * @param result         查询结果
+     */
+    public void put(ViewDescriptor viewDescriptor, Key key, SearchResult<?> result) {
+        int weight = (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD + estimateSize(result.getDataList()));
+        cache.put(key, new Entry(result, TimeUnit.SECONDS.toNanos(viewDescriptor.getCacheTtl()), weight));
+    }
+
+    /**
+     * 缓存结果的剩余有效时间，用于让上层缓存与该结果同时过期
+     *
+     * @param viewDescriptor 视图
+     * @param key            缓存键
+     * @return 剩余时间（纳秒），没有缓存时为视图的 cacheTtl
+     */
+    public long expiresAfterNanos(ViewDescriptor viewDescriptor, Key key) {
+        return cache.policy().expireVariably()
+                .map(expiration -> expiration.getExpiresAfter(key, TimeUnit.NANOSECONDS))
+                .filter(OptionalLong::isPresent)
+                .map(OptionalLong::getAsLong)
+                .orElse(TimeUnit.SECONDS.toNanos(viewDescriptor.getCacheTtl()));
+    }
+
+    /**
+     * 清除视图的全部缓存结果
+     *
+     * @param viewName 视图名
+     * @return 清除的条数
+     */
+    public long invalidate(String viewName) {
+        if (cache == null) {
+            return 0;
+        }
+        long removed = 0;
+        for (Iterator<Key> iterator = cache.asMap().keySet().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().viewName().equals(viewName)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        log.info("invalidated {} cached results of view: {}", removed, viewName);
+        return removed;
+    }
+
+    /**
+     * 清除全部缓存结果
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * @return 缓存的命中、未命中和淘汰统计
+     */
+    public Stats stats() {
+        Map<String, ViewStats> views = new TreeMap<>();
+        counters.forEach((name, counter) -> views.put(name, new ViewStats(counter.hits.sum(), counter.misses.sum())));
+        if (cache == null) {
+            return new Stats(false, 0, 0, 0, 0, 0, 0, views);
+        }
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        long weightedSize = cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+        return new Stats(true, stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.evictionWeight(),
+                cache.estimatedSize(), weightedSize, views);
+    }
+
+    /**
+     * 估算结果占用的字节数：字符串按长度，数值、日期等按固定大小
+     */
+    private long estimateSize(List<?> dataList) {
+        if (dataList == null) {
+            return 0;
+        }
+        long size = 0;
+        for (Object row : dataList) {
+            size += ROW_OVERHEAD;
+            if (row == null) {
+                continue;
+            }
+            for (Field field : fields.computeIfAbsent(row.getClass(), ResultCache::instanceFields)) {
+                try {
+                    size += estimateSize(field.get(row));
+                } catch (IllegalAccessException e) {
+                    size += 16;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 8;
+        } else if (value instanceof CharSequence text) {
+            return 48 + text.length();
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return 48;
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return 24;
+        } else if (value instanceof Temporal || value instanceof Date) {
+            return 48;
+        }
+        return 64;
+    }
+
+    private static Field[] instanceFields(Class<?> clz) {
+        return Arrays.stream(ClassUtil.getDeclaredFields(clz))
+                .filter(field -> !Modifier.isStatic(field.getModifiers()) && field.trySetAccessible())
+                .toArray(Field[]::new);
+    }
+
+    /**
+     * 缓存键
+     *
+     * @param viewName  视图名
+     * @param querySql  数据查询 SQL，INLINE 模式的占位符已渲染在其中
+     * @param params    绑定参数，包括 BIND 模式的占位符、分页和游标参数
+     * @param countMode count 模式
+     * @param pageSize  游标分页和 HAS_MORE 模式下每页的行数
+     */
+    public record Key(String viewName, String querySql, Map<String, Object> params, CountMode countMode, Integer pageSize) {
+    }
+
+    private record Entry(SearchResult<?> result, long ttlNanos, int weight) {
+    }
+
+    private static class ViewCounter {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+    }
+
+    /**
+     * @param enabled        是否开启缓存
+     * @param hits           命中次数
+     * @param misses         未命中次数
+     * @param evictions      因容量不足或过期被淘汰的条数，不包括手动清除
+     * @param evictionWeight 被淘汰结果的估算字节数
+     * @param size           当前缓存的条数
+     * @param weightedSize   当前缓存结果的估算字节数
+     * @param views          视图名 -> 命中和未命中次数
+     */
+    public record Stats(boolean enabled, long hits, long misses, long evictions, long evictionWeight, long size,
+                        long weightedSize, Map<String, ViewStats> views) {
+    }
+
+    public record ViewStats(long hits, long misses) {
+    }
+}
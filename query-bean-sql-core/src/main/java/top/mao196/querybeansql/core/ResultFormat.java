@@ -0,0 +1,36 @@
+package top.mao196.querybeansql.core;
+
+/**
+ * search 的列式响应格式，只输出查询列，不创建视图对象
+ * <p>
+ * 响应中 fields 为输出的字段名，dictionaries 为字典编码字段的取值表，
+ * 字典编码字段在 rows / columns 中输出取值表中的下标；count、countEstimated、hasMore、nextCursor 与 SearchResult 相同
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public enum ResultFormat {
+    /**
+     * 每行一个数组，顺序与 fields 一致：{"fields": ["id", "status"], "rows": [[1, 0], [2, 1]]}
+     */
+    ROWS,
+    /**
+     * 每个字段一个数组，顺序与 fields 一致：{"fields": ["id", "status"], "columns": [[1, 2], [0, 1]]}
+     */
+    COLUMNS;
+
+    /**
+     * 按名称解析，忽略大小写
+     *
+     * @param name 名称
+     * @return 响应格式
+     */
+    public static ResultFormat of(String name) {
+        for (ResultFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new QueryBeanSqlException("Unsupported result format: " + name);
+    }
+}
@@ -0,0 +1,347 @@
+package top.mao196.querybeansql.core;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.ReflectUtil;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.Temporal;
+import java.util.*;
+
+/**
+ * 在内存中对视图行求值：按条件树过滤、按排序字段排序，在能确定结果时与 RequestParse 生成的 SQL 一致
+ * <ul>
+ *     <li>值为 null 的行只满足 isNull，其余运算符的比较结果为 UNKNOWN；条件中没有 NOT，UNKNOWN 与 FALSE 过滤的结果相同</li>
+ *     <li>NOT_IN 的列表中有 null 时，任何行都不满足</li>
+ *     <li>startsWith / endsWith / contains / doesNotContain 与 SQL 使用同样经过 {@link top.mao196.querybeansql.util.QueryUtils#escapeForLike} 转义的 LIKE 模式</li>
+ *     <li>数值按 BigDecimal 比较，日期时间只与同类型的值比较</li>
+ *     <li>字符串的比较结果取决于数据库的排序规则（MySQL、SQL Server 默认不区分大小写和重音），
+ *     只有 binaryCollation 为 true 时才按二进制、区分大小写比较字符串的等值、LIKE 条件和排序</li>
+ * </ul>
+ * 无法在内存中确定结果的条件（例如以字符串给出的日期、类型不匹配的值、binaryCollation 为 false 时的字符串）返回 null，由调用方改为查询数据库
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public class RowEvaluator {
+
+    /**
+     * LIKE 模式中匹配任意个字符的通配符
+     */
+    private static final int ANY_CHARS = -1;
+
+    /**
+     * LIKE 模式中匹配一个字符的通配符
+     */
+    private static final int ANY_CHAR = -2;
+
+    private RowEvaluator() {
+    }
+
+    /**
+     * 过滤行，保持原有顺序
+     *
+     * @param rows            行
+     * @param condition       条件树，为 null 时不过滤
+     * @param viewDescriptor  视图
+     * @param binaryCollation 是否按二进制比较字符串
+     * @return 满足条件的行，有无法在内存中求值的条件时返回 null
+     */
+    public static <T> List<T> filter(List<T> rows, FilterCondition condition, ViewDescriptor viewDescriptor, boolean binaryCollation) {
+        if (condition == null) {
+            return new ArrayList<>(rows);
+        }
+        List<T> matched = new ArrayList<>();
+        for (T row : rows) {
+            Boolean test = test(row, condition, viewDescriptor, binaryCollation);
+            if (test == null) {
+                return null;
+            }
+            if (test) {
+                matched.add(row);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 按排序字段排序，排序是稳定的，排序值相同的行保持原有顺序
+     *
+     * @param rows            行，原地排序
+     * @param orderByList     排序字段
+     * @param viewDescriptor  视图
+     * @param binaryCollation 是否按二进制比较字符串，为 false 时按字符串排序返回 null
+     * @return 排序后的行；排序字段有 null 值（null 的先后由数据库决定）或无法比较时返回 null
+     */
+    public static <T> List<T> sort(List<T> rows, List<SearchOrder.OrderBy> orderByList, ViewDescriptor viewDescriptor, boolean binaryCollation) {
+        if (CollUtil.isEmpty(orderByList)) {
+            return rows;
+        }
+        // 排序值只读取一次，数值统一为 BigDecimal
+        List<SortEntry<T>> entries = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            Comparable<?>[] keys = new Comparable<?>[orderByList.size()];
+            for (int i = 0; i < keys.length; i++) {
+                SearchOrder.OrderBy orderBy = orderByList.get(i);
+                ViewFiledDescriptor field = viewDescriptor.findFieldDescriptor(orderBy.getProperty());
+                Object value = field == null ? null : property(row, orderBy.getProperty());
+                Comparable<?> key = value instanceof Number number ? decimal(number)
+                        : (value instanceof CharSequence && binaryCollation) || value instanceof Boolean || value instanceof Temporal || value instanceof Date
+                        ? (Comparable<?>) value : null;
+                if (key == null) {
+                    return null;
+                }
+                keys[i] = key;
+            }
+            entries.add(new SortEntry<>(row, keys));
+        }
+        try {
+            entries.sort((a, b) -> {
+                for (int i = 0; i < a.keys().length; i++) {
+                    int cmp = compareKeys(a.keys()[i], b.keys()[i]);
+                    if (cmp != 0) {
+                        return orderByList.get(i).getOrder() == SearchOrder.OrderByType.DESC ? -cmp : cmp;
+                    }
+                }
+                return 0;
+            });
+        } catch (ClassCastException e) {
+            // 同一字段的值类型不一致
+            return null;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            rows.set(i, entries.get(i).row());
+        }
+        return rows;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(Comparable a, Comparable b) {
+        return a.compareTo(b);
+    }
+
+    /**
+     * 对一行求值
+     *
+     * @param binaryCollation 是否按二进制比较字符串
+     * @return 是否满足条件，无法在内存中求值时返回 null
+     */
+    public static Boolean test(Object row, FilterCondition condition, ViewDescriptor viewDescriptor, boolean binaryCollation) {
+        if (condition.isGroup()) {
+            boolean and = condition.getGroup() == FilterType.AND;
+            boolean unknown = false;
+            for (FilterCondition child : condition.getConditions()) {
+                Boolean test = test(row, child, viewDescriptor, binaryCollation);
+                if (test == null) {
+                    unknown = true;
+                } else if (test != and) {
+                    // AND 中有一个不满足、OR 中有一个满足即可确定结果
+                    return test;
+                }
+            }
+            return unknown ? null : and;
+        }
+        ViewFiledDescriptor field = viewDescriptor.findFieldDescriptor(condition.getProperty());
+        if (field == null || condition.getOperator() == null || !field.getAllowedOperators().contains(condition.getOperator())) {
+            return null;
+        }
+        return matches(property(row, condition.getProperty()), condition.getOperator(), condition.getValue(), field.getType(), binaryCollation);
+    }
+
+    /**
+     * 值是否满足单个条件
+     *
+     * @param value    行中的值
+     * @param operator 运算符
+     * @param operand  条件中的值
+     * @param type            字段类型
+     * @param binaryCollation 是否按二进制比较字符串
+     * @return 是否满足，无法在内存中求值时返回 null
+     */
+    static Boolean matches(Object value, FilterOp operator, Object operand, FieldType type, boolean binaryCollation) {
+        if (operator == FilterOp.IS_NULL) {
+            return value == null;
+        } else if (operator == FilterOp.NOT_EMPTY) {
+            return value != null;
+        } else if (value == null) {
+            return false;
+        }
+        switch (operator) {
+            case EQUAL -> {
+                return equal(value, operand, type, binaryCollation);
+            }
+            case NOT_EQUAL -> {
+                Boolean equal = equal(value, operand, type, binaryCollation);
+                return equal == null ? null : operand != null && !equal;
+            }
+            case GREATER, GREATER_OR_EQUAL, LESSER, LESSER_OR_EQUAL -> {
+                if (operand == null) {
+                    return false;
+                }
+                Integer cmp = compare(value, operand, type);
+                if (cmp == null) {
+                    return null;
+                }
+                return switch (operator) {
+                    case GREATER -> cmp > 0;
+                    case GREATER_OR_EQUAL -> cmp >= 0;
+                    case LESSER -> cmp < 0;
+                    default -> cmp <= 0;
+                };
+            }
+            case IN, NOT_IN -> {
+                if (!(operand instanceof Collection<?> values) || values.isEmpty()) {
+                    return null;
+                }
+                boolean unknown = false;
+                for (Object element : values) {
+                    if (element == null) {
+                        // x NOT IN (..., NULL) 不会为真
+                        if (operator == FilterOp.NOT_IN) {
+                            return false;
+                        }
+                        continue;
+                    }
+                    Boolean equal = equal(value, element, type, binaryCollation);
+                    if (equal == null) {
+                        unknown = true;
+                    } else if (equal) {
+                        return operator == FilterOp.IN;
+                    }
+                }
+                return unknown ? null : operator == FilterOp.NOT_IN;
+            }
+            default -> {
+                if (!binaryCollation || !(value instanceof CharSequence text) || !(operand instanceof String pattern)) {
+                    return null;
+                }
+                boolean like = like(text.toString(), (String) RequestParse.bindValue(operator, pattern));
+                return operator == FilterOp.DOES_NOT_CONTAIN ? !like : like;
+            }
+        }
+    }
+
+    /**
+     * @return 两个值是否相等，无法比较时返回 null
+     */
+    private static Boolean equal(Object value, Object operand, FieldType type, boolean binaryCollation) {
+        if (operand == null) {
+            return false;
+        }
+        if (type == FieldType.STRING && !binaryCollation) {
+            return null;
+        }
+        if (type == FieldType.STRING || type == FieldType.BOOLEAN) {
+            boolean sameKind = type == FieldType.STRING
+                    ? value instanceof CharSequence && operand instanceof CharSequence
+                    : value instanceof Boolean && operand instanceof Boolean;
+            return sameKind ? value.toString().equals(operand.toString()) : null;
+        }
+        Integer cmp = compare(value, operand, type);
+        return cmp == null ? null : cmp == 0;
+    }
+
+    /**
+     * 比较数值和同类型的日期时间；以字符串给出的日期由数据库转换，规则因数据库而异，不在内存中比较
+     *
+     * @return 比较结果，无法比较时返回 null
+     */
+    private static Integer compare(Object value, Object operand, FieldType type) {
+        if (type == FieldType.NUMERIC) {
+            if (!(value instanceof Number number) || !(operand instanceof Number other)) {
+                return null;
+            }
+            BigDecimal a = decimal(number);
+            BigDecimal b = decimal(other);
+            return a == null || b == null ? null : a.compareTo(b);
+        }
+        if (type == FieldType.DATE_TIME) {
+            boolean temporal = value instanceof Temporal || value instanceof Date;
+            return temporal && value.getClass() == operand.getClass() ? FilterOptimizer.compare(value, operand) : null;
+        }
+        return null;
+    }
+
+    /**
+     * 按 SQL LIKE 的规则匹配：% 匹配任意个字符，_ 匹配一个字符，\ 转义下一个字符
+     *
+     * @param text    文本
+     * @param pattern LIKE 模式
+     * @return 是否匹配
+     */
+    static boolean like(String text, String pattern) {
+        int[] tokens = new int[pattern.length()];
+        int length = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                tokens[length++] = pattern.charAt(++i);
+            } else if (c == '%') {
+                tokens[length++] = ANY_CHARS;
+            } else if (c == '_') {
+                tokens[length++] = ANY_CHAR;
+            } else {
+                tokens[length++] = c;
+            }
+        }
+        // 贪心匹配，遇到不匹配时回到上一个 % 多吞一个字符
+        int t = 0;
+        int p = 0;
+        int star = -1;
+        int mark = 0;
+        while (t < text.length()) {
+            if (p < length && (tokens[p] == ANY_CHAR || tokens[p] == text.charAt(t))) {
+                t++;
+                p++;
+            } else if (p < length && tokens[p] == ANY_CHARS) {
+                star = p++;
+                mark = t;
+            } else if (star >= 0) {
+                p = star + 1;
+                t = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (p < length && tokens[p] == ANY_CHARS) {
+            p++;
+        }
+        return p == length;
+    }
+
+    /**
+     * 数值转为 BigDecimal，整数不经过字符串
+     *
+     * @return 转换结果，NaN、Infinity 返回 null
+     */
+    private static BigDecimal decimal(Number number) {
+        if (number instanceof BigDecimal decimal) {
+            return decimal;
+        } else if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return BigDecimal.valueOf(number.longValue());
+        } else if (number instanceof BigInteger integer) {
+            return new BigDecimal(integer);
+        }
+        try {
+            return new BigDecimal(number.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 读取行中的字段值，行为 Map 或视图对象
+     */
+    static Object property(Object row, String property) {
+        if (row instanceof Map<?, ?> map) {
+            return map.get(property);
+        }
+        Method getter = BeanUtil.getBeanDesc(row.getClass()).getGetter(property);
+        return getter == null ? BeanUtil.getProperty(row, property) : ReflectUtil.invoke(row, getter);
+    }
+
+    private record SortEntry<T>(T row, Comparable<?>[] keys) {
+    }
+}
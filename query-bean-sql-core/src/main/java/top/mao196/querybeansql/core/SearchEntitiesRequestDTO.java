@@ -19,6 +19,22 @@ public class SearchEntitiesRequestDTO {
     private String sort;
     private Boolean returnCount;
 
+    /**
+     * 总行数的统计方式，指定时无需再设置 returnCount；只设置 returnCount 时为 EXACT
+     */
+    private CountMode countMode;
+
+    /**
+     * 查询超时（毫秒），不能超过 query-bean.queryTimeout
+     */
+    private Integer timeout;
+
+    /**
+     * 游标分页的游标
+     * 为空字符串时查询第一页，之后传入上一页返回的 nextCursor；不为 null 时不能同时指定 offset
+     */
+    private String cursor;
+
     /**
      * 占位符参数
      * 用于在 SQL 模板中替换占位符
@@ -33,6 +49,12 @@ public class SearchEntitiesRequestDTO {
      */
     private List<String> fields;
 
+    /**
+     * 一并返回的关联视图，关联在 @ViewField(relationView) 中声明，嵌套的关联以 . 连接
+     * 例如: ["user", "user.orders"]，结果写入 SearchResult.included；流式查询不支持
+     */
+    private List<String> include;
+
 
     @JsonIgnore
     public SearchOrder getSortOrder() {
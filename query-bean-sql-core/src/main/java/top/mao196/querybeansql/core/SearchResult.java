@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author maoju
@@ -18,4 +19,28 @@ public class SearchResult<T> {
     private List<T> dataList;
 
     private Long count;
+
+    /**
+     * count 是否为执行计划中的估算值，只在 ESTIMATE 模式下返回
+     */
+    private Boolean countEstimated;
+
+    /**
+     * 是否还有下一页，只在 HAS_MORE 模式和游标分页时返回
+     */
+    private Boolean hasMore;
+
+    /**
+     * 游标分页时下一页的游标，没有下一页时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 请求 include 的关联视图的行，关联名称 -> 行，嵌套的关联以 . 连接，例如 user.orders
+     */
+    private Map<String, List<?>> included;
+
+    public SearchResult(List<T> dataList, Long count, Boolean countEstimated, Boolean hasMore, String nextCursor) {
+        this(dataList, count, countEstimated, hasMore, nextCursor, null);
+    }
 }
@@ -0,0 +1,296 @@
+package top.mao196.querybeansql.core;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 语义缓存：用缓存中完整的 search 结果回答条件更窄的请求
+ * <p>
+ * 用户常常逐步收紧条件，例如先查 status = 'PAID'，再加上 amount &gt; 100。前一个请求的结果行数少于 limit 时，
+ * {@link ResultCache} 中缓存的就是满足条件的全部行；之后条件被它包含的请求不再访问数据库，
+ * 由 {@link RowEvaluator} 在内存中过滤、排序和分页。可以使用的缓存结果需要：
+ * <ul>
+ *     <li>属于同一视图，占位符渲染后的视图 SQL 和占位符参数相同</li>
+ *     <li>没有 offset 和游标，返回的行数少于 limit（HAS_MORE 模式下 hasMore 为 false）</li>
+ *     <li>查询的字段与请求相同，并且包含请求中条件和排序用到的字段</li>
+ *     <li>条件被请求的条件蕴含（{@link FilterContainment}）</li>
+ * </ul>
+ * 推导出的结果与缓存的结果一样最多滞后视图的 cacheTtl，不再写入缓存。游标分页的请求不使用语义缓存。
+ * <p>
+ * 字符串的比较结果取决于数据库的排序规则，默认不在内存中比较字符串：与缓存结果的条件相同的字符串条件已经由数据库求值，
+ * 其余字符串条件和按字符串排序的请求改为查询数据库。数据库按二进制比较字符串时可以开启 {@code query-bean.semanticCacheBinaryCollation}
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+@Slf4j
+public class SemanticCache {
+
+    /**
+     * 每个视图最多记录的完整结果数，超出时丢弃最早的
+     */
+    static final int MAX_SUPERSETS = 16;
+
+    private final boolean enabled;
+
+    /**
+     * 是否在内存中按二进制比较字符串
+     */
+    private final boolean binaryCollation;
+
+    private final ResultCache resultCache;
+
+    /**
+     * 视图名 -> 缓存中完整的结果，最新的在前
+     */
+    private final ConcurrentMap<String, Deque<Superset>> supersets = new ConcurrentHashMap<>();
+
+    /**
+     * 由缓存的结果推导出结果的次数
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * 没有可用的缓存结果、需要查询数据库的次数
+     */
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public SemanticCache(QueryBeanConfig queryBeanConfig, ResultCache resultCache) {
+        this(queryBeanConfig.isSemanticCache(), queryBeanConfig.isSemanticCacheBinaryCollation(), resultCache);
+    }
+
+    SemanticCache(boolean enabled, boolean binaryCollation, ResultCache resultCache) {
+        this.enabled = enabled;
+        this.binaryCollation = binaryCollation;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * 记录放入结果缓存的结果，结果完整时可以用于回答条件更窄的请求
+     *
+     * @param viewDescriptor 视图
+     * @param requestDTO     请求
+     * @param result         请求解析结果
+     * @param key            结果缓存的键
+     * @param searchResult   查询结果
+     */
+    public void register(ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO, RequestParseResult result,
+                         ResultCache.Key key, SearchResult<?> searchResult) {
+        if (!enabled || key == null || !isComplete(requestDTO, result, searchResult)) {
+            return;
+        }
+        Superset superset = new Superset(key, result.getViewSql(), requestDTO.getParameters(),
+                Set.copyOf(result.getProperties()), normalize(requestDTO.getFilter(), viewDescriptor));
+        Deque<Superset> deque = supersets.computeIfAbsent(viewDescriptor.getName(), k -> new ArrayDeque<>());
+        synchronized (deque) {
+            deque.remove(superset);
+            deque.addFirst(superset);
+            while (deque.size() > MAX_SUPERSETS) {
+                deque.removeLast();
+            }
+        }
+    }
+
+    /**
+     * 用缓存中完整的结果回答请求
+     *
+     * @param viewDescriptor 视图
+     * @param requestDTO     请求
+     * @param result         请求解析结果
+     * @param countMode      count 模式，不统计总行数时为 null
+     * @return 推导出的结果，没有可用的缓存结果时返回 null
+     */
+    public <T> SearchResult<T> answer(ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO,
+                                      RequestParseResult result, CountMode countMode) {
+        if (!enabled || result.getKeysetProperties() != null) {
+            return null;
+        }
+        Deque<Superset> deque = supersets.get(viewDescriptor.getName());
+        if (deque == null) {
+            misses.increment();
+            return null;
+        }
+        List<Superset> candidates;
+        synchronized (deque) {
+            candidates = new ArrayList<>(deque);
+        }
+        FilterCondition filter = normalize(requestDTO.getFilter(), viewDescriptor);
+        List<SearchOrder.OrderBy> orderByList = requestDTO.getSortOrder().getOrderByList();
+        Set<String> properties = Set.copyOf(result.getProperties());
+        Set<String> required = new HashSet<>();
+        collectProperties(filter, required);
+        orderByList.forEach(orderBy -> required.add(orderBy.getProperty()));
+
+        for (Superset superset : candidates) {
+            if (!superset.properties().equals(properties) || !superset.properties().containsAll(required)
+                    || !Objects.equals(superset.viewSql(), result.getViewSql())
+                    || !(viewDescriptor.getTemplate().isStatic() || Objects.equals(superset.parameters(), requestDTO.getParameters()))
+                    || !FilterContainment.implies(filter, superset.filter(), viewDescriptor, binaryCollation)) {
+                continue;
+            }
+            SearchResult<T> cached = resultCache.peek(superset.key());
+            if (cached == null) {
+                // 已过期、被淘汰或被清除
+                synchronized (deque) {
+                    deque.remove(superset);
+                }
+                continue;
+            }
+            SearchResult<T> derived = derive(cached, residual(filter, superset.filter()), orderByList, viewDescriptor, requestDTO, result, countMode, binaryCollation);
+            if (derived != null) {
+                hits.increment();
+                log.debug("answered view [{}] from cached result [{}]", viewDescriptor.getName(), superset.key().querySql());
+                return derived;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 清除视图记录的完整结果
+     *
+     * @param viewName 视图名
+     */
+    public void invalidate(String viewName) {
+        supersets.remove(viewName);
+    }
+
+    /**
+     * @return 推导次数和记录的完整结果数
+     */
+    public Stats stats() {
+        int size = 0;
+        for (Deque<Superset> deque : supersets.values()) {
+            synchronized (deque) {
+                size += deque.size();
+            }
+        }
+        return new Stats(enabled, hits.sum(), misses.sum(), size);
+    }
+
+    /**
+     * 在内存中过滤、排序、分页并按 count 模式统计总行数
+     *
+     * @return 推导出的结果，有无法在内存中求值的条件或排序时返回 null
+     */
+    private static <T> SearchResult<T> derive(SearchResult<T> cached, FilterCondition filter, List<SearchOrder.OrderBy> orderByList,
+                                              ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO,
+                                              RequestParseResult result, CountMode countMode, boolean binaryCollation) {
+        int offset = requestDTO.getOffset() == null ? 0 : requestDTO.getOffset();
+        if (offset < 0) {
+            return null;
+        }
+        List<T> rows = RowEvaluator.filter(cached.getDataList(), filter, viewDescriptor, binaryCollation);
+        if (rows == null || RowEvaluator.sort(rows, orderByList, viewDescriptor, binaryCollation) == null) {
+            return null;
+        }
+        int limit = result.getPageSize() != null ? result.getPageSize() : (Integer) result.getParams().get(RequestParse.LIMIT_PARAM);
+        SearchResult<T> derived = new SearchResult<>();
+        derived.setDataList(new ArrayList<>(rows.subList(Math.min(offset, rows.size()), (int) Math.min((long) offset + limit, rows.size()))));
+        if (countMode == CountMode.HAS_MORE) {
+            derived.setHasMore(rows.size() > (long) offset + limit);
+        } else if (countMode != null) {
+            // 缓存的结果是完整的，总行数是精确的
+            derived.setCount((long) rows.size());
+            if (countMode == CountMode.ESTIMATE) {
+                derived.setCountEstimated(false);
+            }
+        }
+        return derived;
+    }
+
+    /**
+     * 缓存的结果是否包含满足条件的全部行
+     */
+    private static boolean isComplete(SearchEntitiesRequestDTO requestDTO, RequestParseResult result, SearchResult<?> searchResult) {
+        if (result.getKeysetProperties() != null || (requestDTO.getOffset() != null && requestDTO.getOffset() != 0)
+                || searchResult.getDataList() == null) {
+            return false;
+        }
+        if (result.getPageSize() != null) {
+            return Boolean.FALSE.equals(searchResult.getHasMore());
+        }
+        return result.getParams().get(RequestParse.LIMIT_PARAM) instanceof Integer limit && searchResult.getDataList().size() < limit;
+    }
+
+    /**
+     * 去掉 AND 中与缓存结果的条件相同的部分，缓存的行已经满足这些条件，不需要再求值（例如以字符串给出的日期范围）
+     */
+    private static FilterCondition residual(FilterCondition filter, FilterCondition cachedFilter) {
+        if (filter == null || cachedFilter == null) {
+            return filter;
+        }
+        List<FilterCondition> satisfied = cachedFilter.isGroup() && cachedFilter.getGroup() == FilterType.AND
+                ? cachedFilter.getConditions() : List.of(cachedFilter);
+        if (!filter.isGroup() || filter.getGroup() != FilterType.AND) {
+            return satisfied.contains(filter) ? null : filter;
+        }
+        List<FilterCondition> remaining = new ArrayList<>(filter.getConditions());
+        remaining.removeAll(satisfied);
+        if (remaining.isEmpty()) {
+            return null;
+        }
+        FilterCondition group = new FilterCondition();
+        group.setGroup(FilterType.AND);
+        group.setConditions(remaining);
+        return group;
+    }
+
+    /**
+     * 与 RequestParse 相同：最外层的条件按 AND 组合并经过 FilterOptimizer 规范化，没有条件时返回 null
+     */
+    private static FilterCondition normalize(SearchFilter filter, ViewDescriptor viewDescriptor) {
+        if (filter == null || CollUtil.isEmpty(filter.getConditions())) {
+            return null;
+        }
+        FilterCondition root = new FilterCondition();
+        root.setGroup(FilterType.AND);
+        root.setConditions(filter.getConditions());
+        FilterCondition optimized = FilterOptimizer.optimize(root, viewDescriptor);
+        return FilterOptimizer.isConstant(optimized) && optimized.getGroup() == FilterType.AND ? null : optimized;
+    }
+
+    private static void collectProperties(FilterCondition condition, Set<String> properties) {
+        if (condition == null) {
+            return;
+        }
+        if (condition.isGroup()) {
+            condition.getConditions().forEach(child -> collectProperties(child, properties));
+        } else {
+            properties.add(condition.getProperty());
+        }
+    }
+
+    /**
+     * 缓存中完整的结果
+     *
+     * @param key        结果缓存的键
+     * @param viewSql    占位符渲染后的视图 SQL
+     * @param parameters 占位符参数
+     * @param properties 查询的字段
+     * @param filter     规范化后的条件，没有条件时为 null
+     */
+    private record Superset(ResultCache.Key key, String viewSql, Map<String, Object> parameters, Set<String> properties,
+                            FilterCondition filter) {
+    }
+
+    /**
+     * @param enabled   是否开启语义缓存
+     * @param hits      由缓存的结果推导出结果的次数
+     * @param misses    没有可用的缓存结果、查询数据库的次数
+     * @param supersets 当前记录的完整结果数
+     */
+    public record Stats(boolean enabled, long hits, long misses, int supersets) {
+    }
+}
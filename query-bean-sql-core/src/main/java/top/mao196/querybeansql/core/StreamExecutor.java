@@ -0,0 +1,164 @@
+package top.mao196.querybeansql.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.stereotype.Component;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.dialect.Dialect;
+import top.mao196.querybeansql.dialect.Dialects;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.*;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式查询执行器，以只进、只读的 ResultSet 逐行处理查询结果，不在内存中保留结果
+ * <p>
+ * fetchSize 由视图的 @ViewExposed(fetchSize) 或 query-bean.streamFetchSize 指定，经方言转换后设置到 Statement；
+ * 处理行时写出失败（通常是客户端断开）或超过 query-bean.streamTimeout 时先取消 Statement 再关闭，
+ * 避免 MySQL 逐行流式读取在关闭时读完剩余的结果
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+@Slf4j
+public class StreamExecutor {
+
+    /**
+     * 每处理多少行检查一次截止时间
+     */
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Dialect dialect;
+
+    private final QueryBeanConfig queryBeanConfig;
+
+    /**
+     * 没有 Dialect Bean 时（例如 query-bean.enable=false）使用 MySQL 方言
+     */
+    @Autowired(required = false)
+    public StreamExecutor(QueryBeanConfig queryBeanConfig, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this(queryBeanConfig, namedParameterJdbcTemplate, Dialects.MYSQL);
+    }
+
+    @Autowired(required = false)
+    public StreamExecutor(QueryBeanConfig queryBeanConfig, NamedParameterJdbcTemplate namedParameterJdbcTemplate, Dialect dialect) {
+        this.queryBeanConfig = queryBeanConfig;
+        this.jdbcTemplate = namedParameterJdbcTemplate.getJdbcTemplate();
+        this.dialect = dialect;
+    }
+
+    /**
+     * 计算流式查询的截止时间，请求指定的超时不能超过 query-bean.streamTimeout
+     *
+     * @param timeoutMillis 请求指定的超时（毫秒），为空或不大于 0 时使用配置的超时
+     * @return 截止时间（System.nanoTime），0 表示没有截止时间
+     */
+    public long deadline(Integer timeoutMillis) {
+        return QueryExecutor.deadline(Math.max(queryBeanConfig.getStreamTimeout(), 0), timeoutMillis);
+    }
+
+    /**
+     * 执行查询并逐行回调
+     *
+     * @param sql       带命名参数的 SQL
+     * @param params    参数
+     * @param fetchSize 视图指定的 fetchSize，0 表示使用 query-bean.streamFetchSize
+     * @param deadline  截止时间，0 表示不限制
+     * @param handler   行处理，返回 false 时停止读取
+     * @return 处理的行数
+     */
+    public long query(String sql, Map<String, ?> params, int fetchSize, long deadline, RowHandler handler) {
+        MapSqlParameterSource paramSource = new MapSqlParameterSource(params);
+        ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+        String jdbcSql = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
+        Object[] args = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
+        int statementFetchSize = dialect.streamFetchSize(fetchSize != 0 ? fetchSize : queryBeanConfig.getStreamFetchSize());
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            boolean transaction = dialect.streamRequiresTransaction() && con.getAutoCommit();
+            if (transaction) {
+                con.setAutoCommit(false);
+            }
+            try (PreparedStatement ps = con.prepareStatement(jdbcSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(statementFetchSize);
+                if (deadline != 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new QueryTimeoutException("Stream exceeded the request deadline");
+                    }
+                    ps.setQueryTimeout((int) Math.max(TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L), 1));
+                }
+                new ArgumentPreparedStatementSetter(args).setValues(ps);
+                return read(ps, deadline, handler);
+            } finally {
+                if (transaction) {
+                    con.rollback();
+                    con.setAutoCommit(true);
+                }
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private static long read(PreparedStatement ps, long deadline, RowHandler handler) throws SQLException {
+        long count = 0;
+        // 在关闭 ResultSet 之前取消，try-with-resources 的 catch 在关闭之后才执行
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                if (deadline != 0 && count % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                    cancel(ps);
+                    throw new QueryTimeoutException("Stream exceeded the request deadline after " + count + " rows");
+                }
+                boolean next;
+                try {
+                    next = handler.handle(rs);
+                } catch (IOException e) {
+                    cancel(ps);
+                    throw new UncheckedIOException(e);
+                } catch (RuntimeException e) {
+                    cancel(ps);
+                    throw e;
+                }
+                if (!next) {
+                    break;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void cancel(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            log.debug("Failed to cancel statement: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 处理当前行
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * @param rs 当前行
+         * @return 是否继续读取下一行
+         */
+        boolean handle(ResultSet rs) throws SQLException, IOException;
+    }
+}
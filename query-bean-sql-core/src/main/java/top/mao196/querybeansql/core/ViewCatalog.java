@@ -0,0 +1,54 @@
+package top.mao196.querybeansql.core;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 视图目录快照，构建后不可变
+ * 读取方无需加锁，重新加载时由 ExposedViewRegistry 整体替换
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Slf4j
+public class ViewCatalog {
+
+    public static final ViewCatalog EMPTY = new ViewCatalog(List.of());
+
+    /**
+     * 全部视图，保持注册顺序
+     */
+    @Getter
+    private final List<ViewDescriptor> descriptors;
+
+    /**
+     * 视图名 -> 视图信息
+     */
+    private final Map<String, ViewDescriptor> descriptorMap;
+
+    public ViewCatalog(List<ViewDescriptor> descriptors) {
+        this.descriptors = List.copyOf(descriptors);
+        Map<String, ViewDescriptor> map = new HashMap<>();
+        for (ViewDescriptor descriptor : this.descriptors) {
+            ViewDescriptor existing = map.putIfAbsent(descriptor.getName(), descriptor);
+            if (existing != null) {
+                log.warn("duplicate view name: {}, {} is ignored", descriptor.getName(), descriptor.getViewClass().getName());
+            }
+        }
+        this.descriptorMap = Map.copyOf(map);
+    }
+
+    /**
+     * 根据名称查找视图信息
+     *
+     * @param name 名称
+     * @return 视图信息，不存在时返回 null
+     */
+    public ViewDescriptor find(String name) {
+        return name == null ? null : descriptorMap.get(name);
+    }
+}
@@ -1,47 +1,132 @@
 package top.mao196.querybeansql.core;
 
-import lombok.AllArgsConstructor;
+import cn.hutool.core.util.StrUtil;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import top.mao196.querybeansql.placeholder.PlaceholderMode;
+import top.mao196.querybeansql.placeholder.SqlTemplate;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
+ * 视图描述信息，构建后不可变
  *
  * @author maoju
  * @since 2024/12/3
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
+@Getter
+@ToString(exclude = {"fieldMap", "relationMap", "template"})
+@EqualsAndHashCode(exclude = {"fieldMap", "relationMap", "template"})
 public class ViewDescriptor {
 
     /**
      * name
      */
-    private String name;
+    private final String name;
 
     /**
      * description
      */
-    private String description;
+    private final String description;
 
     /**
      * sql
      */
-    private String sql;
+    private final String sql;
+
+    /**
+     * sql 中占位符的渲染方式
+     */
+    private final PlaceholderMode placeholderMode;
+
+    /**
+     * 是否把查询条件下推到视图 SQL 内部
+     */
+    private final boolean pushdown;
+
+    /**
+     * 游标分页时保证排序唯一的字段名，为 null 时不支持游标分页
+     */
+    private final String tieBreaker;
+
+    /**
+     * 流式查询的 fetchSize，0 表示使用配置
+     */
+    private final int fetchSize;
+
+    /**
+     * search 结果的缓存时间（秒），0 表示不缓存
+     */
+    private final int cacheTtl;
+
+    /**
+     * 预编译的 SQL 模板
+     */
+    private final SqlTemplate template;
 
     /**
      * 对应的类型
      */
-    private Class<?> viewClass;
+    private final Class<?> viewClass;
 
     /**
      * 字段相关信息
      */
-    private List<ViewFiledDescriptor> fields;
+    private final List<ViewFiledDescriptor> fields;
+
+    /**
+     * 字段名 -> 字段信息
+     */
+    private final Map<String, ViewFiledDescriptor> fieldMap;
+
+    /**
+     * 关联名称 -> 关联字段
+     */
+    private final Map<String, ViewFiledDescriptor> relationMap;
+
+    /**
+     * 未指定 fields 时查询的全部列
+     */
+    private final String allColumns;
+
+    @Builder
+    public ViewDescriptor(String name, String description, String sql, PlaceholderMode placeholderMode,
+                          boolean pushdown, String tieBreaker, int fetchSize, int cacheTtl, Class<?> viewClass, List<ViewFiledDescriptor> fields) {
+        this.name = name;
+        this.description = description;
+        this.sql = sql;
+        this.placeholderMode = placeholderMode == null ? PlaceholderMode.INLINE : placeholderMode;
+        this.pushdown = pushdown;
+        this.template = SqlTemplate.compile(sql, this.placeholderMode);
+        this.viewClass = viewClass;
+        this.fields = List.copyOf(fields);
+        Map<String, ViewFiledDescriptor> map = new HashMap<>();
+        for (ViewFiledDescriptor field : this.fields) {
+            map.putIfAbsent(field.getRawName(), field);
+        }
+        this.fieldMap = Map.copyOf(map);
+        Map<String, ViewFiledDescriptor> relations = new HashMap<>();
+        for (ViewFiledDescriptor field : this.fields) {
+            if (field.getRelationName() != null && relations.putIfAbsent(field.getRelationName(), field) != null) {
+                throw new QueryBeanSqlException(String.format("duplicate relation: %s of view: %s", field.getRelationName(), name));
+            }
+        }
+        this.relationMap = Map.copyOf(relations);
+        if (StrUtil.isNotEmpty(tieBreaker) && !fieldMap.containsKey(tieBreaker)) {
+            throw new QueryBeanSqlException(String.format("tieBreaker: %s is not a field of view: %s", tieBreaker, name));
+        }
+        this.tieBreaker = StrUtil.emptyToNull(tieBreaker);
+        this.fetchSize = fetchSize;
+        this.cacheTtl = Math.max(cacheTtl, 0);
+        this.allColumns = this.fields.stream()
+                .map(ViewFiledDescriptor::getColumnFragment)
+                .collect(Collectors.joining(", "));
+    }
 
     /**
      * 根据字段名查找字段信息
@@ -49,11 +134,15 @@ public class ViewDescriptor {
      * @return 字段信息，如果不存在则返回null
      */
     public ViewFiledDescriptor findFieldDescriptor(String fieldName) {
-        for (ViewFiledDescriptor field : fields) {
-            if (field.getRawName().equals(fieldName)) {
-                return field;
-            }
-        }
-        return null;
+        return fieldName == null ? null : fieldMap.get(fieldName);
+    }
+
+    /**
+     * 根据关联名称查找关联字段
+     * @param relationName 关联名称
+     * @return 关联字段，如果不存在则返回null
+     */
+    public ViewFiledDescriptor findRelation(String relationName) {
+        return relationName == null ? null : relationMap.get(relationName);
     }
 }
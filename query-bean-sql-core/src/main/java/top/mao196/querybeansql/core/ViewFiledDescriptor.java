@@ -1,43 +1,99 @@
 package top.mao196.querybeansql.core;
 
 import cn.hutool.core.util.StrUtil;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Set;
 
 /**
+ * 视图字段描述信息，构建后不可变
+ * 列名、查询列片段和允许的运算符在构建时一次性计算好
  *
  * @author maoju
  * @since 2024/12/3
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
 public class ViewFiledDescriptor {
 
     /**
      * name
      */
-    private String name;
+    private final String name;
 
     /**
      * description
      */
-    private String description;
+    private final String description;
 
     /**
      * class中的字段名称
      */
-    private String rawName;
+    private final String rawName;
 
     /**
      * 对应的类型
      */
-    private Class<?> clz;
+    private final Class<?> clz;
+
+    /**
+     * 视图 SQL 中的列名
+     */
+    private final String columnName;
+
+    /**
+     * 查询列片段，形如 col AS raw
+     */
+    private final String columnFragment;
+
+    /**
+     * 类型分类
+     */
+    private final FieldType type;
+
+    /**
+     * 允许的运算符
+     */
+    private final Set<FilterOp> allowedOperators;
+
+    /**
+     * 是否以字典编码输出，只对字符串字段生效
+     */
+    private final boolean lowCardinality;
+
+    /**
+     * 关联的视图名称，不是关联字段时为 null
+     */
+    private final String relationView;
+
+    /**
+     * 关联视图中与该字段对应的字段名，不是关联字段时为 null
+     */
+    private final String relationKey;
+
+    /**
+     * 关联的名称，不是关联字段时为 null
+     */
+    private final String relationName;
 
-    public String getColumnName() {
-        return StrUtil.isNotEmpty(getName()) ? getName() : StrUtil.toUnderlineCase(getRawName());
+    @Builder
+    public ViewFiledDescriptor(String name, String description, String rawName, Class<?> clz, boolean lowCardinality,
+                               String relationView, String relationKey, String relationName) {
+        this.name = name;
+        this.description = description;
+        this.rawName = rawName;
+        this.clz = clz;
+        this.columnName = StrUtil.isNotEmpty(name) ? name : StrUtil.toUnderlineCase(rawName);
+        this.columnFragment = columnName + " AS " + rawName;
+        this.type = FieldType.of(clz);
+        this.allowedOperators = type.getAllowedOperators();
+        this.lowCardinality = lowCardinality && clz == String.class;
+        this.relationView = StrUtil.emptyToNull(relationView);
+        this.relationKey = this.relationView == null ? null : StrUtil.emptyToDefault(relationKey, "id");
+        this.relationName = this.relationView == null ? null : StrUtil.emptyToDefault(relationName, this.relationView);
     }
 }
@@ -0,0 +1,223 @@
+package top.mao196.querybeansql.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 按视图和查询列编译的 RowMapper
+ * <p>
+ * 查询列的别名与字段名一一对应，编译时按列的下标确定读取方式（getLong、getBigDecimal 等）和 setter，
+ * setter 与无参构造器通过 LambdaMetafactory 生成，映射时不再经过 BeanWrapper 和类型转换
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Slf4j
+public final class ViewRowMapper<T> implements RowMapper<T> {
+
+    private final Supplier<T> constructor;
+
+    /**
+     * 第 i 个元素读取第 i + 1 列
+     */
+    private final ColumnReader[] readers;
+
+    private final BiConsumer<Object, Object>[] setters;
+
+    private ViewRowMapper(Supplier<T> constructor, ColumnReader[] readers, BiConsumer<Object, Object>[] setters) {
+        this.constructor = constructor;
+        this.readers = readers;
+        this.setters = setters;
+    }
+
+    /**
+     * 编译 RowMapper
+     *
+     * @param viewClass  视图类，需要有无参构造器
+     * @param properties 查询列对应的字段，顺序与查询列一致；没有 setter 的字段不映射
+     * @return RowMapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ViewRowMapper<T> compile(Class<T> viewClass, List<String> properties) {
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(viewClass, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new QueryBeanSqlException("Cannot access view class: " + viewClass.getName());
+        }
+        ColumnReader[] readers = new ColumnReader[properties.size()];
+        BiConsumer<Object, Object>[] setters = new BiConsumer[properties.size()];
+        for (int i = 0; i < properties.size(); i++) {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(viewClass, properties.get(i));
+            if (descriptor == null || descriptor.getWriteMethod() == null) {
+                continue;
+            }
+            readers[i] = reader(descriptor.getPropertyType());
+            setters[i] = setter(lookup, viewClass, descriptor.getWriteMethod());
+        }
+        return new ViewRowMapper<>(constructor(lookup, viewClass), readers, setters);
+    }
+
+    @Override
+    public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        T bean = constructor.get();
+        for (int i = 0; i < readers.length; i++) {
+            ColumnReader reader = readers[i];
+            if (reader != null) {
+                Object value = reader.read(rs, i + 1);
+                // null 不调用 setter，基本类型字段保留默认值（相当于 BeanPropertyRowMapper 的 primitivesDefaultedForNullValue）
+                if (value != null) {
+                    setters[i].accept(bean, value);
+                }
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * 按字段类型选择 ResultSet 的取值方法，其他类型交给 JdbcUtils
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static ColumnReader reader(Class<?> type) {
+        if (type == String.class) {
+            return ResultSet::getString;
+        } else if (type == Long.class || type == long.class) {
+            return (rs, index) -> {
+                long value = rs.getLong(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        } else if (type == Integer.class || type == int.class) {
+            return (rs, index) -> {
+                int value = rs.getInt(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        } else if (type == Short.class || type == short.class) {
+            return (rs, index) -> {
+                short value = rs.getShort(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        } else if (type == Byte.class || type == byte.class) {
+            return (rs, index) -> {
+                byte value = rs.getByte(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        } else if (type == Double.class || type == double.class) {
+            return (rs, index) -> {
+                double value = rs.getDouble(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        } else if (type == Float.class || type == float.class) {
+            return (rs, index) -> {
+                float value = rs.getFloat(index);
+                return value == 0 && rs.wasNull() ? null : value;
+            };
+        } else if (type == Boolean.class || type == boolean.class) {
+            return (rs, index) -> {
+                boolean value = rs.getBoolean(index);
+                return !value && rs.wasNull() ? null : value;
+            };
+        } else if (type == BigDecimal.class) {
+            return ResultSet::getBigDecimal;
+        } else if (type == LocalDateTime.class || type == LocalDate.class || type == LocalTime.class || type == OffsetDateTime.class) {
+            return (rs, index) -> rs.getObject(index, type);
+        } else if (type == java.sql.Timestamp.class || type == java.util.Date.class) {
+            return ResultSet::getTimestamp;
+        } else if (type == java.sql.Date.class) {
+            return ResultSet::getDate;
+        } else if (type == java.sql.Time.class) {
+            return ResultSet::getTime;
+        } else if (type == byte[].class) {
+            return ResultSet::getBytes;
+        } else if (type.isEnum()) {
+            return (rs, index) -> {
+                String value = rs.getString(index);
+                return value == null ? null : Enum.valueOf((Class<? extends Enum>) type, value);
+            };
+        }
+        return (rs, index) -> JdbcUtils.getResultSetValue(rs, index, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, Class<?> viewClass, Method method) {
+        try {
+            MethodHandle handle = lookup.unreflect(method);
+            Class<?> parameterType = method.getParameterTypes()[0];
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, viewClass, MethodType.methodType(parameterType).wrap().returnType()));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            log.debug("Failed to generate setter for {}, using method handle: {}", method, e.getMessage());
+            MethodHandle handle = unreflect(lookup, method).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable ex) {
+                    throw new QueryBeanSqlException("Failed to set " + method.getName() + ": " + ex.getMessage());
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> constructor(MethodHandles.Lookup lookup, Class<T> viewClass) {
+        MethodHandle handle;
+        try {
+            handle = lookup.findConstructor(viewClass, MethodType.methodType(void.class));
+        } catch (ReflectiveOperationException e) {
+            throw new QueryBeanSqlException("View class requires a no-argument constructor: " + viewClass.getName());
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    MethodType.methodType(viewClass));
+            return (Supplier<T>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            log.debug("Failed to generate constructor for {}, using method handle: {}", viewClass, e.getMessage());
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return (T) generic.invokeExact();
+                } catch (Throwable ex) {
+                    throw new QueryBeanSqlException("Failed to instantiate " + viewClass.getName() + ": " + ex.getMessage());
+                }
+            };
+        }
+    }
+
+    private static MethodHandle unreflect(MethodHandles.Lookup lookup, Method method) {
+        try {
+            return lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new QueryBeanSqlException("Cannot access " + method);
+        }
+    }
+
+    /**
+     * 按下标读取一列
+     */
+    @FunctionalInterface
+    interface ColumnReader {
+        Object read(ResultSet rs, int index) throws SQLException;
+    }
+}
@@ -0,0 +1,39 @@
+package top.mao196.querybeansql.core;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.ConcurrentLruCache;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.List;
+
+/**
+ * 视图 RowMapper 缓存，按视图类和查询列缓存编译好的 {@link ViewRowMapper}
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+public class ViewRowMapperCache {
+
+    private final ConcurrentLruCache<Key, ViewRowMapper<?>> cache;
+
+    public ViewRowMapperCache(QueryBeanConfig queryBeanConfig) {
+        this.cache = new ConcurrentLruCache<>(Math.max(queryBeanConfig.getPlanCacheSize(), 0),
+                key -> ViewRowMapper.compile(key.viewClass, key.properties));
+    }
+
+    /**
+     * 获取 RowMapper
+     *
+     * @param viewClass  视图类
+     * @param properties 查询列对应的字段，顺序与查询列一致
+     * @return RowMapper
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ViewRowMapper<T> get(Class<?> viewClass, List<String> properties) {
+        return (ViewRowMapper<T>) cache.get(new Key(viewClass, properties));
+    }
+
+    private record Key(Class<?> viewClass, List<String> properties) {
+    }
+}
@@ -0,0 +1,263 @@
+package top.mao196.querybeansql.core;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.BooleanUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 视图 search 的查询流程：查找结果缓存和语义缓存、合并同时到达的相同查询、执行数据查询和 count，
+ * 以及加载请求的关联视图。search、批量查询和关联查询共用，响应的编码和堆外缓存由调用方处理
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Component
+@Slf4j
+public class ViewSearchService {
+
+    private final ExposedViewRegistry exposedViewRegistry;
+
+    private final RequestParse requestParse;
+
+    private final QueryExecutor queryExecutor;
+
+    private final CountExecutor countExecutor;
+
+    private final ViewRowMapperCache viewRowMapperCache;
+
+    private final ResultCache resultCache;
+
+    private final QueryCoalescer queryCoalescer;
+
+    private final SemanticCache semanticCache;
+
+    private final RelationLoader relationLoader;
+
+    public ViewSearchService(ExposedViewRegistry exposedViewRegistry, RequestParse requestParse, QueryExecutor queryExecutor,
+                             CountExecutor countExecutor, ViewRowMapperCache viewRowMapperCache, ResultCache resultCache,
+                             QueryCoalescer queryCoalescer, SemanticCache semanticCache, RelationLoader relationLoader) {
+        this.exposedViewRegistry = exposedViewRegistry;
+        this.requestParse = requestParse;
+        this.queryExecutor = queryExecutor;
+        this.countExecutor = countExecutor;
+        this.viewRowMapperCache = viewRowMapperCache;
+        this.resultCache = resultCache;
+        this.queryCoalescer = queryCoalescer;
+        this.semanticCache = semanticCache;
+        this.relationLoader = relationLoader;
+    }
+
+    /**
+     * 按名称查找视图
+     */
+    public ViewDescriptor findDescriptor(String viewName) {
+        // 验证视图名称格式，防止 SQL 注入和路径遍历
+        if (!viewName.matches("^[a-zA-Z0-9_]+$")) {
+            throw new QueryBeanSqlException("Invalid view name: " + viewName);
+        }
+
+        ViewDescriptor viewDescriptor = exposedViewRegistry.findDescriptor(viewName);
+
+        if (viewDescriptor == null){
+            throw new QueryBeanSqlException(String.format("view with name: %s cannot be found", viewName));
+        }
+        return viewDescriptor;
+    }
+
+    public static CountMode countMode(SearchEntitiesRequestDTO requestDTO) {
+        return requestDTO.getCountMode() != null ? requestDTO.getCountMode()
+                : BooleanUtil.isTrue(requestDTO.getReturnCount()) ? CountMode.EXACT : null;
+    }
+
+    /**
+     * 查找结果缓存和语义缓存，不使用堆外响应缓存
+     *
+     * @return 没有可用的结果时返回 null
+     */
+    public <T> SearchResult<T> cached(ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO, RequestParseResult result,
+                                      CountMode countMode, ResultCache.Key cacheKey) {
+        if (cacheKey == null) {
+            return null;
+        }
+        SearchResult<T> cached = resultCache.get(cacheKey);
+        // 由缓存中条件更宽的完整结果推导，推导出的结果不再缓存，避免超过原结果的有效期
+        return cached != null ? cached : semanticCache.answer(viewDescriptor, requestDTO, result, countMode);
+    }
+
+    /**
+     * 请求了 include 时加载关联视图的行，返回带有 included 的副本，缓存中的结果不被修改
+     */
+    public <T> SearchResult<T> include(ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO, SearchResult<T> searchResult,
+                                       long deadline) {
+        if (CollUtil.isEmpty(requestDTO.getInclude())) {
+            return searchResult;
+        }
+        Map<String, List<?>> included = relationLoader.load(viewDescriptor, requestDTO, searchResult.getDataList(), this::findDescriptor,
+                (relationView, relationRequest) -> relationSearch(relationView, relationRequest, deadline));
+        return new SearchResult<>(searchResult.getDataList(), searchResult.getCount(), searchResult.getCountEstimated(),
+                searchResult.getHasMore(), searchResult.getNextCursor(), included);
+    }
+
+    /**
+     * 一次关联查询，与 search 一样使用结果缓存、语义缓存和查询合并，截止时间与主查询相同
+     */
+    private List<?> relationSearch(ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO, long deadline) {
+        RequestParseResult result = requestParse.parse(requestDTO, viewDescriptor);
+        ResultCache.Key cacheKey = resultCache.key(viewDescriptor, result, null);
+        SearchResult<?> cached = cached(viewDescriptor, requestDTO, result, null, cacheKey);
+        return (cached != null ? cached : load(viewDescriptor, requestDTO, result, null, cacheKey, deadline, false)).getDataList();
+    }
+
+    /**
+     * 查询数据库，同时到达的相同请求只查询一次，结果由第一个请求写入缓存
+     *
+     * @param parallelCount count 是否可以提交到线程池与数据查询并行执行
+     */
+    public <T> SearchResult<T> load(ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO, RequestParseResult result,
+                                    CountMode countMode, ResultCache.Key cacheKey, long deadline, boolean parallelCount) {
+        return queryCoalescer.execute(queryCoalescer.key(result, countMode), deadline, () -> {
+            SearchResult<T> loaded = search(viewDescriptor, result, countMode, deadline, parallelCount);
+            store(viewDescriptor, requestDTO, result, cacheKey, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * 把查询数据库得到的结果写入结果缓存，并记录为语义缓存可以使用的完整结果
+     */
+    public void store(ViewDescriptor viewDescriptor, SearchEntitiesRequestDTO requestDTO, RequestParseResult result,
+                      ResultCache.Key cacheKey, SearchResult<?> searchResult) {
+        if (cacheKey != null) {
+            resultCache.put(viewDescriptor, cacheKey, searchResult);
+            semanticCache.register(viewDescriptor, requestDTO, result, cacheKey, searchResult);
+        }
+    }
+
+    /**
+     * 执行数据查询和 count 查询
+     */
+    private <T> SearchResult<T> search(ViewDescriptor viewDescriptor, RequestParseResult result, CountMode countMode, long deadline,
+                                       boolean parallelCount) {
+        SearchResult<T> objectSearchResult = new SearchResult<>();
+        QueryExecutor.QueryTask<Long> countTask = submitCount(countMode, deadline, result, objectSearchResult, parallelCount);
+
+        String formatQuerySql = result.getQuerySql();
+        log.info("query view sql: [{}], param: [{}]", formatQuerySql, result.getParams());
+        WindowCountRowMapper<T> rowMapper = new WindowCountRowMapper<>(
+                viewRowMapperCache.get(viewDescriptor.getViewClass(), result.getProperties()), result.isWindowCount());
+        List<T> dataList;
+        try {
+            dataList = queryExecutor.call(deadline, () -> queryExecutor.getJdbcTemplate().query(formatQuerySql, result.getParams(), rowMapper));
+        } catch (RuntimeException e) {
+            if (countTask != null) {
+                countTask.cancel();
+            }
+            throw e;
+        }
+        return finish(objectSearchResult, result, countMode, deadline, dataList, countTask, rowMapper.total);
+    }
+
+    /**
+     * 去掉游标分页和 HAS_MORE 多取的一行，生成下一页的游标并填写总行数
+     *
+     * @param windowTotal WINDOW 模式下随数据返回的总行数
+     */
+    public <T> SearchResult<T> finish(SearchResult<T> objectSearchResult, RequestParseResult result, CountMode countMode, long deadline,
+                                      List<T> dataList, QueryExecutor.QueryTask<Long> countTask, Long windowTotal) {
+        if (result.getPageSize() != null) {
+            // 游标分页和 HAS_MORE 多取了一行，多出的一行说明存在下一页
+            boolean hasMore = dataList.size() > result.getPageSize();
+            if (hasMore) {
+                dataList = new ArrayList<>(dataList.subList(0, result.getPageSize()));
+                if (result.getKeysetProperties() != null) {
+                    objectSearchResult.setNextCursor(KeysetCursor.next(result, dataList.get(dataList.size() - 1)));
+                }
+            }
+            objectSearchResult.setHasMore(hasMore);
+        }
+        objectSearchResult.setDataList(dataList);
+
+        if (countTask != null) {
+            objectSearchResult.setCount(countTask.join());
+        } else if (countMode == CountMode.WINDOW) {
+            boolean empty = dataList.isEmpty();
+            objectSearchResult.setCount(queryExecutor.call(deadline, () -> windowCount(result, windowTotal, empty)));
+        }
+        return objectSearchResult;
+    }
+
+    /**
+     * 不依赖数据查询结果的 count 与数据查询并行执行，parallel 为 false 时在数据查询之后于当前线程执行
+     */
+    public QueryExecutor.QueryTask<Long> submitCount(CountMode countMode, long deadline, RequestParseResult result, SearchResult<?> searchResult,
+                                                     boolean parallel) {
+        if (countMode != CountMode.EXACT && countMode != CountMode.CACHED && countMode != CountMode.ESTIMATE) {
+            return null;
+        }
+        return parallel ? queryExecutor.submit(deadline, () -> count(countMode, result, searchResult))
+                : queryExecutor.defer(deadline, () -> count(countMode, result, searchResult));
+    }
+
+    /**
+     * WINDOW 模式的总行数，数据查询没有返回时再查询一次
+     *
+     * @param total 随数据返回的总行数
+     * @param empty 本页是否为空
+     */
+    public Long windowCount(RequestParseResult result, Long total, boolean empty) {
+        if (total != null) {
+            return total;
+        }
+        // 没有跳过任何行时，空页说明总行数为 0；跳过的行超过总行数时只能再查一次
+        if (result.isWindowCount() && empty && !result.getParams().containsKey(RequestParse.OFFSET_PARAM)) {
+            return 0L;
+        }
+        return countExecutor.exact(result);
+    }
+
+    private Long count(CountMode countMode, RequestParseResult result, SearchResult<?> searchResult) {
+        switch (countMode) {
+            case CACHED:
+                return countExecutor.cached(result);
+            case ESTIMATE:
+                Long estimated = countExecutor.estimate(result);
+                searchResult.setCountEstimated(estimated != null);
+                return estimated != null ? estimated : countExecutor.exact(result);
+            default:
+                return countExecutor.exact(result);
+        }
+    }
+
+    /**
+     * 映射视图对象，WINDOW 模式下同时读取窗口函数返回的总行数
+     */
+    private static class WindowCountRowMapper<T> implements RowMapper<T> {
+
+        private final RowMapper<T> delegate;
+
+        private final boolean windowCount;
+
+        private Long total;
+
+        WindowCountRowMapper(RowMapper<T> delegate, boolean windowCount) {
+            this.delegate = delegate;
+            this.windowCount = windowCount;
+        }
+
+        @Override
+        public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+            if (windowCount && total == null) {
+                total = rs.getLong(RequestParse.WINDOW_COUNT_COLUMN);
+            }
+            return delegate.mapRow(rs, rowNum);
+        }
+    }
+}
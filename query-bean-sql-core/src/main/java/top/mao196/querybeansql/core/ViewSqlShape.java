@@ -0,0 +1,214 @@
+package top.mao196.querybeansql.core;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 视图 SQL 的结构分析，用于把过滤条件、排序、分页和查询列下推到视图 SQL 内部
+ * <p>
+ * 只有形如 {@code SELECT 列[ AS 别名], ... FROM ... [WHERE ...]} 的单个查询可以下推，查询列只能是列引用；
+ * 顶层出现 DISTINCT、GROUP BY、HAVING、ORDER BY、LIMIT、UNION、窗口函数、WITH 等结构时都不能下推，
+ * 此时仍使用 {@code SELECT ... FROM (视图 SQL) _tmp} 的派生表写法
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public final class ViewSqlShape {
+
+    /**
+     * 顶层出现这些关键字时不能下推
+     */
+    private static final Set<String> UNSAFE_KEYWORDS = Set.of(
+            "DISTINCT", "ALL", "TOP", "UNION", "INTERSECT", "EXCEPT", "MINUS", "GROUP", "HAVING", "ORDER", "LIMIT",
+            "OFFSET", "FETCH", "WINDOW", "OVER", "QUALIFY", "FOR", "WITH", "INTO", "CONNECT", "START");
+
+    private static final String IDENTIFIER = "(?:[A-Za-z_][A-Za-z0-9_$]*|\"[^\"]+\"|`[^`]+`)";
+
+    /**
+     * 查询列：列引用，可带表名限定和别名
+     */
+    private static final Pattern SELECT_ITEM = Pattern.compile(
+            "^(" + IDENTIFIER + "(?:\\s*\\.\\s*" + IDENTIFIER + ")*)(?:\\s+(?:(?i:AS)\\s+)?(" + IDENTIFIER + "))?$");
+
+    /**
+     * 查询列名（小写，不含引号） -> 视图内部的列表达式
+     */
+    private final Map<String, String> columns;
+
+    /**
+     * FROM 之后、WHERE 之前的部分
+     */
+    private final String from;
+
+    /**
+     * 视图自身的 WHERE 条件，没有时为 null
+     */
+    private final String where;
+
+    private ViewSqlShape(Map<String, String> columns, String from, String where) {
+        this.columns = columns;
+        this.from = from;
+        this.where = where;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getWhere() {
+        return where;
+    }
+
+    /**
+     * 查找视图查询列对应的内部表达式
+     *
+     * @param columnName 视图的查询列名
+     * @return 内部表达式，视图中没有该列时返回 null
+     */
+    public String resolve(String columnName) {
+        return columnName == null ? null : columns.get(normalize(columnName));
+    }
+
+    /**
+     * 分析视图 SQL
+     *
+     * @param sql 处理占位符之后的视图 SQL
+     * @return 结构分析结果，不能下推时返回 null
+     */
+    public static ViewSqlShape analyze(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        List<int[]> words = new ArrayList<>();
+        if (!scanTopLevel(sql, words, null)) {
+            return null;
+        }
+        if (words.isEmpty() || !"SELECT".equals(word(sql, words.get(0)))) {
+            return null;
+        }
+        // SELECT 之前只能有空白，之后不能再出现 SELECT（子查询在括号内，不会扫描到）
+        int selectStart = words.get(0)[0];
+        int fromIndex = -1;
+        int whereIndex = -1;
+        for (int i = 1; i < words.size(); i++) {
+            String word = word(sql, words.get(i));
+            if (UNSAFE_KEYWORDS.contains(word) || "SELECT".equals(word)) {
+                return null;
+            }
+            if ("FROM".equals(word)) {
+                if (fromIndex >= 0) {
+                    return null;
+                }
+                fromIndex = i;
+            } else if ("WHERE".equals(word)) {
+                if (whereIndex >= 0 || fromIndex < 0) {
+                    return null;
+                }
+                whereIndex = i;
+            }
+        }
+        if (fromIndex < 0 || !sql.substring(0, selectStart).isBlank()) {
+            return null;
+        }
+
+        int fromStart = words.get(fromIndex)[0];
+        int fromEnd = words.get(fromIndex)[1];
+        String select = sql.substring(words.get(0)[1], fromStart);
+        String from = whereIndex < 0 ? sql.substring(fromEnd) : sql.substring(fromEnd, words.get(whereIndex)[0]);
+        String where = whereIndex < 0 ? null : sql.substring(words.get(whereIndex)[1]).trim();
+        from = from.trim();
+        if (from.isEmpty() || (where != null && where.isEmpty())) {
+            return null;
+        }
+
+        List<Integer> commas = new ArrayList<>();
+        scanTopLevel(select, new ArrayList<>(), commas);
+        Map<String, String> columns = new HashMap<>();
+        int start = 0;
+        commas.add(select.length());
+        for (int comma : commas) {
+            Matcher matcher = SELECT_ITEM.matcher(select.substring(start, comma).trim());
+            if (!matcher.matches()) {
+                return null;
+            }
+            String expression = matcher.group(1);
+            String label = matcher.group(2);
+            if (label == null) {
+                int dot = expression.lastIndexOf('.');
+                label = dot < 0 ? expression : expression.substring(dot + 1);
+            }
+            if (columns.putIfAbsent(normalize(label), expression) != null) {
+                // 重名的查询列无法确定对应关系
+                return null;
+            }
+            start = comma + 1;
+        }
+        return new ViewSqlShape(Map.copyOf(columns), from, where);
+    }
+
+    /**
+     * 扫描括号、引号和注释之外的单词与逗号
+     *
+     * @param words  单词的起止位置
+     * @param commas 逗号的位置，为 null 时不记录
+     * @return SQL 是否可以安全拼接（引号、括号闭合，没有注释和分号）
+     */
+    private static boolean scanTopLevel(String sql, List<int[]> words, List<Integer> commas) {
+        int depth = 0;
+        int i = 0;
+        int len = sql.length();
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int close = sql.indexOf(c, i + 1);
+                // 两个连续的引号是转义
+                while (close >= 0 && close + 1 < len && sql.charAt(close + 1) == c) {
+                    close = sql.indexOf(c, close + 2);
+                }
+                if (close < 0) {
+                    return false;
+                }
+                i = close + 1;
+            } else if (sql.startsWith("--", i) || sql.startsWith("/*", i) || c == ';') {
+                // 注释会吞掉拼接在后面的条件，与多条语句一样不下推
+                return false;
+            } else if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                if (--depth < 0) {
+                    return false;
+                }
+                i++;
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < len && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '$')) {
+                    i++;
+                }
+                // 命名参数 :name 不是关键字
+                if (depth == 0 && (start == 0 || sql.charAt(start - 1) != ':')) {
+                    words.add(new int[]{start, i});
+                }
+            } else {
+                if (c == ',' && depth == 0 && commas != null) {
+                    commas.add(i);
+                }
+                i++;
+            }
+        }
+        return depth == 0;
+    }
+
+    private static String word(String sql, int[] range) {
+        return sql.substring(range[0], range[1]).toUpperCase(Locale.ROOT);
+    }
+
+    private static String normalize(String identifier) {
+        String name = identifier.trim();
+        if (name.length() > 1 && (name.charAt(0) == '"' || name.charAt(0) == '`')) {
+            name = name.substring(1, name.length() - 1);
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
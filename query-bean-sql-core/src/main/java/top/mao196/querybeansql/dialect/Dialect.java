@@ -0,0 +1,141 @@
+package top.mao196.querybeansql.dialect;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.util.Map;
+
+/**
+ * 数据库方言，负责生成与数据库相关的 SQL 片段
+ * <p>
+ * 内置 MySQL、PostgreSQL、H2、Oracle、SQL Server 的实现，启动时根据数据源的元数据自动选择，
+ * 也可以通过 {@code query-bean.dialect} 指定；注册自定义的 Dialect Bean 可以替换内置实现
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public interface Dialect {
+
+    /**
+     * @return 方言名称，与 query-bean.dialect 的取值对应
+     */
+    String getName();
+
+    /**
+     * 分页子句，limit 与 offset 都以命名参数绑定
+     *
+     * @param limitParam  limit 参数名
+     * @param offsetParam offset 参数名，为 null 时不跳过行
+     * @param hasOrder    查询是否已有 ORDER BY
+     * @return 拼接在查询末尾的分页子句
+     */
+    String limit(String limitParam, String offsetParam, boolean hasOrder);
+
+    /**
+     * 为标识符加引号
+     *
+     * @param identifier 标识符
+     * @return 加引号后的标识符
+     */
+    String quoteIdentifier(String identifier);
+
+    /**
+     * 未加引号的标识符是否会被转为全小写或全大写，为 true 时列别名加引号以保留字段名的大小写
+     *
+     * @return 是否转换大小写
+     */
+    default boolean foldsIdentifierCase() {
+        return false;
+    }
+
+    /**
+     * 包装视图 SQL 的派生表
+     *
+     * @param sql 视图 SQL
+     * @return FROM 之后的派生表
+     */
+    default String derivedTable(String sql) {
+        return "(" + sql + ") _tmp";
+    }
+
+    /**
+     * 是否支持行值比较 (a, b) &gt; (?, ?)，不支持时游标分页展开为 OR 条件
+     *
+     * @return 是否支持
+     */
+    default boolean supportsRowValues() {
+        return true;
+    }
+
+    /**
+     * 是否支持以一个数组参数绑定 IN 列表，不支持时忽略 query-bean.inListArrayThreshold
+     *
+     * @return 是否支持
+     */
+    default boolean supportsArrayBinding() {
+        return false;
+    }
+
+    /**
+     * 以数组参数绑定的 IN / NOT IN 条件
+     *
+     * @param column 列
+     * @param param  参数名
+     * @param not    是否为 NOT IN
+     * @return 条件 SQL
+     */
+    default String arrayIn(String column, String param, boolean not) {
+        return column + (not ? " <> ALL(:" : " = ANY(:") + param + ')';
+    }
+
+    /**
+     * 单个 IN 列表允许的最多元素数量，超过时拆成多个 IN 列表，0 表示不限制
+     *
+     * @return 最多元素数量
+     */
+    default int maxInListSize() {
+        return 0;
+    }
+
+    /**
+     * 随数据一起返回总行数的窗口函数，不支持时返回 null
+     *
+     * @return 窗口函数表达式
+     */
+    default String windowCount() {
+        return "COUNT(*) OVER()";
+    }
+
+    /**
+     * 从执行计划中读取查询的估算行数，不支持时返回 null
+     *
+     * @param jdbc   执行 EXPLAIN 的 JdbcTemplate
+     * @param sql    要估算的查询
+     * @param params 查询参数
+     * @return 估算行数
+     */
+    default Long estimateCount(NamedParameterJdbcOperations jdbc, String sql, Map<String, ?> params) {
+        return null;
+    }
+
+    /**
+     * 流式查询设置到 Statement 上的 fetchSize
+     *
+     * @param fetchSize 视图或配置指定的 fetchSize，0 表示未指定，-1 表示逐行流式读取
+     * @return 驱动使用的 fetchSize
+     */
+    default int streamFetchSize(int fetchSize) {
+        if (fetchSize > 0) {
+            return fetchSize;
+        }
+        return fetchSize == 0 ? 1000 : 1;
+    }
+
+    /**
+     * 驱动是否只在关闭自动提交时才按 fetchSize 分批读取，为 true 时流式查询在只读事务中执行
+     *
+     * @return 是否需要关闭自动提交
+     */
+    default boolean streamRequiresTransaction() {
+        return false;
+    }
+}
@@ -0,0 +1,133 @@
+package top.mao196.querybeansql.dialect;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import top.mao196.querybeansql.core.QueryBeanSqlException;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 内置方言的查找与自动识别
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Slf4j
+public final class Dialects {
+
+    public static final Dialect MYSQL = new MySqlDialect();
+
+    /**
+     * MySQL 5.7 及更早版本、MariaDB 10.2 之前的版本，不支持窗口函数
+     */
+    public static final Dialect MYSQL_WITHOUT_WINDOW = new MySqlDialect(false);
+
+    public static final Dialect POSTGRESQL = new PostgreSqlDialect();
+
+    public static final Dialect H2 = new H2Dialect();
+
+    public static final Dialect ORACLE = new OracleDialect();
+
+    public static final Dialect SQL_SERVER = new SqlServerDialect();
+
+    private static final List<Dialect> BUILT_IN = List.of(MYSQL, POSTGRESQL, H2, ORACLE, SQL_SERVER);
+
+    private Dialects() {
+    }
+
+    /**
+     * 按名称查找内置方言
+     *
+     * @param name 方言名称，不区分大小写
+     * @return 方言
+     */
+    public static Dialect of(String name) {
+        for (Dialect dialect : BUILT_IN) {
+            if (dialect.getName().equalsIgnoreCase(name)) {
+                return dialect;
+            }
+        }
+        throw new QueryBeanSqlException("Unknown dialect: " + name + ", supported: mysql, postgresql, h2, oracle, sqlserver");
+    }
+
+    /**
+     * 按数据库产品名称识别方言
+     *
+     * @param productName DatabaseMetaData#getDatabaseProductName
+     * @return 方言，无法识别时返回 null
+     */
+    public static Dialect fromProductName(String productName) {
+        if (StrUtil.isBlank(productName)) {
+            return null;
+        }
+        String name = productName.toLowerCase(Locale.ROOT);
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return MYSQL;
+        } else if (name.contains("postgresql")) {
+            return POSTGRESQL;
+        } else if (name.equals("h2")) {
+            return H2;
+        } else if (name.contains("oracle")) {
+            return ORACLE;
+        } else if (name.contains("sql server")) {
+            return SQL_SERVER;
+        }
+        return null;
+    }
+
+    /**
+     * 按数据库产品名称和版本识别方言，不支持窗口函数的 MySQL / MariaDB 版本使用 {@link #MYSQL_WITHOUT_WINDOW}
+     *
+     * @param productName    DatabaseMetaData#getDatabaseProductName
+     * @param productVersion DatabaseMetaData#getDatabaseProductVersion
+     * @param majorVersion   DatabaseMetaData#getDatabaseMajorVersion
+     * @param minorVersion   DatabaseMetaData#getDatabaseMinorVersion
+     * @return 方言，无法识别时返回 null
+     */
+    public static Dialect fromMetaData(String productName, String productVersion, int majorVersion, int minorVersion) {
+        Dialect dialect = fromProductName(productName);
+        if (dialect == MYSQL && !MySqlDialect.supportsWindowFunctions(productVersion, majorVersion, minorVersion)) {
+            return MYSQL_WITHOUT_WINDOW;
+        }
+        return dialect;
+    }
+
+    /**
+     * 选择方言：优先使用配置的名称，否则根据数据源元数据识别，都无法确定时使用 MySQL。
+     * 配置为 mysql 时仍读取数据源的版本，低于 MySQL 8.0 / MariaDB 10.2 时不使用窗口函数
+     *
+     * @param name       配置的方言名称，可以为空
+     * @param dataSource 数据源，可以为 null
+     * @return 方言
+     */
+    public static Dialect resolve(String name, DataSource dataSource) {
+        Dialect configured = StrUtil.isNotBlank(name) ? of(name) : null;
+        if (dataSource == null || (configured != null && configured != MYSQL)) {
+            return configured != null ? configured : MYSQL;
+        }
+        try {
+            DatabaseVersion database = JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> new DatabaseVersion(
+                    metaData.getDatabaseProductName(), metaData.getDatabaseProductVersion(),
+                    metaData.getDatabaseMajorVersion(), metaData.getDatabaseMinorVersion()));
+            Dialect dialect = configured != null
+                    ? (MySqlDialect.supportsWindowFunctions(database.productVersion(), database.majorVersion(), database.minorVersion()) ? MYSQL : MYSQL_WITHOUT_WINDOW)
+                    : fromMetaData(database.productName(), database.productVersion(), database.majorVersion(), database.minorVersion());
+            if (dialect != null) {
+                log.info("query-bean dialect: {} (database: {} {}){}", dialect.getName(), database.productName(), database.productVersion(),
+                        dialect == MYSQL_WITHOUT_WINDOW ? ", window functions are not available" : "");
+                return dialect;
+            }
+            log.warn("Unrecognized database: {}, falling back to mysql dialect, set query-bean.dialect to override", database.productName());
+        } catch (MetaDataAccessException e) {
+            log.warn("Failed to read database metadata, falling back to {} dialect", configured != null ? configured.getName() : "mysql", e);
+        }
+        return configured != null ? configured : MYSQL;
+    }
+
+    private record DatabaseVersion(String productName, String productVersion, int majorVersion, int minorVersion) {
+    }
+}
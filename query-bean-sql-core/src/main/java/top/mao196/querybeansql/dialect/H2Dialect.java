@@ -0,0 +1,32 @@
+package top.mao196.querybeansql.dialect;
+
+/**
+ * H2 方言
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public class H2Dialect implements Dialect {
+
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    @Override
+    public String limit(String limitParam, String offsetParam, boolean hasOrder) {
+        return offsetParam == null
+                ? "LIMIT :" + limitParam
+                : "LIMIT :" + limitParam + " OFFSET :" + offsetParam;
+    }
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public boolean supportsArrayBinding() {
+        return true;
+    }
+}
@@ -0,0 +1,102 @@
+package top.mao196.querybeansql.dialect;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MySQL / MariaDB 方言
+ * 窗口函数需要 MySQL 8.0 或 MariaDB 10.2 及以上版本，更早的版本不支持 WINDOW 总行数和批量查询合并
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public class MySqlDialect implements Dialect {
+
+    /**
+     * MariaDB 的版本号，通过 MySQL 协议连接时带有 5.5.5- 前缀，例如 5.5.5-10.1.48-MariaDB
+     */
+    private static final Pattern MARIADB_VERSION = Pattern.compile("^(?:5\\.5\\.5-)?(\\d+)\\.(\\d+)");
+
+    private final boolean windowFunctions;
+
+    public MySqlDialect() {
+        this(true);
+    }
+
+    /**
+     * @param windowFunctions 数据库是否支持窗口函数
+     */
+    public MySqlDialect(boolean windowFunctions) {
+        this.windowFunctions = windowFunctions;
+    }
+
+    /**
+     * 根据数据库版本判断是否支持窗口函数
+     *
+     * @param productVersion DatabaseMetaData#getDatabaseProductVersion，用于识别 MariaDB
+     * @param majorVersion   DatabaseMetaData#getDatabaseMajorVersion
+     * @param minorVersion   DatabaseMetaData#getDatabaseMinorVersion
+     * @return MySQL 8.0+ 或 MariaDB 10.2+ 时为 true
+     */
+    public static boolean supportsWindowFunctions(String productVersion, int majorVersion, int minorVersion) {
+        if (productVersion != null && productVersion.toLowerCase(Locale.ROOT).contains("mariadb")) {
+            // MySQL 驱动报告的主版本号是前缀中的 5
+            Matcher matcher = MARIADB_VERSION.matcher(productVersion);
+            if (matcher.find()) {
+                majorVersion = Integer.parseInt(matcher.group(1));
+                minorVersion = Integer.parseInt(matcher.group(2));
+            }
+            return majorVersion > 10 || (majorVersion == 10 && minorVersion >= 2);
+        }
+        return majorVersion >= 8;
+    }
+
+    @Override
+    public String getName() {
+        return "mysql";
+    }
+
+    @Override
+    public String limit(String limitParam, String offsetParam, boolean hasOrder) {
+        return offsetParam == null
+                ? "LIMIT :" + limitParam
+                : "LIMIT :" + offsetParam + ",:" + limitParam;
+    }
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return '`' + identifier.replace("`", "``") + '`';
+    }
+
+    @Override
+    public String windowCount() {
+        return windowFunctions ? Dialect.super.windowCount() : null;
+    }
+
+    /**
+     * 取 EXPLAIN 第一行的 rows * filtered / 100，派生表被合并后即为整条查询的估算行数
+     */
+    @Override
+    public Long estimateCount(NamedParameterJdbcOperations jdbc, String sql, Map<String, ?> params) {
+        List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql, params);
+        if (plan.isEmpty() || !(plan.get(0).get("rows") instanceof Number rows)) {
+            return null;
+        }
+        double filtered = plan.get(0).get("filtered") instanceof Number number ? number.doubleValue() : 100;
+        return Math.round(rows.doubleValue() * filtered / 100);
+    }
+
+    /**
+     * Connector/J 默认一次读取全部结果，只有 fetchSize 为 Integer.MIN_VALUE 时逐行流式读取；
+     * 正数的 fetchSize 需要连接参数 useCursorFetch=true 才会分批读取
+     */
+    @Override
+    public int streamFetchSize(int fetchSize) {
+        return fetchSize > 0 ? fetchSize : Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,48 @@
+package top.mao196.querybeansql.dialect;
+
+/**
+ * Oracle 12c 及以上版本的方言
+ * 使用 OFFSET / FETCH 分页；标识符不能以下划线开头，未加引号的标识符会转为大写；单个 IN 列表最多 1000 个元素
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public class OracleDialect implements Dialect {
+
+    @Override
+    public String getName() {
+        return "oracle";
+    }
+
+    @Override
+    public String limit(String limitParam, String offsetParam, boolean hasOrder) {
+        return offsetParam == null
+                ? "FETCH FIRST :" + limitParam + " ROWS ONLY"
+                : "OFFSET :" + offsetParam + " ROWS FETCH NEXT :" + limitParam + " ROWS ONLY";
+    }
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public boolean foldsIdentifierCase() {
+        return true;
+    }
+
+    @Override
+    public String derivedTable(String sql) {
+        return "(" + sql + ") tmp_";
+    }
+
+    @Override
+    public boolean supportsRowValues() {
+        return false;
+    }
+
+    @Override
+    public int maxInListSize() {
+        return 1000;
+    }
+}
@@ -0,0 +1,67 @@
+package top.mao196.querybeansql.dialect;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PostgreSQL 方言，未加引号的标识符会转为小写，列别名需要加引号
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public class PostgreSqlDialect implements Dialect {
+
+    /**
+     * EXPLAIN 第一行中顶层节点的估算行数
+     */
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @Override
+    public String getName() {
+        return "postgresql";
+    }
+
+    @Override
+    public String limit(String limitParam, String offsetParam, boolean hasOrder) {
+        return offsetParam == null
+                ? "LIMIT :" + limitParam
+                : "LIMIT :" + limitParam + " OFFSET :" + offsetParam;
+    }
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public boolean foldsIdentifierCase() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsArrayBinding() {
+        return true;
+    }
+
+    @Override
+    public Long estimateCount(NamedParameterJdbcOperations jdbc, String sql, Map<String, ?> params) {
+        List<String> plan = jdbc.queryForList("EXPLAIN " + sql, params, String.class);
+        if (plan.isEmpty()) {
+            return null;
+        }
+        Matcher matcher = PLAN_ROWS.matcher(plan.get(0));
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    /**
+     * 自动提交模式下驱动会忽略 fetchSize 读取全部结果
+     */
+    @Override
+    public boolean streamRequiresTransaction() {
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package top.mao196.querybeansql.dialect;
+
+/**
+ * SQL Server 2012 及以上版本的方言
+ * OFFSET / FETCH 必须跟在 ORDER BY 之后，没有排序时按 (SELECT NULL) 排序
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public class SqlServerDialect implements Dialect {
+
+    @Override
+    public String getName() {
+        return "sqlserver";
+    }
+
+    @Override
+    public String limit(String limitParam, String offsetParam, boolean hasOrder) {
+        return (hasOrder ? "" : "ORDER BY (SELECT NULL) ")
+                + "OFFSET " + (offsetParam == null ? "0" : ":" + offsetParam) + " ROWS FETCH NEXT :" + limitParam + " ROWS ONLY";
+    }
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return '[' + identifier.replace("]", "]]") + ']';
+    }
+
+    @Override
+    public boolean supportsRowValues() {
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package top.mao196.querybeansql.placeholder;
+
+/**
+ * 占位符的渲染方式
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public enum PlaceholderMode {
+
+    /**
+     * 把转义后的值直接拼进 SQL，每个不同的值都会生成不同的 SQL 文本
+     */
+    INLINE,
+
+    /**
+     * ${name} 渲染为命名参数 :ph_name，值随查询参数一起绑定；集合展开为参数列表
+     * 包住占位符的单引号（'${name}'）在编译时去掉，条件块仍然决定输出哪一段 SQL
+     */
+    BIND
+}
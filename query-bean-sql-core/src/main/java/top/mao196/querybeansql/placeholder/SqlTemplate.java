@@ -0,0 +1,419 @@
+package top.mao196.querybeansql.placeholder;
+
+import top.mao196.querybeansql.core.QueryBeanSqlException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 预编译的 SQL 模板
+ * 视图注册时把 SQL 中的 ${} 占位符解析成不可变的节点树，每次请求只遍历节点树渲染，不再扫描原始 SQL
+ * 语法与 {@link FunctionPlaceholderParser} 相同，{@link PlaceholderMode#BIND} 模式下变量渲染为命名参数
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+public final class SqlTemplate {
+
+    /**
+     * {@link PlaceholderMode#BIND} 模式下命名参数的前缀
+     */
+    public static final String BIND_PREFIX = "ph_";
+
+    private final String sql;
+
+    private final List<Node> nodes;
+
+    /**
+     * 不含任何占位符时的渲染结果，否则为 null
+     */
+    private final String staticSql;
+
+    private SqlTemplate(String sql, List<Node> nodes) {
+        this.sql = sql;
+        this.nodes = nodes;
+        if (nodes.stream().allMatch(TextNode.class::isInstance)) {
+            // 未闭合的 ${ 之后的内容会被丢弃，所以静态结果不一定等于原始 SQL
+            this.staticSql = nodes.size() == 1 ? ((TextNode) nodes.get(0)).text()
+                    : nodes.isEmpty() ? sql : nodes.stream().map(it -> ((TextNode) it).text()).collect(Collectors.joining());
+        } else {
+            this.staticSql = null;
+        }
+    }
+
+    /**
+     * 编译 SQL 模板，变量直接拼进 SQL
+     *
+     * @param sql SQL 模板
+     * @return 编译后的模板
+     */
+    public static SqlTemplate compile(String sql) {
+        return compile(sql, PlaceholderMode.INLINE);
+    }
+
+    /**
+     * 编译 SQL 模板
+     *
+     * @param sql  SQL 模板
+     * @param mode 占位符的渲染方式
+     * @return 编译后的模板
+     * @throws QueryBeanSqlException BIND 模式下变量位于字符串字面量中间，例如 '%${name}%'
+     */
+    public static SqlTemplate compile(String sql, PlaceholderMode mode) {
+        if (sql == null || sql.isEmpty()) {
+            return new SqlTemplate(sql, List.of());
+        }
+        List<Node> nodes = compileNodes(sql, mode);
+        if (mode == PlaceholderMode.BIND) {
+            rejectQuotedBinds(sql, nodes, false);
+        }
+        return new SqlTemplate(sql, List.copyOf(nodes));
+    }
+
+    /**
+     * @return 原始 SQL 模板
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return 是否不含任何占位符，为 true 时无需构建上下文，直接使用 {@link #getStaticSql()}
+     */
+    public boolean isStatic() {
+        return staticSql != null || sql == null;
+    }
+
+    /**
+     * @return 不含任何占位符时的渲染结果，否则为 null
+     */
+    public String getStaticSql() {
+        return staticSql;
+    }
+
+    /**
+     * 使用上下文渲染模板，只能用于 {@link PlaceholderMode#INLINE} 模式编译的模板
+     *
+     * @param context 占位符上下文
+     * @return 渲染后的 SQL
+     */
+    public String render(PlaceholderContext context) {
+        return render(context, null);
+    }
+
+    /**
+     * 使用上下文渲染模板，嵌套的条件块直接写入同一个缓冲区
+     *
+     * @param context 占位符上下文
+     * @param binds   {@link PlaceholderMode#BIND} 模式下接收命名参数的值
+     * @return 渲染后的 SQL
+     */
+    public String render(PlaceholderContext context, Map<String, Object> binds) {
+        if (isStatic()) {
+            return staticSql;
+        }
+        StringBuilder out = new StringBuilder(sql.length() + 32);
+        for (Node node : nodes) {
+            node.render(context, binds, out);
+        }
+        return out.toString();
+    }
+
+    private static List<Node> compileNodes(String sql, PlaceholderMode mode) {
+        List<Node> nodes = new ArrayList<>();
+        int i = 0;
+        int len = sql.length();
+
+        while (i < len) {
+            // 查找 ${ 开头
+            int dollarIdx = sql.indexOf("${", i);
+            if (dollarIdx == -1) {
+                nodes.add(new TextNode(sql.substring(i, len)));
+                break;
+            }
+
+            if (dollarIdx > i) {
+                nodes.add(new TextNode(sql.substring(i, dollarIdx)));
+            }
+            i = dollarIdx + 2;
+
+            // 找到对应的 }，没有闭合时保留 ${ 并忽略之后的内容
+            int closeIdx = findMatchingClose(sql, i);
+            if (closeIdx == -1) {
+                nodes.add(new TextNode("${"));
+                break;
+            }
+
+            Node node = compilePlaceholder(sql.substring(i, closeIdx), mode);
+            if (node != null) {
+                nodes.add(node);
+            }
+            i = closeIdx + 1; // 跳过 }
+        }
+        return mode == PlaceholderMode.BIND ? absorbQuotes(nodes) : nodes;
+    }
+
+    /**
+     * 绑定参数不能放在引号里，'${name}' 两侧的引号在编译时去掉
+     */
+    private static List<Node> absorbQuotes(List<Node> nodes) {
+        List<Node> result = new ArrayList<>(nodes.size());
+        for (int k = 0; k < nodes.size(); k++) {
+            Node node = nodes.get(k);
+            if (node instanceof VariableNode variable
+                    && !result.isEmpty() && result.get(result.size() - 1) instanceof TextNode before && before.text().endsWith("'")
+                    && k + 1 < nodes.size() && nodes.get(k + 1) instanceof TextNode after && after.text().startsWith("'")) {
+                result.remove(result.size() - 1);
+                if (before.text().length() > 1) {
+                    result.add(new TextNode(before.text().substring(0, before.text().length() - 1)));
+                }
+                result.add(new VariableNode(variable.name(), variable.defaultValue(), variable.bindName(), true));
+                if (after.text().length() > 1) {
+                    result.add(new TextNode(after.text().substring(1)));
+                }
+                k++;
+            } else {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 引号中的 :name 不会被 NamedParameterUtils 当作参数，'%${name}%' 会按字面文本 :ph_name 匹配，编译时直接拒绝
+     *
+     * @param quoted 开始时是否位于字符串字面量中
+     * @return 结束时是否位于字符串字面量中
+     */
+    private static boolean rejectQuotedBinds(String sql, List<Node> nodes, boolean quoted) {
+        for (Node node : nodes) {
+            if (node instanceof TextNode text) {
+                // 转义的 '' 切换两次，不影响结果
+                for (int i = 0; i < text.text().length(); i++) {
+                    if (text.text().charAt(i) == '\'') {
+                        quoted = !quoted;
+                    }
+                }
+            } else if (node instanceof VariableNode variable && quoted) {
+                throw new QueryBeanSqlException(String.format("placeholder ${%s} inside a string literal cannot be bound in BIND mode: %s."
+                        + " Use PlaceholderMode.INLINE, or move the wildcards into the parameter value and write '${%s}' or ${%s}",
+                        variable.name(), sql, variable.name(), variable.name()));
+            } else if (node instanceof ConditionNode condition) {
+                quoted = rejectQuotedBinds(sql, condition.body(), quoted);
+            }
+        }
+        return quoted;
+    }
+
+    /**
+     * 查找匹配的 }（处理嵌套的 ${}）
+     */
+    private static int findMatchingClose(String sql, int start) {
+        int depth = 1;
+        int i = start;
+        int len = sql.length();
+
+        while (i < len && depth > 0) {
+            if (sql.startsWith("${", i)) {
+                depth++;
+                i += 2;
+            } else if (sql.charAt(i) == '}') {
+                depth--;
+                if (depth == 0) return i;
+                i++;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 编译占位符内容，空占位符返回 null
+     */
+    private static Node compilePlaceholder(String content, PlaceholderMode mode) {
+        content = content.trim();
+        if (content.isEmpty()) return null;
+
+        // 检查是否是后缀条件 ${var? content}
+        int qIdx = content.indexOf('?');
+        if (qIdx > 0) {
+            String condition = content.substring(0, qIdx).trim();
+            List<Node> body = List.copyOf(compileNodes(content.substring(qIdx + 1).trim(), mode));
+
+            if (condition.contains("==")) {
+                // 值比较: ${status == 'active'? body}
+                String[] parts = condition.split("==", 2);
+                String expectedValue = parts[1].trim();
+
+                // 去掉值的引号
+                if (expectedValue.startsWith("'") && expectedValue.endsWith("'")) {
+                    expectedValue = expectedValue.substring(1, expectedValue.length() - 1);
+                }
+                return new ConditionNode(parts[0].trim(), expectedValue, body);
+            }
+            // 存在性检查: ${userId? AND user_id = ${userId}}
+            return new ConditionNode(condition, null, body);
+        }
+
+        // 简单占位符: ${name} 或 ${name:default}
+        String name = content;
+        String defaultValue = "";
+        int colonIdx = content.indexOf(':');
+        if (colonIdx >= 0) {
+            name = content.substring(0, colonIdx).trim();
+            defaultValue = content.substring(colonIdx + 1).trim();
+        }
+        return new VariableNode(name, defaultValue, mode == PlaceholderMode.BIND ? bindName(name) : null, false);
+    }
+
+    /**
+     * 命名参数加上 ph_ 前缀，避免与过滤条件和分页参数重名
+     */
+    private static String bindName(String name) {
+        StringBuilder sb = new StringBuilder(BIND_PREFIX.length() + name.length()).append(BIND_PREFIX);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    private interface Node {
+
+        void render(PlaceholderContext context, Map<String, Object> binds, StringBuilder out);
+    }
+
+    /**
+     * 原样输出的文本
+     */
+    private record TextNode(String text) implements Node {
+
+        @Override
+        public void render(PlaceholderContext context, Map<String, Object> binds, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    /**
+     * 变量替换 ${name} 或 ${name:default}
+     *
+     * @param bindName 命名参数名，为 null 时把值直接拼进 SQL
+     * @param quoted   是否去掉了两侧的引号，此时默认值需要作为字符串字面量输出
+     */
+    private record VariableNode(String name, String defaultValue, String bindName, boolean quoted) implements Node {
+
+        @Override
+        public void render(PlaceholderContext context, Map<String, Object> binds, StringBuilder out) {
+            Object value = context.get(name);
+            if (value == null || isEmptyValue(value)) {
+                if (quoted) {
+                    out.append('\'').append(defaultValue.replace("'", "''")).append('\'');
+                } else {
+                    out.append(defaultValue);
+                }
+            } else if (bindName == null) {
+                appendSqlValue(value, out);
+            } else {
+                Objects.requireNonNull(binds, "binds is required for template compiled in BIND mode");
+                // 集合由 NamedParameterJdbcTemplate 展开为参数列表
+                binds.put(bindName, value instanceof Collection<?> collection ? new ArrayList<>(collection) : value);
+                out.append(':').append(bindName);
+            }
+        }
+    }
+
+    /**
+     * 条件块 ${name? body} 或 ${name == 'value'? body}，渲染结果去掉首尾空白
+     *
+     * @param expectedValue 期望值，为 null 时只检查参数是否存在
+     */
+    private record ConditionNode(String name, String expectedValue, List<Node> body) implements Node {
+
+        @Override
+        public void render(PlaceholderContext context, Map<String, Object> binds, StringBuilder out) {
+            boolean conditionMet;
+            if (expectedValue != null) {
+                Object actualValue = context.get(name);
+                conditionMet = actualValue != null && expectedValue.equals(String.valueOf(actualValue));
+            } else {
+                conditionMet = context.contains(name);
+            }
+            if (!conditionMet) {
+                return;
+            }
+            int start = out.length();
+            for (Node node : body) {
+                node.render(context, binds, out);
+            }
+            trim(out, start);
+        }
+    }
+
+    /**
+     * 去掉缓冲区中 start 之后内容的首尾空白，与 String#trim 规则一致
+     */
+    private static void trim(StringBuilder out, int start) {
+        int end = out.length();
+        while (end > start && out.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        out.setLength(end);
+        int leading = start;
+        while (leading < end && out.charAt(leading) <= ' ') {
+            leading++;
+        }
+        if (leading > start) {
+            out.delete(start, leading);
+        }
+    }
+
+    private static boolean isEmptyValue(Object value) {
+        if (value instanceof String && ((String) value).isEmpty()) return true;
+        return value instanceof Collection && ((Collection<?>) value).isEmpty();
+    }
+
+    private static void appendSqlValue(Object value, StringBuilder out) {
+        if (value instanceof Collection) {
+            boolean first = true;
+            for (Object item : (Collection<?>) value) {
+                if (!first) out.append(", ");
+                appendSingleValue(item, out);
+                first = false;
+            }
+            return;
+        }
+        appendSingleValue(value, out);
+    }
+
+    private static void appendSingleValue(Object value, StringBuilder out) {
+        String str = String.valueOf(value);
+        if (str.contains("'")) str = str.replace("'", "''");
+        if (isSafeLiteral(str)) {
+            out.append(str);
+        } else {
+            out.append('\'').append(str).append('\'');
+        }
+    }
+
+    /**
+     * 非空且只包含字母、数字、下划线和点时可以不加引号，等价于 ^[a-zA-Z0-9_.]+$
+     */
+    private static boolean isSafeLiteral(String str) {
+        if (str.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '.';
+            if (!safe) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
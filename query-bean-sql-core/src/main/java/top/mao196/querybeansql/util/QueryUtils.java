@@ -1,5 +1,14 @@
 package top.mao196.querybeansql.util;
 
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class QueryUtils {
 
@@ -26,4 +35,52 @@ public class QueryUtils {
                 .replace("%", escapeCharacter + "%")
                 .replace("_", escapeCharacter + "_");
     }
+
+    /**
+     * Length of a parameter list after {@link #padInList(Collection)}
+     *
+     * @param size number of values
+     * @return the next power of two, or size itself when it is 0 or 1
+     */
+    public static int paddedSize(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Pads a parameter list to the next power of two by repeating its last element,
+     * so that the expanded IN list only has a bounded number of lengths
+     *
+     * @param values parameter values
+     * @return padded parameter values
+     */
+    public static List<Object> padInList(Collection<?> values) {
+        int size = values.size();
+        int bucket = paddedSize(size);
+        List<Object> padded = new ArrayList<>(bucket);
+        padded.addAll(values);
+        if (bucket > size) {
+            Object last = padded.get(size - 1);
+            while (padded.size() < bucket) {
+                padded.add(last);
+            }
+        }
+        return padded;
+    }
+
+    /**
+     * Wraps values as a single SQL ARRAY parameter created by {@link Connection#createArrayOf}
+     *
+     * @param elementType database type name of the array elements
+     * @param values      parameter values
+     * @return array parameter value
+     */
+    public static SqlParameterValue sqlArray(String elementType, Collection<?> values) {
+        Object[] elements = values.toArray();
+        return new SqlParameterValue(Types.ARRAY, new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(Connection con, int sqlType, String typeName) throws SQLException {
+                return con.createArrayOf(elementType, elements);
+            }
+        });
+    }
 }
\ No newline at end of file
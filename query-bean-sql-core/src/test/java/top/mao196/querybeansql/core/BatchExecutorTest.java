@@ -0,0 +1,114 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量查询执行器单元测试
+ */
+@DisplayName("批量查询执行器测试")
+class BatchExecutorTest {
+
+    private final BatchExecutor batchExecutor = new BatchExecutor(20, 3, 4);
+
+    @AfterEach
+    void shutdown() {
+        batchExecutor.destroy();
+    }
+
+    @Test
+    @DisplayName("每个任务执行一次，同时执行的任务不超过并发上限")
+    void concurrencyLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicIntegerArray executed = new AtomicIntegerArray(12);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        batchExecutor.run(12, null, i -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread());
+            sleep(20);
+            executed.incrementAndGet(i);
+            running.decrementAndGet();
+        });
+
+        for (int i = 0; i < executed.length(); i++) {
+            assertEquals(1, executed.get(i));
+        }
+        assertTrue(peak.get() > 1 && peak.get() <= 3, "peak " + peak.get());
+        // 请求线程自己也执行任务
+        assertTrue(threads.contains(Thread.currentThread()));
+
+        // 请求的并发数只能减少
+        assertEquals(1, batchExecutor.concurrency(1, 12));
+        assertEquals(3, batchExecutor.concurrency(10, 12));
+        assertEquals(2, batchExecutor.concurrency(null, 2));
+    }
+
+    @Test
+    @DisplayName("线程池已满时由请求线程执行全部任务")
+    void poolExhausted() throws Exception {
+        BatchExecutor single = new BatchExecutor(20, 3, 1);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        // 另一个批量查询占用了唯一的线程
+        Thread blocker = new Thread(() -> single.run(2, null, i -> {
+            started.countDown();
+            await(release);
+        }));
+        try {
+            blocker.start();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            single.run(5, null, i -> threads.add(Thread.currentThread()));
+            assertEquals(Set.of(Thread.currentThread()), threads);
+        } finally {
+            release.countDown();
+            blocker.join();
+            single.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("任务抛出异常时其余任务仍会执行，超过最大数量时拒绝")
+    void failures() {
+        AtomicInteger executed = new AtomicInteger();
+        QueryBeanSqlException failure = assertThrows(QueryBeanSqlException.class, () -> batchExecutor.run(6, 2, i -> {
+            executed.incrementAndGet();
+            if (i == 1) {
+                throw new QueryBeanSqlException("entry 1 failed");
+            }
+        }));
+        assertEquals("entry 1 failed", failure.getMessage());
+        assertEquals(6, executed.get());
+
+        assertThrows(QueryBeanSqlException.class, () -> batchExecutor.run(21, null, i -> fail("should not run")));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 条件树包含关系单元测试
+ */
+@DisplayName("条件树包含关系测试")
+class FilterContainmentTest {
+
+    private final ViewDescriptor orderView = ViewDescriptor.builder()
+            .name("order")
+            .sql("select id, order_no, amount, status, created_at from t_order")
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("orderNo").clz(String.class).build(),
+                    ViewFiledDescriptor.builder().rawName("amount").clz(BigDecimal.class).build(),
+                    ViewFiledDescriptor.builder().rawName("status").clz(String.class).build(),
+                    ViewFiledDescriptor.builder().rawName("createdAt").clz(LocalDateTime.class).build()))
+            .build();
+
+    private static FilterCondition condition(String property, FilterOp operator, Object value) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(property);
+        condition.setOperator(operator);
+        condition.setValue(value);
+        return condition;
+    }
+
+    private static FilterCondition group(FilterType type, FilterCondition... conditions) {
+        FilterCondition group = new FilterCondition();
+        group.setGroup(type);
+        group.setConditions(List.of(conditions));
+        return group;
+    }
+
+    private boolean implies(FilterCondition narrow, FilterCondition broad) {
+        return FilterContainment.implies(narrow, broad, orderView, true);
+    }
+
+    @Test
+    @DisplayName("收紧条件：AND 中增加条件、OR 中减少分支")
+    void groups() {
+        FilterCondition paid = condition("status", FilterOp.EQUAL, "PAID");
+        FilterCondition large = condition("amount", FilterOp.GREATER, 100);
+        assertTrue(implies(group(FilterType.AND, paid, large), paid));
+        assertFalse(implies(paid, group(FilterType.AND, paid, large)));
+        assertTrue(implies(paid, null));
+        assertFalse(implies(null, paid));
+
+        FilterCondition shipped = condition("status", FilterOp.EQUAL, "SHIPPED");
+        assertTrue(implies(paid, group(FilterType.OR, paid, shipped)));
+        assertTrue(implies(group(FilterType.OR, paid, shipped), condition("status", FilterOp.IN, List.of("PAID", "SHIPPED", "NEW"))));
+        assertFalse(implies(group(FilterType.OR, paid, shipped), paid));
+        assertTrue(implies(condition("status", FilterOp.IN, List.of("PAID", "SHIPPED")), group(FilterType.OR, paid, shipped)));
+        // 空的 OR 条件组恒假
+        assertTrue(implies(group(FilterType.OR), paid));
+    }
+
+    @Test
+    @DisplayName("同一字段的等值和范围")
+    void ranges() {
+        assertTrue(implies(condition("amount", FilterOp.GREATER, 200), condition("amount", FilterOp.GREATER_OR_EQUAL, 100)));
+        assertTrue(implies(condition("amount", FilterOp.GREATER, 100), condition("amount", FilterOp.GREATER_OR_EQUAL, 100)));
+        assertTrue(implies(condition("amount", FilterOp.GREATER, 100), condition("amount", FilterOp.GREATER, 100.0)));
+        assertFalse(implies(condition("amount", FilterOp.GREATER_OR_EQUAL, 100), condition("amount", FilterOp.GREATER, 100)));
+        assertTrue(implies(condition("amount", FilterOp.LESSER_OR_EQUAL, 50), condition("amount", FilterOp.LESSER, 50.5)));
+        assertFalse(implies(condition("amount", FilterOp.LESSER, 50), condition("amount", FilterOp.GREATER, 10)));
+        assertTrue(implies(condition("amount", FilterOp.EQUAL, 120), condition("amount", FilterOp.GREATER, 100)));
+        assertTrue(implies(condition("amount", FilterOp.IN, List.of(120, 130)), condition("amount", FilterOp.NOT_IN, List.of(1, 2))));
+        assertFalse(implies(condition("amount", FilterOp.IN, List.of(120, 1)), condition("amount", FilterOp.NOT_IN, List.of(1, 2))));
+        // 不同字段之间不推导
+        assertFalse(implies(condition("id", FilterOp.GREATER, 200), condition("amount", FilterOp.GREATER, 100)));
+    }
+
+    @Test
+    @DisplayName("以字符串给出的日期只有相同的条件才互相蕴含")
+    void dates() {
+        FilterCondition since = condition("createdAt", FilterOp.GREATER_OR_EQUAL, "2024-01-01 00:00:00");
+        assertTrue(implies(condition("createdAt", FilterOp.GREATER_OR_EQUAL, "2024-01-01 00:00:00"), since));
+        assertFalse(implies(condition("createdAt", FilterOp.GREATER_OR_EQUAL, "2024-02-01 00:00:00"), since));
+        assertTrue(implies(since, condition("createdAt", FilterOp.NOT_EMPTY, null)));
+        assertFalse(implies(condition("createdAt", FilterOp.IS_NULL, null), condition("createdAt", FilterOp.NOT_EMPTY, null)));
+    }
+
+    @Test
+    @DisplayName("LIKE 模式和排除的值")
+    void patternsAndExclusions() {
+        assertTrue(implies(condition("orderNo", FilterOp.STARTS_WITH, "ORD00"), condition("orderNo", FilterOp.STARTS_WITH, "ORD")));
+        assertTrue(implies(condition("orderNo", FilterOp.STARTS_WITH, "ORD00"), condition("orderNo", FilterOp.CONTAINS, "D0")));
+        assertTrue(implies(condition("orderNo", FilterOp.ENDS_WITH, "_01"), condition("orderNo", FilterOp.CONTAINS, "01")));
+        assertFalse(implies(condition("orderNo", FilterOp.CONTAINS, "ORD"), condition("orderNo", FilterOp.STARTS_WITH, "ORD")));
+        assertTrue(implies(condition("orderNo", FilterOp.DOES_NOT_CONTAIN, "X"), condition("orderNo", FilterOp.DOES_NOT_CONTAIN, "XY")));
+        assertTrue(implies(condition("orderNo", FilterOp.EQUAL, "ORD001"), condition("orderNo", FilterOp.STARTS_WITH, "ORD")));
+        // 区分大小写
+        assertFalse(implies(condition("orderNo", FilterOp.EQUAL, "ord001"), condition("orderNo", FilterOp.STARTS_WITH, "ORD")));
+
+        assertTrue(implies(condition("status", FilterOp.NOT_IN, List.of("NEW", "CANCELLED")), condition("status", FilterOp.NOT_EQUAL, "NEW")));
+        assertFalse(implies(condition("status", FilterOp.NOT_EQUAL, "NEW"), condition("status", FilterOp.NOT_IN, List.of("NEW", "CANCELLED"))));
+        // NOT IN 的列表中有 null 时没有满足的行
+        assertTrue(implies(condition("status", FilterOp.NOT_IN, Arrays.asList("NEW", null)), condition("status", FilterOp.EQUAL, "PAID")));
+        assertFalse(implies(condition("status", FilterOp.NOT_EQUAL, "NEW"), condition("status", FilterOp.NOT_IN, Arrays.asList("NEW", null))));
+    }
+
+    @Test
+    @DisplayName("不按二进制比较字符串时，字符串条件只有完全相同才蕴含")
+    void collation() {
+        FilterCondition paid = condition("status", FilterOp.EQUAL, "PAID");
+        FilterCondition large = condition("amount", FilterOp.GREATER, 100);
+        assertTrue(FilterContainment.implies(group(FilterType.AND, paid, large), paid, orderView, false));
+        assertTrue(FilterContainment.implies(large, condition("amount", FilterOp.GREATER_OR_EQUAL, 100), orderView, false));
+
+        // 不区分大小写的排序规则下 'ord001' 满足 startsWith 'ORD'，不能由内存中的比较否定或推出
+        assertFalse(FilterContainment.implies(condition("orderNo", FilterOp.EQUAL, "ORD001"),
+                condition("orderNo", FilterOp.STARTS_WITH, "ORD"), orderView, false));
+        assertFalse(FilterContainment.implies(condition("orderNo", FilterOp.STARTS_WITH, "ORD00"),
+                condition("orderNo", FilterOp.STARTS_WITH, "ORD"), orderView, false));
+        assertFalse(FilterContainment.implies(condition("status", FilterOp.IN, List.of("PAID")),
+                condition("status", FilterOp.IN, List.of("PAID", "SHIPPED")), orderView, false));
+    }
+}
@@ -0,0 +1,185 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 条件树优化单元测试
+ */
+@DisplayName("条件树优化测试")
+class FilterOptimizerTest {
+
+    private final ViewDescriptor userView = ViewDescriptor.builder()
+            .name("user")
+            .sql("select id, name, age, active from user")
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("name").clz(String.class).build(),
+                    ViewFiledDescriptor.builder().rawName("age").clz(Integer.class).build(),
+                    ViewFiledDescriptor.builder().rawName("active").clz(Boolean.class).build()))
+            .build();
+
+    private final RequestParse requestParse = new RequestParse(new QueryBeanConfig());
+
+    private static FilterCondition condition(String property, FilterOp operator, Object value) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(property);
+        condition.setOperator(operator);
+        condition.setValue(value);
+        return condition;
+    }
+
+    private static FilterCondition group(FilterType type, FilterCondition... conditions) {
+        FilterCondition group = new FilterCondition();
+        group.setGroup(type);
+        group.setConditions(List.of(conditions));
+        return group;
+    }
+
+    private String where(FilterCondition condition, Map<String, Object> params) {
+        return requestParse.parseConditions(condition, params, userView);
+    }
+
+    @Test
+    @DisplayName("展开相同类型的嵌套条件组并去重")
+    void flattenAndDistinct() {
+        Map<String, Object> params = new HashMap<>();
+        FilterCondition tree = group(FilterType.AND,
+                condition("name", FilterOp.EQUAL, "su"),
+                group(FilterType.AND, condition("id", FilterOp.NOT_EQUAL, 3), group(FilterType.AND, condition("name", FilterOp.EQUAL, "su"))));
+
+        assertEquals("(id <> :p0 AND name = :p1)", where(tree, params));
+        assertEquals(Map.of("p0", 3, "p1", "su"), params);
+    }
+
+    @Test
+    @DisplayName("OR 中同一字段的 EQUAL 合并为 IN")
+    void mergeEqualsIntoIn() {
+        Map<String, Object> params = new HashMap<>();
+        FilterCondition tree = group(FilterType.OR,
+                condition("name", FilterOp.EQUAL, "su"),
+                condition("name", FilterOp.IN, List.of("al", "su")),
+                condition("name", FilterOp.EQUAL, "bo"),
+                condition("age", FilterOp.IS_NULL, null));
+
+        assertEquals("(age is null OR name in (:p1))", where(tree, params));
+        assertEquals(List.of("su", "al", "bo", "bo"), params.get("p1"));
+    }
+
+    @Test
+    @DisplayName("不支持 IN 的字段不合并")
+    void keepEqualsWithoutIn() {
+        FilterCondition tree = group(FilterType.OR,
+                condition("active", FilterOp.EQUAL, true),
+                condition("active", FilterOp.EQUAL, false));
+
+        assertEquals("(active = :p0 OR active = :p1)", where(tree, new HashMap<>()));
+    }
+
+    @Test
+    @DisplayName("AND 中同一字段的范围合并为最紧的上下界")
+    void collapseRanges() {
+        Map<String, Object> params = new HashMap<>();
+        FilterCondition tree = group(FilterType.AND,
+                condition("age", FilterOp.GREATER, 10),
+                condition("age", FilterOp.GREATER_OR_EQUAL, 18),
+                condition("age", FilterOp.LESSER, 60L),
+                condition("age", FilterOp.LESSER_OR_EQUAL, 60));
+
+        assertEquals("(age >= :p0 AND age < :p1)", where(tree, params));
+        assertEquals(Map.of("p0", 18, "p1", 60L), params);
+
+        FilterCondition equalInRange = group(FilterType.AND,
+                condition("age", FilterOp.GREATER, 10),
+                condition("age", FilterOp.EQUAL, 20));
+        assertEquals("age = :p", where(equalInRange, new HashMap<>()));
+    }
+
+    @Test
+    @DisplayName("范围为空时化简为恒假")
+    void contradictoryRange() {
+        FilterCondition tree = group(FilterType.AND,
+                condition("name", FilterOp.CONTAINS, "su"),
+                condition("age", FilterOp.GREATER, 60),
+                condition("age", FilterOp.LESSER_OR_EQUAL, 60));
+        assertEquals("1=0", where(tree, new HashMap<>()));
+
+        FilterCondition orWithEmptyBranch = group(FilterType.OR, condition("name", FilterOp.CONTAINS, "su"), tree);
+        assertEquals("name like :p", where(orWithEmptyBranch, new HashMap<>()));
+
+        FilterCondition differentEquals = group(FilterType.AND,
+                condition("age", FilterOp.EQUAL, 1),
+                condition("age", FilterOp.EQUAL, 2));
+        assertEquals("1=0", where(differentEquals, new HashMap<>()));
+    }
+
+    @Test
+    @DisplayName("空条件组化简为常量")
+    void emptyGroups() {
+        FilterCondition emptyOr = group(FilterType.OR);
+        FilterCondition tree = group(FilterType.AND, condition("id", FilterOp.EQUAL, 1), group(FilterType.AND));
+        assertEquals("1=0", where(emptyOr, new HashMap<>()));
+        assertEquals("id = :p", where(tree, new HashMap<>()));
+
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(new SearchFilter());
+        requestDTO.getFilter().addCondition(group(FilterType.AND));
+        RequestParseResult result = requestParse.parse(requestDTO, userView);
+        assertNull(result.getWhere());
+
+        requestDTO.getFilter().addCondition(group(FilterType.OR));
+        assertEquals("WHERE 1=0", requestParse.parse(requestDTO, userView).getWhere());
+    }
+
+    @Test
+    @DisplayName("顺序不同的等价请求共用同一个查询计划")
+    void canonicalOrder() {
+        SearchEntitiesRequestDTO first = new SearchEntitiesRequestDTO();
+        first.setFilter(new SearchFilter());
+        first.getFilter().addCondition(condition("name", FilterOp.CONTAINS, "su"));
+        first.getFilter().addCondition(group(FilterType.OR, condition("id", FilterOp.EQUAL, 1), condition("age", FilterOp.LESSER, 10)));
+        first.getFilter().addCondition(condition("age", FilterOp.GREATER, 1));
+        SearchEntitiesRequestDTO second = new SearchEntitiesRequestDTO();
+        second.setFilter(new SearchFilter());
+        second.getFilter().addCondition(condition("age", FilterOp.GREATER, 2));
+        second.getFilter().addCondition(group(FilterType.OR, condition("age", FilterOp.LESSER, 20), condition("id", FilterOp.EQUAL, 2)));
+        second.getFilter().addCondition(condition("name", FilterOp.CONTAINS, "al"));
+
+        RequestParseResult firstResult = requestParse.parse(first, userView);
+        RequestParseResult secondResult = requestParse.parse(second, userView);
+
+        assertEquals("WHERE (age > :p0 AND name like :p1 AND (age < :p2_0 OR id = :p2_1))", firstResult.getWhere());
+        assertSame(firstResult.getQuerySql(), secondResult.getQuerySql());
+        assertEquals(2, secondResult.getParams().get("p2_1"));
+    }
+
+    @Test
+    @DisplayName("关闭优化时按原样生成")
+    void disabled() {
+        QueryBeanConfig config = new QueryBeanConfig();
+        config.setOptimizeFilter(false);
+        FilterCondition tree = group(FilterType.AND, condition("name", FilterOp.EQUAL, "su"), group(FilterType.AND, condition("id", FilterOp.EQUAL, 1)));
+
+        assertEquals("(name = :p0 AND (id = :p1_0))", new RequestParse(config).parseConditions(tree, new HashMap<>(), userView));
+    }
+
+    @Test
+    @DisplayName("不修改原始条件树")
+    void keepsOriginalTree() {
+        FilterCondition nested = group(FilterType.AND, condition("name", FilterOp.EQUAL, "su"));
+        FilterCondition tree = group(FilterType.OR, condition("id", FilterOp.EQUAL, 1), condition("id", FilterOp.EQUAL, 2), nested);
+
+        FilterOptimizer.optimize(tree, userView);
+
+        assertEquals(3, tree.getConditions().size());
+        assertEquals(FilterOp.EQUAL, tree.getConditions().get(0).getOperator());
+        assertSame(nested, tree.getConditions().get(2));
+    }
+}
@@ -0,0 +1,157 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 游标分页单元测试
+ */
+@DisplayName("游标分页测试")
+class KeysetCursorTest {
+
+    private final ViewDescriptor orderView = ViewDescriptor.builder()
+            .name("order")
+            .sql("select id, amount, status, created_at from orders")
+            .tieBreaker("id")
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("amount").clz(BigDecimal.class).build(),
+                    ViewFiledDescriptor.builder().rawName("status").clz(String.class).build(),
+                    ViewFiledDescriptor.builder().rawName("createdAt").clz(LocalDateTime.class).build(),
+                    ViewFiledDescriptor.builder().rawName("paid").clz(Boolean.class).build()))
+            .build();
+
+    private final RequestParse requestParse = new RequestParse(new QueryBeanConfig());
+
+    private static SearchEntitiesRequestDTO request(String sort, String cursor) {
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setSort(sort);
+        requestDTO.setCursor(cursor);
+        requestDTO.setLimit(20);
+        return requestDTO;
+    }
+
+    private static String cursor(RequestParseResult result, Map<String, Object> lastRow) {
+        return KeysetCursor.next(result, lastRow);
+    }
+
+    @Test
+    @DisplayName("第一页按排序字段和 tieBreaker 排序，多取一行")
+    void firstPage() {
+        RequestParseResult result = requestParse.parse(request("-amount", ""), orderView);
+
+        assertEquals("SELECT id AS id, amount AS amount, status AS status, created_at AS createdAt, paid AS paid"
+                + " FROM (select id, amount, status, created_at from orders) _tmp ORDER BY amount desc, id desc LIMIT :_limit", result.getQuerySql());
+        assertEquals(21, result.getParams().get(RequestParse.LIMIT_PARAM));
+        assertEquals(20, result.getPageSize());
+        assertEquals(List.of("amount", "id"), result.getKeysetProperties());
+        assertEquals("order:-amount,-id", result.getKeysetSignature());
+    }
+
+    @Test
+    @DisplayName("同向排序使用行值比较")
+    void rowValueComparison() {
+        RequestParseResult first = requestParse.parse(request("-amount", ""), orderView);
+        String cursor = cursor(first, Map.of("amount", new BigDecimal("250.10"), "id", 7L));
+
+        RequestParseResult second = requestParse.parse(request("-amount", cursor), orderView);
+
+        assertEquals("WHERE (amount, id) < (:_c0, :_c1)", second.getWhere());
+        assertEquals(new BigDecimal("250.10"), second.getParams().get("_c0"));
+        assertEquals(7L, second.getParams().get("_c1"));
+        // count 统计全部满足条件的行，不受游标影响
+        assertEquals("SELECT count(*) FROM (select id, amount, status, created_at from orders) _tmp", second.getCountSql());
+        // 后续页共用同一个查询计划
+        assertSame(second.getQuerySql(), requestParse.parse(request("-amount", cursor), orderView).getQuerySql());
+    }
+
+    @Test
+    @DisplayName("方向不同的排序展开为 OR 条件")
+    void mixedDirections() {
+        SearchEntitiesRequestDTO first = request("status,-createdAt", "");
+        first.setFilter(new SearchFilter());
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty("amount");
+        condition.setOperator(FilterOp.GREATER);
+        condition.setValue(100);
+        first.getFilter().addCondition(condition);
+        LocalDateTime createdAt = LocalDateTime.of(2026, 10, 17, 8, 30, 15);
+        String cursor = cursor(requestParse.parse(first, orderView), Map.of("status", "active", "createdAt", createdAt, "id", 3L));
+
+        SearchEntitiesRequestDTO second = request("status,-createdAt", cursor);
+        second.setFilter(first.getFilter());
+        RequestParseResult result = requestParse.parse(second, orderView);
+
+        assertEquals("WHERE (amount > :p0) AND (status >= :_c0 AND (status > :_c0 OR (status = :_c0 AND created_at < :_c1)"
+                + " OR (status = :_c0 AND created_at = :_c1 AND id < :_c2)))", result.getWhere());
+        assertEquals("ORDER BY status asc, created_at desc, id desc", result.getOrder());
+        assertEquals(createdAt, result.getParams().get("_c1"));
+        assertEquals(100, result.getParams().get("p0"));
+    }
+
+    @Test
+    @DisplayName("tieBreaker 之后的排序字段不再需要")
+    void tieBreakerInSort() {
+        SearchEntitiesRequestDTO requestDTO = request("id,amount", "");
+        requestDTO.setFields(List.of("status"));
+
+        RequestParseResult result = requestParse.parse(requestDTO, orderView);
+
+        assertEquals(List.of("id"), result.getKeysetProperties());
+        // 排序字段总会查询，用于生成游标
+        assertEquals("status AS status, id AS id", result.getColumn());
+    }
+
+    @Test
+    @DisplayName("游标与请求不匹配时报错")
+    void invalidCursor() {
+        String cursor = cursor(requestParse.parse(request("-amount", ""), orderView), Map.of("amount", BigDecimal.ONE, "id", 1L));
+
+        assertThrows(QueryBeanSqlException.class, () -> requestParse.parse(request("amount", cursor), orderView));
+        assertThrows(QueryBeanSqlException.class, () -> requestParse.parse(request("-amount", "not-a-cursor"), orderView));
+        assertThrows(QueryBeanSqlException.class, () -> requestParse.parse(request("-amount",
+                KeysetCursor.encode("order:-amount,-id", List.of("x", "1"))), orderView));
+    }
+
+    @Test
+    @DisplayName("不支持游标分页的请求报错")
+    void unsupported() {
+        SearchEntitiesRequestDTO withOffset = request(null, "");
+        withOffset.setOffset(10);
+        assertThrows(QueryBeanSqlException.class, () -> requestParse.parse(withOffset, orderView));
+        assertThrows(QueryBeanSqlException.class, () -> requestParse.parse(request("paid", ""), orderView));
+
+        ViewDescriptor noTieBreaker = ViewDescriptor.builder()
+                .name("order")
+                .sql("select id from orders")
+                .fields(List.of(ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build()))
+                .build();
+        assertThrows(QueryBeanSqlException.class, () -> requestParse.parse(request(null, ""), noTieBreaker));
+        assertThrows(QueryBeanSqlException.class, () -> ViewDescriptor.builder()
+                .name("order")
+                .sql("select id from orders")
+                .tieBreaker("uuid")
+                .fields(List.of(ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build()))
+                .build());
+    }
+
+    @Test
+    @DisplayName("日期时间按 ISO 格式编码")
+    void dateValues() {
+        Date date = new Date(1760689815123L);
+        assertEquals(date, KeysetCursor.parse(KeysetCursor.format(date), Date.class));
+        java.sql.Timestamp timestamp = java.sql.Timestamp.valueOf("2026-10-17 08:30:15.123456");
+        assertEquals(timestamp, KeysetCursor.parse(KeysetCursor.format(timestamp), java.sql.Timestamp.class));
+        assertEquals(5, KeysetCursor.parse("5", int.class));
+        assertThrows(QueryBeanSqlException.class, () -> KeysetCursor.parse("abc", Long.class));
+    }
+}
@@ -0,0 +1,198 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 堆外响应缓存单元测试
+ */
+@DisplayName("堆外响应缓存测试")
+class OffHeapResponseCacheTest {
+
+    private static final long TTL = TimeUnit.SECONDS.toNanos(60);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private OffHeapResponseCache cache(long capacity, boolean compress) {
+        return new OffHeapResponseCache(capacity, 1024, compress, nanos::get);
+    }
+
+    private OffHeapResponseCache.Key key(OffHeapResponseCache cache, String viewName, int id) {
+        ResultCache.Key resultKey = new ResultCache.Key(viewName, "SELECT id FROM " + viewName + " WHERE id = :p0", Map.of("p0", id), null, null);
+        return cache.key(resultKey, MediaType.APPLICATION_JSON, request);
+    }
+
+    private static byte[] body(int length, int seed) {
+        byte[] body = new byte[length];
+        for (int i = 0; i < length; i++) {
+            body[i] = (byte) (i * 31 + seed);
+        }
+        return body;
+    }
+
+    private static byte[] read(OffHeapResponseCache cache, OffHeapResponseCache.Key key) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        return cache.copyTo(key, out) ? out.toByteArray() : null;
+    }
+
+    @Test
+    @DisplayName("跨多个块保存并原样写出")
+    void roundTrip() throws IOException {
+        OffHeapResponseCache cache = cache(1 << 20, false);
+        OffHeapResponseCache.Key key = key(cache, "order", 1);
+        assertNull(read(cache, key));
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        byte[] body = body(5000, 1);
+        cache.putAndWrite(key, body, TTL, first);
+        assertArrayEquals(body, first.getContentAsByteArray());
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertTrue(cache.writeTo(key, second));
+        assertArrayEquals(body, second.getContentAsByteArray());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, second.getContentType());
+        assertEquals(5000, second.getContentLength());
+
+        OffHeapResponseCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(5000, stats.payloadBytes());
+        // 5000 字节占用 5 个 1KB 的块，slab 按 1MB 分配
+        assertEquals(5 * 1024, stats.usedBytes());
+        assertEquals(1 << 20, stats.allocatedBytes());
+    }
+
+    @Test
+    @DisplayName("容量不足时按 LRU 淘汰并复用块")
+    void evictLeastRecentlyUsed() throws IOException {
+        OffHeapResponseCache cache = cache(4 * 1024, false);
+        OffHeapResponseCache.Key first = key(cache, "order", 1);
+        OffHeapResponseCache.Key second = key(cache, "order", 2);
+        OffHeapResponseCache.Key third = key(cache, "order", 3);
+        cache.put(first, body(2000, 1), TTL);
+        cache.put(second, body(2000, 2), TTL);
+        // 访问 first 后 second 成为最久未使用的
+        assertNotNull(read(cache, first));
+        cache.put(third, body(1500, 3), TTL);
+
+        assertNull(read(cache, second));
+        assertArrayEquals(body(2000, 1), read(cache, first));
+        assertArrayEquals(body(1500, 3), read(cache, third));
+        OffHeapResponseCache.Stats stats = cache.stats();
+        assertEquals(1, stats.evictions());
+        assertEquals(4 * 1024, stats.allocatedBytes());
+
+        // 超过容量的响应不缓存
+        cache.put(key(cache, "order", 4), body(5000, 4), TTL);
+        assertNull(read(cache, key(cache, "order", 4)));
+    }
+
+    @Test
+    @DisplayName("写出中的响应被淘汰后，块在写出完成后才复用")
+    void pinnedWhileWriting() throws IOException {
+        OffHeapResponseCache cache = cache(2 * 1024, false);
+        OffHeapResponseCache.Key first = key(cache, "order", 1);
+        OffHeapResponseCache.Key second = key(cache, "order", 2);
+        cache.put(first, body(2048, 1), TTL);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(cache.copyTo(first, new OutputStream() {
+            private boolean evicted;
+
+            @Override
+            public void write(int b) {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                // 写出第一个块后放入新的响应，first 被淘汰但块仍在使用
+                if (!evicted) {
+                    evicted = true;
+                    cache.put(second, body(2048, 2), TTL);
+                }
+                out.write(b, off, len);
+            }
+        }));
+        assertArrayEquals(body(2048, 1), out.toByteArray());
+        assertNull(read(cache, first));
+        assertNull(read(cache, second));
+
+        cache.put(second, body(2048, 2), TTL);
+        assertArrayEquals(body(2048, 2), read(cache, second));
+    }
+
+    @Test
+    @DisplayName("过期和按视图清除")
+    void expireAndInvalidate() throws IOException {
+        OffHeapResponseCache cache = cache(1 << 20, false);
+        cache.put(key(cache, "order", 1), body(100, 1), TimeUnit.SECONDS.toNanos(10));
+        cache.put(key(cache, "order", 2), body(100, 2), TTL);
+        cache.put(key(cache, "user", 1), body(100, 3), TTL);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertNull(read(cache, key(cache, "order", 1)));
+        assertNotNull(read(cache, key(cache, "order", 2)));
+
+        assertEquals(1, cache.invalidate("order"));
+        assertNull(read(cache, key(cache, "order", 2)));
+        assertNotNull(read(cache, key(cache, "user", 1)));
+        assertEquals(0, cache.stats().evictions());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.stats().size());
+        assertEquals(0, cache.stats().usedBytes());
+    }
+
+    @Test
+    @DisplayName("压缩保存时只用于接受 gzip 的请求")
+    void compress() throws IOException {
+        OffHeapResponseCache cache = cache(1 << 20, true);
+        assertNull(key(cache, "order", 1));
+
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+        OffHeapResponseCache.Key key = key(cache, "order", 1);
+        assertTrue(key.gzip());
+        byte[] body = "{\"dataList\":[]}".repeat(100).getBytes();
+        cache.putAndWrite(key, body, TTL, new MockHttpServletResponse());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(cache.writeTo(key, response));
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getContentLength() < body.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+
+        MockHttpServletRequest refused = new MockHttpServletRequest();
+        refused.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+        assertNull(cache.key(key.result(), MediaType.APPLICATION_JSON, refused));
+    }
+
+    @Test
+    @DisplayName("未开启时不缓存")
+    void disabled() {
+        OffHeapResponseCache cache = cache(0, false);
+        assertFalse(cache.isEnabled());
+        assertNull(key(cache, "order", 1));
+        assertFalse(cache.stats().enabled());
+        assertEquals(0, cache.invalidate("order"));
+    }
+}
@@ -0,0 +1,201 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 相同查询合并单元测试
+ */
+@DisplayName("相同查询合并测试")
+class QueryCoalescerTest {
+
+    private static final QueryCoalescer.Key KEY = new QueryCoalescer.Key("SELECT id FROM t WHERE id = :p0", Map.of("p0", 1), null, null);
+
+    private final QueryCoalescer coalescer = new QueryCoalescer(true);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * 等待第一个请求结果的线程
+     */
+    private final List<Thread> followers = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Future<T> submit(Supplier<T> supplier) {
+        return executor.submit(supplier::get);
+    }
+
+    private <T> Future<T> follow(Supplier<T> supplier) {
+        return executor.submit(() -> {
+            followers.add(Thread.currentThread());
+            return supplier.get();
+        });
+    }
+
+    /**
+     * 等待后提交的请求都进入等待
+     */
+    private void awaitFollowers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            long waiting = followers.stream()
+                    .filter(thread -> thread.getState() == Thread.State.WAITING || thread.getState() == Thread.State.TIMED_WAITING)
+                    .count();
+            if (waiting == count) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+        fail("requests are not waiting");
+    }
+
+    @Test
+    @DisplayName("同时到达的相同查询只执行一次并共用结果")
+    void coalesce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Object value = new Object();
+        Supplier<Object> query = () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return value;
+        };
+
+        List<Future<Object>> futures = new ArrayList<>();
+        futures.add(submit(() -> coalescer.execute(KEY, 0, query)));
+        started.await();
+        for (int i = 0; i < 5; i++) {
+            futures.add(follow(() -> coalescer.execute(new QueryCoalescer.Key(KEY.querySql(), Map.of("p0", 1), null, null), 0, query)));
+        }
+        // 参数不同的查询不合并
+        Future<Object> other = submit(() -> coalescer.execute(new QueryCoalescer.Key(KEY.querySql(), Map.of("p0", 2), null, null), 0, () -> "other"));
+        assertEquals("other", other.get());
+        awaitFollowers(5);
+        release.countDown();
+
+        for (Future<Object> future : futures) {
+            assertSame(value, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        QueryCoalescer.Stats stats = coalescer.stats();
+        assertEquals(2, stats.executions());
+        assertEquals(5, stats.coalesced());
+        assertEquals(0, stats.inFlight());
+    }
+
+    @Test
+    @DisplayName("查询失败时等待的请求收到同一个异常")
+    void sharedFailure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("bad sql");
+        Supplier<Object> query = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw failure;
+        };
+
+        Future<Object> leader = submit(() -> coalescer.execute(KEY, 0, query));
+        started.await();
+        Future<Object> follower = follow(() -> coalescer.execute(KEY, 0, query));
+        awaitFollowers(1);
+        release.countDown();
+
+        assertSame(failure, assertThrows(ExecutionException.class, leader::get).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, follower::get).getCause());
+        assertEquals(1, coalescer.stats().executions());
+    }
+
+    @Test
+    @DisplayName("第一个请求超时后，等待的请求自己重新执行")
+    void retryAfterTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> leader = submit(() -> coalescer.execute(KEY, 0, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new QueryTimeoutException("Query exceeded the request deadline");
+        }));
+        started.await();
+        Future<Object> follower = follow(() -> coalescer.execute(KEY, 0, () -> "retried"));
+        awaitFollowers(1);
+        release.countDown();
+
+        assertInstanceOf(QueryTimeoutException.class, assertThrows(ExecutionException.class, leader::get).getCause());
+        assertEquals("retried", follower.get(5, TimeUnit.SECONDS));
+        QueryCoalescer.Stats stats = coalescer.stats();
+        assertEquals(2, stats.executions());
+        assertEquals(1, stats.retries());
+        assertEquals(0, stats.coalesced());
+    }
+
+    @Test
+    @DisplayName("等待受自己的截止时间限制")
+    void followerDeadline() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = submit(() -> coalescer.execute(KEY, 0, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return "slow";
+        }));
+        started.await();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        assertThrows(QueryTimeoutException.class, () -> coalescer.execute(KEY, deadline, () -> "unused"));
+        release.countDown();
+        assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("没有查询键或关闭合并时直接执行")
+    void disabled() {
+        AtomicInteger executions = new AtomicInteger();
+        coalescer.execute(null, 0, executions::incrementAndGet);
+        coalescer.execute(null, 0, executions::incrementAndGet);
+        assertEquals(2, executions.get());
+
+        RequestParseResult result = new RequestParseResult();
+        result.setQuerySql(KEY.querySql());
+        result.setParams(Map.of("p0", 1));
+        assertEquals(KEY, coalescer.key(result, null));
+        assertNull(new QueryCoalescer(false).key(result, null));
+        result.setParams(Map.of("p0", new Long[]{1L, 2L}));
+        assertNull(coalescer.key(result, null));
+        assertFalse(new QueryCoalescer(false).stats().enabled());
+    }
+}
@@ -0,0 +1,105 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 查询执行器单元测试
+ */
+@DisplayName("查询执行器测试")
+class QueryExecutorTest {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:query_executor;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    private QueryExecutor queryExecutor;
+
+    private QueryExecutor executor(QueryBeanConfig config) {
+        queryExecutor = new QueryExecutor(config, jdbcTemplate);
+        return queryExecutor;
+    }
+
+    @AfterEach
+    void destroy() {
+        queryExecutor.destroy();
+    }
+
+    @Test
+    @DisplayName("提交的查询在其他线程执行")
+    void parallel() {
+        QueryExecutor executor = executor(new QueryBeanConfig());
+        QueryExecutor.QueryTask<String> task = executor.submit(0, () -> Thread.currentThread().getName());
+
+        assertTrue(task.join().startsWith("query-bean-query-"));
+    }
+
+    @Test
+    @DisplayName("关闭并行或线程已满时在调用线程执行")
+    void inline() throws InterruptedException {
+        QueryBeanConfig sequential = new QueryBeanConfig();
+        sequential.setParallelCount(false);
+        String caller = Thread.currentThread().getName();
+        assertEquals(caller, executor(sequential).submit(0, () -> Thread.currentThread().getName()).join());
+        queryExecutor.destroy();
+
+        QueryBeanConfig single = new QueryBeanConfig();
+        single.setQueryThreads(1);
+        QueryExecutor executor = executor(single);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        QueryExecutor.QueryTask<Boolean> blocking = executor.submit(0, () -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(caller, executor.submit(0, () -> Thread.currentThread().getName()).join());
+        release.countDown();
+        assertTrue(blocking.join());
+    }
+
+    @Test
+    @DisplayName("剩余时间作为 Statement 的查询超时")
+    void deadline() {
+        QueryBeanConfig config = new QueryBeanConfig();
+        config.setQueryTimeout(30_000);
+        QueryExecutor executor = executor(config);
+        StatementCallback<Integer> queryTimeout = stmt -> stmt.getQueryTimeout();
+
+        // 请求的超时不能超过配置的超时
+        assertEquals(3, executor.call(executor.deadline(2500), () -> executor.getJdbcTemplate().getJdbcOperations().execute(queryTimeout)));
+        assertEquals(30, executor.call(executor.deadline(60_000), () -> executor.getJdbcTemplate().getJdbcOperations().execute(queryTimeout)));
+        assertEquals(30, executor.submit(executor.deadline(null), () -> executor.getJdbcTemplate().getJdbcOperations().execute(queryTimeout)).join());
+
+        // 已过截止时间的查询不再执行
+        long expired = System.nanoTime() - 1;
+        assertThrows(QueryTimeoutException.class, () -> executor.call(expired,
+                () -> executor.getJdbcTemplate().getJdbcOperations().execute(queryTimeout)));
+    }
+
+    @Test
+    @DisplayName("取消后的查询不再执行")
+    void cancel() {
+        QueryBeanConfig sequential = new QueryBeanConfig();
+        sequential.setParallelCount(false);
+        QueryExecutor.QueryTask<Integer> task = executor(sequential).submit(0, () -> 1);
+        task.cancel();
+
+        assertThrows(CancellationException.class, task::join);
+    }
+}
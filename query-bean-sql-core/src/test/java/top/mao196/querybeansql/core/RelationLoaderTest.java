@@ -0,0 +1,142 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 关联视图加载单元测试
+ */
+@DisplayName("关联视图加载测试")
+class RelationLoaderTest {
+
+    private final ViewDescriptor orderView = ViewDescriptor.builder()
+            .name("order")
+            .sql("select id, order_no, user_id from orders")
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("orderNo").clz(String.class).build(),
+                    ViewFiledDescriptor.builder().rawName("userId").clz(Long.class).relationView("user").build()))
+            .build();
+
+    private final ViewDescriptor userView = ViewDescriptor.builder()
+            .name("user")
+            .sql("select id, name from users")
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class)
+                            .relationView("order").relationKey("userId").relationName("orders").build(),
+                    ViewFiledDescriptor.builder().rawName("name").clz(String.class).build()))
+            .build();
+
+    private final Map<String, ViewDescriptor> views = Map.of("order", orderView, "user", userView);
+
+    private final Function<String, ViewDescriptor> findView = name -> Optional.ofNullable(views.get(name))
+            .orElseThrow(() -> new QueryBeanSqlException("view with name: " + name + " cannot be found"));
+
+    private final Map<String, List<Map<String, Object>>> tables = Map.of(
+            "order", List.of(order(1, "ORD001", 1), order(2, "ORD002", 1), order(3, "ORD003", 2)),
+            "user", List.of(user(1, "susan"), user(2, "alice")));
+
+    private final List<SearchEntitiesRequestDTO> requests = new ArrayList<>();
+
+    /**
+     * 在内存中执行关联查询生成的 IN 条件
+     */
+    private final BiFunction<ViewDescriptor, SearchEntitiesRequestDTO, List<?>> search = (view, request) -> {
+        requests.add(request);
+        FilterCondition condition = request.getFilter().getConditions().get(0);
+        List<?> keys = (List<?>) condition.getValue();
+        return tables.get(view.getName()).stream()
+                .filter(row -> keys.contains(row.get(condition.getProperty())))
+                .toList();
+    };
+
+    private static Map<String, Object> order(long id, String orderNo, long userId) {
+        return Map.of("id", id, "orderNo", orderNo, "userId", userId);
+    }
+
+    private static Map<String, Object> user(long id, String name) {
+        return Map.of("id", id, "name", name);
+    }
+
+    private static SearchEntitiesRequestDTO request(String... include) {
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setInclude(List.of(include));
+        requestDTO.setParameters(Map.of("tenant", 7));
+        return requestDTO;
+    }
+
+    @Test
+    @DisplayName("一页数据中一个关联只查询一次，嵌套的关联以上一层的行继续加载")
+    void include() {
+        RelationLoader loader = new RelationLoader(2, 10, 10);
+        Map<String, List<?>> included = loader.load(orderView, request("user.orders"), tables.get("order"), findView, search);
+
+        // 上一层的关联同样返回，排在前面
+        assertEquals(List.of("user", "user.orders"), List.copyOf(included.keySet()));
+        assertEquals(tables.get("user"), included.get("user"));
+        assertEquals(tables.get("order"), included.get("user.orders"));
+
+        assertEquals(2, requests.size());
+        SearchEntitiesRequestDTO users = requests.get(0);
+        FilterCondition condition = users.getFilter().getConditions().get(0);
+        assertEquals("id", condition.getProperty());
+        assertEquals(FilterOp.IN, condition.getOperator());
+        // 关联值去重
+        assertEquals(List.of(1L, 2L), condition.getValue());
+        assertEquals("id", users.getSort());
+        assertEquals(11, users.getLimit());
+        assertEquals(Map.of("tenant", 7), users.getParameters());
+        assertEquals("userId", requests.get(1).getFilter().getConditions().get(0).getProperty());
+
+        // 没有 include 时不加载，没有关联值时不查询
+        assertNull(loader.load(orderView, new SearchEntitiesRequestDTO(), tables.get("order"), findView, search));
+        assertEquals(Map.of("user", List.of()), loader.load(orderView, request("user"), List.of(), findView, search));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    @DisplayName("超过层数、关联值个数和行数上限时拒绝")
+    void limits() {
+        List<Map<String, Object>> orders = tables.get("order");
+        QueryBeanSqlException depth = assertThrows(QueryBeanSqlException.class,
+                () -> new RelationLoader(1, 10, 10).load(orderView, request("user.orders"), orders, findView, search));
+        assertEquals("include user.orders is nested deeper than 1", depth.getMessage());
+        QueryBeanSqlException keys = assertThrows(QueryBeanSqlException.class,
+                () -> new RelationLoader(2, 1, 10).load(orderView, request("user"), orders, findView, search));
+        assertEquals("include user has 2 keys, the maximum is 1", keys.getMessage());
+        QueryBeanSqlException rows = assertThrows(QueryBeanSqlException.class,
+                () -> new RelationLoader(2, 10, 2).load(orderView, request("user.orders"), orders, findView, search));
+        assertEquals("include user.orders returns more than 2 rows", rows.getMessage());
+    }
+
+    @Test
+    @DisplayName("未声明的关联和缺少关联字段的请求报错")
+    void invalidInclude() {
+        RelationLoader loader = new RelationLoader(2, 10, 10);
+        List<Map<String, Object>> orders = tables.get("order");
+        assertThrows(QueryBeanSqlException.class, () -> loader.load(orderView, request("customer"), orders, findView, search));
+        assertThrows(QueryBeanSqlException.class, () -> loader.load(orderView, request("user..orders"), orders, findView, search));
+
+        SearchEntitiesRequestDTO withoutUserId = request("user");
+        withoutUserId.setFields(List.of("orderNo"));
+        QueryBeanSqlException missing = assertThrows(QueryBeanSqlException.class,
+                () -> loader.load(orderView, withoutUserId, orders, findView, search));
+        assertEquals("include user requires field: userId", missing.getMessage());
+        assertTrue(requests.isEmpty());
+
+        // 同一视图中关联名称不能重复
+        assertThrows(QueryBeanSqlException.class, () -> ViewDescriptor.builder()
+                .name("duplicate")
+                .sql("select a, b from t")
+                .fields(List.of(
+                        ViewFiledDescriptor.builder().rawName("a").clz(Long.class).relationView("user").build(),
+                        ViewFiledDescriptor.builder().rawName("b").clz(Long.class).relationView("user").build()))
+                .build());
+    }
+}
@@ -0,0 +1,333 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import org.springframework.jdbc.core.SqlParameterValue;
+import top.mao196.querybeansql.dialect.Dialects;
+import top.mao196.querybeansql.placeholder.PlaceholderMode;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求解析单元测试
+ */
+@DisplayName("请求解析测试")
+class RequestParseTest {
+
+    private final ViewDescriptor userView = ViewDescriptor.builder()
+            .name("user")
+            .sql("select id, name, age from user")
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("name").clz(String.class).build(),
+                    ViewFiledDescriptor.builder().rawName("age").clz(Integer.class).build()))
+            .build();
+
+    private final RequestParse requestParse = new RequestParse(new QueryBeanConfig());
+
+    private static FilterCondition condition(String property, FilterOp operator, Object value) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(property);
+        condition.setOperator(operator);
+        condition.setValue(value);
+        return condition;
+    }
+
+    private static SearchEntitiesRequestDTO request(Object name, Object age) {
+        SearchFilter filter = new SearchFilter();
+        filter.addCondition(condition("name", FilterOp.CONTAINS, name));
+        filter.addCondition(condition("age", FilterOp.GREATER, age));
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(filter);
+        requestDTO.setSort("-age");
+        requestDTO.setLimit(10);
+        return requestDTO;
+    }
+
+    @Test
+    @DisplayName("同一形状的请求复用查询计划，只绑定参数值")
+    void reusePlanForSameShape() {
+        RequestParseResult first = requestParse.parse(request("su", 20), userView);
+        RequestParseResult second = requestParse.parse(request("al", 30), userView);
+
+        assertSame(first.getQuerySql(), second.getQuerySql());
+        assertSame(first.getCountSql(), second.getCountSql());
+        // 条件按字段名排序
+        assertEquals("%su%", first.getParams().get("p1"));
+        assertEquals("%al%", second.getParams().get("p1"));
+        assertEquals(30, second.getParams().get("p0"));
+        assertEquals(10, second.getParams().get(RequestParse.LIMIT_PARAM));
+    }
+
+    @Test
+    @DisplayName("形状不同时生成不同的 SQL")
+    void differentShape() {
+        SearchEntitiesRequestDTO withOffset = request("su", 20);
+        withOffset.setOffset(5);
+
+        RequestParseResult first = requestParse.parse(request("su", 20), userView);
+        RequestParseResult second = requestParse.parse(withOffset, userView);
+
+        assertNotEquals(first.getQuerySql(), second.getQuerySql());
+        assertEquals(5, second.getParams().get(RequestParse.OFFSET_PARAM));
+    }
+
+    @Test
+    @DisplayName("多个条件之间保留空格")
+    void multipleConditions() {
+        RequestParseResult result = requestParse.parse(request("su", 20), userView);
+
+        assertEquals("WHERE (age > :p0 AND name like :p1)", result.getWhere());
+        assertTrue(result.getQuerySql().startsWith("SELECT id AS id, name AS name, age AS age FROM (select id, name, age from user) _tmp WHERE"));
+        assertTrue(result.getQuerySql().endsWith("ORDER BY age desc LIMIT :_limit"));
+        assertFalse(result.getCountSql().contains("LIMIT"));
+    }
+
+    @Test
+    @DisplayName("参数名由条件在条件树中的位置决定")
+    void deterministicParamNames() {
+        FilterCondition group = new FilterCondition();
+        group.setGroup(FilterType.OR);
+        group.setConditions(List.of(condition("age", FilterOp.LESSER, 10), condition("age", FilterOp.GREATER, 60)));
+        SearchEntitiesRequestDTO requestDTO = request("su", 20);
+        requestDTO.getFilter().addCondition(group);
+
+        QueryBeanConfig config = new QueryBeanConfig();
+        config.setPlanCacheSize(0);
+        RequestParse withoutPlanCache = new RequestParse(config);
+        RequestParseResult first = withoutPlanCache.parse(requestDTO, userView);
+        RequestParseResult second = withoutPlanCache.parse(requestDTO, userView);
+
+        assertEquals("WHERE (age > :p0 AND name like :p1 AND (age > :p2_0 OR age < :p2_1))", first.getWhere());
+        assertEquals(first.getQuerySql(), second.getQuerySql());
+        assertEquals(60, first.getParams().get("p2_0"));
+    }
+
+    @Test
+    @DisplayName("无效的字段与运算符")
+    void invalidCondition() {
+        SearchEntitiesRequestDTO unknownProperty = new SearchEntitiesRequestDTO();
+        unknownProperty.setFilter(new SearchFilter());
+        unknownProperty.getFilter().addCondition(condition("unknown", FilterOp.EQUAL, 1));
+        assertThrows(QueryBeanSqlException.class, () -> requestParse.parse(unknownProperty, userView));
+
+        SearchEntitiesRequestDTO invalidOperator = new SearchEntitiesRequestDTO();
+        invalidOperator.setFilter(new SearchFilter());
+        invalidOperator.getFilter().addCondition(condition("age", FilterOp.CONTAINS, "1"));
+        assertThrows(QueryBeanSqlException.class, () -> requestParse.parse(invalidOperator, userView));
+
+        SearchEntitiesRequestDTO invalidValue = new SearchEntitiesRequestDTO();
+        invalidValue.setFilter(new SearchFilter());
+        invalidValue.getFilter().addCondition(condition("age", FilterOp.IN, 1));
+        assertThrows(QueryBeanSqlException.class, () -> requestParse.parse(invalidValue, userView));
+    }
+
+    @Test
+    @DisplayName("parseConditions 直接生成条件与参数")
+    void parseConditions() {
+        FilterCondition group = new FilterCondition();
+        group.setGroup(FilterType.OR);
+        group.setConditions(List.of(condition("age", FilterOp.IN, List.of(1, 2)), condition("name", FilterOp.IS_NULL, null)));
+        Map<String, Object> params = new java.util.HashMap<>();
+
+        String sql = requestParse.parseConditions(group, params, userView);
+
+        assertEquals("(age in (:p0) OR name is null)", sql);
+        assertEquals(Map.of("p0", List.of(1, 2)), params);
+    }
+
+    @Test
+    @DisplayName("BIND 模式的视图参数值不同时 SQL 文本相同")
+    void bindPlaceholderParams() {
+        ViewDescriptor orderView = ViewDescriptor.builder()
+                .name("order")
+                .sql("select id, user_id from orders where 1=1 ${userId? and user_id = ${userId}}")
+                .placeholderMode(PlaceholderMode.BIND)
+                .fields(List.of(ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build()))
+                .build();
+
+        SearchEntitiesRequestDTO first = new SearchEntitiesRequestDTO();
+        first.setParameters(Map.of("userId", 1));
+        SearchEntitiesRequestDTO second = new SearchEntitiesRequestDTO();
+        second.setParameters(Map.of("userId", "1 or 1=1"));
+        RequestParseResult firstResult = requestParse.parse(first, orderView);
+        RequestParseResult secondResult = requestParse.parse(second, orderView);
+
+        assertEquals("select id, user_id from orders where 1=1 and user_id = :ph_userId", firstResult.getViewSql());
+        assertSame(firstResult.getQuerySql(), secondResult.getQuerySql());
+        assertEquals(1, firstResult.getParams().get("ph_userId"));
+        assertEquals("1 or 1=1", secondResult.getParams().get("ph_userId"));
+    }
+
+    @Test
+    @DisplayName("IN 参数列表补齐到 2 的幂长度")
+    void padInList() {
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(new SearchFilter());
+        requestDTO.getFilter().addCondition(condition("age", FilterOp.IN, List.of(1, 2, 3)));
+        requestDTO.getFilter().addCondition(condition("id", FilterOp.NOT_IN, List.of(1, 2, 3, 4, 5)));
+
+        RequestParseResult result = requestParse.parse(requestDTO, userView);
+
+        assertEquals(List.of(1, 2, 3, 3), result.getParams().get("p0"));
+        assertEquals(List.of(1, 2, 3, 4, 5, 5, 5, 5), result.getParams().get("p1"));
+    }
+
+    @Test
+    @DisplayName("IN 的值超过阈值时以数组参数绑定")
+    void arrayInList() {
+        QueryBeanConfig config = new QueryBeanConfig();
+        config.setInListArrayThreshold(2);
+        RequestParse arrayParse = new RequestParse(config, Dialects.POSTGRESQL);
+
+        SearchEntitiesRequestDTO small = new SearchEntitiesRequestDTO();
+        small.setFilter(new SearchFilter());
+        small.getFilter().addCondition(condition("age", FilterOp.IN, List.of(1, 2)));
+        SearchEntitiesRequestDTO large = new SearchEntitiesRequestDTO();
+        large.setFilter(new SearchFilter());
+        large.getFilter().addCondition(condition("age", FilterOp.IN, List.of(1, 2, 3)));
+        large.getFilter().addCondition(condition("name", FilterOp.NOT_IN, List.of("a", "b", "c")));
+
+        assertEquals("WHERE (age in (:p0))", arrayParse.parse(small, userView).getWhere());
+        RequestParseResult result = arrayParse.parse(large, userView);
+        assertEquals("WHERE (age = ANY(:p0) AND name <> ALL(:p1))", result.getWhere());
+        assertInstanceOf(SqlParameterValue.class, result.getParams().get("p0"));
+        assertEquals(Types.ARRAY, ((SqlParameterValue) result.getParams().get("p0")).getSqlType());
+    }
+
+    @Test
+    @DisplayName("下推时条件、排序和查询列直接写入视图 SQL")
+    void pushdown() {
+        ViewDescriptor orderView = ViewDescriptor.builder()
+                .name("order")
+                .sql("select o.id, o.user_id, u.name from orders o join users u on u.id = o.user_id where o.deleted = 0")
+                .pushdown(true)
+                .fields(List.of(
+                        ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                        ViewFiledDescriptor.builder().rawName("userId").clz(Long.class).build(),
+                        ViewFiledDescriptor.builder().rawName("name").clz(String.class).build()))
+                .build();
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(new SearchFilter());
+        requestDTO.getFilter().addCondition(condition("userId", FilterOp.EQUAL, 1));
+        requestDTO.setFields(List.of("id", "name"));
+        requestDTO.setSort("-id");
+
+        RequestParseResult result = requestParse.parse(requestDTO, orderView);
+
+        assertEquals("SELECT o.id AS id, u.name AS name FROM orders o join users u on u.id = o.user_id"
+                + " WHERE (o.deleted = 0) AND (o.user_id = :p0) ORDER BY o.id desc LIMIT :_limit", result.getQuerySql());
+        assertEquals("SELECT count(*) FROM orders o join users u on u.id = o.user_id WHERE (o.deleted = 0) AND (o.user_id = :p0)",
+                result.getCountSql());
+    }
+
+    @Test
+    @DisplayName("视图 SQL 不能下推时仍使用派生表")
+    void pushdownFallback() {
+        ViewDescriptor groupedView = ViewDescriptor.builder()
+                .name("orderCount")
+                .sql("select user_id, count(*) as total from orders group by user_id")
+                .pushdown(true)
+                .fields(List.of(
+                        ViewFiledDescriptor.builder().rawName("userId").clz(Long.class).build(),
+                        ViewFiledDescriptor.builder().rawName("total").clz(Long.class).build()))
+                .build();
+
+        RequestParseResult result = requestParse.parse(new SearchEntitiesRequestDTO(), groupedView);
+
+        assertEquals("SELECT user_id AS userId, total AS total FROM (select user_id, count(*) as total from orders group by user_id) _tmp LIMIT :_limit",
+                result.getQuerySql());
+    }
+
+    @Test
+    @DisplayName("WINDOW 模式在数据查询中一并返回总行数")
+    void windowCount() {
+        SearchEntitiesRequestDTO requestDTO = request("su", 20);
+        requestDTO.setFields(List.of("id"));
+        requestDTO.setCountMode(CountMode.WINDOW);
+
+        RequestParseResult result = requestParse.parse(requestDTO, userView);
+
+        assertTrue(result.isWindowCount());
+        assertEquals("SELECT id AS id, COUNT(*) OVER() AS qb_total_ FROM (select id, name, age from user) _tmp"
+                + " WHERE (age > :p0 AND name like :p1) ORDER BY age desc LIMIT :_limit", result.getQuerySql());
+        assertEquals("SELECT 1 FROM (select id, name, age from user) _tmp WHERE (age > :p0 AND name like :p1)", result.getEstimateSql());
+        // 不同的统计方式不共用查询计划
+        assertFalse(requestParse.parse(request("su", 20), userView).isWindowCount());
+
+        // 游标分页不使用窗口函数
+        ViewDescriptor keysetView = ViewDescriptor.builder()
+                .name("user")
+                .sql("select id, name from user")
+                .tieBreaker("id")
+                .fields(List.of(ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build()))
+                .build();
+        SearchEntitiesRequestDTO keyset = new SearchEntitiesRequestDTO();
+        keyset.setCountMode(CountMode.WINDOW);
+        keyset.setCursor("");
+        assertFalse(requestParse.parse(keyset, keysetView).isWindowCount());
+    }
+
+    @Test
+    @DisplayName("HAS_MORE 模式多取一行")
+    void hasMoreProbe() {
+        SearchEntitiesRequestDTO requestDTO = request("su", 20);
+        requestDTO.setCountMode(CountMode.HAS_MORE);
+
+        RequestParseResult result = requestParse.parse(requestDTO, userView);
+
+        assertEquals(11, result.getParams().get(RequestParse.LIMIT_PARAM));
+        assertEquals(10, result.getPageSize());
+        assertNull(requestParse.parse(request("su", 20), userView).getPageSize());
+    }
+
+    @Test
+    @DisplayName("形状相同的请求合并为一条 UNION ALL 查询，参数按位置绑定")
+    void mergeSameShape() {
+        RequestParseResult first = requestParse.parse(request("su", 20), userView);
+        RequestParseResult second = requestParse.parse(request("al", 30), userView);
+        assertTrue(requestParse.isMergeable(first));
+
+        MergedQuery merged = requestParse.merge(List.of(first, second));
+        String sql = merged.getSql();
+        // 行序号在分支取出 limit 行之后计算
+        assertTrue(sql.startsWith("SELECT * FROM (SELECT qb_branch_.*, ROW_NUMBER() OVER (ORDER BY qb_s0_ desc) AS qb_row_"
+                + " FROM (SELECT id AS id, name AS name, age AS age, 0 AS qb_batch_, age AS qb_s0_ FROM "), sql);
+        assertTrue(sql.contains(" ORDER BY age desc LIMIT ?) qb_branch_) _tmp UNION ALL SELECT * FROM (SELECT qb_branch_.*, ROW_NUMBER()"
+                + " OVER (ORDER BY qb_s0_ desc) AS qb_row_ FROM (SELECT id AS id, name AS name, age AS age, 1 AS qb_batch_, age AS qb_s0_ FROM "), sql);
+        assertTrue(sql.endsWith(" ORDER BY qb_batch_, qb_row_"), sql);
+        assertFalse(sql.contains(":"), sql);
+        assertArrayEquals(new Object[]{20, "%su%", 10, 30, "%al%", 10}, merged.getArgs());
+
+        // IN 列表（补齐到 4 个值）展开为多个参数，没有排序时只按请求的下标排序
+        SearchEntitiesRequestDTO ids = new SearchEntitiesRequestDTO();
+        ids.setFilter(new SearchFilter());
+        ids.getFilter().addCondition(condition("id", FilterOp.IN, List.of(1, 2, 3)));
+        RequestParseResult in = requestParse.parse(ids, userView);
+        MergedQuery mergedIn = requestParse.merge(List.of(in, in));
+        assertArrayEquals(new Object[]{1, 2, 3, 3, 10000, 1, 2, 3, 3, 10000}, mergedIn.getArgs());
+        assertTrue(mergedIn.getSql().endsWith(" ORDER BY qb_batch_"), mergedIn.getSql());
+    }
+
+    @Test
+    @DisplayName("WINDOW 模式和数组参数的请求不合并")
+    void notMergeable() {
+        SearchEntitiesRequestDTO window = request("su", 20);
+        window.setCountMode(CountMode.WINDOW);
+        assertFalse(requestParse.isMergeable(requestParse.parse(window, userView)));
+
+        QueryBeanConfig config = new QueryBeanConfig();
+        config.setInListArrayThreshold(2);
+        RequestParse arrayParse = new RequestParse(config, Dialects.POSTGRESQL);
+        SearchEntitiesRequestDTO ids = new SearchEntitiesRequestDTO();
+        ids.setFilter(new SearchFilter());
+        ids.getFilter().addCondition(condition("id", FilterOp.IN, List.of(1, 2, 3)));
+        assertFalse(arrayParse.isMergeable(arrayParse.parse(ids, userView)));
+        assertTrue(arrayParse.isMergeable(arrayParse.parse(request("su", 20), userView)));
+    }
+}
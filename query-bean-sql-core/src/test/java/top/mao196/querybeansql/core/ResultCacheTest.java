@@ -0,0 +1,151 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * search 结果缓存单元测试
+ */
+@DisplayName("search 结果缓存测试")
+class ResultCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final RequestParse requestParse = new RequestParse(new QueryBeanConfig());
+
+    private static ViewDescriptor view(String name, int cacheTtl) {
+        return ViewDescriptor.builder()
+                .name(name)
+                .sql("select id, name from " + name)
+                .cacheTtl(cacheTtl)
+                .fields(List.of(
+                        ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                        ViewFiledDescriptor.builder().rawName("name").clz(String.class).build()))
+                .build();
+    }
+
+    private ResultCache cache(long maxBytes) {
+        return new ResultCache(maxBytes, nanos::get, Runnable::run);
+    }
+
+    private RequestParseResult parse(ViewDescriptor viewDescriptor, Object id) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty("id");
+        condition.setOperator(FilterOp.EQUAL);
+        condition.setValue(id);
+        SearchFilter filter = new SearchFilter();
+        filter.setConditions(List.of(condition));
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(filter);
+        return requestParse.parse(requestDTO, viewDescriptor);
+    }
+
+    private static SearchResult<Map<String, Object>> result(int rows) {
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            dataList.add(Map.of("id", i));
+        }
+        return new SearchResult<>(dataList, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("相同请求命中，参数不同或 count 模式不同时未命中")
+    void hitAndMiss() {
+        ResultCache cache = cache(1 << 20);
+        ViewDescriptor user = view("user", 60);
+        ResultCache.Key key = cache.key(user, parse(user, 1), null);
+        assertNull(cache.get(key));
+        SearchResult<Map<String, Object>> result = result(2);
+        cache.put(user, key, result);
+
+        assertSame(result, cache.get(cache.key(user, parse(user, 1), null)));
+        assertNull(cache.get(cache.key(user, parse(user, 2), null)));
+        assertNull(cache.get(cache.key(user, parse(user, 1), CountMode.EXACT)));
+
+        ResultCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(1, stats.size());
+        assertEquals(new ResultCache.ViewStats(1, 3), stats.views().get("user"));
+    }
+
+    @Test
+    @DisplayName("没有声明 cacheTtl 的视图和关闭缓存时不缓存")
+    void notCacheable() {
+        ViewDescriptor user = view("user", 0);
+        assertNull(cache(1 << 20).key(user, parse(user, 1), null));
+
+        ViewDescriptor cached = view("user", 60);
+        ResultCache disabled = cache(0);
+        assertNull(disabled.key(cached, parse(cached, 1), null));
+        assertFalse(disabled.stats().enabled());
+        assertEquals(0, disabled.invalidate("user"));
+
+        // 数组参数不缓存
+        RequestParseResult result = parse(cached, 1);
+        result.getParams().put("ids", new Long[]{1L, 2L});
+        assertNull(cache(1 << 20).key(cached, result, null));
+    }
+
+    @Test
+    @DisplayName("按视图的 cacheTtl 过期")
+    void expire() {
+        ResultCache cache = cache(1 << 20);
+        ViewDescriptor user = view("user", 10);
+        ViewDescriptor order = view("order", 60);
+        ResultCache.Key userKey = cache.key(user, parse(user, 1), null);
+        ResultCache.Key orderKey = cache.key(order, parse(order, 1), null);
+        cache.put(user, userKey, result(1));
+        cache.put(order, orderKey, result(1));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertNull(cache.get(userKey));
+        assertNotNull(cache.get(orderKey));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(50));
+        assertNull(cache.get(orderKey));
+    }
+
+    @Test
+    @DisplayName("按视图清除")
+    void invalidate() {
+        ResultCache cache = cache(1 << 20);
+        ViewDescriptor user = view("user", 60);
+        ViewDescriptor order = view("order", 60);
+        cache.put(user, cache.key(user, parse(user, 1), null), result(1));
+        cache.put(user, cache.key(user, parse(user, 2), null), result(1));
+        cache.put(order, cache.key(order, parse(order, 1), null), result(1));
+
+        assertEquals(2, cache.invalidate("user"));
+        assertNull(cache.get(cache.key(user, parse(user, 1), null)));
+        assertNotNull(cache.get(cache.key(order, parse(order, 1), null)));
+        assertEquals(0, cache.stats().evictions());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    @DisplayName("超出容量时按估算大小淘汰")
+    void evict() {
+        ResultCache cache = cache(64 * 1024);
+        ViewDescriptor user = view("user", 60);
+        for (int i = 0; i < 100; i++) {
+            cache.put(user, cache.key(user, parse(user, i), null), result(100));
+        }
+        ResultCache.Stats stats = cache.stats();
+        assertTrue(stats.evictions() > 0);
+        assertTrue(stats.weightedSize() <= 64 * 1024);
+        assertTrue(stats.evictionWeight() > 0);
+        assertEquals(100, stats.size() + stats.evictions());
+    }
+}
@@ -0,0 +1,222 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 语义缓存单元测试
+ */
+@DisplayName("语义缓存测试")
+class SemanticCacheTest {
+
+    private static final ViewDescriptor ORDER_VIEW = ViewDescriptor.builder()
+            .name("order")
+            .sql("select id, order_no, amount, status, created_at from t_order")
+            .cacheTtl(60)
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("orderNo").clz(String.class).build(),
+                    ViewFiledDescriptor.builder().rawName("amount").clz(BigDecimal.class).build(),
+                    ViewFiledDescriptor.builder().rawName("status").clz(String.class).build(),
+                    ViewFiledDescriptor.builder().rawName("createdAt").clz(LocalDateTime.class).build()))
+            .build();
+
+    private static final List<Map<String, Object>> PAID = List.of(
+            row(1, "A_1", "50.00", "PAID"),
+            row(2, "AB1", "150.00", "PAID"),
+            row(3, "A%2", "300.00", "PAID"),
+            row(4, "A_4", null, "PAID"),
+            row(5, "B_5", "120.00", "PAID"));
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final RequestParse requestParse = new RequestParse(new QueryBeanConfig());
+
+    private final ResultCache resultCache = new ResultCache(1 << 20, nanos::get, Runnable::run);
+
+    private final SemanticCache semanticCache = new SemanticCache(true, true, resultCache);
+
+    private static Map<String, Object> row(long id, String orderNo, String amount, String status) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("orderNo", orderNo);
+        row.put("amount", amount == null ? null : new BigDecimal(amount));
+        row.put("status", status);
+        row.put("createdAt", LocalDateTime.of(2024, 1, (int) id, 0, 0));
+        return row;
+    }
+
+    private static FilterCondition condition(String property, FilterOp operator, Object value) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(property);
+        condition.setOperator(operator);
+        condition.setValue(value);
+        return condition;
+    }
+
+    private static SearchEntitiesRequestDTO request(String sort, FilterCondition... conditions) {
+        SearchFilter filter = new SearchFilter();
+        filter.setConditions(new ArrayList<>(List.of(conditions)));
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(filter);
+        requestDTO.setSort(sort);
+        return requestDTO;
+    }
+
+    /**
+     * 模拟查询数据库后放入缓存
+     */
+    private void load(SearchEntitiesRequestDTO requestDTO, List<Map<String, Object>> rows) {
+        RequestParseResult result = requestParse.parse(requestDTO, ORDER_VIEW);
+        ResultCache.Key key = resultCache.key(ORDER_VIEW, result, null);
+        SearchResult<Map<String, Object>> searchResult = new SearchResult<>(rows, null, null, null, null);
+        resultCache.put(ORDER_VIEW, key, searchResult);
+        semanticCache.register(ORDER_VIEW, requestDTO, result, key, searchResult);
+    }
+
+    private SearchResult<Map<String, Object>> answer(SearchEntitiesRequestDTO requestDTO, CountMode countMode) {
+        return semanticCache.answer(ORDER_VIEW, requestDTO, requestParse.parse(requestDTO, ORDER_VIEW), countMode);
+    }
+
+    private static List<Object> ids(SearchResult<Map<String, Object>> result) {
+        return result.getDataList().stream().map(row -> row.get("id")).toList();
+    }
+
+    @Test
+    @DisplayName("收紧条件的请求在内存中过滤、排序和分页")
+    void narrower() {
+        load(request(null, condition("status", FilterOp.EQUAL, "PAID")), PAID);
+
+        SearchEntitiesRequestDTO requestDTO = request("-amount",
+                condition("status", FilterOp.EQUAL, "PAID"), condition("amount", FilterOp.GREATER, 100));
+        SearchResult<Map<String, Object>> result = answer(requestDTO, CountMode.EXACT);
+        assertEquals(List.of(3L, 2L, 5L), ids(result));
+        assertEquals(3, result.getCount());
+
+        requestDTO.setOffset(1);
+        requestDTO.setLimit(1);
+        result = answer(requestDTO, CountMode.HAS_MORE);
+        assertEquals(List.of(2L), ids(result));
+        assertTrue(result.getHasMore());
+        assertNull(result.getCount());
+
+        // 缓存的行不被修改
+        assertEquals(1L, PAID.get(0).get("id"));
+        assertEquals(new SemanticCache.Stats(true, 2, 0, 1), semanticCache.stats());
+    }
+
+    @Test
+    @DisplayName("LIKE 使用与 SQL 相同的转义规则")
+    void like() {
+        load(request(null, condition("status", FilterOp.EQUAL, "PAID")), PAID);
+
+        // _ 和 % 按字面匹配
+        assertEquals(List.of(1L, 4L, 5L), ids(answer(request("id", condition("status", FilterOp.EQUAL, "PAID"),
+                condition("orderNo", FilterOp.CONTAINS, "_")), null)));
+        assertEquals(List.of(3L), ids(answer(request(null, condition("status", FilterOp.EQUAL, "PAID"),
+                condition("orderNo", FilterOp.ENDS_WITH, "%2")), null)));
+        assertEquals(List.of(2L, 3L), ids(answer(request("id", condition("status", FilterOp.EQUAL, "PAID"),
+                condition("orderNo", FilterOp.DOES_NOT_CONTAIN, "_")), null)));
+
+        assertTrue(RowEvaluator.like("a%b_c", "a\\%b\\_c"));
+        assertFalse(RowEvaluator.like("axbyc", "a\\%b\\_c"));
+        assertTrue(RowEvaluator.like("abcabd", "%ab_"));
+        assertFalse(RowEvaluator.like("abc", "%ab"));
+    }
+
+    @Test
+    @DisplayName("不按二进制比较字符串时，字符串条件和字符串排序改为查询数据库")
+    void collation() {
+        SemanticCache byDatabase = new SemanticCache(true, false, resultCache);
+        SearchEntitiesRequestDTO paid = request(null, condition("status", FilterOp.EQUAL, "PAID"));
+        RequestParseResult paidResult = requestParse.parse(paid, ORDER_VIEW);
+        ResultCache.Key key = resultCache.key(ORDER_VIEW, paidResult, null);
+        SearchResult<Map<String, Object>> searchResult = new SearchResult<>(PAID, null, null, null, null);
+        resultCache.put(ORDER_VIEW, key, searchResult);
+        byDatabase.register(ORDER_VIEW, paid, paidResult, key, searchResult);
+
+        // 与缓存结果相同的字符串条件已由数据库求值，其余条件不涉及字符串时仍在内存中求值
+        SearchEntitiesRequestDTO numeric = request("-amount",
+                condition("status", FilterOp.EQUAL, "PAID"), condition("amount", FilterOp.GREATER, 100));
+        assertEquals(List.of(3L, 2L, 5L), ids(byDatabase.answer(ORDER_VIEW, numeric, requestParse.parse(numeric, ORDER_VIEW), null)));
+
+        // 'a_1' 在不区分大小写的排序规则下与 'A_1' 相等，结果由数据库决定
+        SearchEntitiesRequestDTO equal = request(null,
+                condition("status", FilterOp.EQUAL, "PAID"), condition("orderNo", FilterOp.EQUAL, "a_1"));
+        assertNull(byDatabase.answer(ORDER_VIEW, equal, requestParse.parse(equal, ORDER_VIEW), null));
+        SearchEntitiesRequestDTO like = request(null,
+                condition("status", FilterOp.EQUAL, "PAID"), condition("orderNo", FilterOp.STARTS_WITH, "a"));
+        assertNull(byDatabase.answer(ORDER_VIEW, like, requestParse.parse(like, ORDER_VIEW), null));
+        SearchEntitiesRequestDTO sorted = request("orderNo", condition("status", FilterOp.EQUAL, "PAID"));
+        assertNull(byDatabase.answer(ORDER_VIEW, sorted, requestParse.parse(sorted, ORDER_VIEW), null));
+    }
+
+    @Test
+    @DisplayName("null 值只满足 isNull，排序字段有 null 时改为查询数据库")
+    void nulls() {
+        load(request(null, condition("status", FilterOp.EQUAL, "PAID")), PAID);
+
+        assertEquals(List.of(4L), ids(answer(request(null, condition("status", FilterOp.EQUAL, "PAID"),
+                condition("amount", FilterOp.IS_NULL, null)), null)));
+        assertEquals(List.of(1L, 2L, 3L, 5L), ids(answer(request("id", condition("status", FilterOp.EQUAL, "PAID"),
+                condition("amount", FilterOp.NOT_IN, List.of(999))), null)));
+        // null 排在前面还是后面由数据库决定
+        assertNull(answer(request("amount", condition("status", FilterOp.EQUAL, "PAID"),
+                condition("id", FilterOp.GREATER, 1)), null));
+    }
+
+    @Test
+    @DisplayName("不能使用缓存结果的情况")
+    void notAnswerable() {
+        // 行数达到 limit，缓存的可能只是一部分
+        SearchEntitiesRequestDTO partial = request(null, condition("status", FilterOp.EQUAL, "NEW"));
+        partial.setLimit(2);
+        load(partial, List.of(row(6, "N6", "10.00", "NEW"), row(7, "N7", "20.00", "NEW")));
+        assertNull(answer(request(null, condition("status", FilterOp.EQUAL, "NEW"), condition("amount", FilterOp.GREATER, 10)), null));
+
+        load(request(null, condition("status", FilterOp.EQUAL, "PAID")), PAID);
+        // 条件不被包含
+        assertNull(answer(request(null, condition("amount", FilterOp.GREATER, 100)), null));
+        // 以字符串给出的日期不在内存中比较
+        assertNull(answer(request(null, condition("status", FilterOp.EQUAL, "PAID"),
+                condition("createdAt", FilterOp.GREATER, "2024-01-02 00:00:00")), null));
+        // 查询的字段不同
+        SearchEntitiesRequestDTO fields = request(null, condition("status", FilterOp.EQUAL, "PAID"), condition("amount", FilterOp.GREATER, 100));
+        fields.setFields(List.of("id", "status", "amount"));
+        assertNull(answer(fields, null));
+
+        // 缓存结果过期后不再使用，记录随之丢弃
+        assertEquals(1, semanticCache.stats().supersets());
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertNull(answer(request(null, condition("status", FilterOp.EQUAL, "PAID"), condition("amount", FilterOp.GREATER, 100)), null));
+        assertEquals(0, semanticCache.stats().hits());
+        assertEquals(0, semanticCache.stats().supersets());
+    }
+
+    @Test
+    @DisplayName("缓存结果中相同的条件不再求值")
+    void residual() {
+        FilterCondition since = condition("createdAt", FilterOp.GREATER_OR_EQUAL, "2024-01-01 00:00:00");
+        load(request(null, condition("status", FilterOp.EQUAL, "PAID"), since), PAID);
+
+        SearchResult<Map<String, Object>> result = answer(request("id",
+                condition("createdAt", FilterOp.GREATER_OR_EQUAL, "2024-01-01 00:00:00"),
+                condition("status", FilterOp.EQUAL, "PAID"), condition("amount", FilterOp.LESSER, 100)), CountMode.ESTIMATE);
+        assertEquals(List.of(1L), ids(result));
+        assertEquals(1, result.getCount());
+        assertFalse(result.getCountEstimated());
+
+        semanticCache.invalidate("order");
+        assertEquals(0, semanticCache.stats().supersets());
+        assertNull(new SemanticCache(false, true, resultCache).answer(ORDER_VIEW, request(null), requestParse.parse(request(null), ORDER_VIEW), null));
+    }
+}
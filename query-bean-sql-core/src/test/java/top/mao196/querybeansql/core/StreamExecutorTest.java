@@ -0,0 +1,85 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.dialect.Dialects;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式查询执行器单元测试
+ */
+@DisplayName("流式查询执行器测试")
+class StreamExecutorTest {
+
+    private static final String SQL = "SELECT X AS id FROM SYSTEM_RANGE(1, :_limit)";
+
+    private final StreamExecutor streamExecutor = new StreamExecutor(new QueryBeanConfig(), new NamedParameterJdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:stream_executor;DB_CLOSE_DELAY=-1", "sa", "")), Dialects.H2);
+
+    @Test
+    @DisplayName("逐行回调，返回 false 时停止读取")
+    void rows() {
+        List<Long> ids = new ArrayList<>();
+        long rows = streamExecutor.query(SQL, Map.of("_limit", 5), 0, 0, rs -> ids.add(rs.getLong(1)));
+        assertEquals(5, rows);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids);
+
+        ids.clear();
+        rows = streamExecutor.query(SQL, Map.of("_limit", 5), 2, 0, rs -> rs.getLong(1) <= 3 && ids.add(rs.getLong(1)));
+        assertEquals(3, rows);
+        assertEquals(List.of(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    @DisplayName("写出失败时取消查询")
+    void writeFailure() {
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> streamExecutor.query(SQL, Map.of("_limit", 100), 0, 0, rs -> {
+            throw new IOException("Broken pipe");
+        }));
+        assertEquals("Broken pipe", e.getCause().getMessage());
+    }
+
+    @Test
+    @DisplayName("超过截止时间后停止读取")
+    void deadline() {
+        assertThrows(QueryTimeoutException.class, () -> streamExecutor.query(SQL, Map.of("_limit", 10), 0, System.nanoTime() - 1, rs -> true));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        List<Long> ids = new ArrayList<>();
+        assertThrows(QueryTimeoutException.class, () -> streamExecutor.query(SQL, Map.of("_limit", 1000), 0, deadline, rs -> {
+            // 第一行处理到截止时间之后
+            while (ids.isEmpty() && System.nanoTime() - deadline <= 0) {
+                Thread.onSpinWait();
+            }
+            return ids.add(rs.getLong(1));
+        }));
+        // 每 256 行检查一次截止时间
+        assertEquals(256, ids.size());
+    }
+
+    @Test
+    @DisplayName("请求的超时不能超过配置的超时")
+    void timeout() {
+        QueryBeanConfig config = new QueryBeanConfig();
+        config.setStreamTimeout(0);
+        StreamExecutor unlimited = new StreamExecutor(config, new NamedParameterJdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:stream_executor;DB_CLOSE_DELAY=-1", "sa", "")), Dialects.H2);
+        assertEquals(0, unlimited.deadline(null));
+        assertNotEquals(0, unlimited.deadline(1000));
+
+        long deadline = streamExecutor.deadline(Integer.MAX_VALUE);
+        assertTrue(deadline - System.nanoTime() <= TimeUnit.MILLISECONDS.toNanos(new QueryBeanConfig().getStreamTimeout()));
+    }
+}
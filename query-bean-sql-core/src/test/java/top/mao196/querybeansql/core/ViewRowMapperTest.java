@@ -0,0 +1,174 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 视图 RowMapper 单元测试
+ */
+@DisplayName("视图 RowMapper 测试")
+class ViewRowMapperTest {
+
+    private static final JdbcTemplate JDBC_TEMPLATE = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:view_row_mapper;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    private static final String SQL = "SELECT id AS id, age AS age, amount AS amount, paid AS paid, status AS status,"
+            + " birth AS birth, created_at AS createdAt, updated_at AS updatedAt, name AS name FROM item ORDER BY id";
+
+    private static final List<String> PROPERTIES = List.of("id", "age", "amount", "paid", "status", "birth", "createdAt", "updatedAt", "name");
+
+    @BeforeAll
+    static void createTable() {
+        JDBC_TEMPLATE.execute("CREATE TABLE IF NOT EXISTS item (id BIGINT, age INT, amount DECIMAL(10, 2), paid BOOLEAN,"
+                + " status VARCHAR(20), birth DATE, created_at TIMESTAMP, updated_at TIMESTAMP, name VARCHAR(20))");
+        JDBC_TEMPLATE.execute("DELETE FROM item");
+        JDBC_TEMPLATE.execute("INSERT INTO item VALUES (1, 28, 150.25, TRUE, 'ACTIVE', DATE '1997-07-15',"
+                + " TIMESTAMP '2026-10-17 08:30:15.123', TIMESTAMP '2026-10-17 09:00:00', 'susan')");
+        JDBC_TEMPLATE.execute("INSERT INTO item VALUES (2, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)");
+    }
+
+    @Test
+    @DisplayName("按下标映射的结果与 BeanPropertyRowMapper 一致")
+    void sameAsBeanPropertyRowMapper() {
+        BeanPropertyRowMapper<Item> beanPropertyRowMapper = new BeanPropertyRowMapper<>(Item.class);
+        beanPropertyRowMapper.setPrimitivesDefaultedForNullValue(true);
+        List<Item> expected = JDBC_TEMPLATE.query(SQL, beanPropertyRowMapper);
+        List<Item> actual = JDBC_TEMPLATE.query(SQL, ViewRowMapper.compile(Item.class, PROPERTIES));
+
+        assertEquals(expected, actual);
+        Item first = actual.get(0);
+        assertEquals(1L, first.getId());
+        assertEquals(28, first.getAge());
+        assertEquals(new BigDecimal("150.25"), first.getAmount());
+        assertEquals(Status.ACTIVE, first.getStatus());
+        assertEquals(LocalDate.of(1997, 7, 15), first.getBirth());
+        assertEquals(LocalDateTime.of(2026, 10, 17, 8, 30, 15, 123_000_000), first.getCreatedAt());
+        // 没有 setter 的字段不映射
+        assertNull(first.getName());
+        // null 不调用 setter，基本类型保留默认值
+        assertEquals(0, actual.get(1).getAge());
+        assertNull(actual.get(1).getPaid());
+    }
+
+    @Test
+    @DisplayName("相同视图和查询列共用 RowMapper")
+    void cache() {
+        ViewRowMapperCache cache = new ViewRowMapperCache(new QueryBeanConfig());
+
+        assertSame(cache.get(Item.class, List.of("id", "age")), cache.get(Item.class, List.of("id", "age")));
+        assertNotSame(cache.get(Item.class, List.of("id", "age")), cache.get(Item.class, List.of("age", "id")));
+    }
+
+    public enum Status {
+        ACTIVE, PENDING
+    }
+
+    /**
+     * 测试用视图类，name 只有 getter
+     */
+    public static class Item {
+        private Long id;
+        private int age;
+        private BigDecimal amount;
+        private Boolean paid;
+        private Status status;
+        private LocalDate birth;
+        private LocalDateTime createdAt;
+        private Date updatedAt;
+        private String name;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public Boolean getPaid() {
+            return paid;
+        }
+
+        public void setPaid(Boolean paid) {
+            this.paid = paid;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public LocalDate getBirth() {
+            return birth;
+        }
+
+        public void setBirth(LocalDate birth) {
+            this.birth = birth;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        public Date getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public void setUpdatedAt(Date updatedAt) {
+            this.updatedAt = updatedAt;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Item item && age == item.age && Objects.equals(id, item.id) && Objects.equals(amount, item.amount)
+                    && Objects.equals(paid, item.paid) && status == item.status && Objects.equals(birth, item.birth)
+                    && Objects.equals(createdAt, item.createdAt) && Objects.equals(updatedAt, item.updatedAt) && Objects.equals(name, item.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, age, amount, paid, status, birth, createdAt, updatedAt, name);
+        }
+    }
+}
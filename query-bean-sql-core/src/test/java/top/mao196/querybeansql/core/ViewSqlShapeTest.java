@@ -0,0 +1,61 @@
+package top.mao196.querybeansql.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 视图 SQL 结构分析单元测试
+ */
+@DisplayName("视图 SQL 结构分析测试")
+class ViewSqlShapeTest {
+
+    @Test
+    @DisplayName("单个 SELECT 可以下推")
+    void simpleSelect() {
+        ViewSqlShape shape = ViewSqlShape.analyze(
+                "SELECT o.id, o.order_no AS orderNo, u.\"name\" user_name FROM \"order\" o LEFT JOIN \"user\" u ON u.id = o.user_id\n WHERE o.status = 'a, b' AND o.user_id IN (SELECT id FROM vip)");
+
+        assertNotNull(shape);
+        assertEquals("o.id", shape.resolve("id"));
+        assertEquals("o.order_no", shape.resolve("ORDERNO"));
+        assertEquals("u.\"name\"", shape.resolve("user_name"));
+        assertNull(shape.resolve("status"));
+        assertEquals("\"order\" o LEFT JOIN \"user\" u ON u.id = o.user_id", shape.getFrom());
+        assertEquals("o.status = 'a, b' AND o.user_id IN (SELECT id FROM vip)", shape.getWhere());
+    }
+
+    @Test
+    @DisplayName("命名参数不会被当成关键字")
+    void namedParameter() {
+        ViewSqlShape shape = ViewSqlShape.analyze("select id from t where 1=1 and user_id = :ph_limit");
+
+        assertNotNull(shape);
+        assertEquals("1=1 and user_id = :ph_limit", shape.getWhere());
+    }
+
+    @Test
+    @DisplayName("无法安全改写的 SQL 不下推")
+    void unsafeShapes() {
+        String[] unsafe = {
+                "SELECT DISTINCT id FROM t",
+                "SELECT user_id, count(*) AS cnt FROM t GROUP BY user_id",
+                "SELECT id FROM a UNION ALL SELECT id FROM b",
+                "SELECT id FROM t ORDER BY id",
+                "SELECT id FROM t LIMIT 10",
+                "SELECT id, row_number() OVER (ORDER BY id) AS rn FROM t",
+                "SELECT id + 1 AS id FROM t",
+                "SELECT * FROM t",
+                "WITH x AS (SELECT id FROM t) SELECT id FROM x",
+                "(SELECT id FROM t)",
+                "SELECT id FROM t -- comment",
+                "SELECT id FROM t; DELETE FROM t",
+                "SELECT id, id FROM t",
+                "SELECT id FROM t WHERE name = 'unterminated",
+        };
+        for (String sql : unsafe) {
+            assertNull(ViewSqlShape.analyze(sql), sql);
+        }
+    }
+}
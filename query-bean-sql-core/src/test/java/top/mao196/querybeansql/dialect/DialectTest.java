@@ -0,0 +1,172 @@
+package top.mao196.querybeansql.dialect;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据库方言单元测试
+ */
+@DisplayName("数据库方言测试")
+class DialectTest {
+
+    private final ViewDescriptor orderView = ViewDescriptor.builder()
+            .name("order")
+            .sql("select id, order_no, amount from orders")
+            .tieBreaker("id")
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("orderNo").clz(String.class).build(),
+                    ViewFiledDescriptor.builder().rawName("amount").clz(Integer.class).build()))
+            .build();
+
+    private static SearchEntitiesRequestDTO page(String sort, Integer offset) {
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFields(List.of("id", "orderNo"));
+        requestDTO.setSort(sort);
+        requestDTO.setOffset(offset);
+        requestDTO.setLimit(10);
+        return requestDTO;
+    }
+
+    private String querySql(Dialect dialect, SearchEntitiesRequestDTO requestDTO) {
+        return new RequestParse(new QueryBeanConfig(), dialect).parse(requestDTO, orderView).getQuerySql();
+    }
+
+    @Test
+    @DisplayName("按数据库产品名称识别方言")
+    void fromProductName() {
+        assertSame(Dialects.MYSQL, Dialects.fromProductName("MySQL"));
+        assertSame(Dialects.MYSQL, Dialects.fromProductName("MariaDB"));
+        assertSame(Dialects.POSTGRESQL, Dialects.fromProductName("PostgreSQL"));
+        assertSame(Dialects.H2, Dialects.fromProductName("H2"));
+        assertSame(Dialects.ORACLE, Dialects.fromProductName("Oracle"));
+        assertSame(Dialects.SQL_SERVER, Dialects.fromProductName("Microsoft SQL Server"));
+        assertNull(Dialects.fromProductName("SQLite"));
+
+        assertSame(Dialects.ORACLE, Dialects.resolve("ORACLE", null));
+        assertSame(Dialects.MYSQL, Dialects.resolve(null, null));
+        assertThrows(QueryBeanSqlException.class, () -> Dialects.of("sqlite"));
+    }
+
+    @Test
+    @DisplayName("MySQL 8.0 和 MariaDB 10.2 之前的版本不使用窗口函数")
+    void mysqlVersion() {
+        assertSame(Dialects.MYSQL, Dialects.fromMetaData("MySQL", "8.0.36", 8, 0));
+        assertSame(Dialects.MYSQL_WITHOUT_WINDOW, Dialects.fromMetaData("MySQL", "5.7.44-log", 5, 7));
+        // MySQL 驱动连接 MariaDB 时版本号带有 5.5.5- 前缀
+        assertSame(Dialects.MYSQL_WITHOUT_WINDOW, Dialects.fromMetaData("MySQL", "5.5.5-10.1.48-MariaDB", 5, 5));
+        assertSame(Dialects.MYSQL, Dialects.fromMetaData("MySQL", "5.5.5-10.6.16-MariaDB-1:10.6.16+maria~ubu2004", 5, 5));
+        assertSame(Dialects.MYSQL, Dialects.fromMetaData("MariaDB", "10.2.44-MariaDB", 10, 2));
+        assertSame(Dialects.POSTGRESQL, Dialects.fromMetaData("PostgreSQL", "9.6", 9, 6));
+
+        // WINDOW 模式退回到单独的 count 查询，批量查询不合并
+        assertNull(Dialects.MYSQL_WITHOUT_WINDOW.windowCount());
+        assertEquals("mysql", Dialects.MYSQL_WITHOUT_WINDOW.getName());
+        RequestParse requestParse = new RequestParse(new QueryBeanConfig(), Dialects.MYSQL_WITHOUT_WINDOW);
+        SearchEntitiesRequestDTO window = page("-id", null);
+        window.setCountMode(CountMode.WINDOW);
+        RequestParseResult result = requestParse.parse(window, orderView);
+        assertFalse(result.isWindowCount());
+        assertFalse(result.getQuerySql().contains("OVER"));
+        assertFalse(requestParse.isMergeable(requestParse.parse(page("-id", null), orderView)));
+    }
+
+    @Test
+    @DisplayName("各数据库的分页写法")
+    void pagination() {
+        assertEquals("SELECT id AS id, order_no AS orderNo FROM (select id, order_no, amount from orders) _tmp ORDER BY id desc LIMIT :_offset,:_limit",
+                querySql(Dialects.MYSQL, page("-id", 20)));
+        assertEquals("SELECT id AS id, order_no AS orderNo FROM (select id, order_no, amount from orders) _tmp ORDER BY id desc LIMIT :_limit OFFSET :_offset",
+                querySql(Dialects.H2, page("-id", 20)));
+        assertEquals("SELECT id AS \"id\", order_no AS \"orderNo\" FROM (select id, order_no, amount from orders) _tmp ORDER BY id desc LIMIT :_limit OFFSET :_offset",
+                querySql(Dialects.POSTGRESQL, page("-id", 20)));
+        assertEquals("SELECT id AS \"id\", order_no AS \"orderNo\" FROM (select id, order_no, amount from orders) tmp_ ORDER BY id desc OFFSET :_offset ROWS FETCH NEXT :_limit ROWS ONLY",
+                querySql(Dialects.ORACLE, page("-id", 20)));
+        assertEquals("SELECT id AS \"id\", order_no AS \"orderNo\" FROM (select id, order_no, amount from orders) tmp_ FETCH FIRST :_limit ROWS ONLY",
+                querySql(Dialects.ORACLE, page(null, null)));
+        assertEquals("SELECT id AS id, order_no AS orderNo FROM (select id, order_no, amount from orders) _tmp ORDER BY id desc OFFSET :_offset ROWS FETCH NEXT :_limit ROWS ONLY",
+                querySql(Dialects.SQL_SERVER, page("-id", 20)));
+        // SQL Server 的 OFFSET / FETCH 必须有 ORDER BY
+        assertEquals("SELECT id AS id, order_no AS orderNo FROM (select id, order_no, amount from orders) _tmp ORDER BY (SELECT NULL) OFFSET 0 ROWS FETCH NEXT :_limit ROWS ONLY",
+                querySql(Dialects.SQL_SERVER, page(null, null)));
+    }
+
+    @Test
+    @DisplayName("不支持行值比较时游标条件展开为 OR")
+    void keysetWithoutRowValues() {
+        SearchEntitiesRequestDTO first = page("-amount", null);
+        first.setCursor("");
+        RequestParse oracleParse = new RequestParse(new QueryBeanConfig(), Dialects.ORACLE);
+        String cursor = KeysetCursor.next(oracleParse.parse(first, orderView), new Order(3L, 100));
+
+        SearchEntitiesRequestDTO second = page("-amount", null);
+        second.setCursor(cursor);
+        RequestParseResult result = oracleParse.parse(second, orderView);
+
+        assertEquals("WHERE (amount <= :_c0 AND (amount < :_c0 OR (amount = :_c0 AND id < :_c1)))", result.getWhere());
+        assertEquals(100, result.getParams().get("_c0"));
+    }
+
+    @Test
+    @DisplayName("超过方言限制的 IN 列表拆成多个")
+    void inListChunks() {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty("id");
+        condition.setOperator(FilterOp.NOT_IN);
+        condition.setValue(IntStream.rangeClosed(1, 1500).boxed().map(Long::valueOf).collect(Collectors.toList()));
+        SearchEntitiesRequestDTO requestDTO = page(null, null);
+        requestDTO.setFilter(new SearchFilter());
+        requestDTO.getFilter().addCondition(condition);
+
+        RequestParseResult result = new RequestParse(new QueryBeanConfig(), Dialects.ORACLE).parse(requestDTO, orderView);
+
+        // 补齐到 2048 个后按 1000 个一组拆分
+        assertEquals("WHERE ((id not in (:p0_0) AND id not in (:p0_1) AND id not in (:p0_2)))", result.getWhere());
+        assertEquals(1000, ((List<?>) result.getParams().get("p0_0")).size());
+        assertEquals(48, ((List<?>) result.getParams().get("p0_2")).size());
+
+        // 不限制 IN 列表长度的方言、不支持数组参数的方言
+        QueryBeanConfig arrayConfig = new QueryBeanConfig();
+        arrayConfig.setInListArrayThreshold(100);
+        assertEquals("WHERE (id not in (:p0))", new RequestParse(arrayConfig, Dialects.MYSQL).parse(requestDTO, orderView).getWhere());
+        assertEquals("WHERE (id <> ALL(:p0))", new RequestParse(arrayConfig, Dialects.H2).parse(requestDTO, orderView).getWhere());
+    }
+
+    @Test
+    @DisplayName("流式查询的 fetchSize")
+    void streamFetchSize() {
+        // 视图指定的正数原样使用
+        assertEquals(500, Dialects.MYSQL.streamFetchSize(500));
+        assertEquals(500, Dialects.POSTGRESQL.streamFetchSize(500));
+        // MySQL 未指定时逐行流式读取
+        assertEquals(Integer.MIN_VALUE, Dialects.MYSQL.streamFetchSize(0));
+        assertEquals(Integer.MIN_VALUE, Dialects.MYSQL.streamFetchSize(-1));
+        assertEquals(1000, Dialects.H2.streamFetchSize(0));
+        assertEquals(1, Dialects.H2.streamFetchSize(-1));
+
+        assertTrue(Dialects.POSTGRESQL.streamRequiresTransaction());
+        assertFalse(Dialects.MYSQL.streamRequiresTransaction());
+    }
+
+    /**
+     * 游标取值用的行
+     */
+    public record Order(Long id, Integer amount) {
+
+        public Long getId() {
+            return id;
+        }
+
+        public Integer getAmount() {
+            return amount;
+        }
+    }
+}
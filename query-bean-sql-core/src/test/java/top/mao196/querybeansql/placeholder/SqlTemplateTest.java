@@ -0,0 +1,108 @@
+package top.mao196.querybeansql.placeholder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.core.QueryBeanSqlException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预编译 SQL 模板单元测试
+ */
+@DisplayName("预编译 SQL 模板测试")
+class SqlTemplateTest {
+
+    @Test
+    @DisplayName("不含占位符的模板直接返回原始 SQL")
+    void testStaticTemplate() {
+        String sql = "SELECT * FROM user";
+        SqlTemplate template = SqlTemplate.compile(sql);
+
+        assertTrue(template.isStatic());
+        assertSame(sql, template.render(PlaceholderContext.empty()));
+    }
+
+    @Test
+    @DisplayName("未闭合的占位符视为静态文本")
+    void testUnclosedPlaceholderIsStatic() {
+        SqlTemplate template = SqlTemplate.compile("SELECT * FROM user WHERE ${userId");
+
+        assertTrue(template.isStatic());
+        assertEquals("SELECT * FROM user WHERE ${", template.render(PlaceholderContext.empty()));
+    }
+
+    @Test
+    @DisplayName("同一模板可用不同上下文重复渲染")
+    void testRenderRepeatedly() {
+        SqlTemplate template = SqlTemplate.compile("SELECT * FROM t WHERE 1=1 ${status? AND status = ${status}} ORDER BY id");
+
+        assertFalse(template.isStatic());
+        assertEquals("SELECT * FROM t WHERE 1=1 AND status = active ORDER BY id",
+                template.render(PlaceholderContext.of(Map.of("status", "active"))));
+        assertEquals("SELECT * FROM t WHERE 1=1  ORDER BY id", template.render(PlaceholderContext.empty()));
+        assertEquals("SELECT * FROM t WHERE 1=1 AND status = 'a b' ORDER BY id",
+                template.render(PlaceholderContext.of(Map.of("status", "a b"))));
+    }
+
+    @Test
+    @DisplayName("嵌套条件块渲染结果去掉首尾空白")
+    void testNestedConditionTrim() {
+        SqlTemplate template = SqlTemplate.compile("[${a? ${b?  x  } ${c} }]");
+
+        assertEquals("[x 1]", template.render(PlaceholderContext.of(Map.of("a", "1", "b", "1", "c", 1))));
+        assertEquals("[]", template.render(PlaceholderContext.of(Map.of("a", "1"))));
+    }
+
+    @Test
+    @DisplayName("BIND 模式下变量渲染为命名参数并去掉两侧引号")
+    void testBindMode() {
+        SqlTemplate template = SqlTemplate.compile(
+                "SELECT * FROM t WHERE 1=1 ${userId? AND user_id = ${userId}} ${status? AND status = '${status}'}", PlaceholderMode.BIND);
+
+        Map<String, Object> binds = new HashMap<>();
+        String sql = template.render(PlaceholderContext.of(Map.of("userId", 1, "status", "O'Reilly")), binds);
+        assertEquals("SELECT * FROM t WHERE 1=1 AND user_id = :ph_userId AND status = :ph_status", sql);
+        assertEquals(Map.of("ph_userId", 1, "ph_status", "O'Reilly"), binds);
+
+        // 值不同时 SQL 文本不变
+        Map<String, Object> otherBinds = new HashMap<>();
+        assertEquals(sql, template.render(PlaceholderContext.of(Map.of("userId", 2, "status", "x")), otherBinds));
+        assertEquals(2, otherBinds.get("ph_userId"));
+    }
+
+    @Test
+    @DisplayName("BIND 模式下集合绑定为参数列表，缺省值按原样输出")
+    void testBindModeCollectionAndDefault() {
+        SqlTemplate template = SqlTemplate.compile("SELECT * FROM t WHERE id IN (${ids:0}) AND status = '${status:a'b}'", PlaceholderMode.BIND);
+
+        Map<String, Object> binds = new HashMap<>();
+        assertEquals("SELECT * FROM t WHERE id IN (:ph_ids) AND status = :ph_status",
+                template.render(PlaceholderContext.of(Map.of("ids", List.of(1, 2, 3), "status", "x")), binds));
+        assertEquals(List.of(1, 2, 3), binds.get("ph_ids"));
+
+        binds.clear();
+        assertEquals("SELECT * FROM t WHERE id IN (0) AND status = 'a''b'", template.render(PlaceholderContext.empty(), binds));
+        assertTrue(binds.isEmpty());
+    }
+
+    @Test
+    @DisplayName("BIND 模式下拒绝字符串字面量中间的变量")
+    void testBindModeRejectsVariableInsideLiteral() {
+        QueryBeanSqlException e = assertThrows(QueryBeanSqlException.class,
+                () -> SqlTemplate.compile("SELECT * FROM t WHERE name LIKE '%${name}%'", PlaceholderMode.BIND));
+        assertTrue(e.getMessage().contains("${name}"), e.getMessage());
+        assertTrue(e.getMessage().contains("INLINE"), e.getMessage());
+        // 条件块中同样检查，转义的引号不影响判断
+        assertThrows(QueryBeanSqlException.class,
+                () -> SqlTemplate.compile("SELECT * FROM t WHERE 1=1 ${name? AND name LIKE 'it''s ${name}'}", PlaceholderMode.BIND));
+
+        // 只被引号包住的变量仍然可以绑定，INLINE 模式不受影响
+        SqlTemplate.compile("SELECT * FROM t WHERE a = 'it''s' AND name LIKE '${name}' ${b? AND b = '${b}'}", PlaceholderMode.BIND);
+        assertEquals("SELECT * FROM t WHERE name LIKE '%su%'",
+                SqlTemplate.compile("SELECT * FROM t WHERE name LIKE '%${name}%'").render(PlaceholderContext.of(Map.of("name", "su"))));
+    }
+}
@@ -0,0 +1,259 @@
+package top.mao196.querybeansql.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 编译期视图索引生成器
+ * 收集所有 {@code @ViewExposed} 类及其字段的 {@code @ViewField} 元数据，写入 {@value #INDEX_LOCATION}，
+ * 运行期 ExposedViewRegistry 直接加载该索引，不再扫描整个 classpath
+ * <p>
+ * 索引为 properties 格式：
+ * <pre>
+ * views=com.example.OrderView
+ * com.example.OrderView.@name=order
+ * com.example.OrderView.fields=id,orderNo
+ * com.example.OrderView#id.type=java.lang.Long
+ * com.example.OrderView#orderNo.@columnName=order_no
+ * </pre>
+ * 注解属性按 {@code .@属性名} 原样写入（含默认值），数组属性写成 {@code .length} 与 {@code .下标}
+ * <p>
+ * 增量编译（例如 IDE 只编译修改过的文件）时本次编译只能看到部分视图类，写入前会合并输出目录中已有的索引，
+ * 做法与 spring-context-indexer 相同：已有索引中仍然存在且直接标注 {@code @ViewExposed} 的类重新生成条目，
+ * 已删除或不再标注的类被丢弃
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@SupportedAnnotationTypes("*")
+public class ViewIndexProcessor extends AbstractProcessor {
+
+    /**
+     * 与 core 模块 ExposedViewIndex.INDEX_LOCATION 保持一致
+     */
+    static final String INDEX_LOCATION = "META-INF/query-bean-sql/views.properties";
+
+    static final String VIEW_EXPOSED = "top.mao196.querybeansql.annotation.ViewExposed";
+
+    static final String VIEW_FIELD = "top.mao196.querybeansql.annotation.ViewField";
+
+    /**
+     * 按 key 排序，保证同样的源码生成同样的索引文件
+     */
+    private final Map<String, String> entries = new TreeMap<>();
+
+    private final Set<String> views = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // 支持所有注解，这样本次编译没有视图类时也会执行，从已有索引中去掉删除的视图类
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(VIEW_EXPOSED);
+        if (annotation != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+                    continue;
+                }
+                // 与扫描模式保持一致，只收集直接标注的类
+                AnnotationMirror exposed = findAnnotation(element, VIEW_EXPOSED);
+                if (exposed != null) {
+                    indexView((TypeElement) element, exposed);
+                }
+            }
+        }
+        if (roundEnv.processingOver() && (mergePreviousIndex() || !views.isEmpty())) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    /**
+     * 合并输出目录中已有的索引
+     *
+     * @return 是否存在已有的索引，存在时即使没有视图也要重写，去掉已删除的类
+     */
+    private boolean mergePreviousIndex() {
+        Properties previous = new Properties();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (InputStream in = file.openInputStream()) {
+                previous.load(in);
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            // 全量编译或输出目录已清理时没有旧索引
+            return false;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        for (String className : previous.getProperty("views", "").split(",")) {
+            if (className.isBlank() || views.contains(className)) {
+                continue;
+            }
+            // 本次没有编译的类从输出目录的 class 文件中读取
+            TypeElement type = elements.getTypeElement(className.replace('$', '.'));
+            if (type == null || type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)
+                    || !elements.getBinaryName(type).contentEquals(className)) {
+                continue;
+            }
+            AnnotationMirror exposed = findAnnotation(type, VIEW_EXPOSED);
+            if (exposed != null) {
+                indexView(type, exposed);
+            }
+        }
+        return true;
+    }
+
+    private void indexView(TypeElement type, AnnotationMirror exposed) {
+        Elements elements = processingEnv.getElementUtils();
+        String className = elements.getBinaryName(type).toString();
+        views.add(className);
+        putAttributes(className, exposed);
+
+        List<String> fieldNames = new ArrayList<>();
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+            String fieldName = member.getSimpleName().toString();
+            String fieldKey = className + "#" + fieldName;
+            fieldNames.add(fieldName);
+            entries.put(fieldKey + ".type", typeName(member.asType()));
+            AnnotationMirror viewField = findAnnotation(member, VIEW_FIELD);
+            if (viewField != null) {
+                putAttributes(fieldKey, viewField);
+            }
+        }
+        entries.put(className + ".fields", String.join(",", fieldNames));
+    }
+
+    private void putAttributes(String prefix, AnnotationMirror mirror) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            putValue(prefix + ".@" + entry.getKey().getSimpleName(), entry.getValue().getValue());
+        }
+    }
+
+    private void putValue(String key, Object value) {
+        if (value instanceof List<?> list) {
+            entries.put(key + ".length", String.valueOf(list.size()));
+            for (int i = 0; i < list.size(); i++) {
+                putValue(key + "." + i, ((AnnotationValue) list.get(i)).getValue());
+            }
+        } else if (value instanceof VariableElement enumConstant) {
+            entries.put(key, enumConstant.getSimpleName().toString());
+        } else if (value instanceof TypeMirror typeMirror) {
+            entries.put(key, typeName(typeMirror));
+        } else if (value instanceof AnnotationMirror) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "nested annotation attribute is not supported by view index: " + key);
+        } else {
+            entries.put(key, String.valueOf(value));
+        }
+    }
+
+    /**
+     * 转换为 Class.forName 可识别的类型名
+     */
+    private String typeName(TypeMirror typeMirror) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror erased = types.erasure(typeMirror);
+        if (erased.getKind().isPrimitive()) {
+            return erased.toString();
+        }
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) erased).getComponentType()) + "[]";
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+            return processingEnv.getElementUtils().getBinaryName(element).toString();
+        }
+        return erased.toString();
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.ISO_8859_1)) {
+                writer.write("# generated by query-bean-sql-processor, do not edit\n");
+                writeEntry(writer, "views", String.join(",", views));
+                for (Map.Entry<String, String> entry : entries.entrySet()) {
+                    writeEntry(writer, entry.getKey(), entry.getValue());
+                }
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "unable to write view index " + INDEX_LOCATION + ": " + ex.getMessage());
+        }
+    }
+
+    private void writeEntry(Writer writer, String key, String value) throws IOException {
+        writer.write(escape(key, true));
+        writer.write('=');
+        writer.write(escape(value, false));
+        writer.write('\n');
+    }
+
+    /**
+     * 按 java.util.Properties#load 的规则转义，非 ASCII 字符写成 \\uXXXX
+     */
+    private static String escape(String value, boolean isKey) {
+        StringBuilder sb = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\f' -> sb.append("\\f");
+                case '=', ':', '#', '!' -> sb.append('\\').append(c);
+                case ' ' -> {
+                    if (i == 0 || isKey) {
+                        sb.append('\\');
+                    }
+                    sb.append(c);
+                }
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -2,6 +2,7 @@ package top.mao196.querybeansql.view;
 
 import lombok.Data;
 import top.mao196.querybeansql.annotation.ViewExposed;
+import top.mao196.querybeansql.annotation.ViewField;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,14 +15,18 @@ import java.time.LocalDateTime;
 @ViewExposed(
         sql = "SELECT id, order_no, user_id, user_name, amount, status, created_at FROM \"order\"",
         name = "order",
-        desc = "订单视图用于集成测试"
+        desc = "订单视图用于集成测试",
+        pushdown = true,
+        tieBreaker = "id"
 )
 public class OrderView {
     private Long id;
     private String orderNo;
+    @ViewField(relationView = "user")
     private Long userId;
     private String userName;
     private BigDecimal amount;
+    @ViewField(lowCardinality = true)
     private String status;
     private LocalDateTime createdAt;
 }
@@ -2,6 +2,7 @@ package top.mao196.querybeansql.view;
 
 import lombok.Data;
 import top.mao196.querybeansql.annotation.ViewExposed;
+import top.mao196.querybeansql.placeholder.PlaceholderMode;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,7 +18,9 @@ import java.time.LocalDateTime;
          WHERE 1=1 ${userId? AND user_id = ${userId}}
         """,
         name = "orderP",
-        desc = "订单视图用于集成测试"
+        desc = "订单视图用于集成测试",
+        placeholderMode = PlaceholderMode.BIND,
+        pushdown = true
 )
 public class OrderViewP {
     private Long id;
@@ -3,13 +3,15 @@ package top.mao196.querybeansql.view;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 import top.mao196.querybeansql.annotation.ViewExposed;
+import top.mao196.querybeansql.annotation.ViewField;
 
 import java.time.LocalDate;
 import java.util.Date;
 
 @Data
-@ViewExposed(sql = "select id, name, age, birth, balance, create_time, create_by from \"user\"" ,name = "user", desc = "用户信息")
+@ViewExposed(sql = "select id, name, age, birth, balance, create_time, create_by from \"user\"" ,name = "user", desc = "用户信息", tieBreaker = "id")
 public class UserView {
+    @ViewField(relationView = "order", relationKey = "userId", relationName = "orders")
     private Long id;
     private String name;
     private Integer age;
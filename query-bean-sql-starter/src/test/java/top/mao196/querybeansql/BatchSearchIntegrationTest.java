@@ -0,0 +1,178 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import top.mao196.querybeansql.core.BatchSearchRequestDTO;
+import top.mao196.querybeansql.core.BatchSearchResult;
+import top.mao196.querybeansql.core.BatchSearchService;
+import top.mao196.querybeansql.core.SearchEntitiesRequestDTO;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 批量查询集成测试
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@ExtendWith(OutputCaptureExtension.class)
+@DisplayName("批量查询集成测试")
+class BatchSearchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BatchSearchService batchSearchService;
+
+    private JsonNode batch(Map<String, Object> request) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/rest/view/_batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static Map<String, Object> entry(String viewName, Map<String, Object> request) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("viewName", viewName);
+        entry.put("request", request);
+        return entry;
+    }
+
+    private static List<String> orderNos(JsonNode item) {
+        List<String> orderNos = new ArrayList<>();
+        item.get("result").get("dataList").forEach(row -> orderNos.add(row.get("orderNo").asText()));
+        return orderNos;
+    }
+
+    @Test
+    @DisplayName("按请求顺序返回结果，共用的参数可以被单个查询覆盖")
+    void batch() throws Exception {
+        // 请求示例: {"parameters": {"userId": 1}, "searches": [{"viewName": "orderP", "request": {"sort": "orderNo"}}, ...]}
+        Map<String, Object> active = Map.of("filter", Map.of("conditions",
+                List.of(Map.of("property", "status", "operator", "=", "value", "active"))), "sort", "-amount", "returnCount", true);
+        Map<String, Object> request = new HashMap<>();
+        request.put("parameters", Map.of("userId", 1));
+        request.put("searches", List.of(
+                entry("orderP", Map.of("sort", "orderNo")),
+                entry("order", active),
+                entry("orderP", Map.of("sort", "orderNo", "parameters", Map.of("userId", 2))),
+                entry("orderP", null)));
+
+        JsonNode results = batch(request).get("results");
+        assertEquals(4, results.size());
+        assertEquals(List.of("ORD001", "ORD002"), orderNos(results.get(0)));
+        assertEquals("order", results.get(1).get("viewName").asText());
+        assertEquals(List.of("ORD002", "ORD001"), orderNos(results.get(1)));
+        assertEquals(2, results.get(1).get("result").get("count").asLong());
+        assertEquals(List.of("ORD003", "ORD004"), orderNos(results.get(2)));
+        assertEquals(2, results.get(3).get("result").get("dataList").size());
+        results.forEach(item -> assertTrue(item.get("error").isNull()));
+    }
+
+    @Test
+    @DisplayName("同一视图形状相同的查询合并为一次查询，结果与逐个查询相同")
+    void merge(CapturedOutput output) throws Exception {
+        List<Map<String, Object>> searches = new ArrayList<>();
+        for (int userId : new int[]{1, 2, 3}) {
+            searches.add(entry("order", Map.of("filter", Map.of("conditions",
+                    List.of(Map.of("property", "userId", "operator", "=", "value", userId))), "sort", "-amount", "limit", 1, "returnCount", true)));
+        }
+        searches.add(entry("orderP", Map.of("sort", "orderNo", "parameters", Map.of("userId", 2))));
+        searches.add(entry("orderP", Map.of("sort", "orderNo", "parameters", Map.of("userId", 1))));
+        // 排序字段不在 fields 中
+        for (int userId : new int[]{1, 2}) {
+            searches.add(entry("order", Map.of("fields", List.of("orderNo"), "filter", Map.of("conditions",
+                    List.of(Map.of("property", "userId", "operator", "=", "value", userId))), "sort", "amount,-orderNo", "limit", 1)));
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("concurrency", 1);
+        request.put("searches", searches);
+
+        JsonNode results = batch(request).get("results");
+        assertEquals(List.of("ORD002"), orderNos(results.get(0)));
+        assertEquals(2, results.get(0).get("result").get("count").asLong());
+        assertEquals(List.of("ORD004"), orderNos(results.get(1)));
+        assertEquals(2, results.get(1).get("result").get("count").asLong());
+        assertEquals(List.of(), orderNos(results.get(2)));
+        assertEquals(0, results.get(2).get("result").get("count").asLong());
+        assertEquals(List.of("ORD003", "ORD004"), orderNos(results.get(3)));
+        assertEquals(List.of("ORD001", "ORD002"), orderNos(results.get(4)));
+        assertEquals(List.of("ORD001"), orderNos(results.get(5)));
+        assertEquals(List.of("ORD003"), orderNos(results.get(6)));
+        results.forEach(item -> assertTrue(item.get("error").isNull()));
+        // 三组形状相同的查询各合并为一次查询
+        assertEquals(3, output.getOut().split("query merged view sql", -1).length - 1);
+    }
+
+    @Test
+    @DisplayName("共用的参数合并到请求的副本中，调用方的请求不被修改")
+    void sharedParametersCopied() {
+        SearchEntitiesRequestDTO own = new SearchEntitiesRequestDTO();
+        own.setSort("orderNo");
+        own.setParameters(Map.of("userId", 2));
+        SearchEntitiesRequestDTO shared = new SearchEntitiesRequestDTO();
+        shared.setSort("orderNo");
+        BatchSearchRequestDTO.Entry ownEntry = new BatchSearchRequestDTO.Entry();
+        ownEntry.setViewName("orderP");
+        ownEntry.setRequest(own);
+        BatchSearchRequestDTO.Entry sharedEntry = new BatchSearchRequestDTO.Entry();
+        sharedEntry.setViewName("orderP");
+        sharedEntry.setRequest(shared);
+        BatchSearchRequestDTO batchRequest = new BatchSearchRequestDTO();
+        batchRequest.setParameters(Map.of("userId", 1));
+        batchRequest.setSearches(List.of(ownEntry, sharedEntry));
+
+        BatchSearchResult result = batchSearchService.search(batchRequest);
+        assertEquals(2, result.getResults().get(0).getResult().getDataList().size());
+        assertEquals(2, result.getResults().get(1).getResult().getDataList().size());
+        assertEquals(Map.of("userId", 2), own.getParameters());
+        assertNull(shared.getParameters());
+    }
+
+    @Test
+    @DisplayName("一个查询失败只影响它自己的结果")
+    void errors() throws Exception {
+        Map<String, Object> request = new HashMap<>();
+        request.put("concurrency", 1);
+        request.put("searches", List.of(
+                entry("not_exists", Map.of()),
+                entry("order", Map.of("filter", Map.of("conditions",
+                        List.of(Map.of("property", "unknownField", "operator", "=", "value", 1))))),
+                entry("order", Map.of("sort", "orderNo", "limit", 1))));
+
+        JsonNode results = batch(request).get("results");
+        assertEquals("QueryBeanSqlException", results.get(0).get("errorType").asText());
+        assertTrue(results.get(0).get("error").asText().contains("not_exists"));
+        assertTrue(results.get(0).get("result").isNull());
+        assertEquals("QueryBeanSqlException", results.get(1).get("errorType").asText());
+        assertEquals(List.of("ORD001"), orderNos(results.get(2)));
+        assertTrue(results.get(2).get("errorType").isNull());
+
+        // 整个批量请求无效时返回错误
+        assertThrows(Exception.class, () -> mockMvc.perform(post("/rest/view/_batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"searches\": []}")));
+    }
+}
@@ -0,0 +1,142 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import top.mao196.querybeansql.core.JsonEncodings;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Smile、CBOR 编码集成测试
+ * 请求和响应使用二进制编码时，解码后的结果应与 JSON 一致
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("Smile、CBOR 编码集成测试")
+class BinaryEncodingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JsonEncodings jsonEncodings;
+
+    private ObjectMapper mapper(MediaType mediaType) {
+        if (JsonEncodings.APPLICATION_SMILE.equals(mediaType)) {
+            return jsonEncodings.getSmile();
+        } else if (MediaType.APPLICATION_CBOR.equals(mediaType)) {
+            return jsonEncodings.getCbor();
+        }
+        return objectMapper;
+    }
+
+    private JsonNode search(String path, Map<String, Object> request, MediaType mediaType) throws Exception {
+        ObjectMapper mapper = mapper(mediaType);
+        MockHttpServletRequestBuilder builder = post("/rest/view/" + path)
+                .contentType(mediaType)
+                .accept(mediaType)
+                .content(mapper.writeValueAsBytes(request));
+        byte[] body = mockMvc.perform(builder)
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+        return mapper.readTree(body);
+    }
+
+    /**
+     * Smile、CBOR 按原类型写出 BigDecimal，解码后与 JSON 中的浮点数按数值比较
+     */
+    private void assertSameTree(JsonNode expected, JsonNode actual) {
+        Comparator<JsonNode> comparator = (left, right) -> left.isNumber() && right.isNumber()
+                ? left.decimalValue().compareTo(right.decimalValue())
+                : left.equals(right) ? 0 : 1;
+        assertTrue(expected.equals(comparator, actual), () -> expected + " != " + actual);
+    }
+
+    @Test
+    @DisplayName("search 请求和响应")
+    void search() throws Exception {
+        // 请求示例: {"sort": "-amount", "limit": 3, "returnCount": true, "cursor": ""}
+        Map<String, Object> request = Map.of("sort", "-amount", "limit", 3, "returnCount", true, "cursor", "");
+        JsonNode json = search("order/search", request, MediaType.APPLICATION_JSON);
+        assertEquals(3, json.get("dataList").size());
+
+        assertSameTree(json, search("order/search", request, JsonEncodings.APPLICATION_SMILE));
+        assertSameTree(json, search("order/search", request, MediaType.APPLICATION_CBOR));
+
+        // @JsonFormat 同样生效
+        JsonNode users = search("user/search", Map.of("sort", "id"), MediaType.APPLICATION_JSON);
+        assertSameTree(users, search("user/search", Map.of("sort", "id"), MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    @DisplayName("元数据接口")
+    void metadata() throws Exception {
+        byte[] json = mockMvc.perform(get("/rest/metadata/view/order"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mockMvc.perform(get("/rest/metadata/view/order").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(objectMapper.readTree(json), jsonEncodings.getCbor().readTree(cbor));
+    }
+
+    @Test
+    @DisplayName("stream=true 与列式响应")
+    void streamAndColumnar() throws Exception {
+        Map<String, Object> request = Map.of("fields", List.of("orderNo", "status"), "sort", "id");
+        JsonNode json = search("order/search?stream=true", request, MediaType.APPLICATION_JSON);
+        assertEquals(4, json.get("dataList").size());
+        assertEquals(json, search("order/search?stream=true", request, JsonEncodings.APPLICATION_SMILE));
+
+        JsonNode rows = search("order/search?format=rows", request, MediaType.APPLICATION_JSON);
+        assertEquals(rows, search("order/search?format=rows", request, JsonEncodings.APPLICATION_SMILE));
+        assertEquals(rows, search("order/search?format=rows", request, MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    @DisplayName("流式接口输出连续的 CBOR 值")
+    void streamEndpoint() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(post("/rest/view/order/search/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ACCEPT, "application/x-ndjson;q=0.5, application/cbor")
+                        .content(objectMapper.writeValueAsString(Map.of("sort", "id"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (MappingIterator<JsonNode> iterator = jsonEncodings.getCbor().readerFor(JsonNode.class).readValues(body)) {
+            List<JsonNode> rows = iterator.readAll();
+            assertEquals(4, rows.size());
+            assertEquals("ORD001", rows.get(0).get("orderNo").asText());
+            assertEquals("ORD004", rows.get(3).get("orderNo").asText());
+        }
+    }
+}
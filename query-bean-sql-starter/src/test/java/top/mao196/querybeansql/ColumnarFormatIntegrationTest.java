@@ -0,0 +1,123 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 列式响应集成测试
+ * format=rows / columns 的结果按 fields 和 dictionaries 还原后应与普通 search 的 dataList 一致
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("列式响应集成测试")
+class ColumnarFormatIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JsonNode search(String viewName, Map<String, Object> request, String format) throws Exception {
+        MockHttpServletRequestBuilder builder = post("/rest/view/" + viewName + "/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request));
+        if (format != null) {
+            builder.param("format", format);
+        }
+        String body = mockMvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    /**
+     * 按 fields 和 dictionaries 把列式结果还原成对象
+     */
+    private JsonNode decode(JsonNode result) {
+        JsonNode fields = result.get("fields");
+        JsonNode rows = result.get("rows");
+        JsonNode columns = result.get("columns");
+        int size = rows != null ? rows.size() : columns.get(0).size();
+        List<ObjectNode> objects = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            ObjectNode object = objectMapper.createObjectNode();
+            for (int column = 0; column < fields.size(); column++) {
+                String field = fields.get(column).asText();
+                JsonNode value = rows != null ? rows.get(row).get(column) : columns.get(column).get(row);
+                JsonNode dictionary = result.get("dictionaries").get(field);
+                object.set(field, dictionary != null && !value.isNull() ? dictionary.get(value.asInt()) : value);
+            }
+            objects.add(object);
+        }
+        return objectMapper.valueToTree(objects);
+    }
+
+    @Test
+    @DisplayName("rows 格式，状态字段字典编码")
+    void rows() throws Exception {
+        // 请求示例: {"fields": ["orderNo", "userId", "status"], "sort": "id"}
+        JsonNode result = search("order", Map.of("fields", List.of("orderNo", "userId", "status"), "sort", "id"), "rows");
+
+        assertEquals(objectMapper.readTree("[\"orderNo\", \"userId\", \"status\"]"), result.get("fields"));
+        assertEquals(objectMapper.readTree("[[\"ORD001\", 1, 0], [\"ORD002\", 1, 0], [\"ORD003\", 2, 1], [\"ORD004\", 2, 2]]"), result.get("rows"));
+        assertEquals(objectMapper.readTree("{\"status\": [\"active\", \"pending\", \"completed\"]}"), result.get("dictionaries"));
+        assertNull(result.get("dataList"));
+    }
+
+    @Test
+    @DisplayName("columns 格式与总行数")
+    void columns() throws Exception {
+        // 请求示例: {"fields": ["orderNo", "userId", "status"], "sort": "id", "limit": 2, "returnCount": true}
+        JsonNode result = search("order", Map.of("fields", List.of("orderNo", "userId", "status"), "sort", "id", "limit", 2, "returnCount", true), "COLUMNS");
+
+        assertEquals(objectMapper.readTree("[[\"ORD001\", \"ORD002\"], [1, 1], [0, 0]]"), result.get("columns"));
+        assertEquals(objectMapper.readTree("{\"status\": [\"active\"]}"), result.get("dictionaries"));
+        assertEquals(4, result.get("count").asInt());
+    }
+
+    @Test
+    @DisplayName("还原后与普通 search 一致")
+    void sameAsObjects() throws Exception {
+        Map<String, Object> request = Map.of("sort", "-amount", "limit", 3, "cursor", "");
+        JsonNode objects = search("order", request, null);
+        for (String format : List.of("rows", "columns")) {
+            JsonNode result = search("order", request, format);
+            assertEquals(objects.get("dataList"), decode(result));
+            assertEquals(objects.get("nextCursor"), result.get("nextCursor"));
+            assertEquals(objects.get("hasMore"), result.get("hasMore"));
+        }
+
+        // @JsonFormat 同样生效
+        JsonNode users = search("user", Map.of("sort", "id"), null);
+        assertEquals(users.get("dataList"), decode(search("user", Map.of("sort", "id"), "rows")));
+        assertEquals(users.get("dataList"), decode(search("user", Map.of("sort", "id"), "columns")));
+    }
+
+    @Test
+    @DisplayName("不支持的格式")
+    void unsupportedFormat() {
+        assertThrows(Exception.class, () -> search("order", Map.of("sort", "id"), "csv"));
+    }
+}
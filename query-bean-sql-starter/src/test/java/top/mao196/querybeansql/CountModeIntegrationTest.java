@@ -0,0 +1,142 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import top.mao196.querybeansql.core.CountExecutor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 总行数统计方式集成测试
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("总行数统计方式集成测试")
+class CountModeIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CountExecutor countExecutor;
+
+    private ResultActions search(String countMode, int limit, Integer offset) throws Exception {
+        // 请求示例: {"countMode": "WINDOW", "limit": 2, "sort": "id"}
+        Map<String, Object> request = new HashMap<>();
+        request.put("countMode", countMode);
+        request.put("limit", limit);
+        request.put("sort", "id");
+        if (offset != null) {
+            request.put("offset", offset);
+        }
+        return mockMvc.perform(post("/rest/view/order/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    @Test
+    @DisplayName("WINDOW 模式随数据返回总行数")
+    void windowCount() throws Exception {
+        search("WINDOW", 2, null)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dataList", hasSize(2)))
+                .andExpect(jsonPath("$.dataList[0].orderNo", is("ORD001")))
+                .andExpect(jsonPath("$.count", is(4)));
+
+        // 跳过的行超过总行数时单独统计
+        search("WINDOW", 2, 10)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dataList", hasSize(0)))
+                .andExpect(jsonPath("$.count", is(4)));
+    }
+
+    @Test
+    @DisplayName("WINDOW 模式没有匹配的数据时总行数为 0")
+    void windowCountEmpty() throws Exception {
+        // 请求示例: {"countMode": "WINDOW", "filter": {"conditions": [{"property": "status", "operator": "=", "value": "cancelled"}]}}
+        Map<String, Object> request = Map.of(
+                "countMode", "WINDOW",
+                "filter", Map.of("conditions", List.of(Map.of(
+                        "property", "status",
+                        "operator", "=",
+                        "value", "cancelled"
+                )))
+        );
+
+        mockMvc.perform(post("/rest/view/order/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dataList", hasSize(0)))
+                .andExpect(jsonPath("$.count", is(0)));
+    }
+
+    @Test
+    @DisplayName("HAS_MORE 模式只返回是否还有下一页")
+    void hasMore() throws Exception {
+        search("HAS_MORE", 3, null)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dataList", hasSize(3)))
+                .andExpect(jsonPath("$.hasMore", is(true)))
+                .andExpect(jsonPath("$.count").doesNotExist());
+
+        search("HAS_MORE", 4, null)
+                .andExpect(jsonPath("$.dataList", hasSize(4)))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+
+        search("HAS_MORE", 2, 2)
+                .andExpect(jsonPath("$.dataList[*].orderNo", contains("ORD003", "ORD004")))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+    }
+
+    @Test
+    @DisplayName("CACHED 模式在缓存时间内返回上次的总行数")
+    void cachedCount() throws Exception {
+        countExecutor.clearCache();
+        search("CACHED", 2, null)
+                .andExpect(jsonPath("$.count", is(4)));
+
+        jdbcTemplate.update("INSERT INTO \"order\" (order_no, user_id, user_name, amount, status, created_at)"
+                + " VALUES ('ORD005', 1, 'susan', 99.00, 'active', CURRENT_TIMESTAMP)");
+
+        // 分页参数不影响缓存，总行数仍是缓存的值
+        search("CACHED", 2, 2)
+                .andExpect(jsonPath("$.count", is(4)));
+        search("EXACT", 2, null)
+                .andExpect(jsonPath("$.count", is(5)));
+        countExecutor.clearCache();
+    }
+
+    @Test
+    @DisplayName("数据库不支持估算时 ESTIMATE 退回精确统计")
+    void estimateFallback() throws Exception {
+        search("ESTIMATE", 2, null)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(4)))
+                .andExpect(jsonPath("$.countEstimated", is(false)));
+    }
+}
@@ -0,0 +1,118 @@
+package top.mao196.querybeansql;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.test.context.ActiveProfiles;
+import top.mao196.querybeansql.core.ExposedViewIndex;
+import top.mao196.querybeansql.core.ExposedViewRegistry;
+import top.mao196.querybeansql.core.ViewDescriptor;
+import top.mao196.querybeansql.core.ViewFiledDescriptor;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 编译期视图索引集成测试
+ * 验证从索引加载的视图信息与扫描 classpath 得到的一致
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("视图索引集成测试")
+class ExposedViewIndexIntegrationTest {
+
+    @Autowired
+    private ExposedViewRegistry exposedViewRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @DisplayName("存在索引时不扫描 classpath")
+    void loadFromIndex() {
+        assertTrue(exposedViewRegistry.isIndexed());
+        // main 与 test 两份索引合并
+        assertNotNull(exposedViewRegistry.findDescriptor("user"));
+        assertNotNull(exposedViewRegistry.findDescriptor("order_placeholder"));
+    }
+
+    @Test
+    @DisplayName("索引与扫描结果一致")
+    void indexMatchesScan() throws Exception {
+        ExposedViewRegistry scanned = new ExposedViewRegistry();
+        scanned.setEnvironment(environment);
+        scanned.setBasePackage(new String[]{"top.mao196.querybeansql"});
+        scanned.setIgnoreIndex(true);
+        scanned.afterPropertiesSet();
+        assertFalse(scanned.isIndexed());
+
+        assertEquals(scanned.descriptors().size(), exposedViewRegistry.descriptors().size());
+        for (ViewDescriptor expected : scanned.descriptors()) {
+            ViewDescriptor actual = exposedViewRegistry.findDescriptor(expected.getName());
+            assertNotNull(actual, expected.getName());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getSql(), actual.getSql());
+            assertEquals(expected.getPlaceholderMode(), actual.getPlaceholderMode());
+            assertEquals(expected.isPushdown(), actual.isPushdown());
+            assertEquals(expected.getTieBreaker(), actual.getTieBreaker());
+            assertEquals(expected.getViewClass(), actual.getViewClass());
+            List<ViewFiledDescriptor> expectedFields = expected.getFields();
+            List<ViewFiledDescriptor> actualFields = actual.getFields();
+            assertEquals(expectedFields.size(), actualFields.size());
+            for (int i = 0; i < expectedFields.size(); i++) {
+                assertEquals(expectedFields.get(i).getRawName(), actualFields.get(i).getRawName());
+                assertEquals(expectedFields.get(i).getClz(), actualFields.get(i).getClz());
+                assertEquals(expectedFields.get(i).getColumnName(), actualFields.get(i).getColumnName());
+                assertEquals(expectedFields.get(i).getDescription(), actualFields.get(i).getDescription());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("配置了 basePackage 时扫描其中没有索引的 classpath 条目")
+    void scanEntriesWithoutIndex() throws Exception {
+        // 隐藏 test 输出目录中的索引，模拟未启用注解处理器编译的目录或 jar
+        String testRoot = ExposedViewIndexIntegrationTest.class.getProtectionDomain().getCodeSource().getLocation().toString();
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                List<URL> urls = Collections.list(super.getResources(name));
+                if (ExposedViewIndex.INDEX_LOCATION.equals(name)) {
+                    urls.removeIf(url -> url.toString().startsWith(testRoot));
+                }
+                return Collections.enumeration(urls);
+            }
+        };
+        ExposedViewIndex index = ExposedViewIndex.load(classLoader);
+        assertTrue(index.covers(getClass().getClassLoader().getResource("top/mao196/querybeansql/view/UserView.class")));
+        assertFalse(index.covers(getClass().getClassLoader().getResource("top/mao196/querybeansql/view/OrderPlaceholderView.class")));
+
+        // 未配置 basePackage 时只使用索引，不扫描 classpath
+        ExposedViewRegistry indexOnly = new ExposedViewRegistry();
+        indexOnly.setResourcePatternResolver(new PathMatchingResourcePatternResolver(classLoader));
+        indexOnly.setEnvironment(environment);
+        indexOnly.afterPropertiesSet();
+        assertTrue(indexOnly.isIndexed());
+        assertNotNull(indexOnly.findDescriptor("user"));
+        assertNull(indexOnly.findDescriptor("order_placeholder"));
+
+        ExposedViewRegistry registry = new ExposedViewRegistry();
+        registry.setResourcePatternResolver(new PathMatchingResourcePatternResolver(classLoader));
+        registry.setEnvironment(environment);
+        registry.setBasePackage(new String[]{"top.mao196.querybeansql"});
+        registry.afterPropertiesSet();
+        assertTrue(registry.isIndexed());
+        // main 中的视图来自索引，test 中的视图来自扫描
+        assertNotNull(registry.findDescriptor("user"));
+        assertNotNull(registry.findDescriptor("order_placeholder"));
+        assertEquals(exposedViewRegistry.descriptors().size(), registry.descriptors().size());
+    }
+}
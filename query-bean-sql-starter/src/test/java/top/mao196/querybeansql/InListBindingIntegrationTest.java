@@ -0,0 +1,81 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * IN 列表数组参数绑定集成测试
+ * 阈值设为 1，两个以上的值即以数组参数绑定
+ */
+@SpringBootTest(properties = "query-bean.inListArrayThreshold=1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("IN 列表数组参数绑定集成测试")
+class InListBindingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("IN 以 = ANY 数组参数查询")
+    void filterByArrayIn() throws Exception {
+        // 请求示例: {"filter": {"conditions": [{"property": "name", "operator": "in", "value": ["susan", "alice"]}]}}
+        Map<String, Object> request = Map.of(
+                "filter", Map.of(
+                        "conditions", List.of(Map.of(
+                                "property", "name",
+                                "operator", "in",
+                                "value", List.of("susan", "alice")
+                        ))
+                )
+        );
+
+        mockMvc.perform(post("/rest/view/user/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dataList", hasSize(2)))
+                .andExpect(jsonPath("$.dataList[*].name", containsInAnyOrder("susan", "alice")));
+    }
+
+    @Test
+    @DisplayName("NOT_IN 以 <> ALL 数组参数查询")
+    void filterByArrayNotIn() throws Exception {
+        // 请求示例: {"filter": {"conditions": [{"property": "name", "operator": "notIn", "value": ["susan", "bob"]}]}}
+        Map<String, Object> request = Map.of(
+                "filter", Map.of(
+                        "conditions", List.of(Map.of(
+                                "property", "name",
+                                "operator", "notIn",
+                                "value", List.of("susan", "bob")
+                        ))
+                )
+        );
+
+        mockMvc.perform(post("/rest/view/user/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dataList", hasSize(1)))
+                .andExpect(jsonPath("$.dataList[0].name", is("alice")));
+    }
+}
@@ -0,0 +1,118 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * NDJSON 流式查询集成测试
+ * maxLimit 设为 2，流式查询只受 streamMaxLimit 限制
+ */
+@SpringBootTest(properties = "query-bean.maxLimit=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("NDJSON 流式查询集成测试")
+class NdjsonStreamIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<JsonNode> stream(String viewName, Map<String, Object> request) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(post("/rest/view/" + viewName + "/search/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        // 每行一个 JSON 对象，以换行结尾
+        assertTrue(body.isEmpty() || body.endsWith("\n"));
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        return rows;
+    }
+
+    private JsonNode search(String viewName, Map<String, Object> request) throws Exception {
+        String body = mockMvc.perform(post("/rest/view/" + viewName + "/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    @Test
+    @DisplayName("不受 maxLimit 限制，每行与 search 返回的对象一致")
+    void allRows() throws Exception {
+        // 请求示例: {"sort": "id"}
+        JsonNode page = search("order", Map.of("sort", "id"));
+        assertEquals(2, page.get("dataList").size());
+
+        List<JsonNode> rows = stream("order", Map.of("sort", "id"));
+        assertEquals(4, rows.size());
+        assertEquals(page.get("dataList").get(0), rows.get(0));
+        assertEquals(page.get("dataList").get(1), rows.get(1));
+        assertEquals("ORD004", rows.get(3).get("orderNo").asText());
+
+        // @JsonFormat 同样生效
+        JsonNode user = search("user", Map.of("sort", "id", "limit", 1)).get("dataList").get(0);
+        assertEquals(user, stream("user", Map.of("sort", "id", "limit", 1)).get(0));
+    }
+
+    @Test
+    @DisplayName("条件、字段和 limit")
+    void filterAndFields() throws Exception {
+        // 请求示例: {"fields": ["orderNo", "amount"], "sort": "-amount", "limit": 3, "filter": {"conditions": [{"property": "userId", "operator": "=", "value": 2}]}}
+        Map<String, Object> filter = Map.of("conditions", List.of(Map.of("property", "userId", "operator", "=", "value", 2)));
+        List<JsonNode> rows = stream("order", Map.of("fields", List.of("orderNo", "amount"), "sort", "-amount", "limit", 3, "filter", filter));
+
+        assertEquals(2, rows.size());
+        assertEquals("ORD004", rows.get(0).get("orderNo").asText());
+        assertEquals("ORD003", rows.get(1).get("orderNo").asText());
+        assertEquals(2, rows.get(0).size());
+
+        assertEquals(1, stream("order", Map.of("sort", "id", "limit", 1)).size());
+        assertTrue(stream("order", Map.of("filter", Map.of("conditions", List.of(Map.of("property", "userId", "operator", "=", "value", 9))))).isEmpty());
+    }
+
+    @Test
+    @DisplayName("从游标位置继续读取，多取的一行不写出")
+    void cursor() throws Exception {
+        // 请求示例: {"sort": "id", "limit": 1, "cursor": ""}
+        JsonNode first = search("order", Map.of("sort", "id", "limit", 1, "cursor", ""));
+        String cursor = first.get("nextCursor").asText();
+
+        List<JsonNode> rows = stream("order", Map.of("sort", "id", "limit", 2, "cursor", cursor));
+        assertEquals(2, rows.size());
+        assertEquals("ORD002", rows.get(0).get("orderNo").asText());
+        assertEquals("ORD003", rows.get(1).get("orderNo").asText());
+    }
+}
@@ -0,0 +1,118 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import top.mao196.querybeansql.core.JsonEncodings;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 堆外响应缓存集成测试
+ * order_cached 视图声明了 cacheTtl，开启堆外缓存后第二次请求直接写出缓存的字节
+ */
+@SpringBootTest(properties = "query-bean.responseCacheBytes=4194304")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("堆外响应缓存集成测试")
+class OffHeapResponseCacheIntegrationTest {
+
+    private static final String INSERT = "INSERT INTO \"order\" (order_no, user_id, user_name, amount, status, created_at)"
+            + " VALUES ('ORD005', 1, 'susan', 50.00, 'active', CURRENT_TIMESTAMP)";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JsonEncodings jsonEncodings;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void invalidate() throws Exception {
+        mockMvc.perform(delete("/rest/view/order_cached/cache")).andExpect(status().isOk());
+    }
+
+    private MvcResult search(String viewName, Map<String, Object> request, MediaType accept) throws Exception {
+        return mockMvc.perform(post("/rest/view/" + viewName + "/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(accept)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private JsonNode stats() throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/rest/view/_cache/offheap/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    @DisplayName("命中时写出与第一次相同的字节，清除后重新查询")
+    void hit() throws Exception {
+        // 请求示例: {"sort": "id", "returnCount": true}
+        Map<String, Object> request = Map.of("sort", "id", "returnCount", true);
+        long hits = stats().get("hits").asLong();
+
+        byte[] first = search("order_cached", request, MediaType.APPLICATION_JSON).getResponse().getContentAsByteArray();
+        assertEquals(4, objectMapper.readTree(first).get("count").asInt());
+        // 与不缓存的视图序列化结果一致
+        assertEquals(objectMapper.readTree(search("order", request, MediaType.APPLICATION_JSON).getResponse().getContentAsByteArray())
+                .get("dataList").get(0).get("orderNo"), objectMapper.readTree(first).get("dataList").get(0).get("orderNo"));
+
+        jdbcTemplate.execute(INSERT);
+        MvcResult second = search("order_cached", request, MediaType.APPLICATION_JSON);
+        assertArrayEquals(first, second.getResponse().getContentAsByteArray());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, second.getResponse().getContentType());
+        assertEquals(first.length, second.getResponse().getContentLength());
+
+        JsonNode stats = stats();
+        assertTrue(stats.get("enabled").asBoolean());
+        assertEquals(hits + 1, stats.get("hits").asLong());
+        assertTrue(stats.get("payloadBytes").asLong() >= first.length);
+
+        String body = mockMvc.perform(delete("/rest/view/order_cached/cache"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(1, objectMapper.readTree(body).get("invalidatedResponses").asInt());
+        JsonNode refreshed = objectMapper.readTree(search("order_cached", request, MediaType.APPLICATION_JSON).getResponse().getContentAsByteArray());
+        assertEquals(5, refreshed.get("count").asInt());
+    }
+
+    @Test
+    @DisplayName("不同编码分别缓存")
+    void encodings() throws Exception {
+        Map<String, Object> request = Map.of("sort", "-amount", "limit", 2);
+        JsonNode json = objectMapper.readTree(search("order_cached", request, MediaType.APPLICATION_JSON).getResponse().getContentAsByteArray());
+
+        for (int i = 0; i < 2; i++) {
+            MvcResult cbor = search("order_cached", request, MediaType.APPLICATION_CBOR);
+            assertEquals(MediaType.APPLICATION_CBOR_VALUE, cbor.getResponse().getContentType());
+            JsonNode decoded = jsonEncodings.getCbor().readTree(cbor.getResponse().getContentAsByteArray());
+            assertEquals(json.get("dataList").get(0).get("orderNo"), decoded.get("dataList").get(0).get("orderNo"));
+            assertEquals(json.get("dataList").size(), decoded.get("dataList").size());
+        }
+        assertEquals(2, stats().get("size").asInt());
+    }
+}
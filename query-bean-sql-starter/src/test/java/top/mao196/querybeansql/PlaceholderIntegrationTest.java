@@ -99,4 +99,50 @@ class PlaceholderIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.dataList", org.hamcrest.Matchers.hasSize(4)));
     }
+
+    @Test
+    @DisplayName("测试 BIND 模式 - 参数以命名参数绑定")
+    void testBindModeParameter() throws Exception {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", 2);
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("parameters", parameters);
+        request.put("limit", 10);
+
+        mockMvc.perform(post("/rest/view/orderP/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dataList", org.hamcrest.Matchers.hasSize(2)))
+                .andExpect(jsonPath("$.dataList[*].userName", org.hamcrest.Matchers.everyItem(org.hamcrest.Matchers.is("alice"))));
+    }
+
+    @Test
+    @DisplayName("测试条件与排序下推到视图 SQL")
+    void testPushdownWithViewCondition() throws Exception {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", 1);
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("parameters", parameters);
+        request.put("filter", Map.of("conditions", java.util.List.of(Map.of(
+                "property", "amount",
+                "operator", ">",
+                "value", 100))));
+        request.put("sort", "-amount");
+        request.put("fields", java.util.List.of("orderNo", "amount"));
+        request.put("returnCount", true);
+        request.put("limit", 10);
+
+        mockMvc.perform(post("/rest/view/orderP/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.dataList", org.hamcrest.Matchers.hasSize(2)))
+                .andExpect(jsonPath("$.dataList[0].orderNo").value("ORD002"))
+                .andExpect(jsonPath("$.dataList[1].orderNo").value("ORD001"))
+                .andExpect(jsonPath("$.dataList[0].status").doesNotExist());
+    }
 }
@@ -1,13 +1,26 @@
 package top.mao196.querybeansql;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import top.mao196.querybeansql.dialect.Dialect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest
 class QueryBeanSqlApplicationTests {
 
+    @Autowired
+    private Dialect dialect;
+
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void dialectDetectedFromDataSource() {
+        // 测试数据源为 MODE=MySQL 的 H2，按产品名称识别为 H2
+        assertEquals("h2", dialect.getName());
+    }
+
 }
@@ -0,0 +1,91 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 相同查询合并集成测试
+ * 同时发送多个相同的请求，每个请求都应得到相同的结果，执行次数与合并次数之和等于请求数
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("相同查询合并集成测试")
+class QueryCoalescerIntegrationTest {
+
+    private static final int REQUESTS = 16;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JsonNode stats() throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/rest/view/_coalesce/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private JsonNode search(byte[] request) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/rest/view/order/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    @DisplayName("同时到达的相同请求结果一致")
+    void concurrentRequests() throws Exception {
+        // 请求示例: {"sort": "-amount", "limit": 2, "returnCount": true}
+        byte[] request = objectMapper.writeValueAsBytes(Map.of("sort", "-amount", "limit", 2, "returnCount", true));
+        JsonNode expected = search(request);
+        JsonNode before = stats();
+
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(REQUESTS);
+            List<Future<JsonNode>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return search(request);
+                }));
+            }
+            for (Future<JsonNode> future : futures) {
+                assertEquals(expected, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        JsonNode after = stats();
+        assertTrue(after.get("enabled").asBoolean());
+        long executions = after.get("executions").asLong() - before.get("executions").asLong();
+        long coalesced = after.get("coalesced").asLong() - before.get("coalesced").asLong();
+        long retries = after.get("retries").asLong() - before.get("retries").asLong();
+        assertEquals(REQUESTS, executions + coalesced - retries);
+        assertEquals(0, after.get("inFlight").asInt());
+    }
+}
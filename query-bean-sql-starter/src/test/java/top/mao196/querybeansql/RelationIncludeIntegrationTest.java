@@ -0,0 +1,101 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 关联视图 include 集成测试
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@ExtendWith(OutputCaptureExtension.class)
+@DisplayName("关联视图 include 集成测试")
+class RelationIncludeIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JsonNode search(String path, Object request) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static List<String> values(JsonNode rows, String field) {
+        List<String> values = new ArrayList<>();
+        rows.forEach(row -> values.add(row.get(field).asText()));
+        return values;
+    }
+
+    @Test
+    @DisplayName("一页订单的用户只查询一次")
+    void include(CapturedOutput output) throws Exception {
+        // 请求示例: {"sort": "orderNo", "include": ["user"]}
+        JsonNode result = search("/rest/view/order/search", Map.of("sort", "orderNo", "include", List.of("user")));
+
+        assertEquals(List.of("ORD001", "ORD002", "ORD003", "ORD004"), values(result.get("dataList"), "orderNo"));
+        JsonNode users = result.get("included").get("user");
+        assertEquals(List.of("susan", "alice"), values(users, "name"));
+        assertEquals(1, output.getOut().lines().filter(line -> line.contains("query view sql") && line.contains("from \"user\"")).count());
+    }
+
+    @Test
+    @DisplayName("嵌套的关联以上一层的行继续加载，批量查询同样支持")
+    void nested() throws Exception {
+        Map<String, Object> request = Map.of("filter", Map.of("conditions",
+                        List.of(Map.of("property", "orderNo", "operator", "=", "value", "ORD003"))),
+                "include", List.of("user.orders"));
+        JsonNode included = search("/rest/view/order/search", request).get("included");
+        List<String> relations = new ArrayList<>();
+        included.fieldNames().forEachRemaining(relations::add);
+        assertEquals(List.of("user", "user.orders"), relations);
+        assertEquals(List.of("alice"), values(included.get("user"), "name"));
+        assertEquals(List.of("ORD003", "ORD004"), values(included.get("user.orders"), "orderNo"));
+
+        Map<String, Object> batch = Map.of("searches", List.of(
+                Map.of("viewName", "order", "request", request),
+                Map.of("viewName", "user", "request", Map.of("sort", "name", "include", List.of("orders")))));
+        JsonNode results = search("/rest/view/_batch", batch).get("results");
+        assertEquals(List.of("ORD003", "ORD004"), values(results.get(0).get("result").get("included").get("user.orders"), "orderNo"));
+        assertEquals(4, results.get(1).get("result").get("included").get("orders").size());
+        // 没有 include 时 included 为 null
+        assertTrue(search("/rest/view/order/search", Map.of()).get("included").isNull());
+    }
+
+    @Test
+    @DisplayName("未声明的关联、缺少关联字段和流式查询报错")
+    void invalid() {
+        assertThrows(Exception.class, () -> search("/rest/view/order/search", Map.of("include", List.of("customer"))));
+        assertThrows(Exception.class, () -> search("/rest/view/order/search",
+                Map.of("fields", List.of("orderNo"), "include", List.of("user"))));
+        assertThrows(Exception.class, () -> mockMvc.perform(post("/rest/view/order/search/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content("{\"include\": [\"user\"]}")));
+    }
+}
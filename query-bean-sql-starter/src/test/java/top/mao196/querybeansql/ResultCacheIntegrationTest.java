@@ -0,0 +1,120 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * search 结果缓存集成测试
+ * order_cached 视图声明了 cacheTtl，order 视图没有
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("search 结果缓存集成测试")
+class ResultCacheIntegrationTest {
+
+    private static final String INSERT = "INSERT INTO \"order\" (order_no, user_id, user_name, amount, status, created_at)"
+            + " VALUES ('ORD005', 1, 'susan', 50.00, 'active', CURRENT_TIMESTAMP)";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void invalidate() throws Exception {
+        // 每个测试前重新导入了数据，清除上一个测试缓存的结果
+        mockMvc.perform(delete("/rest/view/order_cached/cache")).andExpect(status().isOk());
+    }
+
+    private JsonNode search(String viewName, Map<String, Object> request) throws Exception {
+        String body = mockMvc.perform(post("/rest/view/" + viewName + "/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode cacheStats() throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/rest/view/_cache/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    @DisplayName("缓存期间看不到数据变化，清除后重新查询")
+    void cachedUntilInvalidated() throws Exception {
+        // 请求示例: {"sort": "id", "returnCount": true}
+        Map<String, Object> request = Map.of("sort", "id", "returnCount", true);
+        JsonNode first = search("order_cached", request);
+        assertEquals(4, first.get("count").asInt());
+
+        jdbcTemplate.execute(INSERT);
+        assertEquals(first, search("order_cached", request));
+        // 没有声明 cacheTtl 的视图不缓存
+        assertEquals(5, search("order", request).get("count").asInt());
+        // 条件不同的请求单独缓存
+        assertEquals(5, search("order_cached", Map.of("sort", "-id", "returnCount", true)).get("count").asInt());
+
+        String body = mockMvc.perform(delete("/rest/view/order_cached/cache"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(2, objectMapper.readTree(body).get("invalidated").asInt());
+
+        JsonNode refreshed = search("order_cached", request);
+        assertEquals(5, refreshed.get("count").asInt());
+        assertEquals("ORD005", refreshed.get("dataList").get(4).get("orderNo").asText());
+    }
+
+    @Test
+    @DisplayName("命中和未命中统计")
+    void hitsAndMisses() throws Exception {
+        JsonNode before = cacheStats().get("views").get("order_cached");
+        long hits = before == null ? 0 : before.get("hits").asLong();
+        long misses = before == null ? 0 : before.get("misses").asLong();
+
+        Map<String, Object> request = Map.of("fields", List.of("orderNo"), "limit", 2);
+        search("order_cached", request);
+        search("order_cached", request);
+        search("order_cached", request);
+        search("order", request);
+
+        JsonNode stats = cacheStats();
+        assertTrue(stats.get("enabled").asBoolean());
+        assertTrue(stats.get("size").asLong() >= 1);
+        assertTrue(stats.get("weightedSize").asLong() > 0);
+        assertEquals(hits + 2, stats.get("views").get("order_cached").get("hits").asLong());
+        assertEquals(misses + 1, stats.get("views").get("order_cached").get("misses").asLong());
+        assertNull(stats.get("views").get("order"));
+    }
+
+    @Test
+    @DisplayName("清除不存在的视图")
+    void invalidateUnknownView() {
+        assertThrows(Exception.class, () -> mockMvc.perform(delete("/rest/view/missing/cache")));
+    }
+}
@@ -0,0 +1,117 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 语义缓存集成测试
+ * 缓存 order_cached 视图中条件更宽的完整结果后，收紧条件的请求在内存中得到与数据库相同的结果；
+ * H2 默认按二进制比较字符串，因此开启 semanticCacheBinaryCollation
+ */
+@SpringBootTest(properties = {"query-bean.semanticCache=true", "query-bean.semanticCacheBinaryCollation=true"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("语义缓存集成测试")
+class SemanticCacheIntegrationTest {
+
+    private static final String INSERT = "INSERT INTO \"order\" (order_no, user_id, user_name, amount, status, created_at)"
+            + " VALUES ('ORD005', 1, 'susan', 500.00, 'active', CURRENT_TIMESTAMP)";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void invalidate() throws Exception {
+        mockMvc.perform(delete("/rest/view/order_cached/cache")).andExpect(status().isOk());
+    }
+
+    private JsonNode search(String viewName, Map<String, Object> request) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/rest/view/" + viewName + "/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private long hits() throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/rest/view/_cache/semantic/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("hits").asLong();
+    }
+
+    private static List<String> orderNos(JsonNode result) {
+        List<String> orderNos = new ArrayList<>();
+        result.get("dataList").forEach(row -> orderNos.add(row.get("orderNo").asText()));
+        return orderNos;
+    }
+
+    private static Map<String, Object> condition(String property, String operator, Object value) {
+        return Map.of("property", property, "operator", operator, "value", value);
+    }
+
+    @Test
+    @DisplayName("收紧条件的请求由缓存的完整结果推导")
+    void narrower() throws Exception {
+        // 请求示例: {"filter": {"conditions": [{"property": "amount", "operator": ">=", "value": 100}]}}
+        Map<String, Object> broad = Map.of("filter", Map.of("conditions", List.of(condition("amount", ">=", 100))));
+        Map<String, Object> narrow = Map.of("filter", Map.of("conditions", List.of(
+                        condition("amount", ">=", 100), condition("status", "=", "active"), condition("orderNo", "startsWith", "ORD"))),
+                "sort", "-amount", "returnCount", true);
+        JsonNode expected = search("order", narrow);
+        assertEquals(List.of("ORD002", "ORD001"), orderNos(expected));
+
+        assertEquals(3, search("order_cached", broad).get("dataList").size());
+        long hits = hits();
+        // 之后的数据变化在缓存有效期内不可见，说明结果来自缓存
+        jdbcTemplate.execute(INSERT);
+        JsonNode derived = search("order_cached", narrow);
+        assertEquals(orderNos(expected), orderNos(derived));
+        assertEquals(expected.get("count"), derived.get("count"));
+        assertEquals(hits + 1, hits());
+
+        // 分页同样在内存中完成
+        JsonNode page = search("order_cached", Map.of("filter", narrow.get("filter"), "sort", "amount", "offset", 1, "limit", 1));
+        assertEquals(List.of("ORD002"), orderNos(page));
+        assertEquals(hits + 2, hits());
+
+        mockMvc.perform(delete("/rest/view/order_cached/cache")).andExpect(status().isOk());
+        assertEquals(List.of("ORD005", "ORD002", "ORD001"), orderNos(search("order_cached", narrow)));
+        assertEquals(hits + 2, hits());
+    }
+
+    @Test
+    @DisplayName("条件不被包含时查询数据库")
+    void notContained() throws Exception {
+        search("order_cached", Map.of("filter", Map.of("conditions", List.of(condition("status", "=", "active")))));
+        long hits = hits();
+        JsonNode result = search("order_cached", Map.of("filter", Map.of("conditions", List.of(condition("amount", ">=", 100))), "sort", "amount"));
+        assertEquals(List.of("ORD001", "ORD002", "ORD004"), orderNos(result));
+        assertEquals(hits, hits());
+    }
+}
@@ -0,0 +1,106 @@
+package top.mao196.querybeansql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 流式 search 集成测试
+ * 同一请求分别以普通方式和 stream=true 查询，返回的 JSON 应完全一致
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DisplayName("流式 search 集成测试")
+class StreamingSearchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JsonNode search(String viewName, Map<String, Object> request, boolean stream) throws Exception {
+        MockHttpServletRequestBuilder builder = post("/rest/view/" + viewName + "/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request));
+        if (stream) {
+            builder.param("stream", "true");
+        }
+        String body = mockMvc.perform(builder)
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode assertSameResponse(String viewName, Map<String, Object> request) throws Exception {
+        JsonNode expected = search(viewName, request, false);
+        JsonNode actual = search(viewName, request, true);
+        assertEquals(expected, actual);
+        return actual;
+    }
+
+    @Test
+    @DisplayName("全部字段，包含日期时间和金额")
+    void allFields() throws Exception {
+        // 请求示例: {"sort": "id", "returnCount": true}
+        JsonNode result = assertSameResponse("order", Map.of("sort", "id", "returnCount", true));
+
+        assertEquals(4, result.get("dataList").size());
+        assertEquals("ORD001", result.get("dataList").get(0).get("orderNo").asText());
+        assertEquals(4, result.get("count").asInt());
+        assertTrue(result.get("dataList").get(0).get("createdAt").isTextual());
+
+        assertSameResponse("user", Map.of("sort", "-age"));
+    }
+
+    @Test
+    @DisplayName("WINDOW 和 HAS_MORE")
+    void countModes() throws Exception {
+        // 请求示例: {"sort": "id", "limit": 2, "countMode": "WINDOW", "fields": ["id", "orderNo", "amount", "createdAt"]}
+        List<String> fields = List.of("id", "orderNo", "amount", "createdAt");
+        JsonNode window = search("order", Map.of("sort", "id", "limit", 2, "countMode", "WINDOW", "fields", fields), true);
+        assertEquals(2, window.get("dataList").size());
+        assertEquals(4, window.get("count").asInt());
+        // 只写查询的字段
+        assertEquals(4, window.get("dataList").get(0).size());
+
+        JsonNode hasMore = assertSameResponse("order", Map.of("sort", "id", "limit", 3, "countMode", "HAS_MORE"));
+        assertEquals(3, hasMore.get("dataList").size());
+        assertTrue(hasMore.get("hasMore").asBoolean());
+    }
+
+    @Test
+    @DisplayName("游标分页")
+    void cursor() throws Exception {
+        // 请求示例: {"sort": "-amount", "limit": 3, "cursor": ""}
+        JsonNode first = assertSameResponse("order", Map.of("sort", "-amount", "limit", 3, "cursor", ""));
+        assertTrue(first.get("hasMore").asBoolean());
+        String cursor = first.get("nextCursor").asText();
+
+        JsonNode second = assertSameResponse("order", Map.of("sort", "-amount", "limit", 3, "cursor", cursor));
+        assertEquals(1, second.get("dataList").size());
+        assertEquals("ORD003", second.get("dataList").get(0).get("orderNo").asText());
+        assertFalse(second.get("hasMore").asBoolean());
+        assertTrue(second.get("nextCursor").isNull());
+    }
+}
@@ -244,6 +244,26 @@ class ViewControllerIntegrationTest {
                     )
             );
 
+            mockMvc.perform(post("/rest/view/user/search")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.dataList", hasSize(1)))
+                    .andExpect(jsonPath("$.dataList[0].name", is("susan")));
+        }
+        @Test
+        @DisplayName("多条件组合筛选 - AND")
+        void filterByMultipleConditions() throws Exception {
+            // 请求示例: {"filter": {"conditions": [{"property": "age", "operator": ">=", "value": 20}, {"property": "name", "operator": "startsWith", "value": "su"}]}}
+            Map<String, Object> request = Map.of(
+                    "filter", Map.of(
+                            "conditions", List.of(
+                                    Map.of("property", "age", "operator", ">=", "value", 20),
+                                    Map.of("property", "name", "operator", "startsWith", "value", "su")
+                            )
+                    )
+            );
+
             mockMvc.perform(post("/rest/view/user/search")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
@@ -285,6 +305,67 @@ class ViewControllerIntegrationTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.dataList", hasSize(1)));
         }
+
+        @Test
+        @DisplayName("游标分页")
+        void paginationWithCursor() throws Exception {
+            // 请求示例: {"limit": 3, "sort": "-amount", "cursor": ""}，之后的请求传入上一页的 nextCursor
+            Map<String, Object> firstPage = Map.of(
+                    "limit", 3,
+                    "sort", "-amount",
+                    "cursor", ""
+            );
+
+            MvcResult first = mockMvc.perform(post("/rest/view/order/search")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(firstPage)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.dataList[*].orderNo", contains("ORD004", "ORD002", "ORD001")))
+                    .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                    .andReturn();
+            String cursor = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+            Map<String, Object> secondPage = Map.of(
+                    "limit", 3,
+                    "sort", "-amount",
+                    "cursor", cursor
+            );
+            mockMvc.perform(post("/rest/view/order/search")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(secondPage)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.dataList[*].orderNo", contains("ORD003")))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("游标分页 - 排序值相同时按 tieBreaker 区分")
+        void paginationWithCursorOnTies() throws Exception {
+            // 两个用户的 create_time 相同，每页一行
+            String cursor = "";
+            List<String> names = new java.util.ArrayList<>();
+            for (int i = 0; i < 3 && cursor != null; i++) {
+                Map<String, Object> request = Map.of(
+                        "limit", 1,
+                        "sort", "-createTime",
+                        "fields", List.of("name"),
+                        "cursor", cursor
+                );
+                MvcResult result = mockMvc.perform(post("/rest/view/user/search")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.dataList", hasSize(1)))
+                        .andReturn();
+                com.fasterxml.jackson.databind.JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+                names.add(body.get("dataList").get(0).get("name").asText());
+                cursor = body.hasNonNull("nextCursor") ? body.get("nextCursor").asText() : null;
+            }
+
+            assertNull(cursor);
+            assertEquals(2, names.size());
+            assertTrue(names.containsAll(List.of("susan", "alice")));
+        }
     }
 
     @Nested
@@ -0,0 +1,171 @@
+package top.mao196.querybeansql.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 基准测试的公共部分
+ * <p>
+ * 子类标记为 benchmark，不随 test 运行；没有修改配置的子类共用同一个 Spring 上下文，
+ * 用 {@code @TestPropertySource} 修改配置的子类（例如语义缓存基准）各自创建上下文。
+ * {@link #createOrders} 和 {@link #createTable} 准备数据，结束后删除创建的表并恢复 test-data.sql；
+ * {@link #measure} 预热后多次执行，记录并返回平均耗时和每次分配的内存。
+ * 每个基准都要断言结果正确；耗时受机器负载影响，只记录不断言，只断言次数、内存等确定的差异
+ *
+ * @author maoju
+ * @since 2026/10/17
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class AbstractBenchmark {
+
+    protected static final Logger log = LoggerFactory.getLogger(AbstractBenchmark.class);
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final List<String> tables = new ArrayList<>();
+
+    /**
+     * 以 rows 行替换订单表，id 从 1 到 rows：userId 在 1 到 100 之间循环，
+     * status 在 active、pending、completed 之间循环，amount 在 0 到 99.99 之间分散
+     */
+    protected void createOrders(int rows) {
+        resetTestData();
+        jdbcTemplate.execute("DELETE FROM \"order\"");
+        jdbcTemplate.execute("ALTER TABLE \"order\" ALTER COLUMN id RESTART WITH 1");
+        jdbcTemplate.execute("INSERT INTO \"order\" (order_no, user_id, user_name, amount, status, created_at)"
+                + " SELECT CONCAT('ORD', X), MOD(X, 100) + 1, CONCAT('user', MOD(X, 100) + 1), MOD(X * 7919, 10000) / 100.0,"
+                + " CASE MOD(X, 3) WHEN 0 THEN 'active' WHEN 1 THEN 'pending' ELSE 'completed' END, CURRENT_TIMESTAMP"
+                + " FROM SYSTEM_RANGE(1, " + rows + ")");
+    }
+
+    /**
+     * 以 rows 行替换用户表，id 从 1 到 rows
+     */
+    protected void createUsers(int rows) {
+        jdbcTemplate.execute("DELETE FROM \"user\"");
+        jdbcTemplate.execute("ALTER TABLE \"user\" ALTER COLUMN id RESTART WITH 1");
+        jdbcTemplate.execute("INSERT INTO \"user\" (name, age, balance, create_time, create_by)"
+                + " SELECT CONCAT('user', X), MOD(X, 60) + 18, X * 1.5, CURRENT_TIMESTAMP, 'admin' FROM SYSTEM_RANGE(1, " + rows + ")");
+    }
+
+    /**
+     * 创建只在当前基准中使用的表并以 SYSTEM_RANGE 填充，结束后删除
+     *
+     * @param columns 列定义
+     * @param select  填充数据的查询，X 为行号
+     */
+    protected void createTable(String name, String columns, String select) {
+        jdbcTemplate.execute("CREATE TABLE " + name + " (" + columns + ")");
+        tables.add(name);
+        jdbcTemplate.execute("INSERT INTO " + name + " " + select);
+    }
+
+    @AfterAll
+    void restoreData() {
+        tables.forEach(table -> jdbcTemplate.execute("DROP TABLE " + table));
+        tables.clear();
+        resetTestData();
+    }
+
+    private void resetTestData() {
+        new ResourceDatabasePopulator(new ClassPathResource("test-data.sql")).execute(jdbcTemplate.getDataSource());
+    }
+
+    /**
+     * 以 JSON 请求体调用接口，返回响应的字节
+     */
+    protected byte[] call(String path, byte[] request) throws Exception {
+        return mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(request))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    /**
+     * 调用视图的 search 接口
+     */
+    protected JsonNode search(String viewName, byte[] request) throws Exception {
+        return objectMapper.readTree(call("/rest/view/" + viewName + "/search", request));
+    }
+
+    /**
+     * 取出 search 结果中每行的指定字段和总数，用于比较字段不同的两个视图
+     */
+    protected static List<Object> rows(JsonNode result, List<String> fields) {
+        List<Object> rows = new ArrayList<>();
+        for (JsonNode row : result.get("dataList")) {
+            rows.add(fields.stream().map(row::get).toList());
+        }
+        rows.add(result.get("count"));
+        return rows;
+    }
+
+    /**
+     * 预热 warmup 次后在当前线程执行 iterations 次，记录并返回平均耗时和每次分配的字节数
+     *
+     * @param task 参数为执行序号，预热从 0 开始，计时从 warmup 开始
+     */
+    protected static Measurement measure(String name, int warmup, int iterations, Task task) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            task.run(i);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run(warmup + i);
+        }
+        Measurement measurement = new Measurement((System.nanoTime() - start) / 1_000_000.0 / iterations,
+                (threads.getCurrentThreadAllocatedBytes() - allocated) / iterations);
+        log.info("{} avg={} ms alloc={} KB", name, String.format("%.3f", measurement.millis()), measurement.allocatedBytes() >> 10);
+        return measurement;
+    }
+
+    /**
+     * @param millis         平均耗时（毫秒）
+     * @param allocatedBytes 当前线程每次分配的字节数
+     */
+    protected record Measurement(double millis, long allocatedBytes) {
+    }
+
+    @FunctionalInterface
+    protected interface Task {
+
+        void run(int i) throws Exception;
+    }
+}
@@ -0,0 +1,82 @@
+package top.mao196.querybeansql.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 批量查询基准
+ * 订单表中准备 200000 行数据，模拟一次看板加载的 20 个查询（每个用户取金额最高的 20 行并统计总数），
+ * 比较逐个调用 search 与一次 _batch 请求（concurrency 为 1 和默认的 batchConcurrency，batch-split 关闭合并查询）的平均耗时。
+ * MockMvc 不经过网络，HTTP、认证的开销不在结果中，逐个调用的实际耗时更高
+ */
+@DisplayName("批量查询基准")
+class BatchSearchBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private static final int SEARCHES = 20;
+
+    private static final int WARMUP = 5;
+
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private QueryBeanConfig queryBeanConfig;
+
+    @BeforeAll
+    void createRows() {
+        createOrders(ROWS);
+    }
+
+    @Test
+    @DisplayName("一次看板加载的平均耗时")
+    void dashboard() throws Exception {
+        List<Map<String, Object>> searches = new ArrayList<>();
+        List<byte[]> requests = new ArrayList<>();
+        for (int i = 1; i <= SEARCHES; i++) {
+            Map<String, Object> request = Map.of("filter", Map.of("conditions", List.of(Map.of("property", "userId", "operator", "=", "value", i))),
+                    "sort", "-amount,id", "limit", 20, "returnCount", true);
+            searches.add(Map.of("viewName", "order", "request", request));
+            requests.add(objectMapper.writeValueAsBytes(request));
+        }
+        byte[] serial = objectMapper.writeValueAsBytes(Map.of("searches", searches, "concurrency", 1));
+        byte[] parallel = objectMapper.writeValueAsBytes(Map.of("searches", searches));
+
+        // 合并查询的每个结果与单独查询一致
+        JsonNode results = objectMapper.readTree(call("/rest/view/_batch", parallel)).get("results");
+        for (int i = 0; i < SEARCHES; i++) {
+            JsonNode expected = search("order", requests.get(i));
+            assertEquals(expected.get("dataList"), results.get(i).get("result").get("dataList"));
+            assertEquals(expected.get("count"), results.get(i).get("result").get("count"));
+        }
+
+        try {
+            for (String mode : new String[]{"search", "batch-split", "batch-1", "batch"}) {
+                queryBeanConfig.setBatchMerge(!mode.equals("batch-split"));
+                measure(mode, WARMUP, ITERATIONS, i -> {
+                    switch (mode) {
+                        case "search" -> {
+                            for (byte[] request : requests) {
+                                call("/rest/view/order/search", request);
+                            }
+                        }
+                        case "batch-1" -> call("/rest/view/_batch", serial);
+                        default -> call("/rest/view/_batch", parallel);
+                    }
+                });
+            }
+        } finally {
+            queryBeanConfig.setBatchMerge(true);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package top.mao196.querybeansql.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.JsonEncodings;
+import top.mao196.querybeansql.core.SearchResult;
+import top.mao196.querybeansql.core.ViewRowMapperCache;
+import top.mao196.querybeansql.view.OrderView;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Smile、CBOR 编码基准
+ * 从 H2 读取 100 行和 1000 行订单构造 SearchResult，
+ * 比较 JSON、Smile、CBOR 的字节数以及一次编码、解码的平均耗时
+ */
+@DisplayName("Smile、CBOR 编码基准")
+class BinaryEncodingBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private static final int WARMUP = 2_000;
+
+    private static final int ITERATIONS = 5_000;
+
+    private static final String SQL = "SELECT id AS id, order_no AS orderNo, user_id AS userId, user_name AS userName,"
+            + " amount AS amount, status AS status, created_at AS createdAt FROM \"order\" ORDER BY id LIMIT ?";
+
+    private static final List<String> PROPERTIES = List.of("id", "orderNo", "userId", "userName", "amount", "status", "createdAt");
+
+    @Autowired
+    private JsonEncodings jsonEncodings;
+
+    private final ViewRowMapperCache viewRowMapperCache = new ViewRowMapperCache(new QueryBeanConfig());
+
+    @BeforeAll
+    void createRows() {
+        createOrders(ROWS);
+    }
+
+    @Test
+    @DisplayName("JSON、Smile、CBOR 的字节数和编解码耗时")
+    void encodings() throws Exception {
+        for (int rows : new int[]{100, ROWS}) {
+            List<OrderView> dataList = jdbcTemplate.query(SQL, viewRowMapperCache.get(OrderView.class, PROPERTIES), rows);
+            SearchResult<OrderView> page = new SearchResult<>(dataList, (long) ROWS, null, true, "eyJrIjoib3JkZXI6aWQiLCJ2IjpbIjEwMCJdfQ");
+            int json = run("json", rows, objectMapper, page);
+            // 二进制编码不重复字段名的引号，数字按二进制写出，体积更小
+            assertTrue(run("smile", rows, jsonEncodings.getSmile(), page) < json);
+            assertTrue(run("cbor", rows, jsonEncodings.getCbor(), page) < json);
+        }
+    }
+
+    /**
+     * @return 编码后的字节数
+     */
+    private int run(String name, int rows, ObjectMapper mapper, SearchResult<OrderView> page) throws Exception {
+        JavaType type = mapper.getTypeFactory().constructParametricType(SearchResult.class, OrderView.class);
+        byte[] bytes = mapper.writeValueAsBytes(page);
+        SearchResult<OrderView> decoded = mapper.readValue(bytes, type);
+        assertEquals(page.getDataList(), decoded.getDataList());
+
+        String prefix = String.format("%s rows=%d bytes=%d", name, rows, bytes.length);
+        measure(prefix + " encode", WARMUP * 100 / rows, ITERATIONS * 100 / rows, i -> mapper.writeValueAsBytes(page));
+        measure(prefix + " decode", WARMUP * 100 / rows, ITERATIONS * 100 / rows, i -> mapper.readValue(bytes, type));
+        return bytes.length;
+    }
+}
@@ -0,0 +1,55 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 列式响应基准
+ * 在订单表中准备 5000 行数据，查询 orderNo、status 两个字段和全部字段，
+ * 比较普通 search（视图对象）与 format=rows / columns 的响应字节数和一次请求的平均耗时
+ */
+@DisplayName("列式响应基准")
+class ColumnarFormatBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    private static final int WARMUP = 30;
+
+    private static final int ITERATIONS = 100;
+
+    @BeforeAll
+    void createRows() {
+        createOrders(ROWS);
+    }
+
+    @Test
+    @DisplayName("普通 search 与列式响应的字节数和耗时")
+    void formats() throws Exception {
+        run("narrow", Map.of("fields", List.of("orderNo", "status"), "sort", "id", "limit", ROWS));
+        run("all", Map.of("sort", "id", "limit", ROWS));
+    }
+
+    private void run(String name, Map<String, Object> request) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(request);
+        int objects = bytes(name, "objects", "/rest/view/order/search", body);
+        int rows = bytes(name, "rows", "/rest/view/order/search?format=rows", body);
+        int columns = bytes(name, "columns", "/rest/view/order/search?format=columns", body);
+        // 不重复字段名、status 以字典编码后响应更小
+        assertTrue(rows < objects);
+        assertTrue(columns <= rows);
+        assertEquals(ROWS, objectMapper.readTree(call("/rest/view/order/search?format=columns", body)).get("columns").get(0).size());
+    }
+
+    private int bytes(String name, String format, String path, byte[] body) throws Exception {
+        int bytes = call(path, body).length;
+        measure(String.format("%s format=%s bytes=%d", name, format, bytes), WARMUP, ITERATIONS, i -> call(path, body));
+        return bytes;
+    }
+}
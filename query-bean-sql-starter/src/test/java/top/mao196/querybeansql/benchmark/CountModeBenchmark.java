@@ -0,0 +1,89 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.*;
+import top.mao196.querybeansql.dialect.Dialects;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 总行数统计方式基准
+ * 在 H2 中准备 200000 行数据，按 amount 范围筛选（命中约 10 万行）并按 id 取第一页 20 行，
+ * 比较 EXACT、WINDOW、HAS_MORE、CACHED 四种方式下一次请求的平均耗时（数据查询加上统计）
+ */
+@DisplayName("总行数统计方式基准")
+class CountModeBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int ITERATIONS = 200;
+
+    private static final int THRESHOLDS = 50;
+
+    private final RequestParse requestParse = new RequestParse(new QueryBeanConfig(), Dialects.H2);
+
+    private CountExecutor countExecutor;
+
+    private final ViewDescriptor itemView = ViewDescriptor.builder()
+            .name("bench_count")
+            .sql("SELECT id, amount FROM bench_count")
+            .pushdown(true)
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("amount").clz(BigDecimal.class).build()))
+            .build();
+
+    @BeforeAll
+    void createRows() {
+        countExecutor = new CountExecutor(new QueryBeanConfig(), namedParameterJdbcTemplate, Dialects.H2);
+        createTable("bench_count", "id BIGINT PRIMARY KEY, amount DECIMAL(10, 2)",
+                "SELECT X, MOD(X * 7919, 10000) / 100.0 FROM SYSTEM_RANGE(1, " + ROWS + ")");
+    }
+
+    @Test
+    @DisplayName("各统计方式的请求耗时")
+    void countModes() throws Exception {
+        long exact = count(CountMode.EXACT, 0);
+        assertEquals(exact, count(CountMode.WINDOW, 0));
+        assertEquals(exact, count(CountMode.CACHED, 0));
+
+        for (CountMode countMode : new CountMode[]{CountMode.EXACT, CountMode.WINDOW, CountMode.HAS_MORE, CountMode.CACHED}) {
+            // 轮流使用 THRESHOLDS 个筛选值，H2 会直接返回参数相同的上一次查询结果
+            measure("count mode " + countMode, THRESHOLDS, ITERATIONS, i -> count(countMode, i % THRESHOLDS));
+        }
+    }
+
+    /**
+     * 按 ViewController 的方式执行一次请求，返回总行数（HAS_MORE 返回本页行数）
+     */
+    private long count(CountMode countMode, int threshold) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty("amount");
+        condition.setOperator(FilterOp.GREATER);
+        condition.setValue(new BigDecimal(40 + threshold / 5.0));
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(new SearchFilter());
+        requestDTO.getFilter().addCondition(condition);
+        requestDTO.setSort("id");
+        requestDTO.setLimit(PAGE_SIZE);
+        requestDTO.setCountMode(countMode);
+
+        RequestParseResult result = requestParse.parse(requestDTO, itemView);
+        List<Map<String, Object>> rows = namedParameterJdbcTemplate.queryForList(result.getQuerySql(), result.getParams());
+        return switch (countMode) {
+            case WINDOW -> ((Number) rows.get(0).get(RequestParse.WINDOW_COUNT_COLUMN)).longValue();
+            case HAS_MORE -> rows.size();
+            case CACHED -> countExecutor.cached(result);
+            default -> countExecutor.exact(result);
+        };
+    }
+}
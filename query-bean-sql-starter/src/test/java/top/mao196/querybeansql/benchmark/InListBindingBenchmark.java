@@ -0,0 +1,119 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.*;
+import top.mao196.querybeansql.dialect.Dialects;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IN 列表绑定方式基准
+ * 在 H2 中准备 100000 行数据，分别以 10、1000、50000 个 id 查询，比较三种绑定方式：
+ * 原样展开（每种长度一条 SQL）、补齐到 2 的幂长度后展开、以一个数组参数绑定（= ANY）
+ * 每种规模的 id 数量在目标值上下随机浮动，统计展开后不同 SQL 文本的数量和平均耗时
+ */
+@DisplayName("IN 列表绑定方式基准")
+class InListBindingBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private final ViewDescriptor itemView = ViewDescriptor.builder()
+            .name("bench_item")
+            .sql("SELECT id, name FROM bench_item")
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("name").clz(String.class).build()))
+            .build();
+
+    @BeforeAll
+    void createRows() {
+        createTable("bench_item", "id BIGINT PRIMARY KEY, name VARCHAR(50)", "SELECT X, CONCAT('item', X) FROM SYSTEM_RANGE(1, " + ROWS + ")");
+    }
+
+    @Test
+    @DisplayName("10、1000、50000 个 id 的 IN 查询")
+    void inListBinding() throws Exception {
+        Map<String, QueryBeanConfig> strategies = new LinkedHashMap<>();
+        QueryBeanConfig plain = config();
+        plain.setInListPadding(false);
+        strategies.put("plain", plain);
+        strategies.put("padded", config());
+        QueryBeanConfig array = config();
+        array.setInListArrayThreshold(100);
+        strategies.put("array", array);
+
+        for (int[] scale : new int[][]{{10, 500}, {1000, 50}, {50_000, 3}}) {
+            int size = scale[0];
+            int iterations = scale[1];
+            Map<String, Integer> statements = new LinkedHashMap<>();
+            for (Map.Entry<String, QueryBeanConfig> strategy : strategies.entrySet()) {
+                statements.put(strategy.getKey(), run(strategy.getKey(), new RequestParse(strategy.getValue(), Dialects.H2), size, iterations));
+            }
+            // 补齐后长度相近的列表共用一条 SQL，超过阈值的列表只有一条 SQL
+            assertTrue(statements.get("padded") <= 2);
+            assertTrue(statements.get("padded") <= statements.get("plain"));
+            if (size >= array.getInListArrayThreshold()) {
+                assertEquals(1, statements.get("array"));
+            }
+        }
+    }
+
+    private static QueryBeanConfig config() {
+        QueryBeanConfig config = new QueryBeanConfig();
+        config.setMaxLimit(ROWS);
+        return config;
+    }
+
+    /**
+     * @return 计时的请求展开后不同 SQL 文本的数量
+     */
+    private int run(String strategy, RequestParse requestParse, int size, int iterations) throws Exception {
+        Random random = new Random(42);
+        Set<String> statements = new HashSet<>();
+        measure(String.format("in-list %s ids~%d", strategy, size), 1, iterations, i -> {
+            List<Long> ids = ids(random, size);
+            // 预热的请求不计入 SQL 文本的数量
+            int rows = query(requestParse, ids, i == 0 ? new HashSet<>() : statements);
+            assertEquals(new HashSet<>(ids).size(), rows);
+        });
+        log.info("in-list {} ids~{} statements={}", strategy, size, statements.size());
+        return statements.size();
+    }
+
+    private int query(RequestParse requestParse, List<Long> ids, Set<String> statements) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty("id");
+        condition.setOperator(FilterOp.IN);
+        condition.setValue(ids);
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(new SearchFilter());
+        requestDTO.getFilter().addCondition(condition);
+        requestDTO.setLimit(ROWS);
+
+        RequestParseResult result = requestParse.parse(requestDTO, itemView);
+        MapSqlParameterSource source = new MapSqlParameterSource(result.getParams());
+        // 驱动实际收到的 SQL 文本
+        statements.add(NamedParameterUtils.substituteNamedParameters(result.getQuerySql(), source));
+        return namedParameterJdbcTemplate.queryForList(result.getQuerySql(), source).size();
+    }
+
+    /**
+     * 在目标数量上下 10% 内随机取 id 数量
+     */
+    private static List<Long> ids(Random random, int size) {
+        int count = Math.max(1, size - size / 10 + random.nextInt(size / 5 + 1));
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(1L + random.nextInt(ROWS));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,106 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 游标分页基准
+ * 在 H2 中准备 200000 行数据，按 (amount desc, id desc) 排序，每页 20 行，
+ * 分别以 offset 和游标读取第 10、1000、5000、9000 页，比较每页的平均耗时（包含请求解析和游标解码）；
+ * 另以 (amount desc, id asc) 排序比较方向不一致时 OR 展开的游标条件
+ */
+@DisplayName("游标分页基准")
+class KeysetPaginationBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int ITERATIONS = 500;
+
+    private static final int POSITIONS = 50;
+
+    private final RequestParse requestParse = new RequestParse(new QueryBeanConfig());
+
+    private final ViewDescriptor itemView = ViewDescriptor.builder()
+            .name("bench_page")
+            .sql("SELECT id, amount FROM bench_page")
+            .pushdown(true)
+            .tieBreaker("id")
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("amount").clz(BigDecimal.class).build()))
+            .build();
+
+    @BeforeAll
+    void createRows() {
+        createTable("bench_page", "id BIGINT PRIMARY KEY, amount DECIMAL(10, 2)",
+                "SELECT X, MOD(X * 7919, 10000) / 100.0 FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        jdbcTemplate.execute("CREATE INDEX idx_bench_page_amount ON bench_page (amount, id)");
+    }
+
+    @Test
+    @DisplayName("offset 与游标分页的耗时随页深的变化")
+    void pageDepth() throws Exception {
+        for (String sort : new String[]{"-amount,-id", "-amount,id"}) {
+            // 游标分页的耗时与页深无关
+            for (int page : new int[]{10, 1000, 5000, 9000}) {
+                run(sort, page);
+            }
+        }
+    }
+
+    /**
+     * 比较 offset 和游标读取同一位置的一页，输出两者的耗时
+     */
+    private void run(String sort, int page) throws Exception {
+        // 在目标页附近取 POSITIONS 个起点轮流查询，H2 会直接返回参数相同的上一次查询结果
+        SearchEntitiesRequestDTO previous = request(sort);
+        previous.setOffset(page * PAGE_SIZE - 1);
+        previous.setLimit(POSITIONS);
+        List<Map<String, Object>> previousRows = query(previous);
+        SearchEntitiesRequestDTO firstPage = request(sort);
+        firstPage.setCursor("");
+        RequestParseResult firstPageResult = requestParse.parse(firstPage, itemView);
+
+        List<SearchEntitiesRequestDTO> offsetRequests = new ArrayList<>();
+        List<SearchEntitiesRequestDTO> cursorRequests = new ArrayList<>();
+        for (int i = 0; i < POSITIONS; i++) {
+            SearchEntitiesRequestDTO offsetRequest = request(sort);
+            offsetRequest.setOffset(page * PAGE_SIZE + i);
+            offsetRequests.add(offsetRequest);
+            // 以 offset 的前一行生成同一位置的游标
+            Map<String, Object> row = previousRows.get(i);
+            SearchEntitiesRequestDTO cursorRequest = request(sort);
+            cursorRequest.setCursor(KeysetCursor.next(firstPageResult, Map.of("amount", row.get("amount"), "id", row.get("id"))));
+            cursorRequests.add(cursorRequest);
+        }
+
+        assertEquals(query(offsetRequests.get(0)), query(cursorRequests.get(0)).subList(0, PAGE_SIZE));
+        String name = String.format("sort %s page %d", sort, page);
+        measure(name + " offset", POSITIONS, ITERATIONS, i -> query(offsetRequests.get(i % POSITIONS)));
+        measure(name + " cursor", POSITIONS, ITERATIONS, i -> query(cursorRequests.get(i % POSITIONS)));
+    }
+
+    private SearchEntitiesRequestDTO request(String sort) {
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setSort(sort);
+        requestDTO.setLimit(PAGE_SIZE);
+        return requestDTO;
+    }
+
+    private List<Map<String, Object>> query(SearchEntitiesRequestDTO requestDTO) {
+        RequestParseResult result = requestParse.parse(requestDTO, itemView);
+        return namedParameterJdbcTemplate.queryForList(result.getQuerySql(), result.getParams());
+    }
+}
@@ -0,0 +1,91 @@
+package top.mao196.querybeansql.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.ExposedViewRegistry;
+import top.mao196.querybeansql.core.JsonRowWriter;
+import top.mao196.querybeansql.core.StreamExecutor;
+import top.mao196.querybeansql.core.ViewRowMapperCache;
+import top.mao196.querybeansql.view.OrderView;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NDJSON 流式查询基准
+ * 在 H2 中准备 200000 行订单数据，一次读取全部行写出 NDJSON，
+ * 比较先映射为视图对象列表再逐个序列化与 StreamExecutor 逐行写出的耗时和每次请求分配的内存，以及不同 fetchSize 下的耗时
+ */
+@DisplayName("NDJSON 流式查询基准")
+class NdjsonStreamBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private static final int WARMUP = 5;
+
+    private static final int ITERATIONS = 10;
+
+    private static final String SQL = "SELECT id AS id, order_no AS orderNo, user_id AS userId, user_name AS userName,"
+            + " amount AS amount, status AS status, created_at AS createdAt FROM \"order\" ORDER BY id LIMIT :_limit";
+
+    private static final List<String> PROPERTIES = List.of("id", "orderNo", "userId", "userName", "amount", "status", "createdAt");
+
+    @Autowired
+    private ExposedViewRegistry exposedViewRegistry;
+
+    @Autowired
+    private StreamExecutor streamExecutor;
+
+    private final ViewRowMapperCache viewRowMapperCache = new ViewRowMapperCache(new QueryBeanConfig());
+
+    private JsonRowWriter rowWriter;
+
+    @BeforeAll
+    void createRows() {
+        rowWriter = JsonRowWriter.of(exposedViewRegistry.findDescriptor("order"), PROPERTIES, objectMapper);
+        createOrders(ROWS);
+    }
+
+    @Test
+    @DisplayName("先映射后序列化与逐行写出的耗时和内存")
+    void stream() throws Exception {
+        Measurement materialize = measure("materialize", WARMUP, ITERATIONS, i -> materialize(OutputStream.nullOutputStream()));
+        for (int fetchSize : new int[]{100, 1_000, 10_000}) {
+            Measurement stream = measure("stream fetch=" + fetchSize, WARMUP, ITERATIONS,
+                    i -> assertEquals(ROWS, stream(fetchSize, OutputStream.nullOutputStream())));
+            // 逐行写出不保留视图对象列表
+            assertTrue(stream.allocatedBytes() < materialize.allocatedBytes());
+        }
+    }
+
+    private void materialize(OutputStream out) throws IOException {
+        List<OrderView> rows = jdbcTemplate.query(SQL.replace(":_limit", String.valueOf(ROWS)), viewRowMapperCache.get(OrderView.class, PROPERTIES));
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            for (OrderView row : rows) {
+                objectMapper.writeValue(generator, row);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private long stream(int fetchSize, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            return streamExecutor.query(SQL, Map.of("_limit", ROWS), fetchSize, 0, rs -> {
+                rowWriter.write(rs, generator);
+                generator.writeRaw('\n');
+                return true;
+            });
+        }
+    }
+}
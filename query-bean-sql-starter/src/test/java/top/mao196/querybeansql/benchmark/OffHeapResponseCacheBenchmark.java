@@ -0,0 +1,138 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.OffHeapResponseCache;
+import top.mao196.querybeansql.core.ResultCache;
+import top.mao196.querybeansql.core.SearchResult;
+import top.mao196.querybeansql.core.ViewDescriptor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 堆外响应缓存基准
+ * 构造 1000 行订单的 SearchResult，比较堆内结果缓存命中（每次重新序列化）与堆外响应缓存命中（按块复制已序列化的字节）
+ * 一次写出的平均耗时和线程分配的字节数；再分别缓存 200 页，比较两种缓存占用的堆内存
+ */
+@DisplayName("堆外响应缓存基准")
+class OffHeapResponseCacheBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private static final int PAGES = 200;
+
+    private static final int WARMUP = 2_000;
+
+    private static final int ITERATIONS = 5_000;
+
+    private static final long TTL = TimeUnit.MINUTES.toNanos(10);
+
+    private static final ViewDescriptor VIEW = ViewDescriptor.builder()
+            .name("bench_offheap").sql("select * from bench_offheap").cacheTtl(600).fields(List.of()).build();
+
+    /**
+     * 丢弃写入的字节；writeValue 会关闭输出流，不能用 OutputStream.nullOutputStream()
+     */
+    private static final OutputStream NULL = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private static SearchResult<Map<String, Object>> page(int page) {
+        List<Map<String, Object>> dataList = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            long id = (long) page * ROWS + i;
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", id);
+            row.put("orderNo", "ORD" + id);
+            row.put("userId", id % 100);
+            row.put("userName", "user" + id % 100);
+            row.put("amount", BigDecimal.valueOf(id * 7919 % 10000, 2));
+            row.put("status", id % 3 == 0 ? "active" : "pending");
+            row.put("createdAt", LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(id));
+            dataList.add(row);
+        }
+        return new SearchResult<>(dataList, (long) ROWS * PAGES, null, null, null);
+    }
+
+    private static ResultCache.Key resultKey(int page) {
+        return new ResultCache.Key(VIEW.getName(), "SELECT * FROM bench_offheap LIMIT 1000 OFFSET :p0", Map.of("p0", page * ROWS), null, null);
+    }
+
+    private static QueryBeanConfig config(long responseCacheBytes) {
+        QueryBeanConfig config = new QueryBeanConfig();
+        config.setResultCacheBytes(1L << 30);
+        config.setResponseCacheBytes(responseCacheBytes);
+        return config;
+    }
+
+    @Test
+    @DisplayName("一次命中的耗时和分配")
+    void hit() throws Exception {
+        SearchResult<Map<String, Object>> result = page(0);
+        OffHeapResponseCache offHeap = new OffHeapResponseCache(config(64L << 20));
+        OffHeapResponseCache.Key key = offHeap.key(resultKey(0), MediaType.APPLICATION_JSON, new MockHttpServletRequest());
+        byte[] body = objectMapper.writeValueAsBytes(result);
+        offHeap.putAndWrite(key, body, TTL, new MockHttpServletResponse());
+        log.info("page bytes={}", body.length);
+
+        Measurement heap = measure("heap-serialize", WARMUP, ITERATIONS, i -> objectMapper.writeValue(NULL, result));
+        Measurement copy = measure("offheap-copy", WARMUP, ITERATIONS, i -> assertTrue(offHeap.copyTo(key, NULL)));
+        // 复制已序列化的字节只分配复制用的缓冲区
+        assertTrue(copy.allocatedBytes() < heap.allocatedBytes());
+    }
+
+    @Test
+    @DisplayName("缓存 200 页占用的堆内存")
+    void retained() throws IOException {
+        long baseline = usedHeap();
+        ResultCache heap = new ResultCache(config(0));
+        for (int i = 0; i < PAGES; i++) {
+            heap.put(VIEW, resultKey(i), page(i));
+        }
+        long heapRetained = usedHeap() - baseline;
+        log.info("heap-tier heap={} MB entries={}", String.format("%.1f", heapRetained / 1048576.0), heap.stats().size());
+        heap.invalidateAll();
+
+        baseline = usedHeap();
+        OffHeapResponseCache offHeap = new OffHeapResponseCache(config(1L << 30));
+        for (int i = 0; i < PAGES; i++) {
+            OffHeapResponseCache.Key key = offHeap.key(resultKey(i), MediaType.APPLICATION_JSON, new MockHttpServletRequest());
+            offHeap.putAndWrite(key, objectMapper.writeValueAsBytes(page(i)), TTL, new MockHttpServletResponse());
+        }
+        long offHeapRetained = usedHeap() - baseline;
+        OffHeapResponseCache.Stats stats = offHeap.stats();
+        log.info("offheap-tier heap={} MB direct={} MB entries={}", String.format("%.1f", offHeapRetained / 1048576.0),
+                String.format("%.1f", stats.allocatedBytes() / 1048576.0), stats.size());
+        offHeap.invalidateAll();
+        // 堆外缓存的条目只在堆内保留键和块的引用
+        assertTrue(offHeapRetained < heapRetained / 10);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
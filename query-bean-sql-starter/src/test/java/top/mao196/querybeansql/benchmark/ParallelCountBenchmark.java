@@ -0,0 +1,93 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.*;
+import top.mao196.querybeansql.dialect.Dialects;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * count 并行执行基准
+ * 在 H2 中准备 200000 行数据，按未建索引的 amount 范围筛选并排序取第一页 20 行、同时统计总行数，
+ * 比较数据查询与 count 顺序执行、并行执行时一次请求的平均耗时
+ */
+@DisplayName("count 并行执行基准")
+class ParallelCountBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int ITERATIONS = 200;
+
+    private static final int THRESHOLDS = 50;
+
+    private final RequestParse requestParse = new RequestParse(new QueryBeanConfig(), Dialects.H2);
+
+    private final ViewDescriptor itemView = ViewDescriptor.builder()
+            .name("bench_parallel")
+            .sql("SELECT id, amount FROM bench_parallel")
+            .pushdown(true)
+            .fields(List.of(
+                    ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                    ViewFiledDescriptor.builder().rawName("amount").clz(BigDecimal.class).build()))
+            .build();
+
+    @BeforeAll
+    void createRows() {
+        createTable("bench_parallel", "id BIGINT PRIMARY KEY, amount DECIMAL(10, 2)",
+                "SELECT X, MOD(X * 7919, 10000) / 100.0 FROM SYSTEM_RANGE(1, " + ROWS + ")");
+    }
+
+    @Test
+    @DisplayName("顺序与并行执行 count 的请求耗时")
+    void parallelCount() throws Exception {
+        QueryBeanConfig sequentialConfig = new QueryBeanConfig();
+        sequentialConfig.setParallelCount(false);
+        QueryExecutor sequential = new QueryExecutor(sequentialConfig, namedParameterJdbcTemplate);
+        QueryExecutor parallel = new QueryExecutor(new QueryBeanConfig(), namedParameterJdbcTemplate);
+        try {
+            assertEquals(search(sequential, 0), search(parallel, 0));
+            // 轮流使用 THRESHOLDS 个筛选值，H2 会直接返回参数相同的上一次查询结果
+            Measurement sequentialCount = measure("sequential", THRESHOLDS, ITERATIONS, i -> search(sequential, i % THRESHOLDS));
+            Measurement parallelCount = measure("parallel", THRESHOLDS, ITERATIONS, i -> search(parallel, i % THRESHOLDS));
+            // count 提交到线程池执行，请求线程只执行数据查询；H2 内存库中的两条查询几乎不会重叠，耗时只作参考
+            assertTrue(parallelCount.allocatedBytes() < sequentialCount.allocatedBytes());
+        } finally {
+            sequential.destroy();
+            parallel.destroy();
+        }
+    }
+
+    /**
+     * 按 ViewController 的方式执行数据查询和 count，返回总行数
+     */
+    private long search(QueryExecutor queryExecutor, int threshold) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty("amount");
+        condition.setOperator(FilterOp.GREATER);
+        condition.setValue(new BigDecimal(40 + threshold / 5.0));
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(new SearchFilter());
+        requestDTO.getFilter().addCondition(condition);
+        requestDTO.setSort("-amount");
+        requestDTO.setLimit(PAGE_SIZE);
+
+        RequestParseResult result = requestParse.parse(requestDTO, itemView);
+        NamedParameterJdbcTemplate jdbc = queryExecutor.getJdbcTemplate();
+        QueryExecutor.QueryTask<Long> countTask = queryExecutor.submit(0,
+                () -> jdbc.queryForObject(result.getCountSql(), result.getParams(), Long.class));
+        List<Map<String, Object>> rows = queryExecutor.call(0, () -> jdbc.queryForList(result.getQuerySql(), result.getParams()));
+        assertEquals(PAGE_SIZE, rows.size());
+        return countTask.join();
+    }
+}
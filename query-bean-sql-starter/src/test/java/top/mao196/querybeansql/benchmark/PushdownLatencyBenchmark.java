@@ -0,0 +1,97 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 条件下推基准
+ * 在 H2 中准备 200000 行带索引的数据，同一个视图分别以派生表（_tmp）和下推两种方式查询，
+ * 比较按索引列过滤 + 排序 + 分页的查询和 count 查询的平均耗时
+ */
+@DisplayName("条件下推基准")
+class PushdownLatencyBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private static final int ITERATIONS = 2000;
+
+    private static final String VIEW_SQL = "SELECT b.id, b.owner_id, b.amount, b.status FROM bench_order b WHERE b.status <> 'deleted'";
+
+    private final RequestParse requestParse = new RequestParse(new QueryBeanConfig());
+
+    @BeforeAll
+    void createRows() {
+        createTable("bench_order", "id BIGINT PRIMARY KEY, owner_id BIGINT, amount DECIMAL(10, 2), status VARCHAR(20)",
+                "SELECT X, MOD(X, 2000), MOD(X * 7, 1000), CASE MOD(X, 10) WHEN 0 THEN 'deleted' ELSE 'active' END FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        jdbcTemplate.execute("CREATE INDEX idx_bench_order_owner ON bench_order (owner_id, id)");
+    }
+
+    @Test
+    @DisplayName("派生表与下推的查询耗时")
+    void pushdownLatency() {
+        // 第一轮作为预热
+        run(view(false));
+        run(view(true));
+        // 下推后直接查询基表，不再先物化整个派生表
+        assertTrue(run(view(false)).contains("_tmp"));
+        assertFalse(run(view(true)).contains("_tmp"));
+    }
+
+    private static ViewDescriptor view(boolean pushdown) {
+        return ViewDescriptor.builder()
+                .name("bench_order")
+                .sql(VIEW_SQL)
+                .pushdown(pushdown)
+                .fields(List.of(
+                        ViewFiledDescriptor.builder().rawName("id").clz(Long.class).build(),
+                        ViewFiledDescriptor.builder().rawName("ownerId").clz(Long.class).build(),
+                        ViewFiledDescriptor.builder().rawName("amount").clz(java.math.BigDecimal.class).build(),
+                        ViewFiledDescriptor.builder().rawName("status").clz(String.class).build()))
+                .build();
+    }
+
+    /**
+     * @return 执行的查询 SQL
+     */
+    private String run(ViewDescriptor view) {
+        Random random = new Random(42);
+        long queryNanos = 0;
+        long countNanos = 0;
+        String sql = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            FilterCondition condition = new FilterCondition();
+            condition.setProperty("ownerId");
+            condition.setOperator(FilterOp.EQUAL);
+            condition.setValue((long) random.nextInt(2000));
+            SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+            requestDTO.setFilter(new SearchFilter());
+            requestDTO.getFilter().addCondition(condition);
+            requestDTO.setSort("-id");
+            requestDTO.setFields(List.of("id", "amount"));
+            requestDTO.setLimit(20);
+
+            RequestParseResult result = requestParse.parse(requestDTO, view);
+            sql = result.getQuerySql();
+            long start = System.nanoTime();
+            int rows = namedParameterJdbcTemplate.queryForList(result.getQuerySql(), result.getParams()).size();
+            long middle = System.nanoTime();
+            Long count = namedParameterJdbcTemplate.queryForObject(result.getCountSql(), result.getParams(), Long.class);
+            countNanos += System.nanoTime() - middle;
+            queryNanos += middle - start;
+            assertEquals(Math.min(20, count), rows);
+        }
+        log.info("pushdown={} query avg={} ms count avg={} ms sql={}", view.isPushdown(),
+                String.format("%.3f", queryNanos / 1_000_000.0 / ITERATIONS), String.format("%.3f", countNanos / 1_000_000.0 / ITERATIONS), sql);
+        return sql;
+    }
+}
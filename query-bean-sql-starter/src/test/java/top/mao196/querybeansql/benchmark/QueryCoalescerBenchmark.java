@@ -0,0 +1,90 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.QueryCoalescer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 相同查询合并基准
+ * 在 H2 中准备 200000 行订单数据，32 个线程同时发送相同的聚合查询（模拟看板刷新），
+ * 比较开启和关闭合并时每轮的耗时和实际执行的查询次数
+ */
+@DisplayName("相同查询合并基准")
+class QueryCoalescerBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private static final int THREADS = 32;
+
+    private static final int WARMUP = 3;
+
+    private static final int ROUNDS = 10;
+
+    private static final String SQL = "SELECT status, COUNT(DISTINCT user_id * amount), SUM(amount * amount) FROM \"order\""
+            + " WHERE CAST(id AS VARCHAR) LIKE ? GROUP BY status ORDER BY status";
+
+    @BeforeAll
+    void createRows() {
+        createOrders(ROWS);
+    }
+
+    @Test
+    @DisplayName("并发相同查询的耗时和执行次数")
+    void storm() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Map<String, Object>> expected = jdbcTemplate.queryForList(SQL, "%7%");
+            Map<Boolean, Double> executions = new HashMap<>();
+            for (boolean enabled : new boolean[]{false, true}) {
+                QueryBeanConfig config = new QueryBeanConfig();
+                config.setCoalesceQueries(enabled);
+                QueryCoalescer coalescer = new QueryCoalescer(config);
+                long before = coalescer.stats().executions();
+                measure("coalesce=" + enabled, WARMUP, ROUNDS, i -> {
+                    // 每个线程都得到完整的结果
+                    for (Object rows : round(executor, coalescer, enabled)) {
+                        assertEquals(expected, rows);
+                    }
+                });
+                executions.put(enabled, (coalescer.stats().executions() - before) / (double) (WARMUP + ROUNDS));
+                log.info("coalesce={} executions={} per {} concurrent requests", enabled, executions.get(enabled), THREADS);
+            }
+            // 关闭时每个请求各执行一次，开启后同时到达的请求只执行少数几次
+            assertEquals(THREADS, executions.get(false));
+            assertTrue(executions.get(true) < THREADS / 4.0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Object> round(ExecutorService executor, QueryCoalescer coalescer, boolean enabled) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        QueryCoalescer.Key key = enabled ? new QueryCoalescer.Key(SQL, Map.of("p0", "%7%"), null, null) : null;
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                barrier.await();
+                return coalescer.execute(key, 0, () -> jdbcTemplate.queryForList(SQL, "%7%"));
+            }));
+        }
+        List<Object> results = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+}
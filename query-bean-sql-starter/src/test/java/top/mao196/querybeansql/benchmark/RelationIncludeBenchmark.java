@@ -0,0 +1,73 @@
+package top.mao196.querybeansql.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 关联视图 include 基准
+ * 准备 1000 个用户和 100000 个订单，查询一页 100 个订单及其用户：
+ * 比较逐行按 userId 查询用户（N+1）与 include 一次 IN 查询的平均耗时。
+ * MockMvc 不经过网络，逐行查询的实际耗时更高
+ */
+@DisplayName("关联视图 include 基准")
+class RelationIncludeBenchmark extends AbstractBenchmark {
+
+    private static final int USERS = 1000;
+
+    private static final int ORDERS = 100_000;
+
+    private static final int PAGE = 100;
+
+    private static final int WARMUP = 5;
+
+    private static final int ITERATIONS = 20;
+
+    @BeforeAll
+    void createRows() {
+        createOrders(ORDERS);
+        createUsers(USERS);
+    }
+
+    @Test
+    @DisplayName("一页订单及其用户的平均耗时")
+    void page() throws Exception {
+        byte[] orders = objectMapper.writeValueAsBytes(Map.of("sort", "-amount,id", "limit", PAGE));
+        byte[] include = objectMapper.writeValueAsBytes(Map.of("sort", "-amount,id", "limit", PAGE, "include", List.of("user")));
+
+        // include 加载的用户与逐行查询的用户相同
+        JsonNode included = search("order", include).get("included").get("user");
+        assertEquals(perRow(orders), names(included));
+        assertTrue(included.size() > 1);
+
+        Measurement perRow = measure("per-row", WARMUP, ITERATIONS, i -> perRow(orders));
+        Measurement relation = measure("include", WARMUP, ITERATIONS, i -> search("order", include));
+        // 一次 IN 查询代替逐行请求，分配的内存更少
+        assertTrue(relation.allocatedBytes() < perRow.allocatedBytes());
+    }
+
+    private Set<String> perRow(byte[] orders) throws Exception {
+        List<JsonNode> users = new ArrayList<>();
+        for (JsonNode order : search("order", orders).get("dataList")) {
+            users.add(search("user", objectMapper.writeValueAsBytes(Map.of("filter", Map.of("conditions",
+                    List.of(Map.of("property", "id", "operator", "=", "value", order.get("userId").asLong())))))).get("dataList").get(0));
+        }
+        return names(users);
+    }
+
+    private static Set<String> names(Iterable<JsonNode> users) {
+        Set<String> names = new TreeSet<>();
+        users.forEach(user -> names.add(user.get("name").asText()));
+        return names;
+    }
+}
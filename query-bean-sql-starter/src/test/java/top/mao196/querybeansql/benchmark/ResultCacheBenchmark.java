@@ -0,0 +1,64 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import top.mao196.querybeansql.core.ResultCache;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * search 结果缓存基准
+ * 在订单表中准备 50000 行数据，反复发送相同的聚合类请求（按状态过滤、按金额排序取前 50 行并统计总数），
+ * 比较没有缓存的 order 视图与声明了 cacheTtl 的 order_cached 视图一次请求的平均耗时
+ */
+@DisplayName("search 结果缓存基准")
+class ResultCacheBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 50_000;
+
+    private static final int WARMUP = 50;
+
+    private static final int ITERATIONS = 200;
+
+    /**
+     * order_cached 视图的字段
+     */
+    private static final List<String> FIELDS = List.of("id", "orderNo", "userId", "amount", "status");
+
+    @Autowired
+    private ResultCache resultCache;
+
+    @BeforeAll
+    void createRows() {
+        createOrders(ROWS);
+        resultCache.invalidate("order_cached");
+    }
+
+    @AfterAll
+    void invalidate() {
+        resultCache.invalidate("order_cached");
+    }
+
+    @Test
+    @DisplayName("重复请求的平均耗时")
+    void repeated() throws Exception {
+        Map<String, Object> filter = Map.of("conditions", List.of(Map.of("property", "status", "operator", "=", "value", "active")));
+        byte[] request = objectMapper.writeValueAsBytes(Map.of("fields", FIELDS, "filter", filter, "sort", "-amount,id", "limit", 50, "returnCount", true));
+        assertEquals(rows(search("order", request), FIELDS), rows(search("order_cached", request), FIELDS));
+
+        measure("order", WARMUP, ITERATIONS, i -> search("order", request));
+        ResultCache.ViewStats before = resultCache.stats().views().get("order_cached");
+        measure("order_cached", WARMUP, ITERATIONS, i -> search("order_cached", request));
+        ResultCache.ViewStats after = resultCache.stats().views().get("order_cached");
+
+        // 第一次请求之后全部命中
+        assertEquals(WARMUP + ITERATIONS, after.hits() - before.hits());
+        assertEquals(before.misses(), after.misses());
+    }
+}
@@ -0,0 +1,56 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.ViewRowMapperCache;
+import top.mao196.querybeansql.view.OrderView;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 视图 RowMapper 基准
+ * 在 H2 中准备 10000 行订单数据，一次读取全部行，
+ * 比较每次新建 BeanPropertyRowMapper 与缓存的 ViewRowMapper 映射一页的平均耗时
+ */
+@DisplayName("视图 RowMapper 基准")
+class RowMapperBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private static final int WARMUP = 30;
+
+    private static final int ITERATIONS = 100;
+
+    private static final String SQL = "SELECT id AS id, order_no AS orderNo, user_id AS userId, user_name AS userName,"
+            + " amount AS amount, status AS status, created_at AS createdAt FROM \"order\"";
+
+    private static final List<String> PROPERTIES = List.of("id", "orderNo", "userId", "userName", "amount", "status", "createdAt");
+
+    private final ViewRowMapperCache viewRowMapperCache = new ViewRowMapperCache(new QueryBeanConfig());
+
+    @BeforeAll
+    void createRows() {
+        createOrders(ROWS);
+    }
+
+    @Test
+    @DisplayName("BeanPropertyRowMapper 与 ViewRowMapper 的映射耗时")
+    void mapRows() throws Exception {
+        Supplier<RowMapper<OrderView>> beanPropertyRowMapper = () -> new BeanPropertyRowMapper<>(OrderView.class);
+        Supplier<RowMapper<OrderView>> viewRowMapper = () -> viewRowMapperCache.get(OrderView.class, PROPERTIES);
+        assertEquals(jdbcTemplate.query(SQL, beanPropertyRowMapper.get()), jdbcTemplate.query(SQL, viewRowMapper.get()));
+
+        Measurement bean = measure("BeanPropertyRowMapper", WARMUP, ITERATIONS, i -> jdbcTemplate.query(SQL, beanPropertyRowMapper.get()));
+        Measurement view = measure("ViewRowMapper", WARMUP, ITERATIONS, i -> jdbcTemplate.query(SQL, viewRowMapper.get()));
+        // 不再逐行反射查找属性和转换类型，分配的内存更少
+        assertTrue(view.allocatedBytes() < bean.allocatedBytes());
+    }
+}
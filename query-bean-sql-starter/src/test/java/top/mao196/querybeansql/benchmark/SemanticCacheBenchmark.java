@@ -0,0 +1,76 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import top.mao196.querybeansql.core.ResultCache;
+import top.mao196.querybeansql.core.SemanticCache;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 语义缓存基准
+ * 订单表中准备 20000 行数据，先缓存 status = 'active' 的完整结果（约 6700 行），
+ * 再发送逐步收紧的请求（status = 'active' AND amount &gt; x，按金额倒序取前 50 行并统计总数，x 每次不同，结果缓存不会命中），
+ * 比较查询数据库的 order 视图与由缓存结果推导的 order_cached 视图一次请求的平均耗时
+ */
+@TestPropertySource(properties = "query-bean.semanticCache=true")
+@DisplayName("语义缓存基准")
+class SemanticCacheBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 20_000;
+
+    private static final int WARMUP = 50;
+
+    private static final int ITERATIONS = 200;
+
+    /**
+     * order_cached 视图的字段
+     */
+    private static final List<String> FIELDS = List.of("id", "orderNo", "userId", "amount", "status");
+
+    private static final Map<String, Object> ACTIVE = Map.of("property", "status", "operator", "=", "value", "active");
+
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    private SemanticCache semanticCache;
+
+    @BeforeAll
+    void createRows() {
+        createOrders(ROWS);
+        invalidate();
+    }
+
+    @AfterAll
+    void invalidate() {
+        semanticCache.invalidate("order_cached");
+        resultCache.invalidate("order_cached");
+    }
+
+    @Test
+    @DisplayName("收紧条件的请求的平均耗时")
+    void narrower() throws Exception {
+        search("order_cached", objectMapper.writeValueAsBytes(Map.of("filter", Map.of("conditions", List.of(ACTIVE)))));
+        // 推导出的结果与查询数据库一致
+        assertEquals(rows(search("order", narrow(-1)), FIELDS), rows(search("order_cached", narrow(-1)), FIELDS));
+
+        measure("order", WARMUP, ITERATIONS, i -> search("order", narrow(i)));
+        long hits = semanticCache.stats().hits();
+        measure("order_cached", WARMUP, ITERATIONS, i -> search("order_cached", narrow(i)));
+        assertEquals(WARMUP + ITERATIONS, semanticCache.stats().hits() - hits);
+    }
+
+    private byte[] narrow(int i) throws Exception {
+        Map<String, Object> amount = Map.of("property", "amount", "operator", ">", "value", i / 10.0 + 0.05);
+        return objectMapper.writeValueAsBytes(Map.of("fields", FIELDS, "filter", Map.of("conditions", List.of(ACTIVE, amount)),
+                "sort", "-amount,id", "limit", 50, "returnCount", true));
+    }
+}
@@ -0,0 +1,129 @@
+package top.mao196.querybeansql.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 语句缓存命中率基准
+ * 用一个容量为 250 的 LRU 模拟 JDBC 驱动的 prepared statement 缓存（Connector/J 推荐的 prepStmtCacheSize），
+ * 以 50 种请求形状、随机参数值发起 20000 次解析，统计 SQL 文本的命中率
+ * <p>
+ * 对照组按原来的方式随机生成参数名：查询计划缓存淘汰或关闭后每次请求的 SQL 文本都不同，几乎不命中；
+ * 参数名由条件位置决定后，命中率只受形状数量影响
+ */
+@DisplayName("语句缓存命中率基准")
+class StatementCacheHitRatioBenchmark extends AbstractBenchmark {
+
+    private static final int SHAPES = 50;
+
+    private static final int REQUESTS = 20_000;
+
+    private static final int STATEMENT_CACHE_SIZE = 250;
+
+    @Autowired
+    private ExposedViewRegistry exposedViewRegistry;
+
+    @Test
+    @DisplayName("同一形状的请求生成相同的 SQL 文本")
+    void hitRatio() {
+        ViewDescriptor userView = exposedViewRegistry.findDescriptor("user");
+        // 最多只有 SHAPES 次冷启动未命中
+        double expected = 1 - (double) SHAPES / REQUESTS;
+        // 查询计划缓存容量小于形状数量时计划会被反复淘汰、重新生成参数名
+        for (int planCacheSize : new int[]{1024, SHAPES / 5, 0}) {
+            QueryBeanConfig config = new QueryBeanConfig();
+            config.setPlanCacheSize(planCacheSize);
+            double positional = run(new RequestParse(config), userView);
+            double random = run(randomNames(config), userView);
+            log.info("statement cache hit ratio: planCacheSize={} positional={} random={}",
+                    planCacheSize, String.format("%.4f", positional), String.format("%.4f", random));
+            assertTrue(positional >= expected);
+            assertTrue(random <= positional);
+            if (planCacheSize < SHAPES) {
+                // 计划被淘汰后随机参数名使 SQL 文本变化，语句缓存几乎不命中
+                assertTrue(random < 0.5);
+            }
+        }
+    }
+
+    /**
+     * 按原来的方式以字段名加 5 位随机字符命名参数，作为对照
+     */
+    private static RequestParse randomNames(QueryBeanConfig config) {
+        Random random = new Random(7);
+        return new RequestParse(config) {
+            @Override
+            protected String paramName(String property, String path) {
+                StringBuilder name = new StringBuilder(property).append('_');
+                for (int i = 0; i < 5; i++) {
+                    name.append((char) ('a' + random.nextInt(26)));
+                }
+                return name.toString();
+            }
+        };
+    }
+
+    private double run(RequestParse requestParse, ViewDescriptor view) {
+        Random random = new Random(42);
+        Map<String, Boolean> statementCache = new LinkedHashMap<>(STATEMENT_CACHE_SIZE * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > STATEMENT_CACHE_SIZE;
+            }
+        };
+        int hits = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            SearchEntitiesRequestDTO requestDTO = request(random.nextInt(SHAPES), random);
+            String sql = requestParse.parse(requestDTO, view).getQuerySql();
+            if (statementCache.put(sql, Boolean.TRUE) != null) {
+                hits++;
+            }
+        }
+        return (double) hits / REQUESTS;
+    }
+
+    /**
+     * 按形状编号生成请求，形状相同的请求只有参数值不同
+     */
+    private static SearchEntitiesRequestDTO request(int shape, Random random) {
+        SearchFilter filter = new SearchFilter();
+        filter.addCondition(condition("age", (shape & 1) == 0 ? FilterOp.GREATER : FilterOp.LESSER_OR_EQUAL, random.nextInt(100)));
+        if ((shape & 2) != 0) {
+            filter.addCondition(condition("name", FilterOp.CONTAINS, Integer.toString(random.nextInt(), 36)));
+        }
+        if ((shape & 4) != 0) {
+            FilterCondition group = new FilterCondition();
+            group.setGroup(FilterType.OR);
+            group.getConditions().add(condition("id", FilterOp.IN, List.of(random.nextInt(1000), random.nextInt(1000))));
+            group.getConditions().add(condition("createBy", FilterOp.EQUAL, "user" + random.nextInt(100)));
+            filter.addCondition(group);
+        }
+        SearchEntitiesRequestDTO requestDTO = new SearchEntitiesRequestDTO();
+        requestDTO.setFilter(filter);
+        requestDTO.setSort(switch ((shape >> 3) % 3) {
+            case 0 -> "-age";
+            case 1 -> "+name,-id";
+            default -> null;
+        });
+        if (shape >= 24) {
+            requestDTO.setOffset(random.nextInt(1000));
+        }
+        requestDTO.setLimit(1 + random.nextInt(100));
+        return requestDTO;
+    }
+
+    private static FilterCondition condition(String property, FilterOp operator, Object value) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(property);
+        condition.setOperator(operator);
+        condition.setValue(value);
+        return condition;
+    }
+}
@@ -0,0 +1,152 @@
+package top.mao196.querybeansql.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import top.mao196.querybeansql.config.QueryBeanConfig;
+import top.mao196.querybeansql.core.ExposedViewRegistry;
+import top.mao196.querybeansql.core.JsonRowWriter;
+import top.mao196.querybeansql.core.SearchResult;
+import top.mao196.querybeansql.core.ViewRowMapperCache;
+import top.mao196.querybeansql.view.OrderView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式 search 基准
+ * 在 H2 中准备 10000 行订单数据，分别读取 100、1000、10000 行，
+ * 比较先映射为视图对象再序列化与从 ResultSet 直接写 JSON 的平均耗时、首字节时间和每次请求分配的内存
+ */
+@DisplayName("流式 search 基准")
+class StreamingBenchmark extends AbstractBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private static final int WARMUP = 30;
+
+    private static final int ITERATIONS = 100;
+
+    private static final String SQL = "SELECT id AS id, order_no AS orderNo, user_id AS userId, user_name AS userName,"
+            + " amount AS amount, status AS status, created_at AS createdAt FROM \"order\" ORDER BY id LIMIT ";
+
+    private static final List<String> PROPERTIES = List.of("id", "orderNo", "userId", "userName", "amount", "status", "createdAt");
+
+    @Autowired
+    private ExposedViewRegistry exposedViewRegistry;
+
+    private final ViewRowMapperCache viewRowMapperCache = new ViewRowMapperCache(new QueryBeanConfig());
+
+    private JsonRowWriter rowWriter;
+
+    @BeforeAll
+    void createRows() {
+        rowWriter = JsonRowWriter.of(exposedViewRegistry.findDescriptor("order"), PROPERTIES, objectMapper);
+        createOrders(ROWS);
+    }
+
+    @Test
+    @DisplayName("先映射后序列化与直接写 JSON 的耗时和内存")
+    void stream() throws Exception {
+        ByteArrayOutputStream materialized = new ByteArrayOutputStream();
+        materialize(100, materialized);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        stream(100, streamed);
+        assertEquals(objectMapper.readTree(materialized.toByteArray()), objectMapper.readTree(streamed.toByteArray()));
+
+        for (int rows : new int[]{100, 1_000, 10_000}) {
+            Measurement materialize = run(rows, true);
+            Measurement stream = run(rows, false);
+            // 不创建视图对象列表，分配的内存更少
+            assertTrue(stream.allocatedBytes() < materialize.allocatedBytes());
+        }
+    }
+
+    private Measurement run(int rows, boolean materialize) throws Exception {
+        String name = String.format("rows=%d %s", rows, materialize ? "materialize" : "stream");
+        FirstByteOutputStream out = new FirstByteOutputStream();
+        long[] firstByte = new long[1];
+        Measurement measurement = measure(name, WARMUP, ITERATIONS, i -> {
+            long begin = System.nanoTime();
+            out.firstByte = 0;
+            write(rows, materialize, out);
+            if (i >= WARMUP) {
+                firstByte[0] += out.firstByte - begin;
+            }
+        });
+        log.info("{} first byte={} ms", name, String.format("%.3f", firstByte[0] / 1_000_000.0 / ITERATIONS));
+        return measurement;
+    }
+
+    private void write(int rows, boolean materialize, OutputStream out) throws IOException {
+        if (materialize) {
+            materialize(rows, out);
+        } else {
+            stream(rows, out);
+        }
+    }
+
+    private void materialize(int rows, OutputStream out) throws IOException {
+        SearchResult<OrderView> searchResult = new SearchResult<>();
+        searchResult.setDataList(jdbcTemplate.query(SQL + rows, viewRowMapperCache.get(OrderView.class, PROPERTIES)));
+        objectMapper.writeValue(out, searchResult);
+    }
+
+    private void stream(int rows, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            objectMapper.getSerializationConfig().initialize(generator);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("dataList");
+            jdbcTemplate.query(SQL + rows, (ResultSetExtractor<Void>) rs -> {
+                try {
+                    while (rs.next()) {
+                        rowWriter.write(rs, generator);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+            generator.writeEndArray();
+            generator.writeObjectField("count", null);
+            generator.writeObjectField("countEstimated", null);
+            generator.writeObjectField("hasMore", null);
+            generator.writeObjectField("nextCursor", null);
+            generator.writeObjectField("included", null);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * 丢弃写入的内容，记录第一次写入的时间
+     */
+    private static class FirstByteOutputStream extends OutputStream {
+
+        private long firstByte;
+
+        @Override
+        public void write(int b) {
+            mark();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            mark();
+        }
+
+        private void mark() {
+            if (firstByte == 0) {
+                firstByte = System.nanoTime();
+            }
+        }
+    }
+}
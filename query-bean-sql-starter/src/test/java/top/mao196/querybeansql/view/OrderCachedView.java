@@ -0,0 +1,63 @@
+package top.mao196.querybeansql.view;
+
+import top.mao196.querybeansql.annotation.ViewExposed;
+
+import java.math.BigDecimal;
+
+/**
+ * 订单视图 - 用于测试 search 结果缓存
+ * 测试代码没有启用 Lombok，getter / setter 手写
+ */
+@ViewExposed(
+        sql = "SELECT id, order_no, user_id, amount, status FROM \"order\"",
+        name = "order_cached",
+        desc = "订单视图（测试结果缓存）",
+        cacheTtl = 60
+)
+public class OrderCachedView {
+    private Long id;
+    private String orderNo;
+    private Long userId;
+    private BigDecimal amount;
+    private String status;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOrderNo() {
+        return orderNo;
+    }
+
+    public void setOrderNo(String orderNo) {
+        this.orderNo = orderNo;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -23,6 +23,8 @@ CREATE TABLE IF NOT EXISTS "order"
 
 DELETE FROM "user";
 DELETE FROM "order";
+ALTER TABLE "user" ALTER COLUMN id RESTART WITH 1;
+ALTER TABLE "order" ALTER COLUMN id RESTART WITH 1;
 
 INSERT INTO "user" (name, age, birth, balance, create_time, create_by) VALUES ('susan', 28, '1997-07-15', 32142.39, CURRENT_TIMESTAMP, 'admin');
 INSERT INTO "user" (name, age, birth, balance, create_time, create_by) VALUES ('alice', 24, '2001-07-12', 3123.00, CURRENT_TIMESTAMP, 'admin');